@@ -116,6 +116,26 @@ public class DbCompareCommand extends AbstractCommandLauncher {
         if (!StringUtils.isEmpty(continueAfterError)) {
             config.setContinueAfterError(Boolean.parseBoolean(continueAfterError));
         }
+        String hashRanges = getOptionValue(OPTION_HASH_RANGES, "useHashRanges", line, config);
+        if (!StringUtils.isEmpty(hashRanges)) {
+            config.setUseHashRanges(Boolean.parseBoolean(hashRanges));
+        }
+        String hashRangeRows = getOptionValue(OPTION_HASH_RANGE_ROWS, "hashRangeRowCount", line, config);
+        if (!StringUtils.isEmpty(hashRangeRows)) {
+            try {
+                config.setHashRangeRowCount(Long.parseLong(hashRangeRows.trim()));
+            } catch (NumberFormatException ex) {
+                throw new RuntimeException("Failed to parse arg [" + hashRangeRows + "] ", ex);
+            }
+        }
+        String threads = getOptionValue(OPTION_THREADS, "threadCount", line, config);
+        if (!StringUtils.isEmpty(threads)) {
+            try {
+                config.setThreadCount(Integer.parseInt(threads.trim()));
+            } catch (NumberFormatException ex) {
+                throw new RuntimeException("Failed to parse arg [" + threads + "] ", ex);
+            }
+        }
         ISymmetricEngine sourceEngine = new ClientSymmetricEngine(sourceProperies);
         ISymmetricEngine targetEngine = new ClientSymmetricEngine(targetProperties);
         DbCompare dbCompare = new DbCompare(sourceEngine, targetEngine, config);
@@ -169,6 +189,9 @@ public class DbCompareCommand extends AbstractCommandLauncher {
     private static final String OPTION_DATE_TIME_FORMAT = "date-time-format";
     private static final String OPTION_CONFIG_PROPERTIES = "config";
     private static final String OPTION_CONTINUE_AFTER_ERROR = "continue-after-error";
+    private static final String OPTION_HASH_RANGES = "hash-ranges";
+    private static final String OPTION_HASH_RANGE_ROWS = "hash-range-rows";
+    private static final String OPTION_THREADS = "threads";
 
     @Override
     protected void printHelp(CommandLine cmd, Options options) {
@@ -190,6 +213,9 @@ public class DbCompareCommand extends AbstractCommandLauncher {
         addOption(options, null, OPTION_DATE_TIME_FORMAT, true);
         addOption(options, null, OPTION_CONFIG_PROPERTIES, true);
         addOption(options, null, OPTION_CONTINUE_AFTER_ERROR, true);
+        addOption(options, null, OPTION_HASH_RANGES, true);
+        addOption(options, null, OPTION_HASH_RANGE_ROWS, true);
+        addOption(options, null, OPTION_THREADS, true);
     }
 
     protected Map<String, String> parseWhereClauses(CommandLine line) {
@@ -26,17 +26,24 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringWriter;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.time.FastDateFormat;
 import org.jumpmind.symmetric.db.h2.H2Trigger;
 import org.jumpmind.symmetric.db.hsqldb.HsqlDbTrigger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * An implementation of logic that can be used in Java database triggers to capture data for SymmetricDS.
@@ -52,9 +59,41 @@ abstract public class AbstractEmbeddedTrigger {
     protected static final String KEY_CONDITION_SQL = "CONDITION_SQL";
     protected static final String KEY_INSERT_DATA_SQL = "INSERT_DATA_SQL";
     protected static final String TEMPLATE_TABLE_SUFFIX = "_CONFIG";
+    /**
+     * Set this system property to false to capture with literal SQL instead of cached prepared statements
+     */
+    public static final String SYSPROP_PREPARE_STATEMENTS = "symmetric.embedded.trigger.prepare.statements";
+    protected static final int STATEMENT_CACHE_SIZE = 32;
+    protected static final long PREPARE_RETRY_MILLIS = 60000;
+    protected static final Pattern WHERE_CLAUSE = Pattern.compile("(?is)\\swhere\\s(.*)");
+    protected final Logger log = LoggerFactory.getLogger(getClass());
     protected String triggerName;
     protected String schemaName;
     protected Map<String, String> templates = null;
+    protected boolean conditionAlwaysTrue;
+    protected boolean prepareStatements = !"false".equalsIgnoreCase(System.getProperty(SYSPROP_PREPARE_STATEMENTS));
+    /**
+     * When the statements last failed to prepare, literal SQL is used until this time and then preparing is tried again
+     */
+    protected volatile long prepareRetryTime;
+    /**
+     * The condition and insert statements prepared for each connection (or session) the trigger fires on. The statements
+     * of the least recently used key are closed when it is evicted, and the statements of keys that are closed are closed
+     * and removed whenever statements are prepared for a new key. The keys are not weak references because the statements
+     * hold on to their connection.
+     */
+    protected final Map<Object, PreparedStatement[]> statementCache = new LinkedHashMap<Object, PreparedStatement[]>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, PreparedStatement[]> eldest) {
+            if (size() > STATEMENT_CACHE_SIZE) {
+                closeStatements(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
 
     /**
      * This method should be called by the database engine once when initializing the trigger.
@@ -72,7 +111,14 @@ abstract public class AbstractEmbeddedTrigger {
         if (this.templates == null) {
             this.schemaName = schemaName;
             this.triggerName = triggerName;
-            this.templates = getTemplates(conn);
+            Map<String, String> configTemplates = getTemplates(conn);
+            for (Map.Entry<String, String> entry : configTemplates.entrySet()) {
+                if (entry.getValue() != null) {
+                    entry.setValue(prepareTemplateSql(entry.getValue()));
+                }
+            }
+            this.conditionAlwaysTrue = isAlwaysTrue(configTemplates.get(KEY_CONDITION_SQL));
+            this.templates = configTemplates;
         }
         if (templates == null || templates.size() == 0) {
             throw new IllegalStateException(String.format(
@@ -93,26 +139,199 @@ abstract public class AbstractEmbeddedTrigger {
      *             if the operation must be undone
      */
     public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        PreparedStatement[] statements = isPrepareStatements() ? getPreparedStatements(conn) : null;
+        if (statements != null) {
+            firePrepared(statements, oldRow, newRow);
+        } else {
+            fireLiteral(conn, oldRow, newRow);
+        }
+    }
+
+    protected void firePrepared(PreparedStatement[] statements, Object[] oldRow, Object[] newRow) throws SQLException {
+        String sql = null;
+        try {
+            Object[] values = getVirtualTableValues(oldRow, newRow);
+            boolean capture = true;
+            if (statements[0] != null) {
+                sql = templates.get(KEY_CONDITION_SQL);
+                bindVirtualTableValues(statements[0], values);
+                try (ResultSet rs = statements[0].executeQuery()) {
+                    capture = rs.next() && rs.getInt(1) > 0;
+                }
+            }
+            if (capture) {
+                sql = templates.get(KEY_INSERT_DATA_SQL);
+                bindVirtualTableValues(statements[1], values);
+                statements[1].executeUpdate();
+            }
+        } catch (SQLException ex) {
+            logFailure(sql, ex);
+            throw ex;
+        }
+    }
+
+    protected void fireLiteral(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
         String sql = null;
         try (Statement stmt = conn.createStatement()) {
-            sql = fillVirtualTableSql(templates.get(KEY_CONDITION_SQL), oldRow, newRow);
-            ResultSet rs = stmt.executeQuery(sql);
-            if (rs.next() && rs.getInt(1) > 0) {
-                rs.close();
+            boolean capture = true;
+            if (!conditionAlwaysTrue) {
+                sql = fillVirtualTableSql(templates.get(KEY_CONDITION_SQL), oldRow, newRow);
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    capture = rs.next() && rs.getInt(1) > 0;
+                }
+            }
+            if (capture) {
                 sql = fillVirtualTableSql(templates.get(KEY_INSERT_DATA_SQL), oldRow, newRow);
                 stmt.executeUpdate(sql);
             }
         } catch (SQLException ex) {
-            System.err.println("This sql failed: " + sql);
-            Throwable rootException = ex;
-            while (rootException.getCause() != null && !rootException.getCause().equals(ex)) {
-                rootException = ex.getCause();
-            }
-            rootException.printStackTrace();
+            logFailure(sql, ex);
             throw ex;
         }
     }
 
+    protected void logFailure(String sql, SQLException ex) {
+        System.err.println("This sql failed: " + sql);
+        Throwable rootException = ex;
+        while (rootException.getCause() != null && !rootException.getCause().equals(ex)) {
+            rootException = ex.getCause();
+        }
+        rootException.printStackTrace();
+    }
+
+    protected boolean isPrepareStatements() {
+        return prepareStatements && (prepareRetryTime == 0 || System.currentTimeMillis() >= prepareRetryTime);
+    }
+
+    /**
+     * The key that prepared statements are cached under. Embedded databases that hand the trigger a new connection object
+     * for every row can return something that lives as long as the database session.
+     */
+    protected Object getStatementCacheKey(Connection conn) {
+        return conn;
+    }
+
+    /**
+     * Checks if the connection (or session) that statements are cached under has been closed
+     */
+    protected boolean isStatementCacheKeyClosed(Object key) {
+        try {
+            return key instanceof Connection && ((Connection) key).isClosed();
+        } catch (SQLException ex) {
+            return true;
+        }
+    }
+
+    /**
+     * Returns the cached condition and insert statements for the connection, preparing them on first use. The condition
+     * statement is null when the condition is always true. Returns null if the statements could not be prepared, in which
+     * case the trigger captures with literal SQL and tries to prepare again after {@link #PREPARE_RETRY_MILLIS}.
+     */
+    protected PreparedStatement[] getPreparedStatements(Connection conn) {
+        Object key = getStatementCacheKey(conn);
+        PreparedStatement[] statements = null;
+        synchronized (statementCache) {
+            statements = statementCache.get(key);
+        }
+        if (statements == null) {
+            String sql = null;
+            try {
+                statements = new PreparedStatement[2];
+                if (!conditionAlwaysTrue) {
+                    sql = templates.get(KEY_CONDITION_SQL);
+                    statements[0] = conn.prepareStatement(sql);
+                }
+                sql = templates.get(KEY_INSERT_DATA_SQL);
+                statements[1] = conn.prepareStatement(sql);
+            } catch (SQLException ex) {
+                log.warn("The '{}' SymmetricDS trigger could not prepare its sql and will use literal sql for {} ms.  This sql failed: {}",
+                        triggerName, PREPARE_RETRY_MILLIS, sql, ex);
+                prepareRetryTime = System.currentTimeMillis() + PREPARE_RETRY_MILLIS;
+                closeStatements(statements);
+                return null;
+            }
+            prepareRetryTime = 0;
+            synchronized (statementCache) {
+                Iterator<Map.Entry<Object, PreparedStatement[]>> iterator = statementCache.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<Object, PreparedStatement[]> entry = iterator.next();
+                    if (isStatementCacheKeyClosed(entry.getKey())) {
+                        closeStatements(entry.getValue());
+                        iterator.remove();
+                    }
+                }
+                statementCache.put(key, statements);
+            }
+        }
+        return statements;
+    }
+
+    protected void closeStatements() {
+        synchronized (statementCache) {
+            for (PreparedStatement[] statements : statementCache.values()) {
+                closeStatements(statements);
+            }
+            statementCache.clear();
+        }
+    }
+
+    protected void closeStatements(PreparedStatement[] statements) {
+        for (PreparedStatement statement : statements) {
+            if (statement != null) {
+                try {
+                    statement.close();
+                } catch (SQLException ex) {
+                }
+            }
+        }
+    }
+
+    /**
+     * The values bound to the virtual table parameters, new row columns first followed by the old row columns
+     */
+    protected Object[] getVirtualTableValues(Object[] oldRow, Object[] newRow) {
+        int columnCount = oldRow != null ? oldRow.length : newRow.length;
+        Object[] values = new Object[columnCount * 2];
+        for (int i = 0; i < columnCount; i++) {
+            values[i] = newRow != null ? toVirtualTableValue(newRow[i]) : null;
+            values[columnCount + i] = oldRow != null ? toVirtualTableValue(oldRow[i]) : null;
+        }
+        return values;
+    }
+
+    protected void bindVirtualTableValues(PreparedStatement ps, Object[] values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            ps.setObject(i + 1, values[i]);
+        }
+    }
+
+    /**
+     * Gives the embedded database a chance to change a template once before it is used to capture data
+     */
+    protected String prepareTemplateSql(String sql) {
+        return sql;
+    }
+
+    /**
+     * Checks if the where clause of the condition sql, which follows the virtual table parameters, is only made up of
+     * always true expressions so the condition does not need to be queried.
+     */
+    protected boolean isAlwaysTrue(String conditionSql) {
+        if (conditionSql == null) {
+            return false;
+        }
+        Matcher matcher = WHERE_CLAUSE.matcher(conditionSql.substring(conditionSql.lastIndexOf('?') + 1));
+        if (!matcher.find()) {
+            return false;
+        }
+        for (String expression : matcher.group(1).split("(?i)\\s+and\\s+")) {
+            if (!expression.replaceAll("[\\s()]", "").equals("1=1")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     protected String fillVirtualTableSql(String sql, Object[] oldRow, Object[] newRow) throws SQLException {
         int columnCount = oldRow != null ? oldRow.length : newRow.length;
         StringBuilder out = new StringBuilder();
@@ -137,45 +356,45 @@ abstract public class AbstractEmbeddedTrigger {
     }
 
     protected Object appendVirtualTableStringValue(Object value, StringBuilder out) {
+        value = toVirtualTableValue(value);
         if (value == null) {
             out.append("null");
-        } else if (value instanceof String || value instanceof Reader) {
-            if (value instanceof Reader) {
-                try {
-                    value = readStringAndClose((Reader) value, -1);
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+        } else {
             out.append("'");
             out.append(escapeString(value));
             out.append("'");
-        } else if (value instanceof Number) {
-            out.append(value);
-        } else if (value instanceof Boolean) {
-            out.append(value);
+        }
+        return value;
+    }
+
+    /**
+     * Converts a column value to what is selected from the virtual table. Character and binary streams are read, binary
+     * values are hex encoded and dates are formatted.
+     */
+    protected Object toVirtualTableValue(Object value) {
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean) {
+            return value;
+        } else if (value instanceof Reader) {
+            try {
+                return readStringAndClose((Reader) value, -1);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
         } else if (value instanceof InputStream) {
-            out.append("'");
             try {
-                value = convertBytesToString(readBytesAndClose((InputStream) value, -1));
+                return convertBytesToString(readBytesAndClose((InputStream) value, -1));
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
-            out.append(escapeString(value));
-            out.append("'");
         } else if (value instanceof Date) {
-            out.append("'");
-            out.append(DATE_FORMATTER.format(value));
-            out.append("'");
+            return DATE_FORMATTER.format(value);
         } else if (value instanceof byte[]) {
-            out.append("'");
-            value = convertBytesToString((byte[]) value, ((byte[]) value).length);
-            out.append(escapeString(value));
-            out.append("'");
+            return convertBytesToString((byte[]) value, ((byte[]) value).length);
         } else {
             throw new IllegalStateException(String.format("Type not supported: %s", value.getClass().getName()));
         }
-        return value;
     }
 
     protected String readStringAndClose(Reader paramReader, int paramInt) throws IOException {
@@ -23,6 +23,8 @@ package org.jumpmind.symmetric.db.h2;
 import java.sql.Connection;
 import java.sql.SQLException;
 
+import org.h2.engine.SessionInterface;
+import org.h2.jdbc.JdbcConnection;
 import org.jumpmind.symmetric.db.AbstractEmbeddedTrigger;
 
 public class H2Trigger extends AbstractEmbeddedTrigger implements org.h2.api.Trigger {
@@ -51,15 +53,34 @@ public class H2Trigger extends AbstractEmbeddedTrigger implements org.h2.api.Tri
     }
 
     public void close() throws SQLException {
+        closeStatements();
     }
 
     public void remove() throws SQLException {
+        closeStatements();
     }
 
     @Override
-    protected String fillVirtualTableSql(String sql, Object[] oldRow, Object[] newRow)
-            throws SQLException {
-        sql = sql.replace(TRANSACTION_FUNCTION, TRANSACTION_FUNCTION + " || '-" + startupTime + "'");
-        return super.fillVirtualTableSql(sql, oldRow, newRow);
+    protected String prepareTemplateSql(String sql) {
+        return sql.replace(TRANSACTION_FUNCTION, TRANSACTION_FUNCTION + " || '-" + startupTime + "'");
+    }
+
+    /**
+     * H2 passes a new connection object for the session every time a trigger fires, so statements are cached by session
+     */
+    @Override
+    protected Object getStatementCacheKey(Connection conn) {
+        if (conn instanceof JdbcConnection) {
+            return ((JdbcConnection) conn).getSession();
+        }
+        return conn;
+    }
+
+    @Override
+    protected boolean isStatementCacheKeyClosed(Object key) {
+        if (key instanceof SessionInterface) {
+            return ((SessionInterface) key).isClosed();
+        }
+        return super.isStatementCacheKeyClosed(key);
     }
 }
\ No newline at end of file
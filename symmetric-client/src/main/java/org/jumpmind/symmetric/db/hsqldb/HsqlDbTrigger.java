@@ -84,25 +84,28 @@ public class HsqlDbTrigger extends AbstractEmbeddedTrigger implements Trigger {
         return c;
     }
 
+    /**
+     * A connection is opened for every row, so there is nothing to gain from preparing statements
+     */
     @Override
-    protected Object appendVirtualTableStringValue(Object value, StringBuilder out) {
+    protected boolean isPrepareStatements() {
+        return false;
+    }
+
+    @Override
+    protected Object toVirtualTableValue(Object value) {
         if (value != null && (value.getClass().getName().equals("org.hsqldb.types.Binary")
                 || value.getClass().getName().equals("org.hsqldb.types.BinaryData"))) {
-            out.append("'");
-            Method getBytes;
             try {
-                getBytes = value.getClass().getMethod("getBytes");
-                value = HsqlDbFunctions.encodeBase64((byte[]) getBytes.invoke(value));
-                out.append(escapeString(value));
-                out.append("'");
+                Method getBytes = value.getClass().getMethod("getBytes");
+                return HsqlDbFunctions.encodeBase64((byte[]) getBytes.invoke(value));
             } catch (RuntimeException ex) {
                 throw ex;
             } catch (Exception ex) {
                 throw new RuntimeException(ex);
             }
         } else {
-            return super.appendVirtualTableStringValue(value, out);
+            return super.toVirtualTableValue(value);
         }
-        return value;
     }
 }
\ No newline at end of file
@@ -28,6 +28,7 @@ import java.util.List;
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.SymmetricException;
+import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.model.JobDefinition;
 import org.jumpmind.symmetric.service.impl.AbstractService;
 import org.slf4j.Logger;
@@ -44,6 +45,7 @@ public class JobManager extends AbstractService implements IJobManager {
     private ISymmetricEngine engine;
     private JobCreator jobCreator = new JobCreator();
     private boolean started = false;
+    private LowLatencyScheduler lowLatencyScheduler;
 
     public JobManager(ISymmetricEngine engine) {
         super(engine.getParameterService(), engine.getSymmetricDialect());
@@ -102,6 +104,10 @@ public class JobManager extends AbstractService implements IJobManager {
                 log.info("Job {} not configured for auto start", job.getName());
             }
         }
+        if (engine.getParameterService().is(ParameterConstants.LOW_LATENCY_ENABLED)) {
+            lowLatencyScheduler = new LowLatencyScheduler(engine, this);
+            lowLatencyScheduler.start();
+        }
         started = true;
     }
 
@@ -130,6 +136,10 @@ public class JobManager extends AbstractService implements IJobManager {
 
     @Override
     public synchronized void stopJobs() {
+        if (lowLatencyScheduler != null) {
+            lowLatencyScheduler.stop();
+            lowLatencyScheduler = null;
+        }
         if (jobs != null) {
             for (IJob job : jobs) {
                 job.stop();
@@ -147,6 +157,13 @@ public class JobManager extends AbstractService implements IJobManager {
         }
     }
 
+    /**
+     * The scheduler that routes and pushes as soon as there is work when {@link ParameterConstants#LOW_LATENCY_ENABLED} is set, or null
+     */
+    public LowLatencyScheduler getLowLatencyScheduler() {
+        return lowLatencyScheduler;
+    }
+
     @Override
     public List<IJob> getJobs() {
         List<IJob> sortedJobs = sortJobs(jobs);
@@ -0,0 +1,409 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.job;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.common.Constants;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.load.ILoadSyncLifecycleListener;
+import org.jumpmind.symmetric.model.AbstractBatch.Status;
+import org.jumpmind.symmetric.model.BatchAck;
+import org.jumpmind.symmetric.model.Channel;
+import org.jumpmind.symmetric.model.IncomingBatch;
+import org.jumpmind.symmetric.model.NodeCommunication;
+import org.jumpmind.symmetric.model.NodeCommunication.CommunicationType;
+import org.jumpmind.symmetric.model.OutgoingBatch;
+import org.jumpmind.symmetric.model.RemoteNodeStatus;
+import org.jumpmind.symmetric.model.RemoteNodeStatuses;
+import org.jumpmind.symmetric.route.IRoutingListener;
+import org.jumpmind.symmetric.service.ClusterConstants;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.jumpmind.symmetric.transport.IAcknowledgeEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * Runs routing and pushing as soon as there is work for them when {@link ParameterConstants#LOW_LATENCY_ENABLED} is set, instead of waiting for the next
+ * run of the {@link RouterJob} and {@link PushJob}. Routing is requested when the maximum data id of the data table changes or when an incoming batch is
+ * loaded. When routing commits batches, a push is requested for each node and channel queue that the batches were routed to. Requests that arrive while
+ * routing or pushing is running, or within {@link ParameterConstants#LOW_LATENCY_MIN_PERIOD_MS} of the last run, are combined into one run. Routing and
+ * pushing run through the {@link RouterJob} and {@link PushJob}, so they only happen while their jobs are started and not paused, never at the same
+ * time as a scheduled run, and pushes are limited by the push thread count like any other push. A push request that cannot run is retried with
+ * backoff a few times and then left to the scheduled push.
+ * <p>
+ * The time from the capture of the first data in each batch to the acknowledgement of the batch is recorded for each channel, and percentiles are logged
+ * every {@link ParameterConstants#LOW_LATENCY_REPORT_PERIOD_MS}. The capture time comes from the database clock, so the latency includes any difference
+ * between the database clock and the clock of this server.
+ */
+public class LowLatencyScheduler implements Runnable, IRoutingListener, IAcknowledgeEventListener, ILoadSyncLifecycleListener {
+    protected static final long MAX_TRACKED_BATCH_AGE_MS = 24 * 60 * 60 * 1000l;
+    protected static final int MAX_PUSH_ATTEMPTS = 5;
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    protected ISymmetricEngine engine;
+    protected IJobManager jobManager;
+    protected IParameterService parameterService;
+    protected Thread thread;
+    protected volatile boolean stopped;
+    protected final Object signal = new Object();
+    protected AtomicBoolean routeRequested = new AtomicBoolean();
+    protected Set<String> pushRequested = ConcurrentHashMap.newKeySet();
+    protected Map<String, Integer> pushAttempts = new HashMap<String, Integer>();
+    protected long pushBackoffMs;
+    protected ConcurrentMap<String, TrackedBatch> trackedBatches = new ConcurrentHashMap<String, TrackedBatch>();
+    protected ConcurrentMap<String, ChannelLatency> latencyByChannel = new ConcurrentHashMap<String, ChannelLatency>();
+    protected long lastMaxDataId = -1;
+    protected long lastCaptureCheckTime;
+    protected long lastRouteTime;
+    protected long lastPushTime;
+    protected long lastReportTime = System.currentTimeMillis();
+
+    public LowLatencyScheduler(ISymmetricEngine engine, IJobManager jobManager) {
+        this.engine = engine;
+        this.jobManager = jobManager;
+        this.parameterService = engine.getParameterService();
+    }
+
+    public synchronized void start() {
+        if (thread == null) {
+            stopped = false;
+            engine.getExtensionService().addExtensionPoint(this);
+            thread = new Thread(this, parameterService.getEngineName().toLowerCase() + "-low-latency");
+            thread.setDaemon(true);
+            thread.start();
+            log.info("Started low latency routing and pushing");
+        }
+    }
+
+    public synchronized void stop() {
+        if (thread != null) {
+            stopped = true;
+            engine.getExtensionService().removeExtensionPoint(this);
+            thread.interrupt();
+            thread = null;
+            log.info("Stopped low latency routing and pushing");
+        }
+    }
+
+    public void run() {
+        MDC.put("engineName", engine.getEngineName());
+        while (!stopped) {
+            try {
+                waitForWork();
+                long now = System.currentTimeMillis();
+                long minPeriodMs = parameterService.getLong(ParameterConstants.LOW_LATENCY_MIN_PERIOD_MS, 200);
+                if (now - lastCaptureCheckTime >= parameterService.getLong(ParameterConstants.LOW_LATENCY_CAPTURE_POLL_MS, 500)) {
+                    lastCaptureCheckTime = now;
+                    checkForCapturedData();
+                }
+                if (routeRequested.get() && now - lastRouteTime >= minPeriodMs) {
+                    route();
+                }
+                if (!pushRequested.isEmpty() && now - lastPushTime >= minPeriodMs + pushBackoffMs) {
+                    push();
+                }
+                if (now - lastReportTime >= parameterService.getLong(ParameterConstants.LOW_LATENCY_REPORT_PERIOD_MS, 60000)) {
+                    lastReportTime = now;
+                    report();
+                }
+            } catch (InterruptedException ex) {
+                break;
+            } catch (Throwable ex) {
+                log.error("Failed to run low latency routing and pushing", ex);
+                try {
+                    Thread.sleep(parameterService.getLong(ParameterConstants.LOW_LATENCY_CAPTURE_POLL_MS, 500));
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait until the next capture check is due or until routing or pushing has been requested and the minimum period since it last ran has passed
+     */
+    protected void waitForWork() throws InterruptedException {
+        long minPeriodMs = parameterService.getLong(ParameterConstants.LOW_LATENCY_MIN_PERIOD_MS, 200);
+        long capturePollMs = parameterService.getLong(ParameterConstants.LOW_LATENCY_CAPTURE_POLL_MS, 500);
+        synchronized (signal) {
+            long now = System.currentTimeMillis();
+            long waitMs = lastCaptureCheckTime + capturePollMs - now;
+            if (routeRequested.get()) {
+                waitMs = Math.min(waitMs, lastRouteTime + minPeriodMs - now);
+            }
+            if (!pushRequested.isEmpty()) {
+                waitMs = Math.min(waitMs, lastPushTime + minPeriodMs + pushBackoffMs - now);
+            }
+            if (waitMs > 0) {
+                signal.wait(waitMs);
+            }
+        }
+    }
+
+    protected void signal() {
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    public void requestRoute() {
+        if (routeRequested.compareAndSet(false, true)) {
+            signal();
+        }
+    }
+
+    public void requestPush(String nodeId, String queue) {
+        if (pushRequested.add(nodeId + "-" + queue)) {
+            signal();
+        }
+    }
+
+    protected void checkForCapturedData() {
+        long maxDataId = engine.getDataService().findMaxDataId();
+        if (maxDataId != lastMaxDataId) {
+            lastMaxDataId = maxDataId;
+            routeRequested.set(true);
+        }
+    }
+
+    protected void route() {
+        IJob job = jobManager.getJob(ClusterConstants.ROUTE);
+        if (isAvailable(job)) {
+            lastRouteTime = System.currentTimeMillis();
+            routeRequested.set(false);
+            job.invoke(false);
+        } else if (job == null || !job.isRunning()) {
+            routeRequested.set(false);
+        } else {
+            lastRouteTime = System.currentTimeMillis();
+        }
+    }
+
+    protected void push() {
+        IJob job = jobManager.getJob(ClusterConstants.PUSH);
+        if (isAvailable(job)) {
+            lastPushTime = System.currentTimeMillis();
+            Set<String> pushable = new HashSet<String>();
+            for (NodeCommunication nodeCommunication : engine.getNodeCommunicationService().list(CommunicationType.PUSH)) {
+                pushable.add(nodeCommunication.getIdentifier());
+            }
+            pushRequested.retainAll(pushable);
+            pushAttempts.keySet().retainAll(pushRequested);
+            if (!pushRequested.isEmpty()) {
+                if (job instanceof PushJob) {
+                    Set<String> requested = new HashSet<String>(pushRequested);
+                    RemoteNodeStatuses statuses = ((PushJob) job).invoke(requested);
+                    pushed(requested, statuses);
+                } else {
+                    pushRequested.clear();
+                    job.invoke(false);
+                }
+            }
+        } else if (job == null || !job.isRunning()) {
+            pushRequested.clear();
+            pushAttempts.clear();
+        } else {
+            lastPushTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Requests that were pushed are done, even when the push failed, because the push job retries them on its schedule. A request that could not be
+     * pushed, because no push thread was available or its minimum period had not passed, is retried with a delay that doubles each time nothing could
+     * be pushed, and is dropped after {@link #MAX_PUSH_ATTEMPTS} attempts and left to the push job.
+     */
+    protected void pushed(Set<String> requested, RemoteNodeStatuses statuses) {
+        boolean isAnyPushed = false;
+        if (statuses != null) {
+            for (RemoteNodeStatus status : statuses) {
+                String id = status.getNodeId() + "-" + status.getQueue();
+                if (requested.remove(id)) {
+                    pushRequested.remove(id);
+                    pushAttempts.remove(id);
+                    isAnyPushed = true;
+                }
+            }
+        }
+        for (String id : requested) {
+            Integer attempts = pushAttempts.get(id);
+            attempts = attempts == null ? 1 : attempts + 1;
+            if (attempts >= MAX_PUSH_ATTEMPTS) {
+                log.debug("Could not push to {} after {} attempts, so leaving it to the push job", id, attempts);
+                pushRequested.remove(id);
+                pushAttempts.remove(id);
+            } else {
+                pushAttempts.put(id, attempts);
+            }
+        }
+        long minPeriodMs = parameterService.getLong(ParameterConstants.LOW_LATENCY_MIN_PERIOD_MS, 200);
+        pushBackoffMs = isAnyPushed || requested.isEmpty() ? 0 : Math.max(minPeriodMs, pushBackoffMs * 2);
+    }
+
+    /**
+     * A job is available when it is started and not paused or running. When it is running, the request is kept and retried after the minimum period
+     * instead of spinning until the job is done.
+     */
+    protected boolean isAvailable(IJob job) {
+        return job != null && job.isStarted() && !job.isPaused() && !job.isRunning();
+    }
+
+    @Override
+    public void batchesRouted(List<OutgoingBatch> batches) {
+        Map<String, Channel> channels = engine.getConfigurationService().getChannels(false);
+        int maxTrackedBatches = parameterService.getInt(ParameterConstants.LOW_LATENCY_MAX_TRACKED_BATCHES, 10000);
+        for (OutgoingBatch batch : batches) {
+            if (!Constants.UNROUTED_NODE_ID.equals(batch.getNodeId()) && batch.getStatus() == Status.NE) {
+                Channel channel = channels.get(batch.getChannelId());
+                if (channel != null) {
+                    pushRequested.add(batch.getNodeId() + "-" + channel.getQueue());
+                }
+                if (batch.getDataCreateTime() != null && trackedBatches.size() < maxTrackedBatches) {
+                    trackedBatches.put(batch.getNodeBatchId(), new TrackedBatch(batch.getChannelId(), batch.getDataCreateTime().getTime()));
+                }
+            }
+        }
+        signal();
+    }
+
+    @Override
+    public void onAcknowledgeEvent(BatchAck batchAck) {
+        if (batchAck.isOk()) {
+            TrackedBatch trackedBatch = trackedBatches.remove(batchAck.getNodeId() + "-" + batchAck.getBatchId());
+            if (trackedBatch != null) {
+                getChannelLatency(trackedBatch.channelId).record(System.currentTimeMillis() - trackedBatch.dataCreateTime);
+            }
+        }
+    }
+
+    @Override
+    public void syncStarted(DataContext context) {
+    }
+
+    @Override
+    public void syncEnded(DataContext context, List<IncomingBatch> batchesProcessed, Throwable ex) {
+        if (batchesProcessed != null && batchesProcessed.size() > 0) {
+            requestRoute();
+        }
+    }
+
+    protected void report() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, TrackedBatch> entry : trackedBatches.entrySet()) {
+            if (now - entry.getValue().dataCreateTime > MAX_TRACKED_BATCH_AGE_MS) {
+                trackedBatches.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<String, ChannelLatency> entry : latencyByChannel.entrySet()) {
+            ChannelLatency latency = entry.getValue();
+            long count = latency.getCount();
+            if (count > latency.reportedCount) {
+                latency.reportedCount = count;
+                log.info("End to end latency for channel {} over the last {} batches: p50={}ms p95={}ms p99={}ms max={}ms", new Object[] {
+                        entry.getKey(), latency.getSampleCount(), latency.getPercentile(50), latency.getPercentile(95),
+                        latency.getPercentile(99), latency.getPercentile(100) });
+            }
+        }
+    }
+
+    public ChannelLatency getChannelLatency(String channelId) {
+        ChannelLatency latency = latencyByChannel.get(channelId);
+        if (latency == null) {
+            latency = new ChannelLatency(1024);
+            ChannelLatency existing = latencyByChannel.putIfAbsent(channelId, latency);
+            if (existing != null) {
+                latency = existing;
+            }
+        }
+        return latency;
+    }
+
+    public Map<String, ChannelLatency> getLatencyByChannel() {
+        return latencyByChannel;
+    }
+
+    static class TrackedBatch {
+        final String channelId;
+        final long dataCreateTime;
+
+        TrackedBatch(String channelId, long dataCreateTime) {
+            this.channelId = channelId;
+            this.dataCreateTime = dataCreateTime;
+        }
+    }
+
+    /**
+     * The most recent latencies recorded for a channel, kept in a ring buffer of a fixed size
+     */
+    public static class ChannelLatency {
+        protected long[] samples;
+        protected long count;
+        protected long reportedCount;
+
+        public ChannelLatency(int size) {
+            samples = new long[size];
+        }
+
+        public synchronized void record(long latencyMs) {
+            samples[(int) (count++ % samples.length)] = latencyMs;
+        }
+
+        /**
+         * The total number of latencies recorded
+         */
+        public synchronized long getCount() {
+            return count;
+        }
+
+        /**
+         * The number of recent latencies that percentiles are calculated from
+         */
+        public synchronized int getSampleCount() {
+            return (int) Math.min(count, samples.length);
+        }
+
+        /**
+         * The latency that the given percent of the recent latencies are less than or equal to, or -1 if none have been recorded
+         */
+        public long getPercentile(double percent) {
+            long[] sorted;
+            synchronized (this) {
+                sorted = Arrays.copyOf(samples, getSampleCount());
+            }
+            if (sorted.length == 0) {
+                return -1;
+            }
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percent / 100d * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+    }
+}
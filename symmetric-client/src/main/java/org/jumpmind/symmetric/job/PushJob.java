@@ -22,7 +22,11 @@ package org.jumpmind.symmetric.job;
 
 import static org.jumpmind.symmetric.job.JobDefaults.EVERY_30_SECONDS;
 
+import java.util.Set;
+
 import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.model.NodeCommunication;
+import org.jumpmind.symmetric.model.RemoteNodeStatuses;
 import org.jumpmind.symmetric.service.ClusterConstants;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
@@ -30,6 +34,9 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
  * Background job that is responsible for pushing data to linked nodes.
  */
 public class PushJob extends AbstractJob {
+    private ThreadLocal<Set<String>> requestedNodeCommunicationIds = new ThreadLocal<Set<String>>();
+    private ThreadLocal<RemoteNodeStatuses> requestedStatuses = new ThreadLocal<RemoteNodeStatuses>();
+
     public PushJob(ISymmetricEngine engine, ThreadPoolTaskScheduler taskScheduler) {
         super(ClusterConstants.PUSH, engine, taskScheduler);
     }
@@ -41,10 +48,34 @@ public class PushJob extends AbstractJob {
                 .description("Push batches to other nodes");
     }
 
+    /**
+     * Run the job now for only the given node and channel queues. It is checked and marked as running the same as a scheduled run, so it never
+     * pushes at the same time as one.
+     * 
+     * @param nodeCommunicationIds
+     *            the {@link NodeCommunication#getIdentifier()} of each node and queue to push to
+     * @return the status of each node and queue that was pushed to, or null if the job did not run or failed
+     */
+    public RemoteNodeStatuses invoke(Set<String> nodeCommunicationIds) {
+        requestedNodeCommunicationIds.set(nodeCommunicationIds);
+        try {
+            invoke(false);
+            return requestedStatuses.get();
+        } finally {
+            requestedNodeCommunicationIds.remove();
+            requestedStatuses.remove();
+        }
+    }
+
     @Override
     public void doJob(boolean force) throws Exception {
         if (engine != null) {
-            engine.getPushService().pushData(force).getDataProcessedCount();
+            Set<String> nodeCommunicationIds = requestedNodeCommunicationIds.get();
+            if (nodeCommunicationIds != null) {
+                requestedStatuses.set(engine.getPushService().pushData(force, nodeCommunicationIds));
+            } else {
+                engine.getPushService().pushData(force).getDataProcessedCount();
+            }
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.db.h2;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+import org.jumpmind.symmetric.db.AbstractEmbeddedTrigger;
+
+/**
+ * Measures the capture throughput of the {@link H2Trigger} against an in-memory H2 database. Rows are inserted into a table
+ * with the trigger capturing with literal sql, with cached prepared statements, and with cached prepared statements and a
+ * condition that is always true so it is evaluated without a query. Run with an optional argument of the number of rows.
+ */
+public class H2TriggerPerf {
+    static final String VIRTUAL_TABLE = "(SELECT ? as \"NEW_ID\",? as \"NEW_NAME\",? as \"NEW_AMOUNT\",? as \"NEW_CREATED\","
+            + "? AS \"OLD_ID\",? AS \"OLD_NAME\",? AS \"OLD_AMOUNT\",? AS \"OLD_CREATED\" FROM DUAL) T ";
+
+    static final String COLUMNS = "case when \"NEW_ID\" is null then '' else '\"'||cast(\"NEW_ID\" as varchar(50))||'\"' end||','||"
+            + "case when \"NEW_NAME\" is null then '' else '\"'||replace(replace(\"NEW_NAME\",'\\','\\\\'),'\"','\\\"')||'\"' end||','||"
+            + "case when \"NEW_AMOUNT\" is null then '' else '\"'||cast(\"NEW_AMOUNT\" as varchar(50))||'\"' end||','||"
+            + "case when \"NEW_CREATED\" is null then '' else '\"'||formatdatetime(\"NEW_CREATED\", 'yyyy-MM-dd HH:mm:ss.SSS')||'\"' end";
+
+    public static void main(String[] args) throws Exception {
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+        Class.forName("org.h2.Driver");
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:h2triggerperf", "sa", "")) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("create table sym_data (data_id bigint auto_increment primary key, table_name varchar(255), "
+                        + "event_type char(1), trigger_hist_id integer, row_data clob, channel_id varchar(128), transaction_id varchar(255), "
+                        + "source_node_id varchar(50), external_data varchar(50), create_time timestamp)");
+            }
+            run(conn, "literal", "1=1 and  @sync_prevented is null ", false, rowCount);
+            run(conn, "prepared", "1=1 and  @sync_prevented is null ", true, rowCount);
+            run(conn, "prepared and always true", "1=1 and 1=1", true, rowCount);
+        }
+    }
+
+    protected static void run(Connection conn, String name, String condition, boolean prepare, int rowCount) throws SQLException {
+        String tableName = "perf_" + name.replace(' ', '_');
+        String triggerName = "on_i_" + tableName;
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("create table " + tableName + " (id integer primary key, name varchar(50), amount decimal(10,2), created timestamp)");
+            stmt.execute("create table " + triggerName + "_CONFIG (CONDITION_SQL CLOB, INSERT_DATA_SQL CLOB)");
+        }
+        try (PreparedStatement ps = conn.prepareStatement("insert into " + triggerName + "_CONFIG values(?,?)")) {
+            ps.setString(1, "select count(*) from " + VIRTUAL_TABLE + " where " + condition);
+            ps.setString(2, "insert into sym_data (table_name, event_type, trigger_hist_id, row_data, channel_id, transaction_id, "
+                    + "source_node_id, external_data, create_time) (select '" + tableName + "','I',1," + COLUMNS
+                    + ", 'default', TRANSACTION_ID(), @node_value, null, CURRENT_TIMESTAMP from " + VIRTUAL_TABLE + ")");
+            ps.executeUpdate();
+        }
+        System.setProperty(AbstractEmbeddedTrigger.SYSPROP_PREPARE_STATEMENTS, Boolean.toString(prepare));
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("create trigger " + triggerName + " after insert on " + tableName + " for each row call \""
+                    + H2Trigger.class.getName() + "\"");
+        }
+        System.clearProperty(AbstractEmbeddedTrigger.SYSPROP_PREPARE_STATEMENTS);
+
+        long ts = System.currentTimeMillis();
+        try (PreparedStatement ps = conn.prepareStatement("insert into " + tableName + " values(?,?,?,?)")) {
+            for (int i = 0; i < rowCount; i++) {
+                ps.setInt(1, i);
+                ps.setString(2, "name \"" + i + "\"");
+                ps.setBigDecimal(3, new BigDecimal(i).movePointLeft(2));
+                ps.setTimestamp(4, new Timestamp(ts + i));
+                ps.executeUpdate();
+            }
+        }
+        long millis = System.currentTimeMillis() - ts;
+
+        int captured = 0;
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("select count(*) from sym_data where table_name='" + tableName + "'")) {
+            if (rs.next()) {
+                captured = rs.getInt(1);
+            }
+        }
+        if (captured != rowCount) {
+            throw new IllegalStateException("Expected " + rowCount + " captured rows for " + name + " but found " + captured);
+        }
+        System.out.println(String.format("%s: rows=%,d time=%,d ms (%,.0f rows/sec)", name, rowCount, millis,
+                rowCount * 1000d / Math.max(1, millis)));
+    }
+}
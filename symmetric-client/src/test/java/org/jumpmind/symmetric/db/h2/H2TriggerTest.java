@@ -0,0 +1,134 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.db.h2;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jumpmind.symmetric.db.AbstractEmbeddedTrigger;
+import org.junit.jupiter.api.Test;
+
+public class H2TriggerTest {
+
+    static final String VIRTUAL_TABLE = "(SELECT ? as \"NEW_ID\",? as \"NEW_NAME\",? as \"NEW_AMOUNT\",? as \"NEW_CREATED\",? as \"NEW_DATA\","
+            + "? AS \"OLD_ID\",? AS \"OLD_NAME\",? AS \"OLD_AMOUNT\",? AS \"OLD_CREATED\",? AS \"OLD_DATA\" FROM DUAL) T ";
+
+    @Test
+    public void testPreparedCapturesSameRowsAsLiteral() throws Exception {
+        Class.forName("org.h2.Driver");
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:h2triggertest", "sa", "")) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("create table sym_data (data_id bigint auto_increment primary key, table_name varchar(255), "
+                        + "row_data clob, old_data clob)");
+            }
+            createTable(conn, "test_literal", false);
+            createTable(conn, "test_prepared", true);
+            for (String tableName : new String[] { "test_literal", "test_prepared" }) {
+                try (PreparedStatement ps = conn.prepareStatement("insert into " + tableName + " values(?,?,?,?,?)")) {
+                    insert(ps, 1, "plain", new BigDecimal("12.30"), new Timestamp(1546300800123L), new byte[] { 0, 1, 127, -128, -1 });
+                    insert(ps, 2, "quote ' \"double\" back\\slash", new BigDecimal("-0.01"), new Timestamp(0), new byte[0]);
+                    insert(ps, 3, null, null, null, null);
+                }
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("update " + tableName + " set name='updated', amount=99999999.99 where id=1");
+                    stmt.executeUpdate("update " + tableName + " set name=null, data=null where id=2");
+                    stmt.executeUpdate("delete from " + tableName + " where id=3");
+                }
+            }
+            List<String> literal = getCapturedRows(conn, "test_literal");
+            List<String> prepared = getCapturedRows(conn, "test_prepared");
+            assertEquals(6, literal.size());
+            assertEquals(literal, prepared);
+        }
+    }
+
+    protected void createTable(Connection conn, String tableName, boolean prepare) throws SQLException {
+        String triggerName = "on_" + tableName;
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("create table " + tableName + " (id integer primary key, name varchar(50), amount decimal(10,2), "
+                    + "created timestamp, data blob)");
+            stmt.execute("create table " + triggerName + "_CONFIG (CONDITION_SQL CLOB, INSERT_DATA_SQL CLOB)");
+        }
+        try (PreparedStatement ps = conn.prepareStatement("insert into " + triggerName + "_CONFIG values(?,?)")) {
+            ps.setString(1, "select count(*) from " + VIRTUAL_TABLE + " where 1=1 and @sync_prevented is null");
+            ps.setString(2, "insert into sym_data (table_name, row_data, old_data) (select '" + tableName + "',"
+                    + getColumns("NEW") + "," + getColumns("OLD") + " from " + VIRTUAL_TABLE + ")");
+            ps.executeUpdate();
+        }
+        System.setProperty(AbstractEmbeddedTrigger.SYSPROP_PREPARE_STATEMENTS, Boolean.toString(prepare));
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("create trigger " + triggerName + " after insert, update, delete on " + tableName
+                        + " for each row call \"" + H2Trigger.class.getName() + "\"");
+            }
+        } finally {
+            System.clearProperty(AbstractEmbeddedTrigger.SYSPROP_PREPARE_STATEMENTS);
+        }
+    }
+
+    protected String getColumns(String prefix) {
+        return "case when \"" + prefix + "_ID\" is null then '' else '\"'||cast(\"" + prefix + "_ID\" as varchar(50))||'\"' end||','||"
+                + "case when \"" + prefix + "_NAME\" is null then '' else '\"'||replace(replace(\"" + prefix
+                + "_NAME\",'\\','\\\\'),'\"','\\\"')||'\"' end||','||"
+                + "case when \"" + prefix + "_AMOUNT\" is null then '' else '\"'||cast(\"" + prefix + "_AMOUNT\" as varchar(50))||'\"' end||','||"
+                + "case when \"" + prefix + "_CREATED\" is null then '' else '\"'||formatdatetime(\"" + prefix
+                + "_CREATED\", 'yyyy-MM-dd HH:mm:ss.SSS')||'\"' end||','||"
+                + "case when \"" + prefix + "_DATA\" is null then '' else '\"'||\"" + prefix + "_DATA\"||'\"' end";
+    }
+
+    protected void insert(PreparedStatement ps, int id, String name, BigDecimal amount, Timestamp created, byte[] data)
+            throws SQLException {
+        ps.setInt(1, id);
+        ps.setString(2, name);
+        ps.setBigDecimal(3, amount);
+        ps.setTimestamp(4, created);
+        if (data != null) {
+            ps.setBytes(5, data);
+        } else {
+            ps.setNull(5, Types.BLOB);
+        }
+        ps.executeUpdate();
+    }
+
+    protected List<String> getCapturedRows(Connection conn, String tableName) throws SQLException {
+        List<String> rows = new ArrayList<String>();
+        try (PreparedStatement ps = conn.prepareStatement("select row_data, old_data from sym_data where table_name=? order by data_id")) {
+            ps.setString(1, tableName);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(rs.getString(1) + "|" + rs.getString(2));
+                }
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.job.LowLatencyScheduler.ChannelLatency;
+import org.jumpmind.symmetric.model.Channel;
+import org.jumpmind.symmetric.model.NodeCommunication;
+import org.jumpmind.symmetric.model.NodeCommunication.CommunicationType;
+import org.jumpmind.symmetric.model.RemoteNodeStatuses;
+import org.jumpmind.symmetric.service.ClusterConstants;
+import org.jumpmind.symmetric.service.INodeCommunicationService;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.junit.jupiter.api.Test;
+
+public class LowLatencySchedulerTest {
+    @Test
+    public void testPercentiles() throws Exception {
+        ChannelLatency latency = new ChannelLatency(100);
+        assertEquals(-1, latency.getPercentile(50));
+        for (int i = 100; i >= 1; i--) {
+            latency.record(i);
+        }
+        assertEquals(100, latency.getCount());
+        assertEquals(50, latency.getPercentile(50));
+        assertEquals(95, latency.getPercentile(95));
+        assertEquals(99, latency.getPercentile(99));
+        assertEquals(100, latency.getPercentile(100));
+        assertEquals(1, latency.getPercentile(0));
+    }
+
+    @Test
+    public void testPercentilesOfRecentLatencies() throws Exception {
+        ChannelLatency latency = new ChannelLatency(10);
+        for (int i = 0; i < 10; i++) {
+            latency.record(1000);
+        }
+        for (int i = 0; i < 10; i++) {
+            latency.record(5);
+        }
+        assertEquals(20, latency.getCount());
+        assertEquals(10, latency.getSampleCount());
+        assertEquals(5, latency.getPercentile(100));
+    }
+
+    @Test
+    public void testNoSpinWhileJobIsRunning() throws Exception {
+        ISymmetricEngine engine = mock(ISymmetricEngine.class);
+        IParameterService parameterService = mock(IParameterService.class);
+        when(engine.getParameterService()).thenReturn(parameterService);
+        when(parameterService.getLong(eq(ParameterConstants.LOW_LATENCY_MIN_PERIOD_MS), anyLong())).thenReturn(200l);
+        when(parameterService.getLong(eq(ParameterConstants.LOW_LATENCY_CAPTURE_POLL_MS), anyLong())).thenReturn(60000l);
+        IJobManager jobManager = mock(IJobManager.class);
+        IJob job = mock(IJob.class);
+        when(jobManager.getJob(ClusterConstants.ROUTE)).thenReturn(job);
+        when(job.isStarted()).thenReturn(true);
+        when(job.isRunning()).thenReturn(true);
+
+        LowLatencyScheduler scheduler = new LowLatencyScheduler(engine, jobManager);
+        scheduler.lastCaptureCheckTime = System.currentTimeMillis();
+        scheduler.lastRouteTime = 0;
+        scheduler.requestRoute();
+        scheduler.route();
+        assertTrue(scheduler.routeRequested.get());
+
+        long ts = System.currentTimeMillis();
+        scheduler.waitForWork();
+        assertTrue("Expected to wait for the minimum period while the job runs", System.currentTimeMillis() - ts >= 150);
+        assertTrue(scheduler.routeRequested.get());
+        verify(job, never()).invoke(false);
+    }
+
+    @Test
+    public void testPushThatCannotRunBacksOffAndIsDropped() throws Exception {
+        ISymmetricEngine engine = mock(ISymmetricEngine.class);
+        IParameterService parameterService = mock(IParameterService.class);
+        when(engine.getParameterService()).thenReturn(parameterService);
+        when(parameterService.getLong(eq(ParameterConstants.LOW_LATENCY_MIN_PERIOD_MS), anyLong())).thenReturn(200l);
+        NodeCommunication nodeCommunication = new NodeCommunication();
+        nodeCommunication.setNodeId("00002");
+        nodeCommunication.setQueue("default");
+        INodeCommunicationService nodeCommunicationService = mock(INodeCommunicationService.class);
+        when(nodeCommunicationService.list(CommunicationType.PUSH)).thenReturn(Arrays.asList(nodeCommunication));
+        when(engine.getNodeCommunicationService()).thenReturn(nodeCommunicationService);
+        IJobManager jobManager = mock(IJobManager.class);
+        PushJob job = mock(PushJob.class);
+        when(jobManager.getJob(ClusterConstants.PUSH)).thenReturn(job);
+        when(job.isStarted()).thenReturn(true);
+        when(job.invoke(anySet())).thenReturn(new RemoteNodeStatuses(new HashMap<String, Channel>()));
+
+        LowLatencyScheduler scheduler = new LowLatencyScheduler(engine, jobManager);
+        scheduler.requestPush("00002", "default");
+        long lastBackoffMs = 0;
+        for (int i = 1; i < LowLatencyScheduler.MAX_PUSH_ATTEMPTS; i++) {
+            scheduler.push();
+            assertTrue(scheduler.pushRequested.contains("00002-default"));
+            assertTrue("Expected the delay to grow each time the push could not run", scheduler.pushBackoffMs > lastBackoffMs);
+            lastBackoffMs = scheduler.pushBackoffMs;
+        }
+        scheduler.push();
+        assertTrue(scheduler.pushRequested.isEmpty());
+        verify(job, times(LowLatencyScheduler.MAX_PUSH_ATTEMPTS)).invoke(anySet());
+        verify(job, never()).invoke(false);
+
+        RemoteNodeStatuses statuses = new RemoteNodeStatuses(new HashMap<String, Channel>());
+        statuses.add("00002", "default");
+        when(job.invoke(anySet())).thenReturn(statuses);
+        scheduler.requestPush("00002", "default");
+        scheduler.push();
+        assertTrue(scheduler.pushRequested.isEmpty());
+        assertEquals(0, scheduler.pushBackoffMs);
+    }
+}
@@ -80,9 +80,15 @@ final public class ParameterConstants {
     public final static String PULL_LOCK_TIMEOUT_MS = "pull.lock.timeout.ms";
     public final static String PULL_IMMEDIATE_IF_DATA_FOUND = "pull.immediate.if.data.found";
     public final static String PUSH_THREAD_COUNT_PER_SERVER = "push.thread.per.server.count";
+    public final static String NODE_COMMUNICATION_VIRTUAL_THREADS_ENABLED = "node.communication.virtual.threads.enabled";
     public final static String PUSH_MINIMUM_PERIOD_MS = "push.period.minimum.ms";
     public final static String PUSH_LOCK_TIMEOUT_MS = "push.lock.timeout.ms";
     public final static String PUSH_IMMEDIATE_IF_DATA_FOUND = "push.immediate.if.data.found";
+    public final static String LOW_LATENCY_ENABLED = "low.latency.enabled";
+    public final static String LOW_LATENCY_CAPTURE_POLL_MS = "low.latency.capture.poll.ms";
+    public final static String LOW_LATENCY_MIN_PERIOD_MS = "low.latency.min.period.ms";
+    public final static String LOW_LATENCY_MAX_TRACKED_BATCHES = "low.latency.max.tracked.batches";
+    public final static String LOW_LATENCY_REPORT_PERIOD_MS = "low.latency.report.period.ms";
     public final static String OFFLINE_PULL_THREAD_COUNT_PER_SERVER = "offline.pull.thread.per.server.count";
     public final static String OFFLINE_PULL_LOCK_TIMEOUT_MS = "offline.pull.lock.timeout.ms";
     public final static String OFFLINE_PUSH_THREAD_COUNT_PER_SERVER = "offline.push.thread.per.server.count";
@@ -148,6 +154,9 @@ final public class ParameterConstants {
     public final static String INITIAL_LOAD_CONCAT_CSV_IN_SQL_ENABLED = "initial.load.concat.csv.in.sql.enabled";
     public final static String INITIAL_LOAD_USE_COLUMN_TEMPLATES_ENABLED = "initial.load.use.column.templates.enabled";
     public final static String INITIAL_LOAD_EXTRACT_THREAD_COUNT_PER_SERVER = "initial.load.extract.thread.per.server.count";
+    public final static String INITIAL_LOAD_EXTRACT_RANGE_ENABLED = "initial.load.extract.range.enabled";
+    public final static String INITIAL_LOAD_EXTRACT_RANGE_ROWS = "initial.load.extract.range.rows";
+    public final static String INITIAL_LOAD_EXTRACT_RANGE_THREAD_COUNT = "initial.load.extract.range.thread.count";
     public final static String INITIAL_LOAD_EXTRACT_TIMEOUT_MS = "initial.load.extract.timeout.ms";
     public final static String INITIAL_LOAD_EXTRACT_USE_TWO_PASS_LOB = "initial.load.extract.use.two.pass.lob";
     public final static String INITIAL_LOAD_EXTRACT_JOB_START = "start.initial.load.extract.job";
@@ -181,6 +190,7 @@ final public class ParameterConstants {
     public final static String ROUTING_WAIT_FOR_DATA_TIMEOUT_SECONDS = "routing.wait.for.data.timeout.seconds";
     public final static String ROUTING_MAX_GAPS_TO_QUALIFY_IN_SQL = "routing.max.gaps.to.qualify.in.sql";
     public final static String ROUTING_PEEK_AHEAD_MEMORY_THRESHOLD = "routing.peek.ahead.memory.threshold.percent";
+    public final static String ROUTING_PEEK_AHEAD_MEMORY_MAX_BYTES = "routing.peek.ahead.memory.max.bytes";
     public final static String ROUTING_PEEK_AHEAD_WINDOW = "routing.peek.ahead.window.after.max.size";
     public final static String ROUTING_STALE_DATA_ID_GAP_TIME = "routing.stale.dataid.gap.time.ms";
     public final static String ROUTING_STALE_GAP_BUSY_EXPIRE_TIME = "routing.stale.gap.busy.expire.time.ms";
@@ -193,6 +203,10 @@ final public class ParameterConstants {
     public final static String ROUTING_USE_FAST_GAP_DETECTOR = "routing.use.fast.gap.detector";
     public final static String ROUTING_DETECT_INVALID_GAPS = "routing.detect.invalid.gaps";
     public final static String ROUTING_QUERY_CHANNELS_FIRST = "routing.query.channels.first";
+    public final static String ROUTING_THREAD_COUNT_PER_SERVER = "routing.thread.per.server.count";
+    public final static String ROUTING_SUBSELECT_CACHE_SIZE = "routing.subselect.cache.size";
+    public final static String ROUTING_LOOKUP_TABLE_CACHE_ENABLED = "routing.lookup.table.cache.enabled";
+    public final static String ROUTING_LOOKUP_TABLE_CACHE_FULL_REFRESH_MS = "routing.lookup.table.cache.full.refresh.ms";
     public final static String ROUTING_MAX_GAP_CHANGES = "routing.max.gap.changes";
     public final static String ROUTING_USE_COMMON_GROUPS = "routing.use.common.groups";
     public final static String ROUTING_USE_NON_COMMON_FOR_INCOMING = "routing.use.non.common.for.incoming";
@@ -202,6 +216,7 @@ final public class ParameterConstants {
     @Deprecated
     public final static String INCOMING_BATCH_DELETE_ON_LOAD = "incoming.batch.delete.on.load";
     public final static String INCOMING_BATCH_RECORD_OK_ENABLED = "incoming.batches.record.ok.enabled";
+    public final static String INCOMING_BATCH_SELECT_GROUP_SIZE = "incoming.batches.select.group.size";
     public final static String DATA_LOADER_ENABLED = "dataloader.enable";
     public final static String DATA_LOADER_APPLY_CHANGES_ONLY = "dataloader.apply.changes.only";
     public final static String DATA_LOADER_IGNORE_MISSING_TABLES = "dataloader.ignore.missing.tables";
@@ -211,6 +226,7 @@ final public class ParameterConstants {
     public final static String DATA_LOADER_SEND_ACK_KEEPALIVE = "send.ack.keepalive.ms";
     public final static String DATA_LOADER_TIME_BETWEEN_ACK_RETRIES = "time.between.ack.retries.ms";
     public final static String DATA_LOADER_MAX_ROWS_BEFORE_COMMIT = "dataloader.max.rows.before.commit";
+    public final static String DATA_LOADER_PARALLEL_WORKERS = "dataloader.parallel.workers";
     public final static String DATA_LOADER_CREATE_TABLE_ALTER_TO_MATCH_DB_CASE = "dataloader.create.table.alter.to.match.db.case";
     public final static String DATA_LOADER_TEXT_COLUMN_EXPRESSION = "dataloader.text.column.expression";
     public final static String DATA_LOADER_SLEEP_TIME_AFTER_EARLY_COMMIT = "dataloader.sleep.time.after.early.commit";
@@ -270,6 +286,10 @@ final public class ParameterConstants {
     public final static String CACHE_TIMEOUT_CHANNEL_IN_MS = "cache.channel.time.ms";
     public final static String CACHE_TIMEOUT_NODE_GROUP_LINK_IN_MS = "cache.node.group.link.time.ms";
     public final static String CACHE_TIMEOUT_TRANSFORM_IN_MS = "cache.transform.time.ms";
+    public final static String CACHE_TRANSFORM_LOOKUP_ENABLED = "cache.transform.lookup.enabled";
+    public final static String CACHE_TRANSFORM_LOOKUP_TIMEOUT_IN_MS = "cache.transform.lookup.time.ms";
+    public final static String CACHE_TRANSFORM_LOOKUP_MAX_SIZE = "cache.transform.lookup.max.size";
+    public final static String CACHE_TRANSFORM_LOOKUP_PRELOAD = "cache.transform.lookup.preload";
     public final static String CACHE_TIMEOUT_LOAD_FILTER_IN_MS = "cache.load.filter.time.ms";
     public final static String CACHE_TIMEOUT_CONFLICT_IN_MS = "cache.conflict.time.ms";
     public final static String CACHE_TIMEOUT_TABLES_IN_MS = "cache.table.time.ms";
@@ -342,6 +362,11 @@ final public class ParameterConstants {
     public final static String FILE_SYNC_ENABLE = "file.sync.enable";
     public final static String FILE_SYNC_FAST_SCAN = "file.sync.fast.scan";
     public final static String FILE_SYNC_USE_CRC = "file.sync.use.crc";
+    public final static String FILE_SYNC_USE_WATCH_SERVICE = "file.sync.use.watch.service";
+    public final static String FILE_SYNC_WATCH_RECONCILE_PERIOD_MS = "file.sync.watch.reconcile.period.ms";
+    public final static String FILE_SYNC_CRC_THREAD_COUNT = "file.sync.crc.thread.count";
+    public final static String FILE_SYNC_DELTA_ENABLED = "file.sync.delta.enabled";
+    public final static String FILE_SYNC_DELTA_MIN_FILE_SIZE = "file.sync.delta.min.file.size";
     public final static String FILE_SYNC_PREVENT_PING_BACK = "file.sync.prevent.ping.back";
     public final static String FILE_SYNC_LOCK_WAIT_MS = "file.sync.lock.wait.ms";
     public final static String FILE_SYNC_DELETE_CTL_FILE_AFTER_SYNC = "file.sync.delete.ctl.file.after.sync";
@@ -349,6 +374,7 @@ final public class ParameterConstants {
     public final static String BSH_LOAD_FILTER_HANDLES_MISSING_TABLES = "bsh.load.filter.handles.missing.tables";
     public final static String BSH_TRANSFORM_GLOBAL_SCRIPT = "bsh.transform.global.script";
     public final static String BSH_EXTENSION_GLOBAL_SCRIPT = "bsh.extension.global.script";
+    public final static String BSH_COMPILE_ENABLED = "bsh.compile.enabled";
     public final static String MSSQL_ROW_LEVEL_LOCKS_ONLY = "mssql.allow.only.row.level.locks.on.runtime.tables";
     public final static String MSSQL_USE_NTYPES_FOR_SYNC = "mssql.use.ntypes.for.sync";
     public final static String MSSQL_LOCK_ESCALATION_DISABLED = "mssql.lock.escalation.disabled";
@@ -397,6 +423,8 @@ final public class ParameterConstants {
     public final static String STAGING_MANAGER_CLASS = "staging.manager.class";
     public final static String STAGING_DIR = "staging.dir";
     public final static String STAGING_LOW_SPACE_THRESHOLD_MEGABYTES = "staging.low.space.threshold.megabytes";
+    public final static String STAGING_COMPRESSION_CODEC = "staging.compression.codec";
+    public final static String STAGING_COMPRESSION_CODEC_BY_CHANNEL = "staging.compression.codec.by.channel";
     public final static String STATISTIC_MANAGER_CLASS = "statistic.manager.class";
     public final static String DB2_CAPTURE_TRANSACTION_ID = "db2.capture.transaction.id";
     public final static String TREAT_BINARY_AS_LOB_ENABLED = "treat.binary.as.lob.enabled";
@@ -416,8 +444,10 @@ final public class ParameterConstants {
     public final static String KAFKA_TOPIC_BY = "kafka.topic.by";
     public final static String KAFKA_CONFLUENT_REGISTRY_URL = "kafka.confluent.registry.url";
     public final static String KAFKA_AVRO_JAVA_PACKAGE = "kafka.avro.java.package";
+    public final static String KAFKA_STREAMING = "kafka.streaming";
+    public final static String KAFKA_MAX_IN_FLIGHT = "kafka.max.in.flight";
     public final static String[] ALL_KAFKA_PARAMS = new String[] { KAFKA_PRODUCER, KAFKA_FORMAT, KAFKA_MESSAGE_BY,
-            KAFKA_TOPIC_BY, KAFKA_CONFLUENT_REGISTRY_URL, KAFKA_AVRO_JAVA_PACKAGE };
+            KAFKA_TOPIC_BY, KAFKA_CONFLUENT_REGISTRY_URL, KAFKA_AVRO_JAVA_PACKAGE, KAFKA_STREAMING, KAFKA_MAX_IN_FLIGHT };
     public final static String SNOWFLAKE_STAGING_TYPE = "snowflake.staging.type";
     public final static String SNOWFLAKE_INTERNAL_STAGE_NAME = "snowflake.internal.stage.name";
     public final static String CLOUD_BULK_LOAD_MAX_ROWS_BEFORE_FLUSH = "cloud.bulk.load.max.rows.before.flush";
@@ -0,0 +1,37 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.config;
+
+import java.util.Set;
+
+import org.jumpmind.extension.IExtensionPoint;
+
+/**
+ * Notified after parameters are reread and at least one value changed. Listeners are called by the thread that reread the parameters, after the new
+ * {@link ParameterSnapshot} is published.
+ */
+public interface IParameterChangeListener extends IExtensionPoint {
+    /**
+     * @param changedKeys
+     *            the keys that were added, removed or given a new value
+     */
+    public void parametersChanged(ParameterSnapshot oldParameters, ParameterSnapshot newParameters, Set<String> changedKeys);
+}
@@ -0,0 +1,206 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.config;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jumpmind.properties.TypedProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An immutable copy of the parameters as they were read at one time. Each value is parsed once when the snapshot is built, so the typed accessors
+ * are a map lookup that does not lock or allocate. The parsing rules are the same as the ones that were used when parsing on every read.
+ */
+public class ParameterSnapshot {
+    private static final Logger log = LoggerFactory.getLogger(ParameterSnapshot.class);
+    private final TypedProperties properties;
+    private final Map<String, Value> values;
+    private final long createTime;
+
+    public ParameterSnapshot(TypedProperties properties) {
+        this.properties = properties;
+        this.createTime = System.currentTimeMillis();
+        Map<String, Value> values = new HashMap<String, Value>(properties.size() * 2);
+        for (String key : properties.stringPropertyNames()) {
+            String value = properties.getProperty(key);
+            if (StringUtils.isNotBlank(value)) {
+                values.put(key, new Value(value));
+            }
+        }
+        this.values = values;
+    }
+
+    public String getString(String key, String defaultVal) {
+        Value value = values.get(key);
+        return value == null ? defaultVal : value.string;
+    }
+
+    public String getString(String key) {
+        return getString(key, null);
+    }
+
+    public boolean is(String key, boolean defaultVal) {
+        Value value = values.get(key);
+        return value == null ? defaultVal : value.booleanValue;
+    }
+
+    public boolean is(String key) {
+        return is(key, false);
+    }
+
+    public int getInt(String key, int defaultVal) {
+        Value value = values.get(key);
+        if (value != null) {
+            if (value.isInt) {
+                return value.intValue;
+            }
+            TypedProperties.logPropertiesException(log, key, value.string);
+        }
+        return defaultVal;
+    }
+
+    public int getInt(String key) {
+        return getInt(key, 0);
+    }
+
+    public long getLong(String key, long defaultVal) {
+        Value value = values.get(key);
+        if (value != null) {
+            if (value.isLong) {
+                return value.longValue;
+            }
+            TypedProperties.logPropertiesException(log, key, value.string);
+        }
+        return defaultVal;
+    }
+
+    public long getLong(String key) {
+        return getLong(key, 0);
+    }
+
+    public BigDecimal getDecimal(String key, BigDecimal defaultVal) {
+        Value value = values.get(key);
+        if (value != null) {
+            if (value.decimalValue != null) {
+                return value.decimalValue;
+            }
+            TypedProperties.logPropertiesException(log, key, value.string);
+        }
+        return defaultVal;
+    }
+
+    public BigDecimal getDecimal(String key) {
+        return getDecimal(key, BigDecimal.ZERO);
+    }
+
+    /**
+     * The parameters this snapshot was built from, which callers should treat as read only
+     */
+    public TypedProperties getProperties() {
+        return properties;
+    }
+
+    public long getCreateTime() {
+        return createTime;
+    }
+
+    /**
+     * The keys that are in only one of the snapshots or that have a different value in each
+     */
+    public Set<String> getChangedKeys(ParameterSnapshot other) {
+        if (other == null) {
+            return Collections.unmodifiableSet(values.keySet());
+        }
+        Set<String> changedKeys = new HashSet<String>();
+        for (Map.Entry<String, Value> entry : values.entrySet()) {
+            Value otherValue = other.values.get(entry.getKey());
+            if (otherValue == null || !otherValue.string.equals(entry.getValue().string)) {
+                changedKeys.add(entry.getKey());
+            }
+        }
+        for (String key : other.values.keySet()) {
+            if (!values.containsKey(key)) {
+                changedKeys.add(key);
+            }
+        }
+        return changedKeys;
+    }
+
+    static class Value {
+        final String string;
+        final boolean booleanValue;
+        final boolean isInt;
+        final int intValue;
+        final boolean isLong;
+        final long longValue;
+        final BigDecimal decimalValue;
+
+        Value(String string) {
+            this.string = string;
+            String trimmed = string.trim();
+            this.booleanValue = trimmed.equals("1") || Boolean.parseBoolean(trimmed);
+            int intValue = 0;
+            boolean isInt = false;
+            long longValue = 0;
+            boolean isLong = false;
+            BigDecimal decimalValue = null;
+            if (isNumber(trimmed)) {
+                try {
+                    intValue = Integer.parseInt(trimmed);
+                    isInt = true;
+                } catch (NumberFormatException ex) {
+                }
+                try {
+                    longValue = Long.parseLong(string);
+                    isLong = true;
+                } catch (NumberFormatException ex) {
+                }
+                try {
+                    decimalValue = new BigDecimal(string);
+                } catch (NumberFormatException ex) {
+                }
+            }
+            this.intValue = intValue;
+            this.isInt = isInt;
+            this.longValue = longValue;
+            this.isLong = isLong;
+            this.decimalValue = decimalValue;
+        }
+
+        /**
+         * Skip parsing values that cannot be a number, so building a snapshot does not throw an exception for every text parameter
+         */
+        static boolean isNumber(String value) {
+            if (value.length() == 0) {
+                return false;
+            }
+            char c = value.charAt(0);
+            return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.';
+        }
+    }
+}
@@ -75,6 +75,7 @@ public class MultiBatchStagingWriter implements IDataWriter {
     protected Map<Long, OutgoingBatch> childBatches;
     protected long memoryThresholdInBytes;
     protected boolean isRestarted;
+    protected boolean isOverMaxBatchSize;
 
     public MultiBatchStagingWriter(ISymmetricEngine engine, ExtractRequest request, List<ExtractRequest> childRequests, String sourceNodeId,
             List<OutgoingBatch> batches, long maxBatchSize, ProcessInfo processInfo, boolean isRestarted) {
@@ -175,11 +176,21 @@ public class MultiBatchStagingWriter implements IDataWriter {
         outgoingBatch.incrementDataRowCount();
         outgoingBatch.incrementDataInsertRowCount();
         currentDataWriter.write(data);
-        if (outgoingBatch.getDataRowCount() >= maxBatchSize && batches.size() > 0) {
-            currentDataWriter.end(table);
-            currentDataWriter.end(batch, false);
-            closeCurrentDataWriter();
-            startNewBatch();
+        if (outgoingBatch.getDataRowCount() >= maxBatchSize) {
+            if (batches.size() > 0) {
+                currentDataWriter.end(table);
+                currentDataWriter.end(batch, false);
+                closeCurrentDataWriter();
+                startNewBatch();
+            } else if (!isOverMaxBatchSize) {
+                /*
+                 * The batches of the request were created from a row count taken when the load was queued, so the last one holds any rows
+                 * added since then
+                 */
+                log.warn("Extract request {} for table {} has more rows than its {} batches can hold at {} rows per batch, so batch {} will hold the rest",
+                        request.getRequestId(), request.getTableName(), finishedBatches.size() + 1, maxBatchSize, batch.getNodeBatchId());
+                isOverMaxBatchSize = true;
+            }
         }
         if (System.currentTimeMillis() - ts > 60000) {
             long currentRowCount = rowCount + currentDataWriter.getStatistics().get(batch).get(DataWriterStatisticConstants.ROWCOUNT);
@@ -221,6 +232,7 @@ public class MultiBatchStagingWriter implements IDataWriter {
                 if (parentResource != null) {
                     IStagedResource childResource = stagingManager.create(Constants.STAGING_CATEGORY_OUTGOING,
                             Batch.getStagedLocation(false, childRequest.getNodeId(), childBatchId), childBatchId);
+                    childResource.setCodec(parentResource.getCodec());
                     log.debug("About to copy batch {} to batch {}-{}", outgoingBatch.getNodeBatchId(), childRequest.getNodeId(), childBatchId);
                     BufferedReader reader = parentResource.getReader();
                     BufferedWriter writer = childResource.getWriter(memoryThresholdInBytes);
@@ -0,0 +1,223 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.extract;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.DatabaseInfo;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlReadCursor;
+import org.jumpmind.db.sql.ISqlRowMapper;
+import org.jumpmind.db.sql.Row;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Splits the rows of a table into key ranges so that the ranges of one table can be extracted at the same time during an initial load. The ranges are on
+ * the first primary key column. An integer key is split evenly between its minimum and maximum values, which the database answers from the index. A
+ * character key is sampled by asking for the key value at every Nth position of the ordered key with a limit/offset query, which the database can
+ * answer by walking the primary key index. Platforms without limit/offset support read the ordered key values and take every Nth one. Other key
+ * types are not split.
+ * <p>
+ * The ranges are returned as conditions on the table alias "t" that is used by the initial load select.
+ */
+public class TableRangePartitioner {
+    private static final Logger log = LoggerFactory.getLogger(TableRangePartitioner.class);
+    protected IDatabasePlatform platform;
+
+    public TableRangePartitioner(IDatabasePlatform platform) {
+        this.platform = platform;
+    }
+
+    /**
+     * @param whereSql
+     *            the condition of the initial load select, without the leading "where"
+     * @return the conditions for each range, or an empty list if the table can't be split
+     */
+    public List<String> partition(Table table, String whereSql, long rowCount, int rangeCount) {
+        List<String> ranges = new ArrayList<String>();
+        Column[] pkColumns = table.getPrimaryKeyColumns();
+        if (rangeCount < 2 || pkColumns == null || pkColumns.length == 0) {
+            return ranges;
+        }
+        Column column = pkColumns[0];
+        String columnSql = "t." + quote(column.getName());
+        String tableSql = getQualifiedTableName(table);
+        List<String> boundaries = null;
+        boolean numeric = isIntegerColumn(column);
+        if (numeric) {
+            String sql = filterSql(String.format("select min(%s) as min_value, max(%s) as max_value from %s t where %s", columnSql, columnSql,
+                    tableSql, whereSql));
+            Row row = platform.getSqlTemplateDirty().queryForRow(sql);
+            if (row != null && row.get("min_value") != null && row.get("max_value") != null) {
+                boundaries = splitEvenly(toBigInteger(row.get("min_value")), toBigInteger(row.get("max_value")), rangeCount);
+            }
+        } else if (isCharacterColumn(column)) {
+            String sql = filterSql(String.format("select %s from %s t where %s order by %s", columnSql, tableSql, whereSql, columnSql));
+            boundaries = sample(sql, rowCount, rangeCount);
+        } else {
+            log.info("Not splitting table {} into ranges because its key column {} is not an integer or character type", table.getName(),
+                    column.getName());
+        }
+        if (boundaries != null && boundaries.size() > 0) {
+            ranges = buildRanges(columnSql, boundaries, numeric);
+        }
+        return ranges;
+    }
+
+    /**
+     * Hook to replace variables in the sql used to find the range boundaries
+     */
+    protected String filterSql(String sql) {
+        return sql;
+    }
+
+    protected List<String> sample(String sql, long rowCount, int rangeCount) {
+        if (platform.supportsLimitOffset() && rowCount <= Integer.MAX_VALUE) {
+            return sampleByOffset(sql, rowCount, rangeCount);
+        }
+        return sampleByScan(sql, rowCount, rangeCount);
+    }
+
+    /**
+     * Selects one key value at each boundary offset so only rangeCount - 1 values are read from the table
+     */
+    protected List<String> sampleByOffset(String sql, long rowCount, int rangeCount) {
+        List<String> boundaries = new ArrayList<String>(rangeCount - 1);
+        long rowsPerRange = Math.max(1, rowCount / rangeCount);
+        String lastBoundary = null;
+        for (int i = 1; i < rangeCount; i++) {
+            long offset = rowsPerRange * i;
+            if (offset >= rowCount) {
+                break;
+            }
+            String value = platform.getSqlTemplateDirty().queryForObject(platform.massageForLimitOffset(sql, 1, (int) offset), String.class);
+            if (value == null) {
+                break;
+            }
+            if (!value.equals(lastBoundary)) {
+                boundaries.add(value);
+                lastBoundary = value;
+            }
+        }
+        return boundaries;
+    }
+
+    protected List<String> sampleByScan(String sql, long rowCount, int rangeCount) {
+        List<String> boundaries = new ArrayList<String>(rangeCount - 1);
+        long rowsPerRange = Math.max(1, rowCount / rangeCount);
+        ISqlReadCursor<String> cursor = platform.getSqlTemplateDirty().queryForCursor(sql, new ISqlRowMapper<String>() {
+            public String mapRow(Row row) {
+                return row.stringValue();
+            }
+        });
+        try {
+            long count = 0;
+            String value = null;
+            String lastBoundary = null;
+            while (boundaries.size() < rangeCount - 1 && (value = cursor.next()) != null) {
+                count++;
+                if (count >= rowsPerRange * (boundaries.size() + 1) && !value.equals(lastBoundary)) {
+                    boundaries.add(value);
+                    lastBoundary = value;
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        return boundaries;
+    }
+
+    /**
+     * The values that separate rangeCount even ranges between min and max, without duplicates
+     */
+    public static List<String> splitEvenly(BigInteger min, BigInteger max, int rangeCount) {
+        List<String> boundaries = new ArrayList<String>(rangeCount - 1);
+        BigInteger span = max.subtract(min).add(BigInteger.ONE);
+        BigInteger count = BigInteger.valueOf(rangeCount);
+        String last = null;
+        for (int i = 1; i < rangeCount; i++) {
+            String boundary = min.add(span.multiply(BigInteger.valueOf(i)).divide(count)).toString();
+            if (!boundary.equals(last) && !boundary.equals(min.toString())) {
+                boundaries.add(boundary);
+                last = boundary;
+            }
+        }
+        return boundaries;
+    }
+
+    /**
+     * Conditions for the ranges below the first boundary, between each pair of boundaries, and at or above the last boundary
+     */
+    public static List<String> buildRanges(String columnSql, List<String> boundaries, boolean numeric) {
+        List<String> ranges = new ArrayList<String>(boundaries.size() + 1);
+        String lower = null;
+        for (String boundary : boundaries) {
+            String upper = numeric ? boundary : toLiteral(boundary);
+            if (lower == null) {
+                ranges.add(String.format("%s < %s", columnSql, upper));
+            } else {
+                ranges.add(String.format("%s >= %s and %s < %s", columnSql, lower, columnSql, upper));
+            }
+            lower = upper;
+        }
+        if (lower != null) {
+            ranges.add(String.format("%s >= %s", columnSql, lower));
+        }
+        return ranges;
+    }
+
+    protected static String toLiteral(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    protected static BigInteger toBigInteger(Object value) {
+        return new BigDecimal(value.toString()).toBigInteger();
+    }
+
+    protected static boolean isIntegerColumn(Column column) {
+        int type = column.getMappedTypeCode();
+        return type == Types.TINYINT || type == Types.SMALLINT || type == Types.INTEGER || type == Types.BIGINT
+                || ((type == Types.NUMERIC || type == Types.DECIMAL) && column.getScale() == 0);
+    }
+
+    protected static boolean isCharacterColumn(Column column) {
+        int type = column.getMappedTypeCode();
+        return type == Types.CHAR || type == Types.VARCHAR || type == Types.NCHAR || type == Types.NVARCHAR;
+    }
+
+    protected String quote(String name) {
+        String quote = platform.getDdlBuilder().isDelimitedIdentifierModeOn() ? platform.getDatabaseInfo().getDelimiterToken() : "";
+        return quote + name + quote;
+    }
+
+    protected String getQualifiedTableName(Table table) {
+        DatabaseInfo dbInfo = platform.getDatabaseInfo();
+        String quote = platform.getDdlBuilder().isDelimitedIdentifierModeOn() ? dbInfo.getDelimiterToken() : "";
+        return table.getQualifiedTableName(quote, dbInfo.getCatalogSeparator(), dbInfo.getSchemaSeparator());
+    }
+}
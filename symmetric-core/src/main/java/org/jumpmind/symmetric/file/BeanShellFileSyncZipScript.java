@@ -52,6 +52,17 @@ public class BeanShellFileSyncZipScript extends FileSyncZipScript {
     @Override
     public void buildScriptFileSnapshot(Batch batch, FileSnapshot snapshot, FileTriggerRouter triggerRouter,
             FileTrigger fileTrigger, File file, String targetBaseDir, String targetFile) {
+        buildScriptFileSnapshot(batch, snapshot, triggerRouter, fileTrigger, file, targetBaseDir, targetFile, false);
+    }
+
+    @Override
+    public boolean isDeltaSupported() {
+        return true;
+    }
+
+    @Override
+    public void buildScriptFileSnapshot(Batch batch, FileSnapshot snapshot, FileTriggerRouter triggerRouter,
+            FileTrigger fileTrigger, File file, String targetBaseDir, String targetFile, boolean delta) {
         LastEventType eventType = snapshot.getLastEventType();
         StringBuilder command = new StringBuilder();
         command.append("targetBaseDir = \"").append(targetBaseDir).append("\";\n");
@@ -93,6 +104,9 @@ public class BeanShellFileSyncZipScript extends FileSyncZipScript {
                         command.append(" + sourceFilePath + \"/\"");
                     }
                     command.append(" + sourceFileName");
+                    if (delta) {
+                        command.append(" + \"").append(FileSyncDelta.DELTA_SUFFIX).append("\"");
+                    }
                     command.append(");\n");
                     command.append("  java.io.File targetFile = new java.io.File(");
                     command.append(targetFile);
@@ -125,11 +139,15 @@ public class BeanShellFileSyncZipScript extends FileSyncZipScript {
                         }
                     }
                     command.append("  if (processFile) {\n");
-                    command.append("    if (sourceFile.isDirectory()) {\n");
-                    command.append("      org.apache.commons.io.FileUtils.copyDirectory(sourceFile, targetFile, true);\n");
-                    command.append("    } else {\n");
-                    command.append("      org.apache.commons.io.FileUtils.copyFile(sourceFile, targetFile, true);\n");
-                    command.append("    }\n");
+                    if (delta) {
+                        command.append("    org.jumpmind.symmetric.file.FileSyncDelta.apply(sourceFile, targetFile);\n");
+                    } else {
+                        command.append("    if (sourceFile.isDirectory()) {\n");
+                        command.append("      org.apache.commons.io.FileUtils.copyDirectory(sourceFile, targetFile, true);\n");
+                        command.append("    } else {\n");
+                        command.append("      org.apache.commons.io.FileUtils.copyFile(sourceFile, targetFile, true);\n");
+                        command.append("    }\n");
+                    }
                     command.append("  }\n");
                     command.append("  fileList.put(").append(targetFile)
                             .append(",\"");
@@ -0,0 +1,492 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.jumpmind.exception.IoException;
+import org.jumpmind.symmetric.Version;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.model.FileSnapshot;
+import org.jumpmind.symmetric.model.Node;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends only the changed parts of large files. Files are cut into chunks where a rolling hash of the content matches a pattern, so inserting or removing
+ * bytes only changes the chunks around the edit. The source keeps a signature of the chunks it last sent to each node, and when a file is modified again it
+ * sends the new chunks and a reference to each chunk the node already has. The node cuts its own copy of the file into chunks the same way to find the
+ * referenced chunks, writes the new file beside the old one and moves it into place.
+ * <p>
+ * A delta is only sent to nodes on {@link #MIN_TARGET_VERSION} or later, and only when the checksum of the signature matches the checksum the file had
+ * before it changed, so the node is expected to have the content the signature describes. If it doesn't, the batch fails with a
+ * {@link FileConflictException}.
+ */
+public class FileSyncDelta {
+    private static final Logger log = LoggerFactory.getLogger(FileSyncDelta.class);
+    public static final String DELTA_SUFFIX = ".delta";
+    /**
+     * The first version that can apply a delta
+     */
+    public static final String MIN_TARGET_VERSION = "3.14.0";
+    protected static final String SIGNATURE_SUFFIX = ".sig";
+    protected static final int MAGIC = 0x53594e44;
+    protected static final int VERSION = 1;
+    protected static final byte END = 0;
+    protected static final byte COPY = 1;
+    protected static final byte LITERAL = 2;
+    protected static final int MIN_CHUNK_SIZE = 2048;
+    protected static final int MAX_CHUNK_SIZE = 65536;
+    protected static final long CHUNK_MASK = (1 << 13) - 1;
+    protected static final int BUFFER_SIZE = 1024 * 1024;
+    protected static final long[] GEAR = new long[256];
+    static {
+        long seed = 0x5eed5eed5eed5eedL;
+        for (int i = 0; i < GEAR.length; i++) {
+            seed += 0x9e3779b97f4a7c15L;
+            long z = seed;
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            GEAR[i] = z ^ (z >>> 31);
+        }
+    }
+
+    protected File signatureDir;
+    protected long minFileSize;
+
+    public FileSyncDelta(File signatureDir, long minFileSize) {
+        this.signatureDir = signatureDir;
+        this.minFileSize = minFileSize;
+    }
+
+    /**
+     * Create the delta support for the file sync writer, or null if it is turned off. It needs file.sync.use.crc, because the checksum the file had
+     * before it changed is what tells whether the node has the content of the signature.
+     */
+    public static FileSyncDelta create(IParameterService parameterService) {
+        if (parameterService.is(ParameterConstants.FILE_SYNC_DELTA_ENABLED)) {
+            if (!parameterService.is(ParameterConstants.FILE_SYNC_USE_CRC)) {
+                log.debug("Sending whole files because {} needs {}", ParameterConstants.FILE_SYNC_DELTA_ENABLED, ParameterConstants.FILE_SYNC_USE_CRC);
+                return null;
+            }
+            return new FileSyncDelta(new File(parameterService.getTempDirectory(), "filesync_signatures"),
+                    parameterService.getLong(ParameterConstants.FILE_SYNC_DELTA_MIN_FILE_SIZE, 1048576));
+        }
+        return null;
+    }
+
+    /**
+     * Whether the node runs a version that can apply a delta. A node whose version is not known is sent whole files.
+     */
+    public static boolean isSupportedBy(Node node) {
+        if (node == null || StringUtils.isBlank(node.getSymmetricVersion())) {
+            return false;
+        }
+        return !Version.isOlderThanVersion(node.getSymmetricVersion(), MIN_TARGET_VERSION);
+    }
+
+    public boolean isTracked(File file) {
+        return file.isFile() && file.length() >= minFileSize;
+    }
+
+    /**
+     * Get the signature of what was last sent to the node, if the node should still have that content
+     */
+    public Signature getPreviousSignature(String targetNodeId, FileSnapshot snapshot) {
+        if (snapshot.getOldCrc32Checksum() == 0) {
+            return null;
+        }
+        File signatureFile = getSignatureFile(targetNodeId, snapshot);
+        if (signatureFile.exists()) {
+            try {
+                Signature signature = readSignature(signatureFile);
+                if (signature.getCrc32Checksum() == snapshot.getOldCrc32Checksum()) {
+                    return signature;
+                }
+            } catch (IOException ex) {
+                log.warn("Could not read the file sync signature {}.  The whole file will be sent.  {}", signatureFile, ex.getMessage());
+            }
+        }
+        return null;
+    }
+
+    public void saveSignature(String targetNodeId, FileSnapshot snapshot, Signature signature) {
+        File signatureFile = getSignatureFile(targetNodeId, snapshot);
+        try {
+            writeSignature(signatureFile, signature);
+        } catch (IOException ex) {
+            log.warn("Could not write the file sync signature {}.  The whole file will be sent next time.  {}", signatureFile, ex.getMessage());
+            FileUtils.deleteQuietly(signatureFile);
+        }
+    }
+
+    /**
+     * Forget what was sent to the node for the file, so its next change is sent whole
+     */
+    public void deleteSignature(String targetNodeId, FileSnapshot snapshot) {
+        FileUtils.deleteQuietly(getSignatureFile(targetNodeId, snapshot));
+    }
+
+    /**
+     * Forget everything that was sent to the node, so each file's next change is sent whole
+     */
+    public void deleteSignatures(String targetNodeId) {
+        FileUtils.deleteQuietly(new File(signatureDir, targetNodeId));
+    }
+
+    protected File getSignatureFile(String targetNodeId, FileSnapshot snapshot) {
+        StringBuilder path = new StringBuilder();
+        path.append(targetNodeId).append("/").append(snapshot.getTriggerId()).append("/").append(snapshot.getRouterId()).append("/");
+        if (!".".equals(snapshot.getRelativeDir())) {
+            path.append(snapshot.getRelativeDir()).append("/");
+        }
+        path.append(snapshot.getFileName()).append(SIGNATURE_SUFFIX);
+        return new File(signatureDir, path.toString());
+    }
+
+    /**
+     * Copy the whole file to the stream, returning its signature
+     */
+    public static Signature writeFull(File file, OutputStream out) throws IOException {
+        Signature signature = new Signature();
+        CRC32 crc = new CRC32();
+        MessageDigest digest = newDigest();
+        try (InputStream in = new FileInputStream(file)) {
+            Chunker chunker = new Chunker(in);
+            while (chunker.next()) {
+                out.write(chunker.buffer, chunker.chunkOffset, chunker.chunkLength);
+                crc.update(chunker.buffer, chunker.chunkOffset, chunker.chunkLength);
+                digest.update(chunker.buffer, chunker.chunkOffset, chunker.chunkLength);
+                signature.add(digest.digest(), chunker.chunkLength);
+            }
+        }
+        signature.crc32Checksum = crc.getValue();
+        signature.literalByteCount = signature.size;
+        return signature;
+    }
+
+    /**
+     * Write the chunks of the file that aren't in the previous signature to the stream, and a reference to each chunk that is, returning the signature of
+     * the file
+     */
+    public static Signature writeDelta(File file, Signature previous, OutputStream os) throws IOException {
+        Set<ByteBuffer> previousHashes = new HashSet<ByteBuffer>(previous.hashes.size() * 2);
+        for (byte[] hash : previous.hashes) {
+            previousHashes.add(ByteBuffer.wrap(hash));
+        }
+        Signature signature = new Signature();
+        CRC32 crc = new CRC32();
+        MessageDigest digest = newDigest();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new NonClosingOutputStream(os), 65536));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        try (InputStream in = new FileInputStream(file)) {
+            Chunker chunker = new Chunker(in);
+            while (chunker.next()) {
+                crc.update(chunker.buffer, chunker.chunkOffset, chunker.chunkLength);
+                digest.update(chunker.buffer, chunker.chunkOffset, chunker.chunkLength);
+                byte[] hash = digest.digest();
+                signature.add(hash, chunker.chunkLength);
+                if (previousHashes.contains(ByteBuffer.wrap(hash))) {
+                    out.writeByte(COPY);
+                    out.writeInt(chunker.chunkLength);
+                    out.write(hash);
+                } else {
+                    out.writeByte(LITERAL);
+                    out.writeInt(chunker.chunkLength);
+                    out.write(hash);
+                    out.write(chunker.buffer, chunker.chunkOffset, chunker.chunkLength);
+                    signature.literalByteCount += chunker.chunkLength;
+                }
+            }
+        }
+        signature.crc32Checksum = crc.getValue();
+        out.writeByte(END);
+        out.writeLong(signature.size);
+        out.writeLong(signature.crc32Checksum);
+        out.writeLong(file.lastModified());
+        out.close();
+        return signature;
+    }
+
+    /**
+     * Rebuild the target file from a delta and the chunks of its current content. The new content is written to a temporary file in the same directory and
+     * moved into place, so the target file is never partially written.
+     */
+    public static void apply(File deltaFile, File targetFile) throws IOException {
+        if (!targetFile.isFile()) {
+            throw new FileConflictException(targetFile.getAbsolutePath() + " did not exist to apply a file sync delta");
+        }
+        Map<ByteBuffer, Long> offsets = index(targetFile);
+        File tempFile = new File(targetFile.getParentFile(), "." + targetFile.getName() + "." + System.nanoTime() + ".tmp");
+        boolean moved = false;
+        try {
+            long size = 0;
+            long lastModified = 0;
+            CRC32 crc = new CRC32();
+            byte[] buffer = new byte[MAX_CHUNK_SIZE];
+            byte[] hash = new byte[newDigest().getDigestLength()];
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(deltaFile), 65536));
+                    RandomAccessFile base = new RandomAccessFile(targetFile, "r");
+                    OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile), 65536)) {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    throw new IoException(deltaFile.getAbsolutePath() + " is not a file sync delta");
+                }
+                byte type;
+                while ((type = in.readByte()) != END) {
+                    int length = in.readInt();
+                    if (length < 0 || length > MAX_CHUNK_SIZE) {
+                        throw new IoException(deltaFile.getAbsolutePath() + " has a chunk that is too large");
+                    }
+                    in.readFully(hash);
+                    if (type == COPY) {
+                        Long offset = offsets.get(ByteBuffer.wrap(hash));
+                        if (offset == null) {
+                            throw new FileConflictException(targetFile.getAbsolutePath()
+                                    + " did not have the content the file sync delta was made from");
+                        }
+                        base.seek(offset);
+                        base.readFully(buffer, 0, length);
+                    } else {
+                        in.readFully(buffer, 0, length);
+                    }
+                    out.write(buffer, 0, length);
+                    crc.update(buffer, 0, length);
+                    size += length;
+                }
+                long expectedSize = in.readLong();
+                long expectedCrc = in.readLong();
+                lastModified = in.readLong();
+                if (size != expectedSize || crc.getValue() != expectedCrc) {
+                    throw new FileConflictException(targetFile.getAbsolutePath() + " did not match the file sync delta after it was applied");
+                }
+            }
+            tempFile.setLastModified(lastModified);
+            try {
+                Files.move(tempFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tempFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            moved = true;
+        } finally {
+            if (!moved) {
+                FileUtils.deleteQuietly(tempFile);
+            }
+        }
+    }
+
+    /**
+     * Find the offset of each distinct chunk in the file
+     */
+    protected static Map<ByteBuffer, Long> index(File file) throws IOException {
+        Map<ByteBuffer, Long> offsets = new HashMap<ByteBuffer, Long>();
+        MessageDigest digest = newDigest();
+        long offset = 0;
+        try (InputStream in = new FileInputStream(file)) {
+            Chunker chunker = new Chunker(in);
+            while (chunker.next()) {
+                digest.update(chunker.buffer, chunker.chunkOffset, chunker.chunkLength);
+                ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+                if (!offsets.containsKey(hash)) {
+                    offsets.put(hash, offset);
+                }
+                offset += chunker.chunkLength;
+            }
+        }
+        return offsets;
+    }
+
+    protected static Signature readSignature(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 65536))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a file sync signature");
+            }
+            Signature signature = new Signature();
+            signature.crc32Checksum = in.readLong();
+            int count = in.readInt();
+            int hashLength = newDigest().getDigestLength();
+            for (int i = 0; i < count; i++) {
+                int length = in.readInt();
+                byte[] hash = new byte[hashLength];
+                in.readFully(hash);
+                signature.add(hash, length);
+            }
+            return signature;
+        }
+    }
+
+    protected static void writeSignature(File file, Signature signature) throws IOException {
+        file.getParentFile().mkdirs();
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), 65536))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(signature.crc32Checksum);
+            out.writeInt(signature.hashes.size());
+            for (int i = 0; i < signature.hashes.size(); i++) {
+                out.writeInt(signature.lengths.get(i));
+                out.write(signature.hashes.get(i));
+            }
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    protected static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Find the end of the chunk that starts at the offset. The rolling hash only depends on the last 64 bytes, so chunk boundaries move with the content.
+     */
+    protected static int cut(byte[] buffer, int offset, int end) {
+        int length = Math.min(end - offset, MAX_CHUNK_SIZE);
+        if (length <= MIN_CHUNK_SIZE) {
+            return length;
+        }
+        long hash = 0;
+        for (int i = MIN_CHUNK_SIZE; i < length; i++) {
+            hash = (hash << 1) + GEAR[buffer[offset + i] & 0xff];
+            if ((hash & CHUNK_MASK) == 0) {
+                return i + 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * The chunks of a version of a file
+     */
+    public static class Signature {
+        protected long crc32Checksum;
+        protected long size;
+        protected long literalByteCount;
+        protected List<byte[]> hashes = new ArrayList<byte[]>();
+        protected List<Integer> lengths = new ArrayList<Integer>();
+
+        protected void add(byte[] hash, int length) {
+            hashes.add(hash);
+            lengths.add(length);
+            size += length;
+        }
+
+        public long getCrc32Checksum() {
+            return crc32Checksum;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * The number of bytes of file content that were written, as opposed to referenced
+         */
+        public long getLiteralByteCount() {
+            return literalByteCount;
+        }
+
+        public int getChunkCount() {
+            return hashes.size();
+        }
+    }
+
+    static class Chunker {
+        final InputStream in;
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int start;
+        int end;
+        boolean eof;
+        int chunkOffset;
+        int chunkLength;
+
+        Chunker(InputStream in) {
+            this.in = in;
+        }
+
+        boolean next() throws IOException {
+            if (!eof && end - start < MAX_CHUNK_SIZE) {
+                System.arraycopy(buffer, start, buffer, 0, end - start);
+                end -= start;
+                start = 0;
+                while (!eof && end < buffer.length) {
+                    int count = in.read(buffer, end, buffer.length - end);
+                    if (count < 0) {
+                        eof = true;
+                    } else {
+                        end += count;
+                    }
+                }
+            }
+            if (start == end) {
+                return false;
+            }
+            chunkOffset = start;
+            chunkLength = cut(buffer, start, end);
+            start += chunkLength;
+            return true;
+        }
+    }
+
+    static class NonClosingOutputStream extends java.io.FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
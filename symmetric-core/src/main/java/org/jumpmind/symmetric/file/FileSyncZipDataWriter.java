@@ -28,8 +28,10 @@ import java.nio.file.Files;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -75,6 +77,7 @@ public class FileSyncZipDataWriter implements IDataWriter {
     protected INodeService nodeService;
     protected IExtensionService extensionService;
     protected IConfigurationService configurationService;
+    protected FileSyncDelta fileSyncDelta;
 
     public FileSyncZipDataWriter(long maxBytesToSync, IFileSyncService fileSyncService,
             INodeService nodeService, IStagedResource stagedResource, IExtensionService extensionService, IConfigurationService configurationService) {
@@ -86,6 +89,13 @@ public class FileSyncZipDataWriter implements IDataWriter {
         this.configurationService = configurationService;
     }
 
+    /**
+     * Send only the changed chunks of large files that were modified, when the target node can apply them
+     */
+    public void setFileSyncDelta(FileSyncDelta fileSyncDelta) {
+        this.fileSyncDelta = fileSyncDelta;
+    }
+
     public void open(DataContext context) {
         this.context = context;
     }
@@ -180,6 +190,9 @@ public class FileSyncZipDataWriter implements IDataWriter {
                     zos = new ZipOutputStream(stagedResource.getOutputStream());
                 }
                 FileSyncZipScript script = createFileSyncZipScript(batch.getTargetNodeId());
+                FileSyncDelta delta = fileSyncDelta != null && script.isDeltaSupported()
+                        && FileSyncDelta.isSupportedBy(nodeService.findNode(batch.getTargetNodeId(), true)) ? fileSyncDelta : null;
+                Set<String> entriesWithDelta = new HashSet<String>();
                 script.buildScriptStart(batch);
                 Map<String, LastEventType> entriesByLastEventType = new HashMap<String, LastEventType>();
                 Map<String, String> entriesByLastRouterId = new HashMap<String, String>();
@@ -222,18 +235,40 @@ public class FileSyncZipDataWriter implements IDataWriter {
                         if (addFileToZip) {
                             if (eventType != LastEventType.DELETE) {
                                 if (file.exists()) {
-                                    byteCount += file.length();
-                                    ZipEntry entry = new ZipEntry(entryName.toString());
+                                    boolean tracked = delta != null && delta.isTracked(file);
+                                    FileSyncDelta.Signature previousSignature = tracked && eventType == LastEventType.MODIFY
+                                            ? delta.getPreviousSignature(batch.getTargetNodeId(), snapshot) : null;
+                                    ZipEntry entry = null;
+                                    if (previousSignature != null) {
+                                        entry = new ZipEntry(entryName.toString() + FileSyncDelta.DELTA_SUFFIX);
+                                    } else {
+                                        entry = new ZipEntry(entryName.toString());
+                                        entry.setSize(file.length());
+                                    }
                                     BasicFileAttributes attr = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
                                     // note: as of 8/21 getting the creation time won't work on unix file systems EVEN IF THEY HAVE EXT4
                                     // you also cannot set the creation time on unix systems (birth date) using setCreationTime, so this only works for windows
                                     entry.setCreationTime(attr.creationTime());
-                                    entry.setSize(file.length());
                                     entry.setTime(file.lastModified());
                                     zos.putNextEntry(entry);
-                                    if (file.isFile()) {
-                                        try (FileInputStream fis = new FileInputStream(file)) {
-                                            IOUtils.copy(fis, zos);
+                                    if (tracked) {
+                                        FileSyncDelta.Signature signature = null;
+                                        if (previousSignature != null) {
+                                            signature = FileSyncDelta.writeDelta(file, previousSignature, zos);
+                                            entriesWithDelta.add(entryName.toString());
+                                            log.debug("Sending {} of {} bytes of {} as a delta", new Object[] { signature.getLiteralByteCount(),
+                                                    signature.getSize(), file.getAbsolutePath() });
+                                        } else {
+                                            signature = FileSyncDelta.writeFull(file, zos);
+                                        }
+                                        byteCount += signature.getLiteralByteCount();
+                                        delta.saveSignature(batch.getTargetNodeId(), snapshot, signature);
+                                    } else {
+                                        byteCount += file.length();
+                                        if (file.isFile()) {
+                                            try (FileInputStream fis = new FileInputStream(file)) {
+                                                IOUtils.copy(fis, zos);
+                                            }
                                         }
                                     }
                                     zos.closeEntry();
@@ -248,7 +283,7 @@ public class FileSyncZipDataWriter implements IDataWriter {
                         }
                         if (addFileToScript) {
                             script.buildScriptFileSnapshot(batch, snapshot, triggerRouter, fileTrigger,
-                                    file, targetBaseDir, targetFile);
+                                    file, targetBaseDir, targetFile, entriesWithDelta.contains(entryName.toString()));
                         }
                     } else {
                         log.error(
@@ -37,6 +37,18 @@ public abstract class FileSyncZipScript {
     public abstract void buildScriptFileSnapshot(Batch batch, FileSnapshot snapshot, FileTriggerRouter triggerRouter,
             FileTrigger fileTrigger, File file, String targetBaseDir, String targetFile);
 
+    /**
+     * Build the script for a file snapshot whose file was sent as a {@link FileSyncDelta} instead of the whole file
+     */
+    public void buildScriptFileSnapshot(Batch batch, FileSnapshot snapshot, FileTriggerRouter triggerRouter,
+            FileTrigger fileTrigger, File file, String targetBaseDir, String targetFile, boolean delta) {
+        buildScriptFileSnapshot(batch, snapshot, triggerRouter, fileTrigger, file, targetBaseDir, targetFile);
+    }
+
+    public boolean isDeltaSupported() {
+        return false;
+    }
+
     public abstract void buildScriptEnd(Batch batch);
 
     public StringBuilder getScript() {
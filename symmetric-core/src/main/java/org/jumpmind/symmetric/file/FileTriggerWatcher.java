@@ -0,0 +1,380 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.filefilter.IOFileFilter;
+import org.apache.commons.lang3.StringUtils;
+import org.jumpmind.exception.IoException;
+import org.jumpmind.symmetric.model.FileSnapshot;
+import org.jumpmind.symmetric.model.FileSnapshot.LastEventType;
+import org.jumpmind.symmetric.model.FileTrigger;
+import org.jumpmind.symmetric.model.FileTriggerRouter;
+import org.jumpmind.symmetric.model.ProcessInfo;
+import org.jumpmind.symmetric.service.IFileSyncService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks changes to the files of a file trigger with a {@link WatchService} that stays registered between runs of the tracker, so only the files that the
+ * file system reports as changed are looked at. The directory tree is reconciled against the last saved snapshot when the watcher starts, when the watch
+ * service overflows, when the changes it found could not be saved, and at least every reconcile period. Checksums are only calculated for files that
+ * changed, on a pool of threads. If a directory can't be watched, the watcher reports that it failed and the trigger is tracked by checking all of its
+ * files instead.
+ * <p>
+ * File systems that don't report changes made by other hosts, like most network shares, only see those changes when the tree is reconciled.
+ */
+public class FileTriggerWatcher {
+    final protected Logger log = LoggerFactory.getLogger(getClass());
+    protected FileTriggerRouter fileTriggerRouter;
+    protected IFileSyncService fileSyncService;
+    protected IOFileFilter fileFilter;
+    protected boolean recurse;
+    protected boolean useCrc;
+    protected int crcThreadCount;
+    protected long reconcilePeriodMs;
+    protected WatchService watchService;
+    protected Map<WatchKey, File> watchedDirectories = new HashMap<WatchKey, File>();
+    protected boolean reconcileNeeded = true;
+    protected boolean failed;
+    protected long lastReconcileTime;
+    protected ExecutorService crcExecutor;
+
+    public FileTriggerWatcher(FileTriggerRouter fileTriggerRouter, IFileSyncService fileSyncService, boolean useCrc, int crcThreadCount,
+            long reconcilePeriodMs) {
+        this.fileTriggerRouter = fileTriggerRouter;
+        this.fileSyncService = fileSyncService;
+        this.fileFilter = fileTriggerRouter.getFileTrigger().createIOFileFilter();
+        this.recurse = fileTriggerRouter.getFileTrigger().isRecurse();
+        this.useCrc = useCrc;
+        this.crcThreadCount = crcThreadCount;
+        this.reconcilePeriodMs = reconcilePeriodMs;
+    }
+
+    synchronized public DirectorySnapshot trackChanges(ProcessInfo processInfo) {
+        long ts = System.currentTimeMillis();
+        Map<File, Boolean> changedFiles = new LinkedHashMap<File, Boolean>();
+        pollEvents(changedFiles);
+        DirectorySnapshot changes;
+        if (reconcileNeeded || System.currentTimeMillis() - lastReconcileTime > reconcilePeriodMs) {
+            changes = reconcile(getLastSnapshot());
+        } else {
+            List<File> files = new ArrayList<File>(changedFiles.size());
+            List<LastEventType> eventTypes = new ArrayList<LastEventType>(changedFiles.size());
+            for (Map.Entry<File, Boolean> entry : changedFiles.entrySet()) {
+                File file = entry.getKey();
+                boolean created = entry.getValue();
+                if (!file.exists()) {
+                    if (!created && fileFilter.accept(file)) {
+                        files.add(file);
+                        eventTypes.add(LastEventType.DELETE);
+                    }
+                } else if ((created || !file.isDirectory()) && fileFilter.accept(file)) {
+                    files.add(file);
+                    eventTypes.add(created ? LastEventType.CREATE : LastEventType.MODIFY);
+                }
+            }
+            changes = new DirectorySnapshot(fileTriggerRouter, createSnapshots(files, eventTypes));
+        }
+        if (processInfo != null) {
+            for (int i = 0; i < changes.size(); i++) {
+                processInfo.incrementCurrentDataCount();
+            }
+        }
+        if (failed) {
+            closeWatchService();
+        } else if (changes.size() > 0) {
+            log.info("Watched {} directories in {} ms.  Found {} files changed.", new Object[] { watchedDirectories.size(),
+                    System.currentTimeMillis() - ts, changes.size() });
+        }
+        return changes;
+    }
+
+    /**
+     * Check the whole directory tree on the next run, because the changes found on this run were not saved
+     */
+    synchronized public void setReconcileNeeded() {
+        reconcileNeeded = true;
+    }
+
+    /**
+     * Whether a directory or the watch service could not be set up, so the files of the trigger have to be tracked without a watch
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Take the events the watch service has queued, registering new directories as they appear. The value for each file is true if it was created.
+     */
+    protected void pollEvents(Map<File, Boolean> changedFiles) {
+        if (watchService == null) {
+            return;
+        }
+        WatchKey key = null;
+        while ((key = watchService.poll()) != null) {
+            File directory = watchedDirectories.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    log.info("Too many changes were made under {} to watch, so all files will be checked", fileTriggerRouter.getFileTrigger().getBaseDir());
+                    reconcileNeeded = true;
+                } else if (directory != null) {
+                    File file = new File(directory, ((Path) event.context()).toString());
+                    if (event.kind() == ENTRY_CREATE) {
+                        changedFiles.put(file, Boolean.TRUE);
+                        if (recurse && file.isDirectory()) {
+                            watchNewDirectory(file, changedFiles);
+                        }
+                    } else if (!changedFiles.containsKey(file)) {
+                        changedFiles.put(file, Boolean.FALSE);
+                    }
+                }
+            }
+            if (!key.reset()) {
+                watchedDirectories.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Watch a directory that was just created, along with any directories and files that were created in it before it was watched
+     */
+    protected void watchNewDirectory(File newDirectory, Map<File, Boolean> changedFiles) {
+        Deque<File> directories = new ArrayDeque<File>();
+        directories.push(newDirectory);
+        while (!directories.isEmpty()) {
+            File directory = directories.pop();
+            watch(directory);
+            File[] children = directory.listFiles((java.io.FileFilter) fileFilter);
+            if (children != null) {
+                for (File child : children) {
+                    changedFiles.put(child, Boolean.TRUE);
+                    if (child.isDirectory()) {
+                        directories.push(child);
+                    }
+                }
+            }
+        }
+    }
+
+    protected void watch(File directory) {
+        if (watchService != null) {
+            try {
+                watchedDirectories.put(directory.toPath().register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), directory);
+            } catch (IOException ex) {
+                if (!failed) {
+                    log.warn("Unable to watch {}, so changes under {} will be tracked by checking all files on every run.  {}",
+                            new Object[] { directory.getAbsolutePath(), fileTriggerRouter.getFileTrigger().getBaseDir(), ex.getMessage() });
+                }
+                failed = true;
+            }
+        }
+    }
+
+    /**
+     * Walk the whole directory tree, watching each directory before it is listed, and compare what is found to the last snapshot by size and
+     * modification time
+     */
+    protected DirectorySnapshot reconcile(DirectorySnapshot lastSnapshot) {
+        long ts = System.currentTimeMillis();
+        closeWatchService();
+        reconcileNeeded = false;
+        lastReconcileTime = ts;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException ex) {
+            log.warn("Unable to create a watch service, so changes under {} will be tracked by checking all files on every run.  {}",
+                    fileTriggerRouter.getFileTrigger().getBaseDir(), ex.getMessage());
+            failed = true;
+        }
+        Map<String, FileSnapshot> lastSnapshotByPath = new HashMap<String, FileSnapshot>(lastSnapshot.size());
+        for (FileSnapshot fileSnapshot : lastSnapshot) {
+            lastSnapshotByPath.put(getPath(fileSnapshot), fileSnapshot);
+        }
+        List<File> files = new ArrayList<File>();
+        List<LastEventType> eventTypes = new ArrayList<LastEventType>();
+        int fileCount = 0;
+        File baseDir = new File(fileTriggerRouter.getFileTrigger().getBaseDir());
+        Deque<File> directories = new ArrayDeque<File>();
+        if (baseDir.isDirectory()) {
+            directories.push(baseDir);
+        }
+        while (!directories.isEmpty()) {
+            File directory = directories.pop();
+            watch(directory);
+            File[] children = directory.listFiles((java.io.FileFilter) fileFilter);
+            if (children != null) {
+                for (File child : children) {
+                    fileCount++;
+                    FileSnapshot current = new FileSnapshot(fileTriggerRouter, child, LastEventType.CREATE, false);
+                    FileSnapshot last = lastSnapshotByPath.remove(getPath(current));
+                    if (last == null || last.getLastEventType() == LastEventType.DELETE) {
+                        files.add(child);
+                        eventTypes.add(LastEventType.CREATE);
+                    } else if (!child.isDirectory()
+                            && (last.getFileSize() != current.getFileSize() || last.getFileModifiedTime() != current.getFileModifiedTime())) {
+                        files.add(child);
+                        eventTypes.add(LastEventType.MODIFY);
+                    }
+                    if (child.isDirectory()) {
+                        directories.push(child);
+                    }
+                }
+            }
+        }
+        DirectorySnapshot changes = new DirectorySnapshot(fileTriggerRouter, createSnapshots(files, eventTypes));
+        for (FileSnapshot last : lastSnapshotByPath.values()) {
+            if (last.getLastEventType() != LastEventType.DELETE) {
+                FileSnapshot copy = new FileSnapshot(last);
+                copy.setLastEventType(LastEventType.DELETE);
+                changes.add(copy);
+            }
+        }
+        log.info("Checked {} files under {} in {} ms.  Found {} files changed.", new Object[] { fileCount, baseDir.getAbsolutePath(),
+                System.currentTimeMillis() - ts, changes.size() });
+        return changes;
+    }
+
+    protected DirectorySnapshot getLastSnapshot() {
+        if (fileSyncService != null) {
+            return fileSyncService.getDirectorySnapshot(fileTriggerRouter);
+        }
+        return new DirectorySnapshot(fileTriggerRouter);
+    }
+
+    protected static String getPath(FileSnapshot fileSnapshot) {
+        return fileSnapshot.getRelativeDir() + "/" + fileSnapshot.getFileName();
+    }
+
+    /**
+     * Create the snapshots of changed files, calculating checksums on the pool of threads when there is more than one file
+     */
+    protected List<FileSnapshot> createSnapshots(List<File> files, List<LastEventType> eventTypes) {
+        List<FileSnapshot> snapshots = new ArrayList<FileSnapshot>(files.size());
+        if (useCrc && crcThreadCount > 1 && files.size() > 1) {
+            List<Future<FileSnapshot>> futures = new ArrayList<Future<FileSnapshot>>(files.size());
+            ExecutorService executor = getCrcExecutor();
+            for (int i = 0; i < files.size(); i++) {
+                final File file = files.get(i);
+                final LastEventType eventType = eventTypes.get(i);
+                futures.add(executor.submit(new Callable<FileSnapshot>() {
+                    public FileSnapshot call() throws Exception {
+                        return new FileSnapshot(fileTriggerRouter, file, eventType, true);
+                    }
+                }));
+            }
+            try {
+                for (Future<FileSnapshot> future : futures) {
+                    snapshots.add(future.get());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+                throw new IoException("Failed to calculate the checksum of a changed file", ex.getCause());
+            }
+        } else {
+            for (int i = 0; i < files.size(); i++) {
+                snapshots.add(new FileSnapshot(fileTriggerRouter, files.get(i), eventTypes.get(i), useCrc));
+            }
+        }
+        return snapshots;
+    }
+
+    protected ExecutorService getCrcExecutor() {
+        if (crcExecutor == null) {
+            crcExecutor = Executors.newFixedThreadPool(crcThreadCount, new ThreadFactory() {
+                final AtomicInteger threadNumber = new AtomicInteger(1);
+
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "file-sync-crc-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return crcExecutor;
+    }
+
+    public FileTriggerRouter getFileTriggerRouter() {
+        return fileTriggerRouter;
+    }
+
+    /**
+     * Whether this watcher tracks the same files the same way as the file trigger router, which may be a newer copy read from the database
+     */
+    public boolean isWatching(FileTriggerRouter other, boolean useCrc) {
+        FileTrigger trigger = fileTriggerRouter.getFileTrigger();
+        FileTrigger otherTrigger = other.getFileTrigger();
+        return this.useCrc == useCrc && trigger.isRecurse() == otherTrigger.isRecurse()
+                && StringUtils.equals(trigger.getBaseDir(), otherTrigger.getBaseDir())
+                && StringUtils.equals(trigger.getIncludesFiles(), otherTrigger.getIncludesFiles())
+                && StringUtils.equals(trigger.getExcludesFiles(), otherTrigger.getExcludesFiles());
+    }
+
+    protected void closeWatchService() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ex) {
+            }
+            watchService = null;
+        }
+        watchedDirectories.clear();
+    }
+
+    synchronized public void close() {
+        closeWatchService();
+        if (crcExecutor != null) {
+            crcExecutor.shutdownNow();
+            crcExecutor = null;
+        }
+    }
+}
@@ -23,11 +23,19 @@ package org.jumpmind.symmetric.io;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -67,36 +75,57 @@ public class DbCompare {
     private ISymmetricEngine sourceEngine;
     private ISymmetricEngine targetEngine;
     private DbCompareConfig config;
-    private DbValueComparator dbValueComparator;
 
     public DbCompare(ISymmetricEngine sourceEngine, ISymmetricEngine targetEngine, DbCompareConfig config) {
         this.config = config;
         this.sourceEngine = sourceEngine;
         this.targetEngine = targetEngine;
-        dbValueComparator = new DbValueComparator(sourceEngine, targetEngine);
     }
 
     public DbCompareReport compare() {
-        dbValueComparator.setNumericScale(config.getNumericScale());
-        dbValueComparator.setDateTimeFormat(config.getDateTimeFormat());
         log.info("Starting DBCompare with config:\n{}", config.report());
-        OutputStream sqlDiffOutput = getSqlDiffOutputStream();
+        final OutputStream sqlDiffOutput = getSqlDiffOutputStream();
         DbCompareReport report = new DbCompareReport();
         long start = System.currentTimeMillis();
         List<DbCompareTables> tablesToCompare = getTablesToCompare();
         report.printReportHeader(System.out);
-        for (DbCompareTables tables : tablesToCompare) {
-            try {
-                TableReport tableReport = compareTables(tables, sqlDiffOutput);
-                report.addTableReport(tableReport);
-                long elapsed = System.currentTimeMillis() - start;
-                log.info("Completed table {}.  Elapsed time: {}", tableReport,
-                        DurationFormatUtils.formatDurationWords((elapsed), true, true));
-                report.printTableReport(tableReport, System.out);
-            } catch (Exception e) {
-                log.error("Exception while comparing " + tables.getSourceTable() +
-                        " to " + tables.getTargetTable(), e);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, config.getThreadCount()), new ThreadFactory() {
+            final AtomicInteger threadNumber = new AtomicInteger(1);
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "dbcompare-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<Future<TableReport>> futures = new ArrayList<Future<TableReport>>(tablesToCompare.size());
+            for (final DbCompareTables tables : tablesToCompare) {
+                futures.add(executor.submit(new Callable<TableReport>() {
+                    public TableReport call() throws Exception {
+                        return compareTables(tables, sqlDiffOutput);
+                    }
+                }));
+            }
+            for (int i = 0; i < tablesToCompare.size(); i++) {
+                DbCompareTables tables = tablesToCompare.get(i);
+                try {
+                    TableReport tableReport = futures.get(i).get();
+                    report.addTableReport(tableReport);
+                    long elapsed = System.currentTimeMillis() - start;
+                    log.info("Completed table {}.  Elapsed time: {}", tableReport,
+                            DurationFormatUtils.formatDurationWords((elapsed), true, true));
+                    report.printTableReport(tableReport, System.out);
+                } catch (ExecutionException e) {
+                    log.error("Exception while comparing " + tables.getSourceTable() +
+                            " to " + tables.getTargetTable(), e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
             }
+        } finally {
+            executor.shutdownNow();
         }
         report.printReportFooter(System.out);
         long totalTime = System.currentTimeMillis() - start;
@@ -136,22 +165,12 @@ public class DbCompare {
     }
 
     protected TableReport compareTables(DbCompareTables tables, OutputStream sqlDiffOutput) {
-        String sourceSelect = getSourceComparisonSQL(tables, sourceEngine.getTargetDialect().getTargetPlatform());
-        String targetSelect = getTargetComparisonSQL(tables, targetEngine.getTargetDialect().getTargetPlatform());
-        // String targetSelect = getTargetComparisonSQL(tables, targetEngine.getDatabasePlatform());
-        CountingSqlReadCursor sourceCursor = new CountingSqlReadCursor(sourceEngine.getTargetDialect().getTargetPlatform().getSqlTemplateDirty().queryForCursor(
-                sourceSelect,
-                defaultRowMapper));
-        CountingSqlReadCursor targetCursor = new CountingSqlReadCursor(targetEngine.getTargetDialect().getTargetPlatform().getSqlTemplateDirty().queryForCursor(
-                targetSelect,
-                defaultRowMapper));
         TableReport tableReport = new TableReport();
         tableReport.setSourceTable(tables.getSourceTable().getName());
         tableReport.setTargetTable(tables.getTargetTable().getName());
-        Row sourceRow = sourceCursor.next();
-        Row targetRow = targetCursor.next();
-        int counter = 0;
-        long startTime = System.currentTimeMillis();
+        DbValueComparator dbValueComparator = new DbValueComparator(sourceEngine, targetEngine);
+        dbValueComparator.setNumericScale(config.getNumericScale());
+        dbValueComparator.setDateTimeFormat(config.getDateTimeFormat());
         DbCompareDiffWriter diffWriter = null;
         OutputStream stream = null;
         if (sqlDiffOutput != null) {
@@ -162,6 +181,40 @@ public class DbCompare {
         }
         diffWriter.setContinueAfterError(config.isContinueAfterError());
         try {
+            if (!config.isUseHashRanges() || !compareTablesByHashRanges(tables, tableReport, diffWriter, dbValueComparator)) {
+                String sourceSelect = getSourceComparisonSQL(tables, sourceEngine.getTargetDialect().getTargetPlatform());
+                String targetSelect = getTargetComparisonSQL(tables, targetEngine.getTargetDialect().getTargetPlatform());
+                compareRows(tables, sourceSelect, targetSelect, tableReport, diffWriter, dbValueComparator);
+            }
+        } finally {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+        return tableReport;
+    }
+
+    /**
+     * Compare the rows of both tables that are selected by the SQL statements, which must be ordered by primary key
+     */
+    protected void compareRows(DbCompareTables tables, String sourceSelect, String targetSelect, TableReport tableReport,
+            DbCompareDiffWriter diffWriter, DbValueComparator dbValueComparator) {
+        CountingSqlReadCursor sourceCursor = new CountingSqlReadCursor(sourceEngine.getTargetDialect().getTargetPlatform().getSqlTemplateDirty().queryForCursor(
+                sourceSelect,
+                defaultRowMapper));
+        CountingSqlReadCursor targetCursor = new CountingSqlReadCursor(targetEngine.getTargetDialect().getTargetPlatform().getSqlTemplateDirty().queryForCursor(
+                targetSelect,
+                defaultRowMapper));
+        int sourceRows = tableReport.getSourceRows();
+        int targetRows = tableReport.getTargetRows();
+        int counter = 0;
+        long startTime = System.currentTimeMillis();
+        try {
+            Row sourceRow = sourceCursor.next();
+            Row targetRow = targetCursor.next();
             while (true) {
                 if (sourceRow == null && targetRow == null) {
                     break;
@@ -215,24 +268,133 @@ public class DbCompare {
                     }
                     targetRow = targetCursor.next();
                 }
-                tableReport.setSourceRows(sourceCursor.count);
-                tableReport.setTargetRows(targetCursor.count);
+                tableReport.setSourceRows(sourceRows + sourceCursor.count);
+                tableReport.setTargetRows(targetRows + targetCursor.count);
             }
         } finally {
-            if (stream != null) {
-                try {
-                    stream.close();
-                } catch (IOException e) {
+            sourceCursor.close();
+            targetCursor.close();
+        }
+    }
+
+    /**
+     * Compare the tables by checksums over ranges of the primary key, comparing row by row only the ranges that differ. Returns false if the tables can't be
+     * compared this way, which requires the same kind of database on both sides, a single integer primary key, and no binary columns.
+     */
+    protected boolean compareTablesByHashRanges(final DbCompareTables tables, final TableReport tableReport, final DbCompareDiffWriter diffWriter,
+            final DbValueComparator dbValueComparator) {
+        final IDatabasePlatform sourcePlatform = sourceEngine.getTargetDialect().getTargetPlatform();
+        final IDatabasePlatform targetPlatform = targetEngine.getTargetDialect().getTargetPlatform();
+        final Table sourceTable = tables.getSourceTable();
+        final Table targetTable = tables.getTargetTable();
+        if (!StringUtils.equals(sourcePlatform.getName(), targetPlatform.getName())) {
+            log.info("Comparing {} row by row because the source and target are different kinds of databases", sourceTable.getName());
+            return false;
+        }
+        if (!DbCompareHashRanges.isRangeKey(sourceTable.getPrimaryKeyColumns()) || !DbCompareHashRanges.isRangeKey(targetTable.getPrimaryKeyColumns())) {
+            log.info("Comparing {} row by row because it doesn't have a single integer primary key", sourceTable.getName());
+            return false;
+        }
+        List<Column> sourceColumns = new ArrayList<Column>();
+        List<Column> targetColumns = new ArrayList<Column>();
+        for (Column sourceColumn : sourceTable.getColumns()) {
+            Column targetColumn = tables.getColumnMapping().get(sourceColumn);
+            if (targetColumn != null) {
+                sourceColumns.add(sourceColumn);
+                targetColumns.add(targetColumn);
+            }
+        }
+        String sourceChecksum = DbCompareHashRanges.getChecksumSql(sourcePlatform.getName(), sourceColumns, getQuote(sourcePlatform));
+        String targetChecksum = DbCompareHashRanges.getChecksumSql(targetPlatform.getName(), targetColumns, getQuote(targetPlatform));
+        if (sourceChecksum == null || targetChecksum == null) {
+            log.info("Comparing {} row by row because checksums are not supported for its columns on {}", sourceTable.getName(),
+                    sourcePlatform.getName());
+            return false;
+        }
+        final String sourceWhere = config.getSourceWhereClause(sourceTable.getName());
+        final String targetWhere = config.getTargetWhereClause(targetTable.getName());
+        final String sourceKey = "t." + getQuote(sourcePlatform) + sourceTable.getPrimaryKeyColumns()[0].getName() + getQuote(sourcePlatform);
+        final String targetKey = "t." + getQuote(targetPlatform) + targetTable.getPrimaryKeyColumns()[0].getName() + getQuote(targetPlatform);
+        final String sourceSummarySql = getSummarySQL(sourceTable, sourcePlatform, sourceChecksum, sourceKey, sourceWhere);
+        final String targetSummarySql = getSummarySQL(targetTable, targetPlatform, targetChecksum, targetKey, targetWhere);
+        log.info("Source summary SQL: {}", sourceSummarySql);
+        log.info("Target summary SQL: {}", targetSummarySql);
+        DbCompareHashRanges hashRanges = new DbCompareHashRanges(config.getHashRangeRowCount()) {
+            @Override
+            protected Summary summarize(int side, Long low, Long high) {
+                if (side == SOURCE) {
+                    return querySummary(sourcePlatform, sourceSummarySql, sourceKey, low, high);
+                } else {
+                    return querySummary(targetPlatform, targetSummarySql, targetKey, low, high);
                 }
             }
-            if (sourceCursor != null) {
-                sourceCursor.close();
+
+            @Override
+            protected void compareRows(long low, long high) {
+                String sourceSelect = getComparisonSQL(sourceTable, sourceTable.getPrimaryKeyColumns(), sourcePlatform,
+                        getRangeWhereClause(sourceWhere, sourceKey, low, high));
+                String targetSelect = getComparisonSQL(targetTable, targetTable.getPrimaryKeyColumns(), targetPlatform,
+                        getRangeWhereClause(targetWhere, targetKey, low, high));
+                DbCompare.this.compareRows(tables, sourceSelect, targetSelect, tableReport, diffWriter, dbValueComparator);
+            }
+
+            @Override
+            protected void matched(long rowCount) {
+                tableReport.setMatchedRows(tableReport.getMatchedRows() + (int) rowCount);
+                tableReport.setSourceRows(tableReport.getSourceRows() + (int) rowCount);
+                tableReport.setTargetRows(tableReport.getTargetRows() + (int) rowCount);
             }
-            if (targetCursor != null) {
-                targetCursor.close();
+        };
+        try {
+            hashRanges.compare();
+        } catch (RuntimeException ex) {
+            if (hashRanges.getSummaryCount() == 0) {
+                log.warn("Comparing {} row by row because its checksum could not be calculated: {}", sourceTable.getName(), ex.getMessage());
+                return false;
             }
+            throw ex;
         }
-        return tableReport;
+        log.info("Compared {} with {} range checksums and {} ranges compared row by row", new Object[] { sourceTable.getName(),
+                hashRanges.getSummaryCount(), hashRanges.getRowCompareCount() });
+        return true;
+    }
+
+    protected String getSummarySQL(Table table, IDatabasePlatform platform, String checksumSql, String key, String whereClause) {
+        DatabaseInfo databaseInfo = platform.getDatabaseInfo();
+        StringBuilder sql = new StringBuilder("select count(*) row_count, ");
+        sql.append(checksumSql).append(" row_checksum, min(").append(key).append(") min_key, max(").append(key).append(") max_key from ");
+        sql.append(table.getQualifiedTableName(getQuote(platform), databaseInfo.getCatalogSeparator(), databaseInfo.getSchemaSeparator()));
+        sql.append(" t where (").append(whereClause).append(")");
+        return sql.toString();
+    }
+
+    protected String getRangeWhereClause(String whereClause, String key, long low, long high) {
+        return "(" + whereClause + ") and " + key + " >= " + low + " and " + key + " <= " + high;
+    }
+
+    protected DbCompareHashRanges.Summary querySummary(IDatabasePlatform platform, String summarySql, String key, Long low, Long high) {
+        Row row = null;
+        if (low == null) {
+            row = platform.getSqlTemplateDirty().queryForRow(summarySql);
+        } else {
+            row = platform.getSqlTemplateDirty().queryForRow(summarySql + " and " + key + " >= ? and " + key + " <= ?", low, high);
+        }
+        return new DbCompareHashRanges.Summary(row.getLong("row_count"), row.getString("row_checksum"), toLong(row.get("min_key")),
+                toLong(row.get("max_key")));
+    }
+
+    protected Long toLong(Object value) {
+        if (value == null) {
+            return null;
+        } else if (value instanceof Number && !(value instanceof BigDecimal)) {
+            return ((Number) value).longValue();
+        }
+        return new BigDecimal(value.toString()).longValueExact();
+    }
+
+    protected String getQuote(IDatabasePlatform platform) {
+        String quote = platform.getDatabaseInfo().getDelimiterToken();
+        return quote == null ? "" : quote;
     }
 
     protected int comparePk(DbCompareTables tables, DbCompareRow sourceCompareRow, DbCompareRow targetCompareRow) {
@@ -44,6 +44,9 @@ public class DbCompareConfig {
     private Map<String, List<String>> tablesToExcludedColumns = new LinkedHashMap<String, List<String>>();
     private String outputSql;
     private boolean continueAfterError = false;
+    private boolean useHashRanges = false;
+    private long hashRangeRowCount = 10000;
+    private int threadCount = 1;
     private Map<String, String> configSources = new HashMap<String, String>();
 
     public DbCompareConfig() {
@@ -58,6 +61,9 @@ public class DbCompareConfig {
         configSources.put("sqlDiffFileName", "default");
         configSources.put("outputSql", "default");
         configSources.put("continueAfterError", "default");
+        configSources.put("useHashRanges", "default");
+        configSources.put("hashRangeRowCount", "default");
+        configSources.put("threadCount", "default");
     }
 
     public String getSourceWhereClause(String tableName) {
@@ -195,6 +201,30 @@ public class DbCompareConfig {
         return continueAfterError;
     }
 
+    public boolean isUseHashRanges() {
+        return useHashRanges;
+    }
+
+    public void setUseHashRanges(boolean useHashRanges) {
+        this.useHashRanges = useHashRanges;
+    }
+
+    public long getHashRangeRowCount() {
+        return hashRangeRowCount;
+    }
+
+    public void setHashRangeRowCount(long hashRangeRowCount) {
+        this.hashRangeRowCount = hashRangeRowCount;
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
     public String report() {
         StringBuilder buff = new StringBuilder(128);
         buff.append("\tsourceTableNames=").append(sourceTableNames).append(" @").append(configSources.get("sourceTableNames")).append("\n");
@@ -207,6 +237,9 @@ public class DbCompareConfig {
                 "\n");
         buff.append("\toutputSql=").append(outputSql).append(" @").append(configSources.get("outputSql")).append("\n");
         buff.append("\tcontinueAfterError=").append(continueAfterError).append(" @").append(configSources.get("continueAfterError")).append("\n");
+        buff.append("\tuseHashRanges=").append(useHashRanges).append(" @").append(configSources.get("useHashRanges")).append("\n");
+        buff.append("\thashRangeRowCount=").append(hashRangeRowCount).append(" @").append(configSources.get("hashRangeRowCount")).append("\n");
+        buff.append("\tthreadCount=").append(threadCount).append(" @").append(configSources.get("threadCount")).append("\n");
         return buff.toString();
     }
 }
@@ -154,8 +154,10 @@ public class DbCompareDiffWriter {
 
     protected void writeLine(String line) {
         try {
-            stream.write(line.getBytes());
-            stream.write("\r\n".getBytes());
+            synchronized (stream) {
+                stream.write(line.getBytes());
+                stream.write("\r\n".getBytes());
+            }
         } catch (Exception ex) {
             throw new RuntimeException("failed to write to stream '" + line + "'", ex);
         }
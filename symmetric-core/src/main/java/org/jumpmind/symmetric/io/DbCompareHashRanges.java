@@ -0,0 +1,227 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io;
+
+import java.math.BigInteger;
+import java.sql.Types;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.platform.DatabaseNamesConstants;
+
+/**
+ * Compares a table by aggregate checksums over ranges of an integer primary key. The database on each side counts and checksums the rows in a range, so
+ * only the summary of the range crosses the network. When a range doesn't match it is split and each part is summarized again, until the parts are small
+ * enough to compare row by row.
+ */
+abstract public class DbCompareHashRanges {
+    public static final int SOURCE = 0;
+    public static final int TARGET = 1;
+    protected static final BigInteger SPLIT = BigInteger.valueOf(8);
+    protected long rowCompareThreshold;
+    protected int summaryCount;
+    protected int rowCompareCount;
+
+    public DbCompareHashRanges(long rowCompareThreshold) {
+        this.rowCompareThreshold = rowCompareThreshold;
+    }
+
+    /**
+     * Count and checksum the rows on one side with keys from low to high inclusive, or all rows when the bounds are null
+     */
+    abstract protected Summary summarize(int side, Long low, Long high);
+
+    /**
+     * Compare the rows with keys from low to high inclusive one by one
+     */
+    abstract protected void compareRows(long low, long high);
+
+    /**
+     * Record rows that matched by checksum
+     */
+    abstract protected void matched(long rowCount);
+
+    public void compare() {
+        Summary source = summarize(SOURCE, null, null);
+        Summary target = summarize(TARGET, null, null);
+        summaryCount++;
+        if (source.matches(target)) {
+            matched(source.getRowCount());
+        } else if (source.getRowCount() > 0 || target.getRowCount() > 0) {
+            compare(Summary.min(source, target), Summary.max(source, target), source, target);
+        }
+    }
+
+    protected void compare(long low, long high, Summary source, Summary target) {
+        if (source.matches(target)) {
+            matched(source.getRowCount());
+            return;
+        }
+        BigInteger width = BigInteger.valueOf(high).subtract(BigInteger.valueOf(low)).add(BigInteger.ONE);
+        if (Math.max(source.getRowCount(), target.getRowCount()) <= rowCompareThreshold || width.compareTo(SPLIT) <= 0) {
+            rowCompareCount++;
+            compareRows(low, high);
+            return;
+        }
+        BigInteger step = width.add(SPLIT).subtract(BigInteger.ONE).divide(SPLIT);
+        BigInteger start = BigInteger.valueOf(low);
+        BigInteger last = BigInteger.valueOf(high);
+        while (start.compareTo(last) <= 0) {
+            BigInteger end = start.add(step).subtract(BigInteger.ONE).min(last);
+            Summary sourcePart = summarize(SOURCE, start.longValue(), end.longValue());
+            Summary targetPart = summarize(TARGET, start.longValue(), end.longValue());
+            summaryCount++;
+            if (sourcePart.getRowCount() > 0 || targetPart.getRowCount() > 0) {
+                compare(Summary.min(sourcePart, targetPart), Summary.max(sourcePart, targetPart), sourcePart, targetPart);
+            }
+            start = end.add(BigInteger.ONE);
+        }
+    }
+
+    /**
+     * The number of ranges that were summarized on both sides
+     */
+    public int getSummaryCount() {
+        return summaryCount;
+    }
+
+    /**
+     * The number of ranges that were compared row by row
+     */
+    public int getRowCompareCount() {
+        return rowCompareCount;
+    }
+
+    /**
+     * Whether the key can be split into ranges: a single primary key column of an integer type
+     */
+    public static boolean isRangeKey(Column[] primaryKeyColumns) {
+        if (primaryKeyColumns.length != 1) {
+            return false;
+        }
+        Column column = primaryKeyColumns[0];
+        switch (column.getMappedTypeCode()) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return true;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                return column.getScale() == 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Get an aggregate expression that checksums the columns of the rows, or null if the platform or columns aren't supported. The expression uses the
+     * platform's own hash function, so both sides must be the same kind of database for the checksums to match.
+     */
+    public static String getChecksumSql(String platformName, List<Column> columns, String quote) {
+        for (Column column : columns) {
+            if (column.isOfBinaryType()) {
+                return null;
+            }
+        }
+        if (platformName.startsWith(DatabaseNamesConstants.POSTGRESQL) || platformName.equals(DatabaseNamesConstants.GREENPLUM)) {
+            return "sum(('x' || substr(md5(" + concat(columns, quote, "coalesce(cast(%s as text), '~')", " || '|' || ")
+                    + "), 1, 15))::bit(60)::bigint)";
+        } else if (platformName.startsWith(DatabaseNamesConstants.MYSQL) || platformName.equals(DatabaseNamesConstants.MARIADB)) {
+            return "sum(cast(conv(substring(md5(concat_ws('|', " + concat(columns, quote, "coalesce(cast(%s as char), '~')", ", ")
+                    + ")), 1, 15), 16, 10) as unsigned))";
+        } else if (platformName.startsWith(DatabaseNamesConstants.ORACLE)) {
+            return "sum(ora_hash(" + concat(columns, quote, "nvl(to_char(%s), '~')", " || '|' || ") + "))";
+        } else if (platformName.startsWith(DatabaseNamesConstants.MSSQL)) {
+            // sum() of a bigint is a bigint on SQL Server, so widen each 56 bit hash to a decimal before summing
+            return "sum(cast(cast(substring(hashbytes('MD5', " + concat(columns, quote, "coalesce(cast(%s as nvarchar(max)), N'~')", " + N'|' + ")
+                    + "), 1, 7) as bigint) as decimal(38,0)))";
+        }
+        return null;
+    }
+
+    protected static String concat(List<Column> columns, String quote, String format, String separator) {
+        StringBuilder sql = new StringBuilder();
+        for (Column column : columns) {
+            if (sql.length() > 0) {
+                sql.append(separator);
+            }
+            sql.append(String.format(format, "t." + quote + column.getName() + quote));
+        }
+        return sql.toString();
+    }
+
+    /**
+     * The row count, checksum and key bounds of the rows in a range on one side
+     */
+    public static class Summary {
+        protected long rowCount;
+        protected String checksum;
+        protected Long minKey;
+        protected Long maxKey;
+
+        public Summary(long rowCount, String checksum, Long minKey, Long maxKey) {
+            this.rowCount = rowCount;
+            this.checksum = checksum;
+            this.minKey = minKey;
+            this.maxKey = maxKey;
+        }
+
+        public boolean matches(Summary other) {
+            return rowCount == other.rowCount && (rowCount == 0 || StringUtils.equals(checksum, other.checksum));
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public String getChecksum() {
+            return checksum;
+        }
+
+        public Long getMinKey() {
+            return minKey;
+        }
+
+        public Long getMaxKey() {
+            return maxKey;
+        }
+
+        protected static long min(Summary source, Summary target) {
+            if (source.minKey == null) {
+                return target.minKey;
+            } else if (target.minKey == null) {
+                return source.minKey;
+            }
+            return Math.min(source.minKey, target.minKey);
+        }
+
+        protected static long max(Summary source, Summary target) {
+            if (source.maxKey == null) {
+                return target.maxKey;
+            } else if (target.maxKey == null) {
+                return source.maxKey;
+            }
+            return Math.max(source.maxKey, target.maxKey);
+        }
+    }
+}
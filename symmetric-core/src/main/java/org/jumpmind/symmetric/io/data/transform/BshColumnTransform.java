@@ -35,18 +35,27 @@ import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlTemplate;
 import org.jumpmind.extension.IBuiltInExtensionPoint;
+import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.SymmetricException;
 import org.jumpmind.symmetric.common.Constants;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.io.data.DataContext;
 import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.data.transform.TransformColumn.IncludeOnType;
 import org.jumpmind.symmetric.model.Data;
+import org.jumpmind.symmetric.model.Node;
+import org.jumpmind.symmetric.service.IExtensionService;
 import org.jumpmind.symmetric.service.IParameterService;
+import org.jumpmind.symmetric.util.BshScriptCompiler;
+import org.jumpmind.symmetric.util.BshScriptCompiler.ICompiledScript;
+import org.jumpmind.symmetric.util.BshScriptCompiler.Variables;
 import org.jumpmind.util.Context;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import bsh.EvalError;
 import bsh.Interpreter;
 import bsh.TargetError;
 
@@ -54,7 +63,9 @@ public class BshColumnTransform implements ISingleNewAndOldValueColumnTransform,
     protected final Logger log = LoggerFactory.getLogger(getClass());
     final String INTERPRETER_KEY = String.format("%d.BshInterpreter", hashCode());
     public static final String NAME = "bsh";
+    final String VARIABLES_KEY = String.format("%d.BshVariables", hashCode());
     IParameterService parameterService;
+    BshScriptCompiler scriptCompiler;
     /*
      * Static context object used to maintain objects in memory for reference between BSH transforms.
      */
@@ -64,6 +75,11 @@ public class BshColumnTransform implements ISingleNewAndOldValueColumnTransform,
         this.parameterService = parameterService;
     }
 
+    public BshColumnTransform(IParameterService parameterService, IExtensionService extensionService) {
+        this(parameterService);
+        this.scriptCompiler = new BshScriptCompiler(extensionService);
+    }
+
     public String getName() {
         return NAME;
     }
@@ -81,62 +97,23 @@ public class BshColumnTransform implements ISingleNewAndOldValueColumnTransform,
             TransformColumn column, TransformedData data, Map<String, String> sourceValues,
             String newValue, String oldValue) throws IgnoreColumnException, IgnoreRowException {
         try {
-            Interpreter interpreter = getInterpreter(context);
-            interpreter.set("currentValue", newValue);
-            interpreter.set("oldValue", oldValue);
-            interpreter.set("channelId", context.getBatch().getChannelId());
-            interpreter.set("includeOn", column.getIncludeOn());
-            interpreter.set("sourceDmlType", data.getSourceDmlType());
-            interpreter.set("sourceDmlTypeString", data.getSourceDmlType().toString());
-            interpreter.set("transformedData", data);
-            interpreter.set("transformColumn", column);
-            Data csvData = (Data) context.get(Constants.DATA_CONTEXT_CURRENT_CSV_DATA);
-            if (csvData != null && csvData.getTriggerHistory() != null) {
-                interpreter.set("sourceSchemaName", csvData.getTriggerHistory().getSourceSchemaName());
-                interpreter.set("sourceCatalogName", csvData.getTriggerHistory().getSourceCatalogName());
-                interpreter.set("sourceTableName", csvData.getTriggerHistory().getSourceTableName());
-            }
-            for (String columnName : sourceValues.keySet()) {
-                interpreter.set(columnName.toUpperCase(), sourceValues.get(columnName));
-                interpreter.set(columnName, sourceValues.get(columnName));
-            }
             String transformExpression = column.getTransformExpression();
             if (StringUtils.isEmpty(transformExpression)) {
                 throw new SymmetricException("transformExpression cannot be empty. Check "
                         + "configuration for transform '" + column.getTransformId() + "'");
             }
             String globalScript = parameterService.getString(ParameterConstants.BSH_TRANSFORM_GLOBAL_SCRIPT);
-            String methodName = String.format("transform_%d()",
-                    Math.abs(transformExpression.hashCode() + (globalScript == null ? 0 : globalScript.hashCode())));
-            if (context.get(methodName) == null) {
-                interpreter.set("log", log);
-                interpreter.set("sqlTemplate", platform.getSqlTemplate());
-                interpreter.set("context", context);
-                interpreter.set("bshContext", bshContext);
-                interpreter.set(DATA_CONTEXT_ENGINE, context.get(DATA_CONTEXT_ENGINE));
-                interpreter.set(DATA_CONTEXT_TARGET_NODE, context.get(DATA_CONTEXT_TARGET_NODE));
-                interpreter.set(DATA_CONTEXT_TARGET_NODE_ID, context.get(DATA_CONTEXT_TARGET_NODE_ID));
-                interpreter.set(DATA_CONTEXT_TARGET_NODE_GROUP_ID, context.get(DATA_CONTEXT_TARGET_NODE_GROUP_ID));
-                interpreter.set(DATA_CONTEXT_TARGET_NODE_EXTERNAL_ID, context.get(DATA_CONTEXT_TARGET_NODE_EXTERNAL_ID));
-                interpreter.set(DATA_CONTEXT_SOURCE_NODE, context.get(DATA_CONTEXT_SOURCE_NODE));
-                interpreter.set(DATA_CONTEXT_SOURCE_NODE_ID, context.get(DATA_CONTEXT_SOURCE_NODE_ID));
-                interpreter.set(DATA_CONTEXT_SOURCE_NODE_GROUP_ID, context.get(DATA_CONTEXT_SOURCE_NODE_GROUP_ID));
-                interpreter.set(DATA_CONTEXT_SOURCE_NODE_EXTERNAL_ID, context.get(DATA_CONTEXT_SOURCE_NODE_EXTERNAL_ID));
-                if (StringUtils.isNotBlank(globalScript)) {
-                    interpreter.eval(globalScript);
-                }
-                interpreter.eval(String.format("%s {\n%s\n}", methodName, transformExpression));
-                context.put(methodName, Boolean.TRUE);
+            ICompiledScript compiledScript = null;
+            Variables variables = null;
+            if (scriptCompiler != null && StringUtils.isBlank(globalScript) && parameterService.is(ParameterConstants.BSH_COMPILE_ENABLED)) {
+                variables = bind(platform, context, column, data, sourceValues, newValue, oldValue);
+                compiledScript = scriptCompiler.getCompiledScript(transformExpression, variables);
             }
-            Object result = interpreter.eval(methodName);
-            if (csvData != null && csvData.getTriggerHistory() != null) {
-                interpreter.unset("sourceSchemaName");
-                interpreter.unset("sourceCatalogName");
-                interpreter.unset("sourceTableName");
-            }
-            for (String columnName : sourceValues.keySet()) {
-                interpreter.unset(columnName.toUpperCase());
-                interpreter.unset(columnName);
+            Object result = null;
+            if (compiledScript != null) {
+                result = compiledScript.execute(variables.getValues());
+            } else {
+                result = interpret(platform, context, column, data, sourceValues, newValue, oldValue, transformExpression, globalScript);
             }
             if (result instanceof String) {
                 if (data.getTargetDmlType().equals(DataEventType.DELETE) && data.getOldSourceValues() != null) {
@@ -175,6 +152,104 @@ public class BshColumnTransform implements ISingleNewAndOldValueColumnTransform,
         }
     }
 
+    protected Object interpret(IDatabasePlatform platform, DataContext context, TransformColumn column, TransformedData data,
+            Map<String, String> sourceValues, String newValue, String oldValue, String transformExpression, String globalScript) throws EvalError {
+        Interpreter interpreter = getInterpreter(context);
+        interpreter.set("currentValue", newValue);
+        interpreter.set("oldValue", oldValue);
+        interpreter.set("channelId", context.getBatch().getChannelId());
+        interpreter.set("includeOn", column.getIncludeOn());
+        interpreter.set("sourceDmlType", data.getSourceDmlType());
+        interpreter.set("sourceDmlTypeString", data.getSourceDmlType().toString());
+        interpreter.set("transformedData", data);
+        interpreter.set("transformColumn", column);
+        Data csvData = (Data) context.get(Constants.DATA_CONTEXT_CURRENT_CSV_DATA);
+        if (csvData != null && csvData.getTriggerHistory() != null) {
+            interpreter.set("sourceSchemaName", csvData.getTriggerHistory().getSourceSchemaName());
+            interpreter.set("sourceCatalogName", csvData.getTriggerHistory().getSourceCatalogName());
+            interpreter.set("sourceTableName", csvData.getTriggerHistory().getSourceTableName());
+        }
+        for (String columnName : sourceValues.keySet()) {
+            interpreter.set(columnName.toUpperCase(), sourceValues.get(columnName));
+            interpreter.set(columnName, sourceValues.get(columnName));
+        }
+        String methodName = String.format("transform_%d()",
+                Math.abs(transformExpression.hashCode() + (globalScript == null ? 0 : globalScript.hashCode())));
+        if (context.get(methodName) == null) {
+            interpreter.set("log", log);
+            interpreter.set("sqlTemplate", platform.getSqlTemplate());
+            interpreter.set("context", context);
+            interpreter.set("bshContext", bshContext);
+            interpreter.set(DATA_CONTEXT_ENGINE, context.get(DATA_CONTEXT_ENGINE));
+            interpreter.set(DATA_CONTEXT_TARGET_NODE, context.get(DATA_CONTEXT_TARGET_NODE));
+            interpreter.set(DATA_CONTEXT_TARGET_NODE_ID, context.get(DATA_CONTEXT_TARGET_NODE_ID));
+            interpreter.set(DATA_CONTEXT_TARGET_NODE_GROUP_ID, context.get(DATA_CONTEXT_TARGET_NODE_GROUP_ID));
+            interpreter.set(DATA_CONTEXT_TARGET_NODE_EXTERNAL_ID, context.get(DATA_CONTEXT_TARGET_NODE_EXTERNAL_ID));
+            interpreter.set(DATA_CONTEXT_SOURCE_NODE, context.get(DATA_CONTEXT_SOURCE_NODE));
+            interpreter.set(DATA_CONTEXT_SOURCE_NODE_ID, context.get(DATA_CONTEXT_SOURCE_NODE_ID));
+            interpreter.set(DATA_CONTEXT_SOURCE_NODE_GROUP_ID, context.get(DATA_CONTEXT_SOURCE_NODE_GROUP_ID));
+            interpreter.set(DATA_CONTEXT_SOURCE_NODE_EXTERNAL_ID, context.get(DATA_CONTEXT_SOURCE_NODE_EXTERNAL_ID));
+            if (StringUtils.isNotBlank(globalScript)) {
+                interpreter.eval(globalScript);
+            }
+            interpreter.eval(String.format("%s {\n%s\n}", methodName, transformExpression));
+            context.put(methodName, Boolean.TRUE);
+        }
+        Object result = interpreter.eval(methodName);
+        if (csvData != null && csvData.getTriggerHistory() != null) {
+            interpreter.unset("sourceSchemaName");
+            interpreter.unset("sourceCatalogName");
+            interpreter.unset("sourceTableName");
+        }
+        for (String columnName : sourceValues.keySet()) {
+            interpreter.unset(columnName.toUpperCase());
+            interpreter.unset(columnName);
+        }
+        return result;
+    }
+
+    protected Variables bind(IDatabasePlatform platform, DataContext context, TransformColumn column, TransformedData data,
+            Map<String, String> sourceValues, String newValue, String oldValue) {
+        Variables variables = (Variables) context.get(VARIABLES_KEY);
+        if (variables == null) {
+            variables = new Variables();
+            context.put(VARIABLES_KEY, variables);
+        }
+        variables.clear();
+        variables.set("currentValue", String.class, newValue);
+        variables.set("oldValue", String.class, oldValue);
+        variables.set("channelId", String.class, context.getBatch().getChannelId());
+        variables.set("includeOn", IncludeOnType.class, column.getIncludeOn());
+        variables.set("sourceDmlType", DataEventType.class, data.getSourceDmlType());
+        variables.set("sourceDmlTypeString", String.class, data.getSourceDmlType().toString());
+        variables.set("transformedData", TransformedData.class, data);
+        variables.set("transformColumn", TransformColumn.class, column);
+        Data csvData = (Data) context.get(Constants.DATA_CONTEXT_CURRENT_CSV_DATA);
+        if (csvData != null && csvData.getTriggerHistory() != null) {
+            variables.set("sourceSchemaName", String.class, csvData.getTriggerHistory().getSourceSchemaName());
+            variables.set("sourceCatalogName", String.class, csvData.getTriggerHistory().getSourceCatalogName());
+            variables.set("sourceTableName", String.class, csvData.getTriggerHistory().getSourceTableName());
+        }
+        variables.set("log", Logger.class, log);
+        variables.set("sqlTemplate", ISqlTemplate.class, platform.getSqlTemplate());
+        variables.set("context", DataContext.class, context);
+        variables.set("bshContext", Map.class, bshContext);
+        variables.set(DATA_CONTEXT_ENGINE, ISymmetricEngine.class, context.get(DATA_CONTEXT_ENGINE));
+        variables.set(DATA_CONTEXT_TARGET_NODE, Node.class, context.get(DATA_CONTEXT_TARGET_NODE));
+        variables.set(DATA_CONTEXT_TARGET_NODE_ID, String.class, context.get(DATA_CONTEXT_TARGET_NODE_ID));
+        variables.set(DATA_CONTEXT_TARGET_NODE_GROUP_ID, String.class, context.get(DATA_CONTEXT_TARGET_NODE_GROUP_ID));
+        variables.set(DATA_CONTEXT_TARGET_NODE_EXTERNAL_ID, String.class, context.get(DATA_CONTEXT_TARGET_NODE_EXTERNAL_ID));
+        variables.set(DATA_CONTEXT_SOURCE_NODE, Node.class, context.get(DATA_CONTEXT_SOURCE_NODE));
+        variables.set(DATA_CONTEXT_SOURCE_NODE_ID, String.class, context.get(DATA_CONTEXT_SOURCE_NODE_ID));
+        variables.set(DATA_CONTEXT_SOURCE_NODE_GROUP_ID, String.class, context.get(DATA_CONTEXT_SOURCE_NODE_GROUP_ID));
+        variables.set(DATA_CONTEXT_SOURCE_NODE_EXTERNAL_ID, String.class, context.get(DATA_CONTEXT_SOURCE_NODE_EXTERNAL_ID));
+        for (String columnName : sourceValues.keySet()) {
+            variables.set(columnName.toUpperCase(), String.class, sourceValues.get(columnName));
+            variables.set(columnName, String.class, sourceValues.get(columnName));
+        }
+        return variables;
+    }
+
     protected Interpreter getInterpreter(Context context) {
         Interpreter interpreter = (Interpreter) context.get(INTERPRETER_KEY);
         if (interpreter == null) {
@@ -22,26 +22,64 @@ package org.jumpmind.symmetric.io.data.transform;
 
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
+import org.jumpmind.db.model.Table;
 import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlRowMapper;
 import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.db.sql.Row;
 import org.jumpmind.db.sql.mapper.StringMapper;
 import org.jumpmind.extension.IBuiltInExtensionPoint;
 import org.jumpmind.symmetric.common.Constants;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.io.data.CsvData;
 import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.IDataWriter;
+import org.jumpmind.symmetric.io.data.writer.DataWriterStatisticConstants;
+import org.jumpmind.symmetric.io.data.writer.DatabaseWriterFilterAdapter;
 import org.jumpmind.symmetric.model.Data;
+import org.jumpmind.symmetric.service.IParameterService;
 import org.jumpmind.util.FormatUtils;
 import org.jumpmind.util.LinkedCaseInsensitiveMap;
+import org.jumpmind.util.Statistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class LookupColumnTransform implements ISingleNewAndOldValueColumnTransform, IBuiltInExtensionPoint {
+/**
+ * Looks up the value of a column with SQL that uses the source values as named parameters. When cache.transform.lookup.enabled is true, the results are
+ * cached by the values bound to the SQL. As a database writer filter, it tracks the tables loaded by each batch, clearing the caches that select from
+ * them and querying the database directly for the rest of the batch, so uncommitted rows are never cached.
+ */
+public class LookupColumnTransform extends DatabaseWriterFilterAdapter implements ISingleNewAndOldValueColumnTransform, IBuiltInExtensionPoint {
     protected final Logger log = LoggerFactory.getLogger(getClass());
     public static final String NAME = "lookup";
     protected static final StringMapper lookupColumnRowMapper = new StringMapper();
+    protected static final Pattern NAMED_PARAMETER = Pattern.compile("(?<!:):(\\w+)");
+    protected static final Pattern PRELOAD_SQL = Pattern.compile("(?is)^\\s*select\\s+(.+?)\\s+from\\s+(.+?)\\s+where\\s+(.+?)\\s*$");
+    protected static final Pattern PRELOAD_CONDITION = Pattern.compile("(?is)^\\s*([\\w.\"]+)\\s*=\\s*:(\\w+)\\s*$");
+    protected static final Pattern COLUMN_ALIAS = Pattern.compile("(?is)^(.+?)\\s+as\\s+[\\w\"]+$");
+    final String WRITTEN_TABLES_KEY = String.format("%d.LookupWrittenTables", hashCode());
+    final String LAST_WRITTEN_TABLE_KEY = String.format("%d.LookupLastWrittenTable", hashCode());
+    protected IParameterService parameterService;
+    protected Map<String, LookupCache> caches = new ConcurrentHashMap<String, LookupCache>();
+
+    public LookupColumnTransform() {
+    }
+
+    public LookupColumnTransform(IParameterService parameterService) {
+        this.parameterService = parameterService;
+    }
 
     public String getName() {
         return NAME;
@@ -75,23 +113,41 @@ public class LookupColumnTransform implements ISingleNewAndOldValueColumnTransfo
                     namedParams.put("TRM_" + transformedCol.getKey().toUpperCase(), transformedCol.getValue());
                 }
             }
-            if (transaction != null) {
-                values = transaction.query(sql, lookupColumnRowMapper, namedParams);
+            LookupCache cache = getCache(platform, context, sql);
+            List<Object> cacheKey = null;
+            CacheEntry cacheEntry = null;
+            long cacheGeneration = 0;
+            if (cache != null) {
+                cacheKey = cache.getKey(namedParams);
+                cacheGeneration = cache.getGeneration();
+                cacheEntry = cache.get(cacheKey);
+                incrementStatistic(context, cacheEntry != null ? DataWriterStatisticConstants.LOOKUPCACHEHITS
+                        : DataWriterStatisticConstants.LOOKUPCACHEMISSES);
+            }
+            if (cacheEntry != null) {
+                lookupValue = cacheEntry.value;
             } else {
-                values = platform.getSqlTemplate().query(sql, lookupColumnRowMapper, namedParams);
-            }
-            int rowCount = values.size();
-            if (rowCount == 1) {
-                lookupValue = values.get(0);
-            } else if (rowCount > 1) {
-                lookupValue = values.get(0);
-                log.warn(
-                        "Expected a single row, but returned multiple rows from lookup for target column {} on transform {} ",
-                        column.getTargetColumnName(), column.getTransformId());
-            } else if (values.size() == 0) {
-                log.info(
-                        "Expected a single row, but returned no rows from lookup for target column {} on transform {}",
-                        column.getTargetColumnName(), column.getTransformId());
+                if (transaction != null) {
+                    values = transaction.query(sql, lookupColumnRowMapper, namedParams);
+                } else {
+                    values = platform.getSqlTemplate().query(sql, lookupColumnRowMapper, namedParams);
+                }
+                int rowCount = values.size();
+                if (rowCount == 1) {
+                    lookupValue = values.get(0);
+                } else if (rowCount > 1) {
+                    lookupValue = values.get(0);
+                    log.warn(
+                            "Expected a single row, but returned multiple rows from lookup for target column {} on transform {} ",
+                            column.getTargetColumnName(), column.getTransformId());
+                } else if (values.size() == 0) {
+                    log.info(
+                            "Expected a single row, but returned no rows from lookup for target column {} on transform {}",
+                            column.getTargetColumnName(), column.getTransformId());
+                }
+                if (cache != null) {
+                    cache.put(cacheKey, lookupValue, cacheGeneration);
+                }
             }
         } else {
             log.warn(
@@ -115,4 +171,249 @@ public class LookupColumnTransform implements ISingleNewAndOldValueColumnTransfo
         }
         return sql;
     }
+
+    /**
+     * Returns the cache for the SQL, or null if caching is disabled or the current batch has loaded a table that the SQL selects from.
+     */
+    protected LookupCache getCache(IDatabasePlatform platform, DataContext context, String sql) {
+        if (!isCacheEnabled()) {
+            return null;
+        }
+        LookupCache cache = caches.get(sql);
+        if (cache == null) {
+            synchronized (this) {
+                cache = caches.get(sql);
+                if (cache == null) {
+                    cache = new LookupCache(sql, parameterService.getInt(ParameterConstants.CACHE_TRANSFORM_LOOKUP_MAX_SIZE, 10000),
+                            parameterService.getLong(ParameterConstants.CACHE_TRANSFORM_LOOKUP_TIMEOUT_IN_MS, 600000));
+                    if (parameterService.is(ParameterConstants.CACHE_TRANSFORM_LOOKUP_PRELOAD)) {
+                        preload(platform, cache);
+                    }
+                    caches.put(sql, cache);
+                }
+            }
+        }
+        @SuppressWarnings("unchecked")
+        Set<String> writtenTables = (Set<String>) context.get(WRITTEN_TABLES_KEY);
+        if (writtenTables != null) {
+            for (String tableName : writtenTables) {
+                if (cache.selectsFrom(tableName)) {
+                    return null;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Loads all rows of the lookup table when the SQL only has equal conditions on named parameters, by selecting the condition columns along with the
+     * lookup value instead of filtering by them.
+     */
+    protected void preload(IDatabasePlatform platform, LookupCache cache) {
+        Matcher matcher = PRELOAD_SQL.matcher(cache.sql);
+        if (!matcher.matches() || StringUtils.containsIgnoreCase(matcher.group(1), "select")) {
+            log.info("Not preloading the lookup cache because the SQL is not a simple select with equal conditions: {}", cache.sql);
+            return;
+        }
+        String value = matcher.group(1);
+        Matcher aliasMatcher = COLUMN_ALIAS.matcher(value);
+        if (aliasMatcher.matches()) {
+            value = aliasMatcher.group(1);
+        }
+        String[] conditions = matcher.group(3).split("(?i)\\s+and\\s+");
+        Map<String, Integer> conditionIndexes = new LinkedCaseInsensitiveMap<Integer>();
+        StringBuilder preloadSql = new StringBuilder("select ");
+        for (int i = 0; i < conditions.length; i++) {
+            Matcher conditionMatcher = PRELOAD_CONDITION.matcher(conditions[i]);
+            if (!conditionMatcher.matches()) {
+                log.info("Not preloading the lookup cache because the SQL is not a simple select with equal conditions: {}", cache.sql);
+                return;
+            }
+            conditionIndexes.put(conditionMatcher.group(2), i);
+            preloadSql.append(conditionMatcher.group(1)).append(" as sym_lookup_key_").append(i).append(", ");
+        }
+        for (String parameterName : cache.parameterNames) {
+            if (!conditionIndexes.containsKey(parameterName)) {
+                log.info("Not preloading the lookup cache because the SQL uses parameter {} outside of its conditions: {}", parameterName, cache.sql);
+                return;
+            }
+        }
+        preloadSql.append(value).append(" as sym_lookup_value from ").append(matcher.group(2));
+        try {
+            long ts = System.currentTimeMillis();
+            List<Object[]> rows = platform.getSqlTemplate().query(preloadSql.toString(), cache.maxSize, new ISqlRowMapper<Object[]>() {
+                public Object[] mapRow(Row row) {
+                    return row.values().toArray();
+                }
+            });
+            for (Object[] row : rows) {
+                List<Object> key = new ArrayList<Object>(cache.parameterNames.size());
+                for (String parameterName : cache.parameterNames) {
+                    Object keyValue = row[conditionIndexes.get(parameterName)];
+                    key.add(keyValue == null ? null : keyValue.toString());
+                }
+                Object lookupValue = row[conditions.length];
+                cache.preload(key, lookupValue == null ? null : lookupValue.toString());
+            }
+            log.info("Preloaded {} lookup values in {} ms for {}", rows.size(), System.currentTimeMillis() - ts, cache.sql);
+        } catch (Exception e) {
+            log.info("Not preloading the lookup cache because the query failed: {} {}", preloadSql, e.getMessage());
+        }
+    }
+
+    protected void incrementStatistic(DataContext context, String name) {
+        IDataWriter writer = context.getWriter();
+        if (writer != null && context.getBatch() != null && writer.getStatistics() != null) {
+            Statistics stats = writer.getStatistics().get(context.getBatch());
+            if (stats != null) {
+                stats.increment(name);
+            }
+        }
+    }
+
+    @Override
+    public boolean beforeWrite(DataContext context, Table table, CsvData data) {
+        // Track written tables even before the first lookup so a cache created later in the batch is not filled with uncommitted rows
+        if (table != null && context.get(LAST_WRITTEN_TABLE_KEY) != table && isCacheEnabled()) {
+            context.put(LAST_WRITTEN_TABLE_KEY, table);
+            @SuppressWarnings("unchecked")
+            Set<String> writtenTables = (Set<String>) context.get(WRITTEN_TABLES_KEY);
+            if (writtenTables == null) {
+                writtenTables = new HashSet<String>();
+                context.put(WRITTEN_TABLES_KEY, writtenTables);
+            }
+            String tableName = table.getName().toLowerCase();
+            if (writtenTables.add(tableName)) {
+                invalidate(tableName);
+            }
+        }
+        return true;
+    }
+
+    protected boolean isCacheEnabled() {
+        return parameterService != null && parameterService.is(ParameterConstants.CACHE_TRANSFORM_LOOKUP_ENABLED);
+    }
+
+    @Override
+    public void batchCommitted(DataContext context) {
+        clearWrittenTables(context);
+    }
+
+    @Override
+    public void batchRolledback(DataContext context) {
+        clearWrittenTables(context);
+    }
+
+    protected void clearWrittenTables(DataContext context) {
+        context.remove(LAST_WRITTEN_TABLE_KEY);
+        @SuppressWarnings("unchecked")
+        Set<String> writtenTables = (Set<String>) context.remove(WRITTEN_TABLES_KEY);
+        if (writtenTables != null) {
+            for (String tableName : writtenTables) {
+                invalidate(tableName);
+            }
+        }
+    }
+
+    protected void invalidate(String tableName) {
+        for (LookupCache cache : caches.values()) {
+            if (cache.selectsFrom(tableName)) {
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * The least recently used results of a lookup SQL by the values bound to its named parameters, including lookups that returned no rows. The
+     * generation changes each time the cache is cleared, so a result queried before a batch committed changes to the lookup table is not cached after
+     * it.
+     */
+    static class LookupCache {
+        final String sql;
+        final int maxSize;
+        final long timeoutInMs;
+        final List<String> parameterNames = new ArrayList<String>();
+        final Map<String, Boolean> selectsFromByTableName = new ConcurrentHashMap<String, Boolean>();
+        final Map<List<Object>, CacheEntry> entries;
+        long generation;
+
+        LookupCache(String sql, final int maxSize, long timeoutInMs) {
+            this.sql = sql;
+            this.maxSize = maxSize;
+            this.timeoutInMs = timeoutInMs;
+            Matcher matcher = NAMED_PARAMETER.matcher(sql);
+            while (matcher.find()) {
+                parameterNames.add(matcher.group(1));
+            }
+            entries = new LinkedHashMap<List<Object>, CacheEntry>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Object>, CacheEntry> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        List<Object> getKey(Map<String, Object> namedParams) {
+            Object[] key = new Object[parameterNames.size()];
+            for (int i = 0; i < key.length; i++) {
+                key[i] = namedParams.get(parameterNames.get(i));
+            }
+            return Arrays.asList(key);
+        }
+
+        synchronized CacheEntry get(List<Object> key) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null && entry.expireTime < System.currentTimeMillis()) {
+                entries.remove(key);
+                entry = null;
+            }
+            return entry;
+        }
+
+        synchronized long getGeneration() {
+            return generation;
+        }
+
+        synchronized void put(List<Object> key, String value, long generationBeforeQuery) {
+            if (generationBeforeQuery == generation) {
+                entries.put(key, new CacheEntry(value, System.currentTimeMillis() + timeoutInMs));
+            }
+        }
+
+        synchronized void preload(List<Object> key, String value) {
+            if (!entries.containsKey(key)) {
+                put(key, value, generation);
+            }
+        }
+
+        synchronized void clear() {
+            generation++;
+            entries.clear();
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        boolean selectsFrom(String tableName) {
+            Boolean selectsFrom = selectsFromByTableName.get(tableName);
+            if (selectsFrom == null) {
+                selectsFrom = Pattern.compile("(?i)(^|[^\\w])" + Pattern.quote(tableName) + "([^\\w]|$)").matcher(sql).find();
+                selectsFromByTableName.put(tableName, selectsFrom);
+            }
+            return selectsFrom;
+        }
+    }
+
+    static class CacheEntry {
+        final String value;
+        final long expireTime;
+
+        CacheEntry(String value, long expireTime) {
+            this.value = value;
+            this.expireTime = expireTime;
+        }
+    }
 }
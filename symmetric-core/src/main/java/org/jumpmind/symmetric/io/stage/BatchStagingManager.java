@@ -33,6 +33,7 @@ import java.util.Set;
 import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.model.BatchId;
+import org.jumpmind.symmetric.service.IParameterService;
 import org.jumpmind.symmetric.service.ClusterConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +41,7 @@ import org.slf4j.LoggerFactory;
 public class BatchStagingManager extends StagingManager {
     private static final Logger log = LoggerFactory.getLogger(BatchStagingManager.class);
     ISymmetricEngine engine;
+    String codecParameters;
 
     public BatchStagingManager(ISymmetricEngine engine, String directory) {
         super(directory, engine.getParameterService().is(ParameterConstants.CLUSTER_LOCKING_ENABLED),
@@ -47,6 +49,32 @@ public class BatchStagingManager extends StagingManager {
         this.engine = engine;
     }
 
+    @Override
+    public IStagingCodec getCodec(String channelId) {
+        IParameterService parameterService = engine.getParameterService();
+        String defaultCodecName = parameterService.getString(ParameterConstants.STAGING_COMPRESSION_CODEC, StagingCodecs.NONE);
+        String codecNamesByChannel = parameterService.getString(ParameterConstants.STAGING_COMPRESSION_CODEC_BY_CHANNEL, "");
+        String parameters = defaultCodecName + "|" + codecNamesByChannel;
+        if (!parameters.equals(codecParameters)) {
+            synchronized (this) {
+                if (!parameters.equals(codecParameters)) {
+                    setDefaultCodecName(defaultCodecName);
+                    codecNamesByChannelId.clear();
+                    for (String entry : codecNamesByChannel.split(",")) {
+                        String[] channelCodec = entry.split("=");
+                        if (channelCodec.length == 2 && channelCodec[0].trim().length() > 0) {
+                            setCodecName(channelCodec[0].trim(), channelCodec[1].trim());
+                        } else if (entry.trim().length() > 0) {
+                            log.warn("Ignoring invalid entry '{}' in {}", entry, ParameterConstants.STAGING_COMPRESSION_CODEC_BY_CHANNEL);
+                        }
+                    }
+                    codecParameters = parameters;
+                }
+            }
+        }
+        return super.getCodec(channelId);
+    }
+
     protected Map<String, Long> getBiggestBatchIds(Set<BatchId> batches) {
         Map<String, Long> biggest = new HashMap<String, Long>();
         for (BatchId batchId : batches) {
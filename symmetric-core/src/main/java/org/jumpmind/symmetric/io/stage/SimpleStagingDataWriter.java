@@ -137,6 +137,7 @@ public class SimpleStagingDataWriter {
                         resource.setState(State.DONE);
                     }
                     resource = stagingManager.create(category, location, batch.getBatchId());
+                    resource.setCodec(stagingManager.getCodec(batch.getChannelId()));
                     writer = resource.getWriter(memoryThresholdInBytes);
                     writeLine(nodeLine);
                     writeLine(binaryLine);
@@ -0,0 +1,266 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.load;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jumpmind.db.model.ForeignKey;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.symmetric.common.Constants;
+import org.jumpmind.symmetric.io.data.CsvConstants;
+import org.jumpmind.symmetric.io.data.CsvUtils;
+import org.jumpmind.symmetric.io.stage.IStagedResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides which incoming batches can be loaded at the same time. A batch must wait for every earlier batch that is still loading when the two are on the
+ * same channel, share a table, or when a table in one has a foreign key to a table in the other. Batches on the config channel and batches that run sql,
+ * bsh or create events are barriers that wait for, and are waited on by, every other batch. Tables that can't be found on the target also make the batch a
+ * barrier, because a transform or filter may be loading them into tables we can't see.
+ * <p>
+ * The footprint of a staged batch can be kept across streams, so a batch that is retried from staging is not read again to find it.
+ * <p>
+ * This is used by the single thread that receives batches and is not thread safe.
+ */
+public class BatchDependencyTracker {
+    private static final Logger log = LoggerFactory.getLogger(BatchDependencyTracker.class);
+    protected IDatabasePlatform platform;
+    protected Map<String, Set<String>> parentTablesByTable = new HashMap<String, Set<String>>();
+    protected List<InFlightBatch> inFlightBatches = new ArrayList<InFlightBatch>();
+    protected Map<String, BatchFootprint> footprintsByStagedFile;
+
+    public BatchDependencyTracker(IDatabasePlatform platform) {
+        this(platform, null);
+    }
+
+    /**
+     * @param footprintsByStagedFile
+     *            footprints of staged batches that outlive this tracker, from {@link #newFootprintCache(int)}, or null to read every batch
+     */
+    public BatchDependencyTracker(IDatabasePlatform platform, Map<String, BatchFootprint> footprintsByStagedFile) {
+        this.platform = platform;
+        this.footprintsByStagedFile = footprintsByStagedFile;
+    }
+
+    /**
+     * A cache of footprints that is safe to share between the trackers of streams loading at the same time, keeping the most recently used
+     */
+    public static Map<String, BatchFootprint> newFootprintCache(final int maxSize) {
+        return Collections.synchronizedMap(new LinkedHashMap<String, BatchFootprint>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BatchFootprint> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    /**
+     * Find the footprint of a staged batch. A staged file that was already read is looked up by its path, length and modified time instead, which
+     * change when the batch is sent again.
+     */
+    public BatchFootprint scan(String channelId, IStagedResource resource) throws IOException {
+        String key = null;
+        if (footprintsByStagedFile != null && resource.isFileResource()) {
+            File file = resource.getFile();
+            key = channelId + ":" + file.getPath() + ":" + file.length() + ":" + file.lastModified();
+            BatchFootprint footprint = footprintsByStagedFile.get(key);
+            if (footprint != null) {
+                return footprint;
+            }
+        }
+        BatchFootprint footprint = null;
+        try {
+            footprint = scan(channelId, resource.getReader());
+        } finally {
+            resource.close();
+        }
+        if (key != null) {
+            footprintsByStagedFile.put(key, footprint);
+        }
+        return footprint;
+    }
+
+    /**
+     * Read the table names and script events of a staged batch. Only the control lines are tokenized, so this is much cheaper than loading the batch.
+     */
+    public BatchFootprint scan(String channelId, BufferedReader reader) throws IOException {
+        BatchFootprint footprint = new BatchFootprint(channelId);
+        footprint.barrier = Constants.CHANNEL_CONFIG.equals(channelId);
+        String catalogName = null;
+        String schemaName = null;
+        String line = null;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(CsvConstants.CATALOG)) {
+                catalogName = getArgument(line);
+            } else if (line.startsWith(CsvConstants.SCHEMA)) {
+                schemaName = getArgument(line);
+            } else if (line.startsWith(CsvConstants.TABLE)) {
+                String tableName = getArgument(line);
+                if (tableName != null) {
+                    addTable(footprint, catalogName, schemaName, tableName);
+                }
+            } else if (line.startsWith(CsvConstants.SQL) || line.startsWith(CsvConstants.BSH) || line.startsWith(CsvConstants.CREATE)) {
+                footprint.barrier = true;
+            }
+        }
+        return footprint;
+    }
+
+    protected String getArgument(String line) {
+        String[] tokens = CsvUtils.tokenizeCsvData(line);
+        return tokens.length > 1 && StringUtils.isNotBlank(tokens[1]) ? tokens[1] : null;
+    }
+
+    protected void addTable(BatchFootprint footprint, String catalogName, String schemaName, String tableName) {
+        String key = tableName.toLowerCase();
+        if (footprint.tables.add(key)) {
+            Set<String> parentTables = getParentTables(catalogName, schemaName, tableName);
+            if (parentTables == null) {
+                footprint.barrier = true;
+            } else {
+                footprint.parentTables.addAll(parentTables);
+            }
+        }
+    }
+
+    /**
+     * The lower case names of the tables referenced by foreign keys of the table, or null if the table isn't known on the target
+     */
+    protected Set<String> getParentTables(String catalogName, String schemaName, String tableName) {
+        String key = Table.getFullyQualifiedTableName(catalogName, schemaName, tableName).toLowerCase();
+        if (parentTablesByTable.containsKey(key)) {
+            return parentTablesByTable.get(key);
+        }
+        Set<String> parentTables = null;
+        if (platform != null) {
+            try {
+                Table table = platform.getTableFromCache(catalogName, schemaName, tableName, false);
+                if (table != null) {
+                    parentTables = new HashSet<String>();
+                    for (ForeignKey fk : table.getForeignKeys()) {
+                        if (fk.getForeignTableName() != null) {
+                            parentTables.add(fk.getForeignTableName().toLowerCase());
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                log.debug("Could not read the foreign keys of " + key, e);
+            }
+        }
+        parentTablesByTable.put(key, parentTables);
+        return parentTables;
+    }
+
+    /**
+     * The loads of earlier batches that must finish before this batch can be loaded
+     */
+    public List<Future<?>> getDependencies(BatchFootprint footprint) {
+        List<Future<?>> dependencies = new ArrayList<Future<?>>();
+        Iterator<InFlightBatch> iterator = inFlightBatches.iterator();
+        while (iterator.hasNext()) {
+            InFlightBatch inFlight = iterator.next();
+            if (inFlight.future.isDone()) {
+                iterator.remove();
+            } else if (footprint.dependsOn(inFlight.footprint)) {
+                dependencies.add(inFlight.future);
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * Track the load of a batch so later batches can wait on it
+     */
+    public void add(BatchFootprint footprint, Future<?> future) {
+        inFlightBatches.add(new InFlightBatch(footprint, future));
+    }
+
+    public int getInFlightCount() {
+        return inFlightBatches.size();
+    }
+
+    public static class BatchFootprint {
+        protected String channelId;
+        protected Set<String> tables = new HashSet<String>();
+        protected Set<String> parentTables = new HashSet<String>();
+        protected boolean barrier;
+
+        public BatchFootprint(String channelId) {
+            this.channelId = channelId;
+        }
+
+        public BatchFootprint(String channelId, boolean barrier, Set<String> tables, Set<String> parentTables) {
+            this.channelId = channelId;
+            this.barrier = barrier;
+            this.tables.addAll(tables);
+            this.parentTables.addAll(parentTables);
+        }
+
+        public boolean dependsOn(BatchFootprint other) {
+            return barrier || other.barrier || StringUtils.equals(channelId, other.channelId)
+                    || !Collections.disjoint(tables, other.tables) || !Collections.disjoint(tables, other.parentTables)
+                    || !Collections.disjoint(parentTables, other.tables);
+        }
+
+        public String getChannelId() {
+            return channelId;
+        }
+
+        public Set<String> getTables() {
+            return tables;
+        }
+
+        public Set<String> getParentTables() {
+            return parentTables;
+        }
+
+        public boolean isBarrier() {
+            return barrier;
+        }
+    }
+
+    static class InFlightBatch {
+        final BatchFootprint footprint;
+        final Future<?> future;
+
+        InFlightBatch(BatchFootprint footprint, Future<?> future) {
+            this.footprint = footprint;
+            this.future = future;
+        }
+    }
+}
@@ -35,6 +35,7 @@ public class OutgoingBatch extends AbstractBatch {
     private Date extractStartTime;
     private Date transferStartTime;
     private Date loadStartTime;
+    private Date dataCreateTime;
 
     public OutgoingBatch() {
         setStatus(Status.RT);
@@ -66,6 +67,17 @@ public class OutgoingBatch extends AbstractBatch {
         return getNodeBatchId();
     }
 
+    /**
+     * The time the first data routed to this batch was captured. It is only known by the process that routed the batch.
+     */
+    public Date getDataCreateTime() {
+        return dataCreateTime;
+    }
+
+    public void setDataCreateTime(Date dataCreateTime) {
+        this.dataCreateTime = dataCreateTime;
+    }
+
     public void setExtractJobFlag(boolean extractJobFlag) {
         this.extractJobFlag = extractJobFlag;
     }
@@ -29,9 +29,14 @@ import java.util.Set;
 
 import org.jumpmind.extension.IBuiltInExtensionPoint;
 import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.model.DataMetaData;
 import org.jumpmind.symmetric.model.Node;
 import org.jumpmind.symmetric.model.TriggerRouter;
+import org.jumpmind.symmetric.util.BshScriptCompiler;
+import org.jumpmind.symmetric.util.BshScriptCompiler.ICompiledScript;
+import org.jumpmind.symmetric.util.BshScriptCompiler.Variables;
+import org.slf4j.Logger;
 
 import bsh.EvalError;
 import bsh.Interpreter;
@@ -44,18 +49,44 @@ import bsh.TargetError;
  * Bound to the interpreter are the names of both the current and old column values. They can be used in the expression. They should always be referenced using
  * upper case. Also bound to the interpreter is a {@link Collection} of targetNodes. The script is expected to add the the list of target nodes a list of the
  * node_ids that should be routed to.
+ * <P/>
+ * When bsh.compile.enabled is true, the expression is compiled to Java by the {@link BshScriptCompiler} with the column values declared as objects, and it
+ * falls back to the interpreter when it cannot be compiled.
  */
 public class BshDataRouter extends AbstractDataRouter implements IBuiltInExtensionPoint {
     protected ISymmetricEngine engine;
+    protected BshScriptCompiler scriptCompiler;
     final String INTERPRETER_KEY = String.format("%d.BshInterpreter", hashCode());
+    final String VARIABLES_KEY = String.format("%d.BshVariables", hashCode());
 
     public BshDataRouter(ISymmetricEngine engine) {
         this.engine = engine;
+        this.scriptCompiler = new BshScriptCompiler(engine.getExtensionService());
     }
 
     public Set<String> routeToNodes(SimpleRouterContext context, DataMetaData dataMetaData,
             Set<Node> nodes, boolean initialLoad, boolean initialLoadSelectUsed,
             TriggerRouter triggerRouter) {
+        if (engine.getParameterService().is(ParameterConstants.BSH_COMPILE_ENABLED)) {
+            long ts = System.currentTimeMillis();
+            HashSet<String> targetNodes = new HashSet<String>();
+            Variables variables = bind(context, dataMetaData, nodes, targetNodes, initialLoad);
+            ICompiledScript compiledScript = scriptCompiler.getCompiledScript(dataMetaData.getRouter().getRouterExpression(), variables);
+            context.incrementStat(System.currentTimeMillis() - ts, "bsh.bind.ms");
+            if (compiledScript != null) {
+                ts = System.currentTimeMillis();
+                Object returnValue = null;
+                try {
+                    returnValue = compiledScript.execute(variables.getValues());
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new RuntimeException("Routing script failed", e);
+                }
+                context.incrementStat(System.currentTimeMillis() - ts, "bsh.eval.ms");
+                return eval(returnValue, nodes, targetNodes);
+            }
+        }
         Set<String> boundVariableNames = new LinkedHashSet<String>();
         try {
             long ts = System.currentTimeMillis();
@@ -135,6 +166,32 @@ public class BshDataRouter extends AbstractDataRouter implements IBuiltInExtensi
         }
     }
 
+    protected Variables bind(SimpleRouterContext context, DataMetaData dataMetaData, Set<Node> nodes, Set<String> targetNodes,
+            boolean initialLoad) {
+        Variables variables = (Variables) context.getContextCache().get(VARIABLES_KEY);
+        if (variables == null) {
+            variables = new Variables();
+            context.getContextCache().put(VARIABLES_KEY, variables);
+        }
+        variables.clear();
+        variables.set("log", Logger.class, log);
+        variables.set("initialLoad", Boolean.class, initialLoad);
+        variables.set("dataMetaData", DataMetaData.class, dataMetaData);
+        variables.set("nodes", Set.class, nodes);
+        variables.set("nodeIds", Set.class, toNodeIds(nodes, null));
+        variables.set("identityNodeId", String.class, engine.getNodeService().findIdentityNodeId());
+        variables.set("targetNodes", Set.class, targetNodes);
+        variables.set("engine", ISymmetricEngine.class, engine);
+        Map<String, Object> params = getDataObjectMap(dataMetaData, engine.getSymmetricDialect(),
+                true);
+        if (params != null) {
+            for (String param : params.keySet()) {
+                variables.set(param, Object.class, params.get(param));
+            }
+        }
+        return variables;
+    }
+
     protected void bind(Interpreter interpreter, Set<String> boundVariableNames, String name, Object value) throws EvalError {
         interpreter.set(name, value);
         boundVariableNames.add(name);
@@ -90,7 +90,7 @@ public class DataGapFastDetector extends DataGapDetector implements ISqlRowMappe
     }
 
     @Override
-    public void beforeRouting() {
+    public synchronized void beforeRouting() {
         try {
             maxDataToSelect = parameterService.getLong(ParameterConstants.ROUTING_LARGEST_GAP_SIZE);
             detectInvalidGaps = parameterService.is(ParameterConstants.ROUTING_DETECT_INVALID_GAPS) || firstTime.get(parameterService.getEngineName()) == null;
@@ -151,7 +151,7 @@ public class DataGapFastDetector extends DataGapDetector implements ISqlRowMappe
      * Always make sure sym_data_gap is up to date to make sure that we don't dual route data.
      */
     @Override
-    public void afterRouting() {
+    public synchronized void afterRouting() {
         ProcessInfo processInfo = this.statisticManager.newProcessInfo(new ProcessInfoKey(
                 nodeService.findIdentityNodeId(), null, ProcessType.GAP_DETECT));
         processInfo.setStatus(ProcessStatus.PROCESSING);
@@ -540,15 +540,16 @@ public class DataGapFastDetector extends DataGapDetector implements ISqlRowMappe
     }
 
     @Override
-    public void addDataIds(List<Long> dataIds) {
+    public synchronized void addDataIds(List<Long> dataIds) {
         this.dataIds.addAll(dataIds);
     }
 
     /**
-     * This method is called for each channel that is routed. Once it is set for a routing pass it should remain set until the routing pass is done.
+     * This method is called for each channel that is routed, possibly from concurrent channel routing threads. Once it is set for a routing pass it should
+     * remain set until the routing pass is done.
      */
     @Override
-    public void setIsAllDataRead(boolean isAllDataRead) {
+    public synchronized void setIsAllDataRead(boolean isAllDataRead) {
         this.isAllDataRead &= isAllDataRead;
     }
 
@@ -565,7 +566,7 @@ public class DataGapFastDetector extends DataGapDetector implements ISqlRowMappe
     }
 
     @Override
-    public void setFullGapAnalysis(ISqlTransaction sqlTransaction, boolean isFullGapAnalysis) {
+    public synchronized void setFullGapAnalysis(ISqlTransaction sqlTransaction, boolean isFullGapAnalysis) {
         if (parameterService.is(ParameterConstants.CLUSTER_LOCKING_ENABLED)) {
             contextService.save(sqlTransaction, ContextConstants.ROUTING_FULL_GAP_ANALYSIS, Boolean.toString(isFullGapAnalysis));
         }
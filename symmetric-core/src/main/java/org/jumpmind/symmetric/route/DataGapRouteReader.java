@@ -27,11 +27,10 @@ import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
@@ -72,13 +71,13 @@ public class DataGapRouteReader implements IDataToRouteReader {
     protected int takeTimeout;
     protected ProcessInfo processInfo;
     protected double percentOfHeapToUse = .5;
-    protected long peekAheadSizeInBytes = 0;
+    protected long maxPeekAheadSizeInBytes;
     protected boolean finishTransactionMode = false;
     protected boolean isEachGapQueried;
     protected boolean isOracleNoOrder;
     protected boolean isSortInMemory;
     protected String lastTransactionId = null;
-    protected static Map<String, Boolean> lastSelectUsedGreaterThanQueryByEngineName = new HashMap<String, Boolean>();
+    protected static Map<String, Boolean> lastSelectUsedGreaterThanQueryByEngineName = new ConcurrentHashMap<String, Boolean>();
     long lastStatsPrintOutBaselineInMs = System.currentTimeMillis();
 
     public DataGapRouteReader(ChannelRouterContext context, ISymmetricEngine engine) {
@@ -86,6 +85,10 @@ public class DataGapRouteReader implements IDataToRouteReader {
         IParameterService parameterService = engine.getParameterService();
         this.peekAheadCount = parameterService.getInt(ParameterConstants.ROUTING_PEEK_AHEAD_WINDOW);
         this.percentOfHeapToUse = (double) parameterService.getInt(ParameterConstants.ROUTING_PEEK_AHEAD_MEMORY_THRESHOLD) / (double) 100;
+        this.maxPeekAheadSizeInBytes = parameterService.getLong(ParameterConstants.ROUTING_PEEK_AHEAD_MEMORY_MAX_BYTES, 0);
+        if (this.maxPeekAheadSizeInBytes <= 0) {
+            this.maxPeekAheadSizeInBytes = (long) (Runtime.getRuntime().maxMemory() * percentOfHeapToUse);
+        }
         this.takeTimeout = engine.getParameterService().getInt(
                 ParameterConstants.ROUTING_WAIT_FOR_DATA_TIMEOUT_SECONDS, 330);
         this.isOracleNoOrder = parameterService.is(ParameterConstants.DBDIALECT_ORACLE_SEQUENCE_NOORDER, false);
@@ -153,21 +156,26 @@ public class DataGapRouteReader implements IDataToRouteReader {
         }
     }
 
+    /**
+     * Route data in transaction order. Once a data is taken, the rest of its transaction is pulled out of the peek ahead queue until no more of the
+     * transaction has been seen within the peek ahead window. Both operations use the {@link PeekAheadQueue} buckets, so the cost per data is constant
+     * regardless of the size of the window.
+     */
     protected void executeTransactional(ISqlReadCursor<Data> cursor) throws Exception {
-        long maxPeekAheadSizeInBytes = (long) (Runtime.getRuntime().maxMemory() * percentOfHeapToUse);
-        int lastPeekAheadIndex = 0;
+        long lastPeekAheadSequence = 0;
         int dataCount = 0;
         long maxDataToRoute = context.getChannel().getMaxDataToRoute();
-        List<Data> peekAheadQueue = new ArrayList<Data>(peekAheadCount);
+        PeekAheadQueue peekAheadQueue = new PeekAheadQueue();
         boolean moreData = true;
         while (dataCount < maxDataToRoute || (lastTransactionId != null)) {
-            if (moreData && (lastTransactionId != null || peekAheadQueue.size() == 0)) {
+            if (moreData && (lastTransactionId != null || peekAheadQueue.isEmpty())) {
                 moreData = fillPeekAheadQueue(peekAheadQueue, peekAheadCount, cursor);
             }
             int dataWithSameTransactionIdCount = 0;
-            while (peekAheadQueue.size() > 0 && lastTransactionId == null &&
+            while (!peekAheadQueue.isEmpty() && lastTransactionId == null &&
                     dataCount < maxDataToRoute) {
-                Data data = peekAheadQueue.remove(0);
+                lastPeekAheadSequence = peekAheadQueue.peekSequence();
+                Data data = peekAheadQueue.poll();
                 copyToQueue(data);
                 dataCount++;
                 processInfo.incrementCurrentDataCount();
@@ -175,33 +183,30 @@ public class DataGapRouteReader implements IDataToRouteReader {
                 lastTransactionId = data.getTransactionId();
                 dataWithSameTransactionIdCount++;
             }
-            if (lastTransactionId != null && peekAheadQueue.size() > 0) {
-                Iterator<Data> datas = peekAheadQueue.iterator();
-                int index = 0;
-                while (datas.hasNext()) {
-                    Data data = datas.next();
-                    if (lastTransactionId.equals(data.getTransactionId())) {
-                        dataWithSameTransactionIdCount++;
-                        datas.remove();
-                        copyToQueue(data);
-                        dataCount++;
-                        processInfo.incrementCurrentDataCount();
-                        processInfo.setCurrentTableName(data.getTableName());
-                        lastPeekAheadIndex = index;
-                    } else {
-                        index++;
-                    }
+            if (lastTransactionId != null && !peekAheadQueue.isEmpty()) {
+                long sequence = peekAheadQueue.peekSequence(lastTransactionId);
+                while (sequence > 0) {
+                    Data data = peekAheadQueue.poll(lastTransactionId);
+                    dataWithSameTransactionIdCount++;
+                    copyToQueue(data);
+                    dataCount++;
+                    processInfo.incrementCurrentDataCount();
+                    processInfo.setCurrentTableName(data.getTableName());
+                    lastPeekAheadSequence = sequence;
+                    sequence = peekAheadQueue.peekSequence(lastTransactionId);
                 }
-                if (dataWithSameTransactionIdCount == 0 || peekAheadQueue.size() - lastPeekAheadIndex > peekAheadCount) {
+                if (dataWithSameTransactionIdCount == 0
+                        || peekAheadQueue.countAddedAfter(lastPeekAheadSequence, peekAheadCount) > peekAheadCount) {
                     lastTransactionId = null;
-                    lastPeekAheadIndex = 0;
+                    lastPeekAheadSequence = 0;
                 }
             }
-            if (!moreData && peekAheadQueue.size() == 0) {
+            if (!moreData && peekAheadQueue.isEmpty()) {
                 // we've reached the end of the result set
                 break;
-            } else if (peekAheadSizeInBytes >= maxPeekAheadSizeInBytes) {
-                log.info("The peek ahead queue has reached its max size of {} bytes.  Finishing reading the current transaction", peekAheadSizeInBytes);
+            } else if (peekAheadQueue.getSizeInBytes() >= maxPeekAheadSizeInBytes) {
+                log.info("The peek ahead queue has reached its max size of {} bytes.  Finishing reading the current transaction",
+                        peekAheadQueue.getSizeInBytes());
                 finishTransactionMode = true;
                 peekAheadQueue.clear();
             }
@@ -210,13 +215,13 @@ public class DataGapRouteReader implements IDataToRouteReader {
 
     protected void executeNonTransactional(ISqlReadCursor<Data> cursor) throws Exception {
         long maxDataToRoute = context.getChannel().getMaxDataToRoute();
-        List<Data> peekAheadQueue = new ArrayList<Data>(peekAheadCount);
+        PeekAheadQueue peekAheadQueue = new PeekAheadQueue();
         int dataCount = 0;
         while (dataCount < maxDataToRoute) {
             fillPeekAheadQueue(peekAheadQueue, peekAheadCount, cursor);
-            if (peekAheadQueue.size() > 0) {
-                while (peekAheadQueue.size() > 0 && dataCount < maxDataToRoute) {
-                    Data data = peekAheadQueue.remove(0);
+            if (!peekAheadQueue.isEmpty()) {
+                while (!peekAheadQueue.isEmpty() && dataCount < maxDataToRoute) {
+                    Data data = peekAheadQueue.poll();
                     copyToQueue(data);
                     dataCount++;
                     processInfo.incrementCurrentDataCount();
@@ -412,7 +417,7 @@ public class DataGapRouteReader implements IDataToRouteReader {
                 select, context.isOverrideContainsBigLob() || channel.isContainsBigLob());
     }
 
-    protected boolean fillPeekAheadQueue(List<Data> peekAheadQueue, int peekAheadCount,
+    protected boolean fillPeekAheadQueue(PeekAheadQueue peekAheadQueue, int peekAheadCount,
             ISqlReadCursor<Data> cursor) throws SQLException {
         boolean moreData = true;
         int dataCount = 0;
@@ -424,7 +429,6 @@ public class DataGapRouteReader implements IDataToRouteReader {
             if (data != null) {
                 if (process(data)) {
                     peekAheadQueue.add(data);
-                    peekAheadSizeInBytes += data.getSizeInBytes();
                     dataCount++;
                     context.incrementStat(System.currentTimeMillis() - ts,
                             ChannelRouterContext.STAT_READ_DATA_MS);
@@ -463,7 +467,6 @@ public class DataGapRouteReader implements IDataToRouteReader {
 
     protected void copyToQueue(Data data) {
         long ts = System.currentTimeMillis();
-        peekAheadSizeInBytes -= data.getSizeInBytes();
         while (!dataQueue.offer(data) && reading) {
             AppUtils.sleep(50);
         }
@@ -0,0 +1,36 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import java.util.List;
+
+import org.jumpmind.extension.IExtensionPoint;
+import org.jumpmind.symmetric.model.OutgoingBatch;
+
+/**
+ * Notified by the router service each time routing commits batches for a channel
+ */
+public interface IRoutingListener extends IExtensionPoint {
+    /**
+     * Called after the batches have been committed and are ready to be sent
+     */
+    public void batchesRouted(List<OutgoingBatch> batches);
+}
@@ -0,0 +1,458 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.jumpmind.db.sql.ISqlReadCursor;
+import org.jumpmind.db.sql.ISqlRowMapper;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.jumpmind.db.sql.Row;
+import org.jumpmind.symmetric.common.TableConstants;
+import org.jumpmind.symmetric.io.data.CsvUtils;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The key to external id mapping of a lookup table used by the {@link LookupTableDataRouter}. One cache is shared by all channels and routing runs of an
+ * engine. Once loaded, it is kept current from the rows changed since the last refresh, found either with a last update column on the lookup table or from
+ * the changes captured for the lookup table in sym_data. Captured changes are read again from the start of the oldest open data gap, so changes that
+ * commit out of data id order are still applied. With a last update column, deletes and rows moved to another key are not visible, so the number of rows
+ * is checked after each refresh and the table is fully reloaded when it does not match. It is also fully reloaded on an interval to pick up anything the
+ * incremental refresh cannot see. A lookup table without a last update column or a trigger to capture it has nothing to refresh from, so it is fully
+ * reloaded every time instead.
+ * <p>
+ * Each key maps to a single interned external id, or to an array of them when it has more than one, so the cache holds little more than the keys
+ * themselves.
+ */
+public class LookupTableCache {
+    private final static Logger log = LoggerFactory.getLogger(LookupTableCache.class);
+    protected final String lookupTable;
+    protected final String keyColumn;
+    protected final String externalIdColumn;
+    protected final String lastUpdateColumn;
+    protected final String tablePrefix;
+    protected volatile Map<String, Object> externalIdsByKey = new ConcurrentHashMap<String, Object>();
+    protected Map<String, String> internedExternalIds = new HashMap<String, String>();
+    protected Date lastUpdateTime;
+    protected long lastDataId;
+    protected long dataIdFloor;
+    protected Set<Long> appliedDataIds = new HashSet<Long>();
+    protected long pairCount;
+    protected long lastFullRefreshTime;
+    protected boolean fullRefreshNeeded = true;
+    protected boolean captured = true;
+    protected AtomicLong fullRefreshCount = new AtomicLong();
+    protected AtomicLong incrementalRefreshCount = new AtomicLong();
+    protected AtomicLong refreshedRowCount = new AtomicLong();
+    protected AtomicLong refreshTimeMs = new AtomicLong();
+
+    public LookupTableCache(String lookupTable, String keyColumn, String externalIdColumn, String lastUpdateColumn, String tablePrefix) {
+        this.lookupTable = lookupTable;
+        this.keyColumn = keyColumn;
+        this.externalIdColumn = externalIdColumn;
+        this.lastUpdateColumn = lastUpdateColumn;
+        this.tablePrefix = tablePrefix;
+    }
+
+    /**
+     * Bring the cache up to date. The first call, and any call once the full refresh interval has passed, reloads the whole table. Other calls only read
+     * what changed since the last refresh when incremental is true. Without a last update column, changes are only seen when a trigger captures the lookup
+     * table, so a table that is not captured is reloaded on every call instead.
+     *
+     * @param fullRefreshMs
+     *            the time between full reloads, or 0 to never reload once loaded
+     */
+    public synchronized void refresh(ISqlTemplate template, long fullRefreshMs, boolean incremental) {
+        long ts = System.currentTimeMillis();
+        if (fullRefreshNeeded || (fullRefreshMs > 0 && ts - lastFullRefreshTime >= fullRefreshMs)
+                || (incremental && lastUpdateColumn == null && !captured)) {
+            if (incremental && lastUpdateColumn == null) {
+                checkCaptured(template);
+            }
+            fullRefresh(template);
+            lastFullRefreshTime = ts;
+            fullRefreshNeeded = false;
+        } else if (incremental) {
+            if (lastUpdateColumn != null) {
+                refreshFromLastUpdateColumn(template);
+            } else {
+                refreshFromCapturedData(template);
+            }
+            incrementalRefreshCount.incrementAndGet();
+        }
+        refreshTimeMs.addAndGet(System.currentTimeMillis() - ts);
+    }
+
+    /**
+     * The watermark for the next incremental refresh is read before the table, so a change made while the table is read is applied again afterwards
+     */
+    protected void fullRefresh(ISqlTemplate template) {
+        if (lastUpdateColumn != null) {
+            lastUpdateTime = selectMaxLastUpdateTime(template);
+        } else {
+            lastDataId = template.queryForLong(String.format("select max(data_id) from %s",
+                    TableConstants.getTableName(tablePrefix, TableConstants.SYM_DATA)));
+            dataIdFloor = 0;
+            appliedDataIds.clear();
+        }
+        final Map<String, Object> fillMap = new ConcurrentHashMap<String, Object>();
+        internedExternalIds.clear();
+        int count = forEachRow(template, String.format("select %s, %s from %s", keyColumn, externalIdColumn, lookupTable), new ISqlRowMapper<Object>() {
+            public Object mapRow(Row rs) {
+                add(fillMap, rs.getString(keyColumn), rs.getString(externalIdColumn));
+                return null;
+            }
+        });
+        externalIdsByKey = fillMap;
+        pairCount = 0;
+        for (Object externalIds : fillMap.values()) {
+            pairCount += sizeOf(externalIds);
+        }
+        fullRefreshCount.incrementAndGet();
+        refreshedRowCount.addAndGet(count);
+        log.debug("Loaded {} rows with {} keys from lookup table {}", new Object[] { count, fillMap.size(), lookupTable });
+    }
+
+    /**
+     * Reads every row of each key that had a row updated since the last refresh, and replaces what is cached for those keys. Rows that were deleted or moved
+     * to another key leave nothing with a newer update time, so afterwards the distinct key and external id pairs of the table are counted, and the table
+     * is fully reloaded when the count does not match the cache.
+     */
+    protected void refreshFromLastUpdateColumn(ISqlTemplate template) {
+        Date maxUpdateTime = selectMaxLastUpdateTime(template);
+        if (maxUpdateTime != null) {
+            final Map<String, Object> changed = new HashMap<String, Object>();
+            String sql = String.format("select %s, %s from %s where %s in (select %s from %s where %s >= ?)", keyColumn, externalIdColumn, lookupTable,
+                    keyColumn, keyColumn, lookupTable, lastUpdateColumn);
+            int count = forEachRow(template, sql, new ISqlRowMapper<Object>() {
+                public Object mapRow(Row rs) {
+                    add(changed, rs.getString(keyColumn), rs.getString(externalIdColumn));
+                    return null;
+                }
+            }, lastUpdateTime == null ? new Date(0) : lastUpdateTime);
+            for (Map.Entry<String, Object> entry : changed.entrySet()) {
+                pairCount += sizeOf(entry.getValue()) - sizeOf(externalIdsByKey.get(entry.getKey()));
+            }
+            externalIdsByKey.putAll(changed);
+            lastUpdateTime = maxUpdateTime;
+            refreshedRowCount.addAndGet(count);
+        }
+        long tablePairCount = template.queryForLong(String.format(
+                "select count(*) from (select distinct %s, %s from %s where %s is not null and %s is not null) pairs", keyColumn, externalIdColumn,
+                lookupTable, keyColumn, externalIdColumn));
+        if (tablePairCount != pairCount) {
+            log.debug("Lookup table {} has {} key and external id pairs but {} are cached, so it will be reloaded", new Object[] { lookupTable,
+                    tablePairCount, pairCount });
+            fullRefresh(template);
+        }
+    }
+
+    protected void checkCaptured(ISqlTemplate template) {
+        boolean wasCaptured = captured;
+        captured = template.queryForInt(String.format("select count(*) from %s where upper(source_table_name)=? and inactive_time is null",
+                TableConstants.getTableName(tablePrefix, TableConstants.SYM_TRIGGER_HIST)), getTableName()) > 0;
+        if (wasCaptured && !captured) {
+            log.warn("The lookup table {} does not have a trigger to capture its changes, so it will be read in full on every routing run.  "
+                    + "Add a trigger for it, or a LAST_UPDATE_COLUMN to the router expression, to refresh it incrementally", lookupTable);
+        }
+    }
+
+    protected String getTableName() {
+        return lookupTable.substring(lookupTable.lastIndexOf('.') + 1).replace("\"", "").toUpperCase();
+    }
+
+    protected Date selectMaxLastUpdateTime(ISqlTemplate template) {
+        return template.queryForObject(String.format("select max(%s) from %s", lastUpdateColumn, lookupTable), Date.class);
+    }
+
+    /**
+     * Applies the inserts, updates and deletes captured for the lookup table since the last refresh in data id order. A change that cannot be applied, such
+     * as an update without old data or a SQL event, causes a full reload on the next refresh.
+     * <p>
+     * A data id can commit after a higher one was already read. Like routing, this relies on the data gaps: ids from the start of the oldest open gap are
+     * read again, and the ones already applied are skipped, so a change that commits late is applied once it is visible. Gaps that expire are no longer
+     * read, the same as for routing.
+     */
+    protected void refreshFromCapturedData(ISqlTemplate template) {
+        long oldestGapStartId = template.queryForLong(String.format("select min(start_id) from %s where start_id <= ?",
+                TableConstants.getTableName(tablePrefix, TableConstants.SYM_DATA_GAP)), lastDataId);
+        long floor = oldestGapStartId > 0 ? Math.min(lastDataId, oldestGapStartId - 1) : lastDataId;
+        dataIdFloor = Math.max(dataIdFloor, floor);
+        for (Iterator<Long> i = appliedDataIds.iterator(); i.hasNext();) {
+            if (i.next() <= dataIdFloor) {
+                i.remove();
+            }
+        }
+        String tableName = getTableName();
+        String sql = String.format("select d.data_id, d.event_type, d.row_data, d.pk_data, d.old_data, h.column_names, h.pk_column_names "
+                + "from %s d inner join %s h on h.trigger_hist_id=d.trigger_hist_id where d.data_id > ? and upper(d.table_name)=? order by d.data_id",
+                TableConstants.getTableName(tablePrefix, TableConstants.SYM_DATA), TableConstants.getTableName(tablePrefix, TableConstants.SYM_TRIGGER_HIST));
+        int count = forEachRow(template, sql, new ISqlRowMapper<Object>() {
+            public Object mapRow(Row rs) {
+                long dataId = rs.getLong("data_id");
+                if (appliedDataIds.add(dataId)) {
+                    lastDataId = Math.max(lastDataId, dataId);
+                    if (!fullRefreshNeeded) {
+                        apply(DataEventType.getEventType(rs.getString("event_type")), rs.getString("column_names"), rs.getString("row_data"),
+                                rs.getString("old_data"), rs.getString("pk_column_names"), rs.getString("pk_data"));
+                    }
+                }
+                return null;
+            }
+        }, dataIdFloor, tableName);
+        refreshedRowCount.addAndGet(count);
+    }
+
+    /**
+     * Reads the rows with a cursor, so a large lookup table is never held in a list
+     *
+     * @return the number of rows read
+     */
+    protected int forEachRow(ISqlTemplate template, String sql, final ISqlRowMapper<Object> mapper, Object... args) {
+        final int[] count = new int[1];
+        ISqlReadCursor<Object> cursor = template.queryForCursor(sql, new ISqlRowMapper<Object>() {
+            public Object mapRow(Row rs) {
+                count[0]++;
+                mapper.mapRow(rs);
+                return null;
+            }
+        }, args, null);
+        try {
+            cursor.next();
+        } finally {
+            cursor.close();
+        }
+        return count[0];
+    }
+
+    protected void apply(DataEventType eventType, String columnNames, String rowData, String oldData, String pkColumnNames, String pkData) {
+        String[] columns = columnNames == null ? null : columnNames.split(",");
+        if (eventType == DataEventType.INSERT) {
+            if (!add(columns, CsvUtils.tokenizeCsvData(rowData))) {
+                fullRefreshNeeded = true;
+            }
+        } else if (eventType == DataEventType.UPDATE) {
+            if (!update(columns, CsvUtils.tokenizeCsvData(oldData), CsvUtils.tokenizeCsvData(rowData))) {
+                fullRefreshNeeded = true;
+            }
+        } else if (eventType == DataEventType.DELETE) {
+            if (!remove(columns, CsvUtils.tokenizeCsvData(oldData))
+                    && !remove(pkColumnNames == null ? null : pkColumnNames.split(","), CsvUtils.tokenizeCsvData(pkData))) {
+                fullRefreshNeeded = true;
+            }
+        } else if (eventType == DataEventType.SQL) {
+            fullRefreshNeeded = true;
+        }
+    }
+
+    protected boolean add(String[] columns, String[] values) {
+        int keyIndex = indexOf(columns, keyColumn);
+        int externalIdIndex = indexOf(columns, externalIdColumn);
+        if (!isValid(values, keyIndex, externalIdIndex)) {
+            return false;
+        }
+        add(externalIdsByKey, values[keyIndex], values[externalIdIndex]);
+        return true;
+    }
+
+    /**
+     * An update that keeps the key replaces the key's external ids with one put, so routing threads never see the key missing in the middle of it
+     */
+    protected boolean update(String[] columns, String[] oldValues, String[] values) {
+        int keyIndex = indexOf(columns, keyColumn);
+        int externalIdIndex = indexOf(columns, externalIdColumn);
+        if (!isValid(oldValues, keyIndex, externalIdIndex) || !isValid(values, keyIndex, externalIdIndex)) {
+            return false;
+        }
+        String key = values[keyIndex];
+        if (key != null && key.equals(oldValues[keyIndex])) {
+            Object externalIds = externalIdsByKey.get(key);
+            String externalId = values[externalIdIndex];
+            Object updated = with(without(externalIds, oldValues[externalIdIndex]), externalId == null ? null : intern(externalId));
+            if (updated == null) {
+                externalIdsByKey.remove(key);
+            } else if (updated != externalIds) {
+                externalIdsByKey.put(key, updated);
+            }
+        } else {
+            remove(columns, oldValues);
+            add(columns, values);
+        }
+        return true;
+    }
+
+    protected boolean remove(String[] columns, String[] values) {
+        int keyIndex = indexOf(columns, keyColumn);
+        int externalIdIndex = indexOf(columns, externalIdColumn);
+        if (!isValid(values, keyIndex, externalIdIndex)) {
+            return false;
+        }
+        String key = values[keyIndex];
+        Object externalIds = key == null ? null : externalIdsByKey.get(key);
+        if (externalIds != null) {
+            Object updated = without(externalIds, values[externalIdIndex]);
+            if (updated == null) {
+                externalIdsByKey.remove(key);
+            } else if (updated != externalIds) {
+                externalIdsByKey.put(key, updated);
+            }
+        }
+        return true;
+    }
+
+    protected static boolean isValid(String[] values, int keyIndex, int externalIdIndex) {
+        return values != null && keyIndex >= 0 && externalIdIndex >= 0 && keyIndex < values.length && externalIdIndex < values.length;
+    }
+
+    /**
+     * Values are replaced rather than changed in place so routing threads reading the map never see a partly updated array
+     */
+    protected void add(Map<String, Object> map, String key, String externalId) {
+        if (key == null || externalId == null) {
+            return;
+        }
+        Object externalIds = map.get(key);
+        Object updated = with(externalIds, intern(externalId));
+        if (updated != externalIds) {
+            map.put(key, updated);
+        }
+    }
+
+    protected static int sizeOf(Object externalIds) {
+        if (externalIds instanceof String) {
+            return 1;
+        } else if (externalIds != null) {
+            return ((String[]) externalIds).length;
+        }
+        return 0;
+    }
+
+    /**
+     * @return the external ids with the one added, the same object when it was already there
+     */
+    protected static Object with(Object externalIds, String externalId) {
+        if (externalId == null) {
+            return externalIds;
+        } else if (externalIds == null) {
+            return externalId;
+        } else if (externalIds instanceof String) {
+            return externalIds.equals(externalId) ? externalIds : new String[] { (String) externalIds, externalId };
+        } else if (ArrayUtils.contains((String[]) externalIds, externalId)) {
+            return externalIds;
+        } else {
+            String[] array = (String[]) externalIds;
+            array = Arrays.copyOf(array, array.length + 1);
+            array[array.length - 1] = externalId;
+            return array;
+        }
+    }
+
+    /**
+     * @return the external ids without the one removed, the same object when it was not there, or null when none are left
+     */
+    protected static Object without(Object externalIds, String externalId) {
+        if (externalIds instanceof String) {
+            return externalIds.equals(externalId) ? null : externalIds;
+        } else if (externalIds != null) {
+            String[] array = (String[]) externalIds;
+            int index = ArrayUtils.indexOf(array, externalId);
+            if (index >= 0) {
+                return array.length == 2 ? array[1 - index] : ArrayUtils.remove(array, index);
+            }
+        }
+        return externalIds;
+    }
+
+    protected String intern(String externalId) {
+        String interned = internedExternalIds.get(externalId);
+        if (interned == null) {
+            internedExternalIds.put(externalId, externalId);
+            interned = externalId;
+        }
+        return interned;
+    }
+
+    protected static int indexOf(String[] columns, String columnName) {
+        if (columns != null) {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].trim().equalsIgnoreCase(columnName)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public boolean containsKey(String key) {
+        return key != null && externalIdsByKey.containsKey(key);
+    }
+
+    public boolean contains(String key, String externalId) {
+        Object externalIds = key == null ? null : externalIdsByKey.get(key);
+        if (externalIds instanceof String) {
+            return externalIds.equals(externalId);
+        } else if (externalIds != null) {
+            return ArrayUtils.contains((String[]) externalIds, externalId);
+        }
+        return false;
+    }
+
+    public int size() {
+        return externalIdsByKey.size();
+    }
+
+    public String getLookupTable() {
+        return lookupTable;
+    }
+
+    public long getFullRefreshCount() {
+        return fullRefreshCount.get();
+    }
+
+    public long getIncrementalRefreshCount() {
+        return incrementalRefreshCount.get();
+    }
+
+    public long getRefreshedRowCount() {
+        return refreshedRowCount.get();
+    }
+
+    public long getRefreshTimeMs() {
+        return refreshTimeMs.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s keys=%d fullRefreshes=%d incrementalRefreshes=%d refreshedRows=%d refreshMs=%d", lookupTable, size(),
+                getFullRefreshCount(), getIncrementalRefreshCount(), getRefreshedRowCount(), getRefreshTimeMs());
+    }
+}
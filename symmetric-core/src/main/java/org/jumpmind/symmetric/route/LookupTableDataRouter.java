@@ -20,27 +20,30 @@
  */
 package org.jumpmind.symmetric.route;
 
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
-import org.jumpmind.db.sql.ISqlRowMapper;
-import org.jumpmind.db.sql.ISqlTemplate;
-import org.jumpmind.db.sql.Row;
 import org.jumpmind.extension.IBuiltInExtensionPoint;
 import org.jumpmind.symmetric.SyntaxParsingException;
+import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.db.ISymmetricDialect;
 import org.jumpmind.symmetric.model.DataMetaData;
 import org.jumpmind.symmetric.model.Node;
 import org.jumpmind.symmetric.model.Router;
 import org.jumpmind.symmetric.model.TriggerRouter;
+import org.jumpmind.symmetric.service.IParameterService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * A data router that uses a lookup table to map data to nodes
+ * A data router that uses a lookup table to map data to nodes. The lookup table is read into a {@link LookupTableCache} once per routing run, or, when
+ * routing.lookup.table.cache.enabled is true, once for the engine and then kept current with incremental refreshes. An optional LAST_UPDATE_COLUMN in the
+ * router expression names a timestamp column on the lookup table to find changed rows with. Without it, changes are found from the data captured for the
+ * lookup table.
  */
 public class LookupTableDataRouter extends AbstractDataRouter implements IDataRouter, IBuiltInExtensionPoint {
     private final static Logger log = LoggerFactory.getLogger(LookupTableDataRouter.class);
@@ -49,11 +52,15 @@ public class LookupTableDataRouter extends AbstractDataRouter implements IDataRo
     public final static String PARAM_MAPPED_KEY_COLUMN = "LOOKUP_KEY_COLUMN";
     public final static String PARAM_EXTERNAL_ID_COLUMN = "EXTERNAL_ID_COLUMN";
     public final static String PARAM_ALL_NODES_VALUE = "ALL_NODES_VALUE";
+    public final static String PARAM_LAST_UPDATE_COLUMN = "LAST_UPDATE_COLUMN";
+    public static final String STAT_CACHE_HIT_COUNT = "lookup.cache.hit.count";
+    public static final String STAT_CACHE_MISS_COUNT = "lookup.cache.miss.count";
     final static String EXPRESSION_KEY = String.format("%s.Expression.",
             LookupTableDataRouter.class.getName());
     final static String LOOKUP_TABLE_KEY = String.format("%s.Table.",
             LookupTableDataRouter.class.getName());
     private ISymmetricDialect symmetricDialect;
+    private ConcurrentHashMap<String, LookupTableCache> lookupTableCaches = new ConcurrentHashMap<String, LookupTableCache>();
 
     public LookupTableDataRouter(ISymmetricDialect symmetricDialect) {
         this.symmetricDialect = symmetricDialect;
@@ -72,17 +79,20 @@ public class LookupTableDataRouter extends AbstractDataRouter implements IDataRo
             Map<String, String> params = null;
             params = getParams(router, routingContext);
             Map<String, String> dataMap = getDataMap(dataMetaData, symmetricDialect);
-            Map<String, Set<String>> lookupTable = getLookupTable(params, router, routingContext);
+            LookupTableCache lookupTable = getLookupTable(params, router, routingContext);
             String column = params.get(PARAM_KEY_COLUMN);
             if (dataMap.containsKey(column)) {
                 String keyData = dataMap.get(column);
-                Set<String> externalIds = lookupTable.get(keyData);
-                if (externalIds != null) {
+                if (lookupTable.containsKey(keyData)) {
+                    routingContext.incrementStat(1, STAT_CACHE_HIT_COUNT);
+                    boolean allNodes = lookupTable.contains(keyData, params.get(PARAM_ALL_NODES_VALUE));
                     for (Node node : nodes) {
-                        if (externalIds.contains(node.getExternalId()) || externalIds.contains(params.get(PARAM_ALL_NODES_VALUE))) {
+                        if (allNodes || lookupTable.contains(keyData, node.getExternalId())) {
                             nodeIds = addNodeId(node.getNodeId(), nodeIds, nodes);
                         }
                     }
+                } else {
+                    routingContext.incrementStat(1, STAT_CACHE_MISS_COUNT);
                 }
             } else {
                 log.error(
@@ -130,7 +140,8 @@ public class LookupTableDataRouter extends AbstractDataRouter implements IDataRo
                     }
                 }
                 if (!valid ||
-                        params.size() < 4 || params.size() > 5 ||
+                        params.size() < 4 || params.size() > 6 ||
+                        (params.size() == 6 && (!params.containsKey(PARAM_ALL_NODES_VALUE) || !params.containsKey(PARAM_LAST_UPDATE_COLUMN))) ||
                         !params.containsKey(PARAM_LOOKUP_TABLE) ||
                         !params.containsKey(PARAM_KEY_COLUMN) ||
                         !params.containsKey(PARAM_MAPPED_KEY_COLUMN) ||
@@ -146,33 +157,45 @@ public class LookupTableDataRouter extends AbstractDataRouter implements IDataRo
         return params;
     }
 
-    @SuppressWarnings("unchecked")
-    protected Map<String, Set<String>> getLookupTable(final Map<String, String> params, Router router,
-            SimpleRouterContext routingContext) {
+    /**
+     * With routing.lookup.table.cache.enabled the cache is shared by every channel and routing run, and is refreshed once per routing run. Otherwise the
+     * lookup table is read once into a cache that only lives as long as the routing context.
+     */
+    protected LookupTableCache getLookupTable(final Map<String, String> params, Router router, SimpleRouterContext routingContext) {
         final String CTX_CACHE_KEY = LOOKUP_TABLE_KEY + "." + params.get(PARAM_LOOKUP_TABLE);
-        Map<String, Set<String>> lookupMap = (Map<String, Set<String>>) routingContext
-                .getContextCache().get(CTX_CACHE_KEY);
-        if (lookupMap == null) {
-            ISqlTemplate template = symmetricDialect.getPlatform().getSqlTemplate();
-            final Map<String, Set<String>> fillMap = new HashMap<String, Set<String>>();
-            template.query(String.format("select %s, %s from %s",
-                    params.get(PARAM_MAPPED_KEY_COLUMN), params.get(PARAM_EXTERNAL_ID_COLUMN),
-                    params.get(PARAM_LOOKUP_TABLE)), new ISqlRowMapper<Object>() {
-                        public Object mapRow(Row rs) {
-                            String key = rs.getString(params.get(PARAM_MAPPED_KEY_COLUMN));
-                            String value = rs.getString(params.get(PARAM_EXTERNAL_ID_COLUMN));
-                            Set<String> ids = fillMap.get(key);
-                            if (ids == null) {
-                                ids = new HashSet<String>();
-                                fillMap.put(key, ids);
-                            }
-                            ids.add(value);
-                            return value;
-                        }
-                    });
-            lookupMap = fillMap;
-            routingContext.getContextCache().put(CTX_CACHE_KEY, lookupMap);
+        LookupTableCache lookupTable = (LookupTableCache) routingContext.getContextCache().get(CTX_CACHE_KEY);
+        if (lookupTable == null) {
+            IParameterService parameterService = symmetricDialect.getParameterService();
+            if (parameterService.is(ParameterConstants.ROUTING_LOOKUP_TABLE_CACHE_ENABLED)) {
+                String key = String.format("%s.%s.%s.%s", params.get(PARAM_LOOKUP_TABLE), params.get(PARAM_MAPPED_KEY_COLUMN),
+                        params.get(PARAM_EXTERNAL_ID_COLUMN), params.get(PARAM_LAST_UPDATE_COLUMN));
+                lookupTable = lookupTableCaches.get(key);
+                if (lookupTable == null) {
+                    lookupTable = newLookupTableCache(params);
+                    LookupTableCache existing = lookupTableCaches.putIfAbsent(key, lookupTable);
+                    lookupTable = existing != null ? existing : lookupTable;
+                }
+                lookupTable.refresh(symmetricDialect.getPlatform().getSqlTemplate(),
+                        parameterService.getLong(ParameterConstants.ROUTING_LOOKUP_TABLE_CACHE_FULL_REFRESH_MS), true);
+                log.debug("Refreshed the lookup table cache {}", lookupTable);
+            } else {
+                lookupTable = newLookupTableCache(params);
+                lookupTable.refresh(symmetricDialect.getPlatform().getSqlTemplate(), 0, false);
+            }
+            routingContext.getContextCache().put(CTX_CACHE_KEY, lookupTable);
         }
-        return lookupMap;
+        return lookupTable;
+    }
+
+    protected LookupTableCache newLookupTableCache(Map<String, String> params) {
+        return new LookupTableCache(params.get(PARAM_LOOKUP_TABLE), params.get(PARAM_MAPPED_KEY_COLUMN), params.get(PARAM_EXTERNAL_ID_COLUMN),
+                params.get(PARAM_LAST_UPDATE_COLUMN), symmetricDialect.getTablePrefix());
+    }
+
+    /**
+     * The lookup table caches shared across routing runs, for reporting their refresh counts. Hits and misses are counted in the routing stats.
+     */
+    public Collection<LookupTableCache> getLookupTableCaches() {
+        return lookupTableCaches.values();
     }
 }
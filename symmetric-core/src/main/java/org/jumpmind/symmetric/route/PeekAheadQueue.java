@@ -0,0 +1,191 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jumpmind.symmetric.model.Data;
+
+/**
+ * Peek ahead buffer used by the {@link DataGapRouteReader}. Data is kept in read order in a doubly linked list, and each data with a transaction id is also
+ * kept in a bucket for its transaction, so that taking the next data and taking all buffered data for a transaction are both constant time per data. The
+ * queue also keeps an estimate of the heap retained by the buffered data.
+ */
+public class PeekAheadQueue {
+    /**
+     * Rough heap cost of a {@link Data} row beyond its strings: the object, its attribute and csv maps, and the queue entry
+     */
+    protected static final long DATA_OVERHEAD_IN_BYTES = 400;
+    protected Entry head;
+    protected Entry tail;
+    protected Map<String, ArrayDeque<Entry>> entriesByTransactionId = new HashMap<String, ArrayDeque<Entry>>();
+    protected int size;
+    protected long sequence;
+    protected long sizeInBytes;
+
+    public void add(Data data) {
+        Entry entry = new Entry(data, ++sequence, estimateSizeInBytes(data));
+        if (tail == null) {
+            head = entry;
+        } else {
+            tail.next = entry;
+            entry.previous = tail;
+        }
+        tail = entry;
+        String transactionId = data.getTransactionId();
+        if (transactionId != null) {
+            ArrayDeque<Entry> entries = entriesByTransactionId.get(transactionId);
+            if (entries == null) {
+                entries = new ArrayDeque<Entry>();
+                entriesByTransactionId.put(transactionId, entries);
+            }
+            entries.addLast(entry);
+        }
+        size++;
+        sizeInBytes += entry.sizeInBytes;
+    }
+
+    /**
+     * Remove and return the oldest data in the queue, or null if the queue is empty
+     */
+    public Data poll() {
+        Entry entry = head;
+        if (entry == null) {
+            return null;
+        }
+        String transactionId = entry.data.getTransactionId();
+        if (transactionId != null) {
+            ArrayDeque<Entry> entries = entriesByTransactionId.get(transactionId);
+            entries.pollFirst();
+            if (entries.isEmpty()) {
+                entriesByTransactionId.remove(transactionId);
+            }
+        }
+        unlink(entry);
+        return entry.data;
+    }
+
+    /**
+     * Remove and return the oldest data in the queue for the transaction, or null if none is buffered
+     */
+    public Data poll(String transactionId) {
+        ArrayDeque<Entry> entries = entriesByTransactionId.get(transactionId);
+        if (entries == null) {
+            return null;
+        }
+        Entry entry = entries.pollFirst();
+        if (entries.isEmpty()) {
+            entriesByTransactionId.remove(transactionId);
+        }
+        unlink(entry);
+        return entry.data;
+    }
+
+    /**
+     * The sequence number of the next data that {@link #poll()} will return, or -1 if the queue is empty
+     */
+    public long peekSequence() {
+        return head == null ? -1 : head.sequence;
+    }
+
+    /**
+     * The sequence number of the next data that {@link #poll(String)} will return, or -1 if none is buffered for the transaction
+     */
+    public long peekSequence(String transactionId) {
+        ArrayDeque<Entry> entries = entriesByTransactionId.get(transactionId);
+        return entries == null ? -1 : entries.peekFirst().sequence;
+    }
+
+    /**
+     * Count the buffered data that was added after the given sequence number, walking back from the newest data. Counting stops once it passes the limit,
+     * so the cost is bounded by the limit rather than the size of the queue.
+     */
+    public int countAddedAfter(long sequence, int limit) {
+        int count = 0;
+        Entry entry = tail;
+        while (entry != null && entry.sequence > sequence && count <= limit) {
+            count++;
+            entry = entry.previous;
+        }
+        return count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    public void clear() {
+        head = null;
+        tail = null;
+        entriesByTransactionId.clear();
+        size = 0;
+        sizeInBytes = 0;
+    }
+
+    protected void unlink(Entry entry) {
+        if (entry.previous == null) {
+            head = entry.next;
+        } else {
+            entry.previous.next = entry.next;
+        }
+        if (entry.next == null) {
+            tail = entry.previous;
+        } else {
+            entry.next.previous = entry.previous;
+        }
+        entry.previous = null;
+        entry.next = null;
+        size--;
+        sizeInBytes -= entry.sizeInBytes;
+    }
+
+    public static long estimateSizeInBytes(Data data) {
+        return DATA_OVERHEAD_IN_BYTES + 2l * (length(data.getRowData()) + length(data.getOldData()) + length(data.getPkData()));
+    }
+
+    protected static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    static class Entry {
+        final Data data;
+        final long sequence;
+        final long sizeInBytes;
+        Entry previous;
+        Entry next;
+
+        Entry(Data data, long sequence, long sizeInBytes) {
+            this.data = data;
+            this.sequence = sequence;
+            this.sizeInBytes = sizeInBytes;
+        }
+    }
+}
@@ -20,16 +20,23 @@
  */
 package org.jumpmind.symmetric.route;
 
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.db.sql.ISqlTemplate;
 import org.jumpmind.db.sql.InvalidSqlException;
+import org.jumpmind.db.sql.NamedParameterUtils;
+import org.jumpmind.db.sql.ParsedSql;
 import org.jumpmind.db.sql.mapper.StringMapper;
 import org.jumpmind.extension.IBuiltInExtensionPoint;
+import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.db.ISymmetricDialect;
 import org.jumpmind.symmetric.model.DataMetaData;
 import org.jumpmind.symmetric.model.Node;
@@ -39,7 +46,12 @@ import org.jumpmind.util.FormatUtils;
 /**
  * This data router is invoked when the router_type is 'subselect'. The router_expression is always a SQL expression that is used to find the list of nodes a
  * row of data will be routed to. This router should never be used for high throughput tables because it makes a call back to the database for each row that is
- * routed.
+ * routed, unless routing.subselect.cache.size is set so that rows with the same values share the result of one call. That cache is off by default,
+ * because a row would otherwise be routed with a result read for an earlier row, even when the tables that the expression selects from changed between
+ * them.
+ * <P/>
+ * The node ids are looked up one row at a time, instead of with one query for all rows of a commit, because the route loop in the router service needs
+ * the node ids of each row before it reads the next row to assign it to a batch.
  * <P/>
  * The query that is used to select the nodes is as follows:
  * <P/>
@@ -57,7 +69,11 @@ import org.jumpmind.util.FormatUtils;
  */
 public class SubSelectDataRouter extends AbstractDataRouter implements IBuiltInExtensionPoint {
     private static final String SQL = "select c.node_id from $(prefixName)_node c where c.node_group_id=:NODE_GROUP_ID and c.sync_enabled=1 and ";
+    private static final String CACHE_KEY_PREFIX = "SubSelectDataRouter.nodeIds.";
+    public static final String STAT_QUERY_COUNT = "subselect.query.count";
+    public static final String STAT_CACHE_HIT_COUNT = "subselect.cache.hit.count";
     private ISymmetricDialect symmetricDialect;
+    private Map<String, SubSelect> subSelectsByExpression = new ConcurrentHashMap<String, SubSelect>();
 
     public SubSelectDataRouter(ISymmetricDialect symmetricDialect) {
         this.symmetricDialect = symmetricDialect;
@@ -65,8 +81,6 @@ public class SubSelectDataRouter extends AbstractDataRouter implements IBuiltInE
 
     public Set<String> routeToNodes(SimpleRouterContext routingContext, DataMetaData dataMetaData,
             Set<Node> nodes, boolean initialLoad, boolean initialLoadSelectUsed, TriggerRouter triggerRouter) {
-        String sql = FormatUtils.replaceToken(SQL, "prefixName", symmetricDialect.getTablePrefix(),
-                true);
         String subSelect = dataMetaData.getRouter().getRouterExpression();
         Set<String> nodeIds = null;
         if (!StringUtils.isBlank(subSelect) && !initialLoadSelectUsed) {
@@ -77,11 +91,25 @@ public class SubSelectDataRouter extends AbstractDataRouter implements IBuiltInE
                 sqlParams.put("EXTERNAL_DATA", dataMetaData.getData().getExternalData());
                 sqlParams.put("DATA_EVENT_TYPE", dataMetaData.getData().getDataEventType().name());
                 sqlParams.put("TABLE_NAME", dataMetaData.getData().getTableName());
+                SubSelect select = getSubSelect(subSelect);
+                Map<List<Object>, Set<String>> cache = getNodeIdCache(routingContext, dataMetaData.getRouter().getRouterId());
+                List<Object> cacheKey = null;
+                if (cache != null) {
+                    cacheKey = Arrays.asList(NamedParameterUtils.buildValueArray(select.parsedSql, sqlParams));
+                    Set<String> cachedNodeIds = cache.get(cacheKey);
+                    if (cachedNodeIds != null) {
+                        routingContext.incrementStat(1, STAT_CACHE_HIT_COUNT);
+                        return new HashSet<String>(cachedNodeIds);
+                    }
+                }
                 ISqlTemplate template = symmetricDialect.getPlatform().getSqlTemplate();
-                List<String> ids = template.query(String.format("%s(%s)", sql, subSelect),
-                        new StringMapper(), sqlParams);
+                List<String> ids = template.query(select.sql, new StringMapper(), sqlParams);
+                routingContext.incrementStat(1, STAT_QUERY_COUNT);
                 if (ids != null) {
                     nodeIds = new HashSet<String>(ids);
+                    if (cache != null) {
+                        cache.put(cacheKey, new HashSet<String>(nodeIds));
+                    }
                 }
             } catch (InvalidSqlException ex) {
                 log.error("The subselect expression was invalid for the {} subselect router for the '{}' event for table '{}'",
@@ -97,4 +125,65 @@ public class SubSelectDataRouter extends AbstractDataRouter implements IBuiltInE
         }
         return nodeIds;
     }
+
+    /**
+     * The full select for a router expression is built and parsed once, and the parameter names it uses become the key of the node id cache
+     */
+    protected SubSelect getSubSelect(String subSelect) {
+        SubSelect select = subSelectsByExpression.get(subSelect);
+        if (select == null) {
+            String sql = FormatUtils.replaceToken(SQL, "prefixName", symmetricDialect.getTablePrefix(), true);
+            select = new SubSelect(String.format("%s(%s)", sql, subSelect));
+            subSelectsByExpression.put(subSelect, select);
+        }
+        return select;
+    }
+
+    /**
+     * Node ids are remembered for each distinct set of values bound to the router expression until the routing context commits, so rows that share
+     * the same values only query the database once per commit.
+     * 
+     * @return the cache for the router, or null when routing.subselect.cache.size is 0
+     */
+    @SuppressWarnings("unchecked")
+    protected Map<List<Object>, Set<String>> getNodeIdCache(SimpleRouterContext routingContext, String routerId) {
+        final int maxSize = symmetricDialect.getParameterService().getInt(ParameterConstants.ROUTING_SUBSELECT_CACHE_SIZE, 0);
+        if (maxSize <= 0) {
+            return null;
+        }
+        String key = CACHE_KEY_PREFIX + routerId;
+        Map<List<Object>, Set<String>> cache = (Map<List<Object>, Set<String>>) routingContext.getContextCache().get(key);
+        if (cache == null) {
+            cache = new LinkedHashMap<List<Object>, Set<String>>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Object>, Set<String>> eldest) {
+                    return size() > maxSize;
+                }
+            };
+            routingContext.getContextCache().put(key, cache);
+        }
+        return cache;
+    }
+
+    @Override
+    public void contextCommitted(SimpleRouterContext routingContext) {
+        Iterator<String> keys = routingContext.getContextCache().keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().startsWith(CACHE_KEY_PREFIX)) {
+                keys.remove();
+            }
+        }
+    }
+
+    static class SubSelect {
+        final String sql;
+        final ParsedSql parsedSql;
+
+        SubSelect(String sql) {
+            this.sql = sql;
+            this.parsedSql = NamedParameterUtils.parseSqlStatement(sql);
+        }
+    }
 }
@@ -76,6 +76,11 @@ public interface IFileSyncService {
 
     public void acknowledgeFiles(OutgoingBatch outgoingBatch);
 
+    /**
+     * Forget the file sync signatures of the files in a batch that failed, so they are sent whole next time
+     */
+    public void dropFileSignatures(OutgoingBatch outgoingBatch);
+
     public boolean refreshFromDatabase();
 
     public File getControleFile(File file);
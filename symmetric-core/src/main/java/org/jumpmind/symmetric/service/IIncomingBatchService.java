@@ -48,6 +48,17 @@ public interface IIncomingBatchService {
 
     public boolean acquireIncomingBatch(IncomingBatch batch);
 
+    /**
+     * Acquire a batch the same way as {@link #acquireIncomingBatch(IncomingBatch)} when the existing row for the batch was already looked up by
+     * {@link #findIncomingBatchesFrom(String, long, int)}. A null existing batch means the row was not there when it was looked up.
+     */
+    public boolean acquireIncomingBatch(IncomingBatch batch, IncomingBatch existingBatch);
+
+    /**
+     * Find the batches from a node starting at a batch id in batch id order, up to the maximum number of rows
+     */
+    public List<IncomingBatch> findIncomingBatchesFrom(String nodeId, long startBatchId, int maxRows);
+
     public void insertIncomingBatch(ISqlTransaction transaction, IncomingBatch batch);
 
     public void insertIncomingBatch(IncomingBatch batch);
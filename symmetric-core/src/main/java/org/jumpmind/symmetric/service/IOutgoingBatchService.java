@@ -45,6 +45,8 @@ public interface IOutgoingBatchService {
 
     public OutgoingBatch findOutgoingBatch(long batchId, String nodeId);
 
+    public List<OutgoingBatch> findOutgoingBatches(String nodeId, long startBatchId, long endBatchId);
+
     public OutgoingBatches getOutgoingBatches(String nodeId, boolean includeDisabledChannels);
 
     public OutgoingBatches getOutgoingBatches(String nodeId, String channelId, boolean includeDisabledChannels);
@@ -83,6 +85,12 @@ public interface IOutgoingBatchService {
 
     public void updateOutgoingBatches(ISqlTransaction transaction, List<OutgoingBatch> batches, int flushSize);
 
+    /**
+     * Update batches in JDBC batches the same way {@link #updateOutgoingBatch(ISqlTransaction, OutgoingBatch)} updates a single batch, where a batch
+     * that is not being set to OK does not replace a status of OK or IG
+     */
+    public void updateAcknowledgedOutgoingBatches(ISqlTransaction transaction, List<OutgoingBatch> batches, int flushSize);
+
     public void insertOutgoingBatch(OutgoingBatch outgoingBatch);
 
     public void insertOutgoingBatch(ISqlTransaction transaction, OutgoingBatch outgoingBatch);
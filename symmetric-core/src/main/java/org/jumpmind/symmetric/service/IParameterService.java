@@ -26,6 +26,8 @@ import java.util.List;
 import java.util.Map;
 
 import org.jumpmind.properties.TypedProperties;
+import org.jumpmind.symmetric.config.IParameterChangeListener;
+import org.jumpmind.symmetric.config.ParameterSnapshot;
 import org.jumpmind.symmetric.model.DatabaseParameter;
 import org.jumpmind.symmetric.model.Node;
 
@@ -77,6 +79,23 @@ public interface IParameterService {
 
     public TypedProperties getAllParameters();
 
+    /**
+     * The parameters as they were last read, with values already parsed. Code that reads several parameters together can hold on to the snapshot so
+     * the values are consistent with each other. A service that does not keep a snapshot builds one from {@link #getAllParameters()}.
+     */
+    public default ParameterSnapshot getParameterSnapshot() {
+        return new ParameterSnapshot(getAllParameters());
+    }
+
+    /**
+     * Notify the listener when the parameters are read again. A service that does not publish snapshots never notifies it.
+     */
+    public default void addParameterChangeListener(IParameterChangeListener listener) {
+    }
+
+    public default void removeParameterChangeListener(IParameterChangeListener listener) {
+    }
+
     public boolean isRegistrationServer();
 
     public boolean isRemoteNodeRegistrationServer(Node remoteNode);
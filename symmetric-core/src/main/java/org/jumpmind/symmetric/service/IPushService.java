@@ -22,8 +22,10 @@ package org.jumpmind.symmetric.service;
 
 import java.util.Date;
 import java.util.Map;
+import java.util.Set;
 
 import org.jumpmind.symmetric.model.Node;
+import org.jumpmind.symmetric.model.NodeCommunication;
 import org.jumpmind.symmetric.model.NodeGroupLinkAction;
 import org.jumpmind.symmetric.model.RemoteNodeStatuses;
 
@@ -41,5 +43,15 @@ public interface IPushService extends IOfflineDetectorService {
      */
     public RemoteNodeStatuses pushData(boolean force);
 
+    /**
+     * Attempt to push data only to the given node and channel queues.
+     * 
+     * @param nodeCommunicationIds
+     *            the {@link NodeCommunication#getIdentifier()} of each node and queue to push to, or null to push to all of them
+     */
+    public default RemoteNodeStatuses pushData(boolean force, Set<String> nodeCommunicationIds) {
+        return pushData(force);
+    }
+
     public Map<String, Date> getStartTimesOfNodesBeingPushedTo();
 }
\ No newline at end of file
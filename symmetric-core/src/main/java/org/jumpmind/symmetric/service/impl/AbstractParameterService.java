@@ -22,15 +22,21 @@ package org.jumpmind.symmetric.service.impl;
 
 import java.io.File;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.db.sql.SqlException;
 import org.jumpmind.properties.TypedProperties;
 import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.config.IParameterChangeListener;
+import org.jumpmind.symmetric.config.ParameterSnapshot;
 import org.jumpmind.symmetric.service.IExtensionService;
 import org.jumpmind.symmetric.util.SymmetricUtils;
 import org.jumpmind.util.AppUtils;
@@ -40,34 +46,31 @@ import org.slf4j.LoggerFactory;
 import bsh.EvalError;
 import bsh.Interpreter;
 
+/**
+ * Parameters are read into an immutable {@link ParameterSnapshot} that is published through a volatile reference, so reading a parameter does not
+ * lock or parse. Only rereading the parameters is synchronized.
+ */
 abstract public class AbstractParameterService {
     protected final Logger log = LoggerFactory.getLogger(getClass());
     protected IExtensionService extensionService;
-    protected TypedProperties parameters;
-    private long cacheTimeoutInMs = 0;
-    private long lastTimeParameterWereCached;
+    protected volatile ParameterSnapshot parameters;
+    private volatile long cacheTimeoutInMs = 0;
+    private volatile long lastTimeParameterWereCached;
     protected Properties systemProperties;
-    protected boolean databaseHasBeenInitialized = false;
-    protected String externalId = null;
-    protected String engineName = null;
-    protected String nodeGroupId = null;
-    protected String syncUrl = null;
-    protected String registrationUrl = null;
+    protected volatile boolean databaseHasBeenInitialized = false;
+    protected volatile String externalId = null;
+    protected volatile String engineName = null;
+    protected volatile String nodeGroupId = null;
+    protected volatile String syncUrl = null;
+    protected volatile String registrationUrl = null;
+    protected List<IParameterChangeListener> parameterChangeListeners = new CopyOnWriteArrayList<IParameterChangeListener>();
 
     public AbstractParameterService() {
         this.systemProperties = (Properties) System.getProperties().clone();
     }
 
     public BigDecimal getDecimal(String key, BigDecimal defaultVal) {
-        String val = getString(key);
-        if (val != null) {
-            try {
-                return new BigDecimal(val);
-            } catch (NumberFormatException ex) {
-                TypedProperties.logPropertiesException(log, key, val);
-            }
-        }
-        return defaultVal;
+        return getParameterSnapshot().getDecimal(key, defaultVal);
     }
 
     public BigDecimal getDecimal(String key) {
@@ -79,17 +82,7 @@ abstract public class AbstractParameterService {
     }
 
     public boolean is(String key, boolean defaultVal) {
-        String val = getString(key);
-        if (val != null) {
-            val = val.trim();
-            if (val.equals("1")) {
-                return true;
-            } else {
-                return Boolean.parseBoolean(val);
-            }
-        } else {
-            return defaultVal;
-        }
+        return getParameterSnapshot().is(key, defaultVal);
     }
 
     public int getInt(String key) {
@@ -97,15 +90,7 @@ abstract public class AbstractParameterService {
     }
 
     public int getInt(String key, int defaultVal) {
-        String val = getString(key);
-        if (val != null) {
-            try {
-                return Integer.parseInt(val.trim());
-            } catch (NumberFormatException ex) {
-                TypedProperties.logPropertiesException(log, key, val);
-            }
-        }
-        return defaultVal;
+        return getParameterSnapshot().getInt(key, defaultVal);
     }
 
     public long getLong(String key) {
@@ -113,20 +98,11 @@ abstract public class AbstractParameterService {
     }
 
     public long getLong(String key, long defaultVal) {
-        String val = getString(key);
-        if (val != null) {
-            try {
-                return Long.parseLong(val);
-            } catch (NumberFormatException ex) {
-                TypedProperties.logPropertiesException(log, key, val);
-            }
-        }
-        return defaultVal;
+        return getParameterSnapshot().getLong(key, defaultVal);
     }
 
     public String getString(String key, String defaultVal) {
-        String value = getParameters().get(key, defaultVal);
-        return StringUtils.isBlank(value) ? defaultVal : value;
+        return getParameterSnapshot().getString(key, defaultVal);
     }
 
     public String getString(String key) {
@@ -145,33 +121,95 @@ abstract public class AbstractParameterService {
 
     protected abstract TypedProperties rereadApplicationParameters();
 
-    public synchronized void rereadParameters() {
-        lastTimeParameterWereCached = 0;
-        getParameters();
+    public void rereadParameters() {
+        synchronized (this) {
+            lastTimeParameterWereCached = 0;
+        }
+        refreshParameters();
     }
 
-    protected synchronized TypedProperties getParameters() {
-        long timeoutTime = System.currentTimeMillis() - cacheTimeoutInMs;
-        // see if the parameters have timed out
-        if (parameters == null || (cacheTimeoutInMs > 0 && lastTimeParameterWereCached < timeoutTime)) {
-            try {
-                parameters = rereadApplicationParameters();
-                SymmetricUtils.replaceSystemAndEnvironmentVariables(parameters);
-                lastTimeParameterWereCached = System.currentTimeMillis();
-                cacheTimeoutInMs = getInt(ParameterConstants.PARAMETER_REFRESH_PERIOD_IN_MS);
-            } catch (SqlException ex) {
-                if (parameters != null) {
-                    log.warn("Could not read database parameters.  We will try again later", ex);
-                } else {
-                    log.error("Could not read database parameters and they have not yet been initialized");
+    public ParameterSnapshot getParameterSnapshot() {
+        ParameterSnapshot snapshot = parameters;
+        long cacheTimeoutInMs = this.cacheTimeoutInMs;
+        if (snapshot == null || (cacheTimeoutInMs > 0 && lastTimeParameterWereCached < System.currentTimeMillis() - cacheTimeoutInMs)) {
+            snapshot = refreshParameters();
+        }
+        return snapshot;
+    }
+
+    protected TypedProperties getParameters() {
+        return getParameterSnapshot().getProperties();
+    }
+
+    protected ParameterSnapshot refreshParameters() {
+        ParameterSnapshot oldSnapshot = null;
+        ParameterSnapshot newSnapshot = null;
+        synchronized (this) {
+            long timeoutTime = System.currentTimeMillis() - cacheTimeoutInMs;
+            // see if the parameters have timed out, or another thread already reread them
+            if (parameters == null || (cacheTimeoutInMs > 0 && lastTimeParameterWereCached < timeoutTime) || lastTimeParameterWereCached == 0) {
+                try {
+                    TypedProperties properties = rereadApplicationParameters();
+                    SymmetricUtils.replaceSystemAndEnvironmentVariables(properties);
+                    oldSnapshot = parameters;
+                    newSnapshot = new ParameterSnapshot(properties);
+                    parameters = newSnapshot;
+                    lastTimeParameterWereCached = System.currentTimeMillis();
+                    cacheTimeoutInMs = newSnapshot.getInt(ParameterConstants.PARAMETER_REFRESH_PERIOD_IN_MS);
+                } catch (SqlException ex) {
+                    if (parameters != null) {
+                        log.warn("Could not read database parameters.  We will try again later", ex);
+                    } else {
+                        log.error("Could not read database parameters and they have not yet been initialized");
+                        throw ex;
+                    }
                     throw ex;
                 }
-                throw ex;
             }
         }
+        if (newSnapshot != null && oldSnapshot != null) {
+            fireParametersChanged(oldSnapshot, newSnapshot);
+        }
         return parameters;
     }
 
+    protected void fireParametersChanged(ParameterSnapshot oldSnapshot, ParameterSnapshot newSnapshot) {
+        Set<String> changedKeys = null;
+        for (IParameterChangeListener listener : getParameterChangeListeners()) {
+            if (changedKeys == null) {
+                changedKeys = newSnapshot.getChangedKeys(oldSnapshot);
+                if (changedKeys.isEmpty()) {
+                    return;
+                }
+            }
+            try {
+                listener.parametersChanged(oldSnapshot, newSnapshot, changedKeys);
+            } catch (Exception ex) {
+                log.error("Parameter change listener " + listener.getClass().getName() + " failed", ex);
+            }
+        }
+    }
+
+    protected List<IParameterChangeListener> getParameterChangeListeners() {
+        if (extensionService != null) {
+            List<IParameterChangeListener> extensions = extensionService.getExtensionPointList(IParameterChangeListener.class);
+            if (extensions.size() > 0) {
+                List<IParameterChangeListener> listeners = new ArrayList<IParameterChangeListener>(parameterChangeListeners);
+                listeners.addAll(extensions);
+                return listeners;
+            }
+        }
+        return parameterChangeListeners;
+    }
+
+    public void addParameterChangeListener(IParameterChangeListener listener) {
+        parameterChangeListeners.add(listener);
+    }
+
+    public void removeParameterChangeListener(IParameterChangeListener listener) {
+        parameterChangeListeners.remove(listener);
+    }
+
     public TypedProperties getAllParameters() {
         return getParameters();
     }
@@ -180,7 +218,12 @@ abstract public class AbstractParameterService {
         return new Date(lastTimeParameterWereCached);
     }
 
-    public synchronized String getExternalId() {
+    public String getExternalId() {
+        String value = externalId;
+        return value != null ? value : resolveExternalId();
+    }
+
+    protected synchronized String resolveExternalId() {
         if (externalId == null) {
             String value = getString(ParameterConstants.EXTERNAL_ID);
             value = substituteScripts(value);
@@ -192,7 +235,12 @@ abstract public class AbstractParameterService {
         return externalId;
     }
 
-    public synchronized String getSyncUrl() {
+    public String getSyncUrl() {
+        String value = syncUrl;
+        return value != null ? value : resolveSyncUrl();
+    }
+
+    protected synchronized String resolveSyncUrl() {
         if (syncUrl == null) {
             String value = getString(ParameterConstants.SYNC_URL);
             value = substituteScripts(value);
@@ -207,7 +255,12 @@ abstract public class AbstractParameterService {
         return syncUrl;
     }
 
-    public synchronized String getNodeGroupId() {
+    public String getNodeGroupId() {
+        String value = nodeGroupId;
+        return value != null ? value : resolveNodeGroupId();
+    }
+
+    protected synchronized String resolveNodeGroupId() {
         if (nodeGroupId == null) {
             String value = getString(ParameterConstants.NODE_GROUP_ID);
             value = substituteScripts(value);
@@ -219,7 +272,12 @@ abstract public class AbstractParameterService {
         return nodeGroupId;
     }
 
-    public synchronized String getRegistrationUrl() {
+    public String getRegistrationUrl() {
+        String value = registrationUrl;
+        return value != null ? value : resolveRegistrationUrl();
+    }
+
+    protected synchronized String resolveRegistrationUrl() {
         if (registrationUrl == null) {
             String value = getString(ParameterConstants.REGISTRATION_URL);
             value = substituteScripts(value);
@@ -234,7 +292,12 @@ abstract public class AbstractParameterService {
         return registrationUrl;
     }
 
-    public synchronized String getEngineName() {
+    public String getEngineName() {
+        String value = engineName;
+        return value != null ? value : resolveEngineName();
+    }
+
+    protected synchronized String resolveEngineName() {
         if (engineName == null) {
             String value = getString(ParameterConstants.ENGINE_NAME, "SymmetricDS");
             value = substituteScripts(value);
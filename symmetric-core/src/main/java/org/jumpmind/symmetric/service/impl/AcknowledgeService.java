@@ -21,11 +21,13 @@
 package org.jumpmind.symmetric.service.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.db.sql.ISqlTransaction;
 import org.jumpmind.db.sql.mapper.NumberMapper;
 import org.jumpmind.symmetric.ISymmetricEngine;
@@ -49,6 +51,10 @@ import org.jumpmind.symmetric.transport.IAcknowledgeEventListener;
  * @see IAcknowledgeService
  */
 public class AcknowledgeService extends AbstractService implements IAcknowledgeService {
+    /**
+     * Batch ids further apart than this are selected with separate queries, so batches of the node that are not being acknowledged are not read
+     */
+    protected static final long MAX_BATCH_ID_GAP = 1000;
     private ISymmetricEngine engine;
 
     public AcknowledgeService(ISymmetricEngine engine) {
@@ -58,166 +64,306 @@ public class AcknowledgeService extends AbstractService implements IAcknowledgeS
     }
 
     public BatchAckResult ack(final BatchAck batch) {
+        List<BatchAck> batches = new ArrayList<BatchAck>(1);
+        batches.add(batch);
+        return ack(batches).get(0);
+    }
+
+    /**
+     * Acknowledges the batches together. The outgoing batches are selected with one ranged query for each node, and they are updated with JDBC batches in
+     * one transaction. Listeners are notified of each acknowledgement in order, just before it is applied, and error lines are still looked up for each
+     * one. If the batches can't be saved together, they are saved one at a time, and an acknowledgement that still can't be saved has a result that
+     * is not OK.
+     */
+    public List<BatchAckResult> ack(List<BatchAck> batches) {
         IRegistrationService registrationService = engine.getRegistrationService();
-        IOutgoingBatchService outgoingBatchService = engine.getOutgoingBatchService();
-        BatchAckResult result = new BatchAckResult(batch);
-        for (IAcknowledgeEventListener listener : engine.getExtensionService().getExtensionPointList(IAcknowledgeEventListener.class)) {
-            listener.onAcknowledgeEvent(batch);
+        List<BatchAckResult> results = new ArrayList<BatchAckResult>(batches.size());
+        List<IAcknowledgeEventListener> listeners = engine.getExtensionService().getExtensionPointList(IAcknowledgeEventListener.class);
+        Map<String, OutgoingBatch> outgoingBatches = findOutgoingBatches(batches);
+        List<AckedBatch> ackedBatches = new ArrayList<AckedBatch>(batches.size());
+        for (BatchAck batch : batches) {
+            for (IAcknowledgeEventListener listener : listeners) {
+                listener.onAcknowledgeEvent(batch);
+            }
+            BatchAckResult result = new BatchAckResult(batch);
+            results.add(result);
+            if (batch.getBatchId() == Constants.VIRTUAL_BATCH_FOR_REGISTRATION) {
+                if (batch.isOk()) {
+                    registrationService.markNodeAsRegistered(batch.getNodeId());
+                }
+            } else if (batch.getBatchId() != Constants.BATCH_ID_MISSING) {
+                AckedBatch ackedBatch = prepareAck(batch, outgoingBatches.get(getKey(batch.getNodeId(), batch.getBatchId())), result);
+                if (ackedBatch != null) {
+                    ackedBatches.add(ackedBatch);
+                }
+            }
         }
-        if (batch.getBatchId() == Constants.VIRTUAL_BATCH_FOR_REGISTRATION) {
-            if (batch.isOk()) {
-                registrationService.markNodeAsRegistered(batch.getNodeId());
+        if (ackedBatches.size() > 0) {
+            for (AckedBatch ackedBatch : saveAcks(ackedBatches)) {
+                afterAck(ackedBatch);
             }
-        } else if (batch.getBatchId() != Constants.BATCH_ID_MISSING) {
-            OutgoingBatch outgoingBatch = outgoingBatchService.findOutgoingBatch(batch.getBatchId(), batch.getNodeId());
-            Status status = batch.isResend() ? Status.RS : batch.isOk() ? Status.OK : Status.ER;
-            if (outgoingBatch != null && outgoingBatch.getStatus() != Status.RQ) {
-                // Allow an outside system/user to indicate that a batch is OK
-                if (outgoingBatch.getStatus() == Status.IG && status == Status.OK) {
-                    log.info("Ignoring batch {}", outgoingBatch.getNodeBatchId());
-                } else if (outgoingBatch.getStatus() == Status.OK && status != Status.OK) {
-                    log.info("Setting status to ignore for batch {} because status was set to OK by user", outgoingBatch.getNodeBatchId());
-                    status = Status.IG;
+        }
+        return results;
+    }
+
+    /**
+     * Select the outgoing batches being acknowledged, with one query for each node and run of nearby batch ids
+     */
+    protected Map<String, OutgoingBatch> findOutgoingBatches(List<BatchAck> batches) {
+        IOutgoingBatchService outgoingBatchService = engine.getOutgoingBatchService();
+        Map<String, OutgoingBatch> outgoingBatches = new HashMap<String, OutgoingBatch>();
+        Map<String, List<Long>> batchIdsByNodeId = new HashMap<String, List<Long>>();
+        for (BatchAck batch : batches) {
+            if (batch.getBatchId() == Constants.VIRTUAL_BATCH_FOR_REGISTRATION || batch.getBatchId() == Constants.BATCH_ID_MISSING) {
+                continue;
+            }
+            if (StringUtils.isBlank(batch.getNodeId())) {
+                OutgoingBatch outgoingBatch = outgoingBatchService.findOutgoingBatch(batch.getBatchId(), batch.getNodeId());
+                if (outgoingBatch != null) {
+                    outgoingBatches.put(getKey(batch.getNodeId(), batch.getBatchId()), outgoingBatch);
                 }
-                boolean isFirstTimeAsOkStatus = outgoingBatch.getStatus() != Status.OK && status == Status.OK;
-                outgoingBatch.setStatus(status);
-                outgoingBatch.setErrorFlag(status == Status.ER);
-                outgoingBatch.setNetworkMillis(batch.getNetworkMillis());
-                outgoingBatch.setFilterMillis(batch.getFilterMillis());
-                outgoingBatch.setLoadMillis(batch.getLoadMillis());
-                outgoingBatch.setLoadStartTime(new Date(batch.getStartTime()));
-                outgoingBatch.setSqlCode(batch.getSqlCode());
-                outgoingBatch.setSqlState(batch.getSqlState());
-                outgoingBatch.setSqlMessage(batch.getSqlMessage());
-                outgoingBatch.setLoadRowCount(batch.getLoadRowCount());
-                outgoingBatch.setLoadInsertRowCount(batch.getLoadInsertRowCount());
-                outgoingBatch.setLoadUpdateRowCount(batch.getLoadUpdateRowCount());
-                outgoingBatch.setTransformLoadMillis(batch.getTransformLoadMillis());
-                outgoingBatch.setLoadDeleteRowCount(batch.getLoadDeleteRowCount());
-                outgoingBatch.setFallbackInsertCount(batch.getFallbackInsertCount());
-                outgoingBatch.setFallbackUpdateCount(batch.getFallbackUpdateCount());
-                outgoingBatch.setIgnoreRowCount(batch.getIgnoreRowCount());
-                outgoingBatch.setMissingDeleteCount(batch.getMissingDeleteCount());
-                outgoingBatch.setSkipCount(batch.getSkipCount());
-                if (batch.isIgnored()) {
-                    outgoingBatch.incrementIgnoreCount();
+            } else {
+                List<Long> batchIds = batchIdsByNodeId.get(batch.getNodeId());
+                if (batchIds == null) {
+                    batchIds = new ArrayList<Long>();
+                    batchIdsByNodeId.put(batch.getNodeId(), batchIds);
                 }
-                if (status == Status.OK) {
-                    outgoingBatch.setFailedDataId(0);
-                    outgoingBatch.setFailedLineNumber(0);
+                batchIds.add(batch.getBatchId());
+            }
+        }
+        for (Map.Entry<String, List<Long>> entry : batchIdsByNodeId.entrySet()) {
+            String nodeId = entry.getKey();
+            List<Long> batchIds = entry.getValue();
+            if (batchIds.size() == 1) {
+                OutgoingBatch outgoingBatch = outgoingBatchService.findOutgoingBatch(batchIds.get(0), nodeId);
+                if (outgoingBatch != null) {
+                    outgoingBatches.put(getKey(nodeId, outgoingBatch.getBatchId()), outgoingBatch);
                 }
-                boolean isNewError = false;
-                if (status == Status.ER && batch.getErrorLine() != 0) {
-                    if (outgoingBatch.isLoadFlag()) {
-                        isNewError = outgoingBatch.getSentCount() == 1;
-                    } else if (batch.getErrorLine() != outgoingBatch.getFailedLineNumber()) {
-                        String sql = getSql("selectDataIdSql");
-                        if (parameterService.is(ParameterConstants.DBDIALECT_ORACLE_SEQUENCE_NOORDER, false)) {
-                            sql = getSql("selectDataIdByCreateTimeSql");
-                        } else if (parameterService.is(ParameterConstants.ROUTING_DATA_READER_ORDER_BY_DATA_ID_ENABLED, true)) {
-                            sql += getSql("orderByDataId");
-                        }
-                        List<Number> ids = sqlTemplateDirty.query(sql, new NumberMapper(), outgoingBatch.getBatchId());
-                        if (ids.size() >= batch.getErrorLine()) {
-                            long failedDataId = ids.get((int) batch.getErrorLine() - 1).longValue();
-                            isNewError = outgoingBatch.getFailedDataId() == 0 || outgoingBatch.getFailedDataId() != failedDataId;
-                            outgoingBatch.setFailedDataId(failedDataId);
-                        }
-                        outgoingBatch.setFailedLineNumber(batch.getErrorLine());
+                continue;
+            }
+            Collections.sort(batchIds);
+            int start = 0;
+            for (int i = 1; i <= batchIds.size(); i++) {
+                if (i == batchIds.size() || batchIds.get(i) - batchIds.get(i - 1) > MAX_BATCH_ID_GAP) {
+                    for (OutgoingBatch outgoingBatch : outgoingBatchService.findOutgoingBatches(nodeId, batchIds.get(start), batchIds.get(i - 1))) {
+                        outgoingBatches.put(getKey(nodeId, outgoingBatch.getBatchId()), outgoingBatch);
                     }
+                    start = i;
                 }
-                if (status == Status.ER) {
-                    boolean suppressError = false;
-                    if (isNewError) {
-                        engine.getStatisticManager().incrementDataLoadedOutgoingErrors(outgoingBatch.getChannelId(), 1);
+            }
+        }
+        return outgoingBatches;
+    }
+
+    protected String getKey(String nodeId, long batchId) {
+        return nodeId + "-" + batchId;
+    }
+
+    /**
+     * Apply the acknowledgement to the outgoing batch in memory, along with the error handling that goes with it
+     * 
+     * @return the batch to save, or null when there is nothing to update
+     */
+    protected AckedBatch prepareAck(BatchAck batch, OutgoingBatch outgoingBatch, BatchAckResult result) {
+        Status status = batch.isResend() ? Status.RS : batch.isOk() ? Status.OK : Status.ER;
+        if (outgoingBatch != null && outgoingBatch.getStatus() != Status.RQ) {
+            // Allow an outside system/user to indicate that a batch is OK
+            if (outgoingBatch.getStatus() == Status.IG && status == Status.OK) {
+                log.info("Ignoring batch {}", outgoingBatch.getNodeBatchId());
+            } else if (outgoingBatch.getStatus() == Status.OK && status != Status.OK) {
+                log.info("Setting status to ignore for batch {} because status was set to OK by user", outgoingBatch.getNodeBatchId());
+                status = Status.IG;
+            }
+            boolean isFirstTimeAsOkStatus = outgoingBatch.getStatus() != Status.OK && status == Status.OK;
+            outgoingBatch.setStatus(status);
+            outgoingBatch.setErrorFlag(status == Status.ER);
+            outgoingBatch.setNetworkMillis(batch.getNetworkMillis());
+            outgoingBatch.setFilterMillis(batch.getFilterMillis());
+            outgoingBatch.setLoadMillis(batch.getLoadMillis());
+            outgoingBatch.setLoadStartTime(new Date(batch.getStartTime()));
+            outgoingBatch.setSqlCode(batch.getSqlCode());
+            outgoingBatch.setSqlState(batch.getSqlState());
+            outgoingBatch.setSqlMessage(batch.getSqlMessage());
+            outgoingBatch.setLoadRowCount(batch.getLoadRowCount());
+            outgoingBatch.setLoadInsertRowCount(batch.getLoadInsertRowCount());
+            outgoingBatch.setLoadUpdateRowCount(batch.getLoadUpdateRowCount());
+            outgoingBatch.setTransformLoadMillis(batch.getTransformLoadMillis());
+            outgoingBatch.setLoadDeleteRowCount(batch.getLoadDeleteRowCount());
+            outgoingBatch.setFallbackInsertCount(batch.getFallbackInsertCount());
+            outgoingBatch.setFallbackUpdateCount(batch.getFallbackUpdateCount());
+            outgoingBatch.setIgnoreRowCount(batch.getIgnoreRowCount());
+            outgoingBatch.setMissingDeleteCount(batch.getMissingDeleteCount());
+            outgoingBatch.setSkipCount(batch.getSkipCount());
+            if (batch.isIgnored()) {
+                outgoingBatch.incrementIgnoreCount();
+            }
+            if (status == Status.OK) {
+                outgoingBatch.setFailedDataId(0);
+                outgoingBatch.setFailedLineNumber(0);
+            }
+            boolean isNewError = false;
+            if (status == Status.ER && batch.getErrorLine() != 0) {
+                if (outgoingBatch.isLoadFlag()) {
+                    isNewError = outgoingBatch.getSentCount() == 1;
+                } else if (batch.getErrorLine() != outgoingBatch.getFailedLineNumber()) {
+                    String sql = getSql("selectDataIdSql");
+                    if (parameterService.is(ParameterConstants.DBDIALECT_ORACLE_SEQUENCE_NOORDER, false)) {
+                        sql = getSql("selectDataIdByCreateTimeSql");
+                    } else if (parameterService.is(ParameterConstants.ROUTING_DATA_READER_ORDER_BY_DATA_ID_ENABLED, true)) {
+                        sql += getSql("orderByDataId");
                     }
-                    if (isNewError && outgoingBatch.getSqlCode() == ErrorConstants.FK_VIOLATION_CODE) {
-                        if (!outgoingBatch.isLoadFlag() && outgoingBatch.getReloadRowCount() == 0 &&
-                                parameterService.is(ParameterConstants.AUTO_RESOLVE_FOREIGN_KEY_VIOLATION)) {
-                            engine.getDataService().reloadMissingForeignKeyRows(outgoingBatch.getBatchId(), outgoingBatch.getNodeId(),
-                                    outgoingBatch.getFailedDataId(), outgoingBatch.getFailedLineNumber());
-                            suppressError = true;
-                        }
-                        if (outgoingBatch.isLoadFlag() && parameterService.is(ParameterConstants.AUTO_RESOLVE_FOREIGN_KEY_VIOLATION_REVERSE_RELOAD)) {
-                            suppressError = true;
-                        }
+                    List<Number> ids = sqlTemplateDirty.query(sql, new NumberMapper(), outgoingBatch.getBatchId());
+                    if (ids.size() >= batch.getErrorLine()) {
+                        long failedDataId = ids.get((int) batch.getErrorLine() - 1).longValue();
+                        isNewError = outgoingBatch.getFailedDataId() == 0 || outgoingBatch.getFailedDataId() != failedDataId;
+                        outgoingBatch.setFailedDataId(failedDataId);
                     }
-                    if (outgoingBatch.getSqlCode() == ErrorConstants.PROTOCOL_VIOLATION_CODE
-                            && ErrorConstants.PROTOCOL_VIOLATION_STATE.equals(outgoingBatch.getSqlState())) {
-                        if (outgoingBatch.isLoadFlag()) {
-                            log.info(
-                                    "The batch {} may be corrupt in staging. Not removing the batch because it was a load batch, but you may need to clear the batch from staging manually.",
-                                    outgoingBatch.getNodeBatchId());
-                        } else {
-                            IStagedResource resource = engine.getStagingManager().find(Constants.STAGING_CATEGORY_OUTGOING,
-                                    outgoingBatch.getStagedLocation(), outgoingBatch.getBatchId());
-                            if (resource != null) {
-                                log.info("The batch {} may be corrupt in staging, so removing it.", outgoingBatch.getNodeBatchId());
-                                resource.delete();
-                                suppressError = isNewError;
-                            }
-                        }
+                    outgoingBatch.setFailedLineNumber(batch.getErrorLine());
+                }
+            }
+            if (status == Status.ER) {
+                boolean suppressError = false;
+                if (isNewError) {
+                    engine.getStatisticManager().incrementDataLoadedOutgoingErrors(outgoingBatch.getChannelId(), 1);
+                }
+                if (isNewError && outgoingBatch.getSqlCode() == ErrorConstants.FK_VIOLATION_CODE) {
+                    if (!outgoingBatch.isLoadFlag() && outgoingBatch.getReloadRowCount() == 0 &&
+                            parameterService.is(ParameterConstants.AUTO_RESOLVE_FOREIGN_KEY_VIOLATION)) {
+                        engine.getDataService().reloadMissingForeignKeyRows(outgoingBatch.getBatchId(), outgoingBatch.getNodeId(),
+                                outgoingBatch.getFailedDataId(), outgoingBatch.getFailedLineNumber());
+                        suppressError = true;
                     }
-                    if (isNewError && (outgoingBatch.getSqlCode() == ErrorConstants.DEADLOCK_CODE ||
-                            outgoingBatch.getSqlCode() == ErrorConstants.CONFLICT_CODE)) {
+                    if (outgoingBatch.isLoadFlag() && parameterService.is(ParameterConstants.AUTO_RESOLVE_FOREIGN_KEY_VIOLATION_REVERSE_RELOAD)) {
                         suppressError = true;
                     }
-                    if (suppressError) {
-                        outgoingBatch.setErrorFlag(false);
+                }
+                if (outgoingBatch.getSqlCode() == ErrorConstants.PROTOCOL_VIOLATION_CODE
+                        && ErrorConstants.PROTOCOL_VIOLATION_STATE.equals(outgoingBatch.getSqlState())) {
+                    if (outgoingBatch.isLoadFlag()) {
+                        log.info(
+                                "The batch {} may be corrupt in staging. Not removing the batch because it was a load batch, but you may need to clear the batch from staging manually.",
+                                outgoingBatch.getNodeBatchId());
                     } else {
-                        log.error("The outgoing batch {} failed: {}{}", outgoingBatch.getNodeBatchId(),
-                                (batch.getSqlCode() != 0 ? "[" + batch.getSqlState() + "," + batch.getSqlCode() + "] " : ""), batch.getSqlMessage());
-                        RouterStats routerStats = engine.getStatisticManager().getRouterStatsByBatch(batch.getBatchId());
-                        if (routerStats != null) {
-                            log.info("Router stats for batch " + outgoingBatch.getBatchId() + ": " + routerStats);
+                        IStagedResource resource = engine.getStagingManager().find(Constants.STAGING_CATEGORY_OUTGOING,
+                                outgoingBatch.getStagedLocation(), outgoingBatch.getBatchId());
+                        if (resource != null) {
+                            log.info("The batch {} may be corrupt in staging, so removing it.", outgoingBatch.getNodeBatchId());
+                            resource.delete();
+                            suppressError = isNewError;
                         }
                     }
-                } else if (status == Status.RS) {
-                    log.info("The outgoing batch {} received resend request", outgoingBatch.getNodeBatchId());
                 }
-                ISqlTransaction transaction = null;
-                try {
-                    transaction = sqlTemplate.startSqlTransaction();
-                    outgoingBatchService.updateOutgoingBatch(transaction, outgoingBatch);
-                    if (status == Status.OK && isFirstTimeAsOkStatus && outgoingBatch.getLoadId() > 0) {
-                        engine.getDataExtractorService().updateExtractRequestLoadTime(transaction, new Date(), outgoingBatch);
-                    }
-                    transaction.commit();
-                    if (status == Status.OK) {
-                        if (isFirstTimeAsOkStatus) {
-                            engine.getStatisticManager().incrementDataLoadedOutgoing(outgoingBatch.getChannelId(), outgoingBatch.getLoadRowCount());
-                            engine.getStatisticManager().incrementDataBytesLoadedOutgoing(outgoingBatch.getChannelId(), outgoingBatch.getByteCount());
-                        }
-                        if (parameterService.is(ParameterConstants.STREAM_TO_FILE_ENABLED)) {
-                            purgeBatchesFromStaging(outgoingBatch);
-                        }
-                        Channel channel = engine.getConfigurationService().getChannel(outgoingBatch.getChannelId());
-                        if (channel != null && channel.isFileSyncFlag()) {
-                            /* Acknowledge the file_sync in case the file needs deleted. */
-                            engine.getFileSyncService().acknowledgeFiles(outgoingBatch);
-                        }
-                        engine.getStatisticManager().removeRouterStatsByBatch(batch.getBatchId());
-                    }
-                } catch (Error ex) {
-                    if (transaction != null) {
-                        transaction.rollback();
-                    }
-                    throw ex;
-                } catch (RuntimeException ex) {
-                    if (transaction != null) {
-                        transaction.rollback();
+                if (isNewError && (outgoingBatch.getSqlCode() == ErrorConstants.DEADLOCK_CODE ||
+                        outgoingBatch.getSqlCode() == ErrorConstants.CONFLICT_CODE)) {
+                    suppressError = true;
+                }
+                if (suppressError) {
+                    outgoingBatch.setErrorFlag(false);
+                } else {
+                    log.error("The outgoing batch {} failed: {}{}", outgoingBatch.getNodeBatchId(),
+                            (batch.getSqlCode() != 0 ? "[" + batch.getSqlState() + "," + batch.getSqlCode() + "] " : ""), batch.getSqlMessage());
+                    RouterStats routerStats = engine.getStatisticManager().getRouterStatsByBatch(batch.getBatchId());
+                    if (routerStats != null) {
+                        log.info("Router stats for batch " + outgoingBatch.getBatchId() + ": " + routerStats);
                     }
-                    throw ex;
-                } finally {
-                    close(transaction);
                 }
-            } else if (outgoingBatch == null) {
-                log.error("Could not find batch {}-{} to acknowledge as {}", new Object[] { batch.getNodeId(), batch.getBatchId(),
-                        status.name() });
-                result.setOk(false);
+            } else if (status == Status.RS) {
+                log.info("The outgoing batch {} received resend request", outgoingBatch.getNodeBatchId());
+            }
+            return new AckedBatch(batch, outgoingBatch, result, status, isFirstTimeAsOkStatus);
+        } else if (outgoingBatch == null) {
+            log.error("Could not find batch {}-{} to acknowledge as {}", new Object[] { batch.getNodeId(), batch.getBatchId(),
+                    status.name() });
+            result.setOk(false);
+        }
+        return null;
+    }
+
+    /**
+     * Save the batches in one transaction, or each in its own transaction when that fails, so a batch that can't be saved doesn't undo the
+     * acknowledgements of the others
+     *
+     * @return the batches that were saved
+     */
+    protected List<AckedBatch> saveAcks(List<AckedBatch> ackedBatches) {
+        try {
+            saveAcksInTransaction(ackedBatches);
+            return ackedBatches;
+        } catch (RuntimeException ex) {
+            if (ackedBatches.size() == 1) {
+                throw ex;
+            }
+            log.warn("Failed to save {} acknowledgements together, so saving them one at a time: {}", ackedBatches.size(), ex.getMessage());
+        }
+        List<AckedBatch> savedBatches = new ArrayList<AckedBatch>(ackedBatches.size());
+        for (AckedBatch ackedBatch : ackedBatches) {
+            try {
+                saveAcksInTransaction(Collections.singletonList(ackedBatch));
+                savedBatches.add(ackedBatch);
+            } catch (RuntimeException ex) {
+                log.error("Failed to save the acknowledgement of batch " + ackedBatch.outgoingBatch.getNodeBatchId(), ex);
+                ackedBatch.result.setOk(false);
+            }
+        }
+        return savedBatches;
+    }
+
+    protected void saveAcksInTransaction(List<AckedBatch> ackedBatches) {
+        List<OutgoingBatch> outgoingBatches = new ArrayList<OutgoingBatch>(ackedBatches.size());
+        for (AckedBatch ackedBatch : ackedBatches) {
+            outgoingBatches.add(ackedBatch.outgoingBatch);
+        }
+        ISqlTransaction transaction = null;
+        try {
+            transaction = sqlTemplate.startSqlTransaction();
+            engine.getOutgoingBatchService().updateAcknowledgedOutgoingBatches(transaction, outgoingBatches, outgoingBatches.size());
+            for (AckedBatch ackedBatch : ackedBatches) {
+                if (ackedBatch.status == Status.OK && ackedBatch.isFirstTimeAsOkStatus && ackedBatch.outgoingBatch.getLoadId() > 0) {
+                    engine.getDataExtractorService().updateExtractRequestLoadTime(transaction, new Date(), ackedBatch.outgoingBatch);
+                }
+            }
+            transaction.commit();
+        } catch (Error ex) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw ex;
+        } catch (RuntimeException ex) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw ex;
+        } finally {
+            close(transaction);
+        }
+    }
+
+    protected void afterAck(AckedBatch ackedBatch) {
+        BatchAck batch = ackedBatch.batchAck;
+        OutgoingBatch outgoingBatch = ackedBatch.outgoingBatch;
+        Status status = ackedBatch.status;
+        boolean isFirstTimeAsOkStatus = ackedBatch.isFirstTimeAsOkStatus;
+        if (status == Status.OK) {
+            if (isFirstTimeAsOkStatus) {
+                engine.getStatisticManager().incrementDataLoadedOutgoing(outgoingBatch.getChannelId(), outgoingBatch.getLoadRowCount());
+                engine.getStatisticManager().incrementDataBytesLoadedOutgoing(outgoingBatch.getChannelId(), outgoingBatch.getByteCount());
+            }
+            if (parameterService.is(ParameterConstants.STREAM_TO_FILE_ENABLED)) {
+                purgeBatchesFromStaging(outgoingBatch);
+            }
+            Channel channel = engine.getConfigurationService().getChannel(outgoingBatch.getChannelId());
+            if (channel != null && channel.isFileSyncFlag()) {
+                /* Acknowledge the file_sync in case the file needs deleted. */
+                engine.getFileSyncService().acknowledgeFiles(outgoingBatch);
+            }
+            engine.getStatisticManager().removeRouterStatsByBatch(batch.getBatchId());
+        } else if (status == Status.ER || status == Status.RS) {
+            Channel channel = engine.getConfigurationService().getChannel(outgoingBatch.getChannelId());
+            if (channel != null && channel.isFileSyncFlag()) {
+                /* The node may not have the content a delta would be built from, so send the files whole again. */
+                engine.getFileSyncService().dropFileSignatures(outgoingBatch);
             }
         }
-        return result;
     }
 
     protected void purgeBatchesFromStaging(OutgoingBatch outgoingBatch) {
@@ -241,14 +387,6 @@ public class AcknowledgeService extends AbstractService implements IAcknowledgeS
         }
     }
 
-    public List<BatchAckResult> ack(List<BatchAck> batches) {
-        List<BatchAckResult> results = new ArrayList<BatchAckResult>();
-        for (BatchAck batch : batches) {
-            results.add(ack(batch));
-        }
-        return results;
-    }
-
     public void checkMissingAck(List<BatchAck> acks, String queue) {
         boolean hasCorruptBatch = false;
         String nodeId = null;
@@ -297,4 +435,20 @@ public class AcknowledgeService extends AbstractService implements IAcknowledgeS
             }
         }
     }
+
+    static class AckedBatch {
+        final BatchAck batchAck;
+        final OutgoingBatch outgoingBatch;
+        final BatchAckResult result;
+        final Status status;
+        final boolean isFirstTimeAsOkStatus;
+
+        AckedBatch(BatchAck batchAck, OutgoingBatch outgoingBatch, BatchAckResult result, Status status, boolean isFirstTimeAsOkStatus) {
+            this.batchAck = batchAck;
+            this.outgoingBatch = outgoingBatch;
+            this.result = result;
+            this.status = status;
+            this.isFirstTimeAsOkStatus = isFirstTimeAsOkStatus;
+        }
+    }
 }
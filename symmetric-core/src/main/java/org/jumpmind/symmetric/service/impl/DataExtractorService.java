@@ -26,9 +26,11 @@ import static org.jumpmind.symmetric.common.Constants.LOG_PROCESS_SUMMARY_THRESH
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.sql.SQLException;
@@ -61,6 +63,7 @@ import java.util.regex.Pattern;
 import java.util.zip.ZipException;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.jumpmind.db.model.Column;
@@ -108,7 +111,9 @@ import org.jumpmind.symmetric.io.data.writer.StructureDataWriter.PayloadType;
 import org.jumpmind.symmetric.io.data.writer.TransformWriter;
 import org.jumpmind.symmetric.io.stage.IStagedResource;
 import org.jumpmind.symmetric.io.stage.IStagedResource.State;
+import org.jumpmind.symmetric.io.stage.IStagingCodec;
 import org.jumpmind.symmetric.io.stage.IStagingManager;
+import org.jumpmind.symmetric.io.stage.StagingCodecs;
 import org.jumpmind.symmetric.io.stage.StagingFileLock;
 import org.jumpmind.symmetric.io.stage.StagingLowFreeSpace;
 import org.jumpmind.symmetric.model.AbstractBatch.Status;
@@ -157,6 +162,7 @@ import org.jumpmind.symmetric.service.impl.TransformService.TransformTableNodeGr
 import org.jumpmind.symmetric.statistic.IStatisticManager;
 import org.jumpmind.symmetric.transport.BatchBufferedWriter;
 import org.jumpmind.symmetric.transport.IOutgoingTransport;
+import org.jumpmind.symmetric.transport.OutputStreamBufferedWriter;
 import org.jumpmind.symmetric.transport.TransportUtils;
 import org.jumpmind.util.AppUtils;
 import org.jumpmind.util.CustomizableThreadFactory;
@@ -1311,7 +1317,18 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
                                                     .getBatchId()),
                                             currentBatch.getBatchId());
                                     try {
-                                        Files.copy(extractedBatch.getFile().toPath(), targetResource.getFile().toPath(), StandardCopyOption.REPLACE_EXISTING);
+                                        IStagingCodec targetCodec = targetEngine.getStagingManager().getCodec(currentBatch.getChannelId());
+                                        if (StagingCodecs.isSameCodec(extractedBatch.getCodec(), targetCodec)) {
+                                            Files.copy(extractedBatch.getFile().toPath(), targetResource.getFile().toPath(), StandardCopyOption.REPLACE_EXISTING);
+                                        } else {
+                                            targetResource.setCodec(targetCodec);
+                                            try {
+                                                IOUtils.copy(extractedBatch.getInputStream(), targetResource.getOutputStream());
+                                            } finally {
+                                                extractedBatch.close();
+                                                targetResource.close();
+                                            }
+                                        }
                                         processInfo.setCurrentDataCount(currentBatch.getDataRowCount());
                                         if (log.isDebugEnabled()) {
                                             log.debug("Copied file to incoming staging of remote engine {}", targetResource.getFile().getAbsolutePath());
@@ -1320,7 +1337,7 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
                                         isRetry = true;
                                         if (currentBatch.getSentCount() == 1) {
                                             statisticManager.incrementDataSent(currentBatch.getChannelId(), currentBatch.getDataRowCount());
-                                            statisticManager.incrementDataBytesSent(currentBatch.getChannelId(), extractedBatch.getFile().length());
+                                            statisticManager.incrementDataBytesSent(currentBatch.getChannelId(), extractedBatch.getSize());
                                         }
                                     } catch (Exception e) {
                                         FileUtils.deleteQuietly(targetResource.getFile());
@@ -1335,8 +1352,10 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
                     transferFromStaging(mode, BatchType.EXTRACT, currentBatch, isRetry, extractedBatch, writer, ctx,
                             channel.getMaxKBytesPerSecond(), processInfo);
                 } else {
-                    IDataReader dataReader = new ProtocolDataReader(BatchType.EXTRACT,
+                    ProtocolDataReader dataReader = new ProtocolDataReader(BatchType.EXTRACT,
                             currentBatch.getNodeId(), extractedBatch);
+                    // the protocol writer is done with each row once it is written
+                    dataReader.setReuseCsvData(dataWriter instanceof ProtocolDataWriter);
                     DataContext ctx = new DataContext();
                     ctx.put(Constants.DATA_CONTEXT_TARGET_NODE, targetNode);
                     ctx.put(Constants.DATA_CONTEXT_SOURCE_NODE, nodeService.findIdentity());
@@ -1367,12 +1386,11 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
 
     protected void transferFromStaging(ExtractMode mode, BatchType batchType, OutgoingBatch batch, boolean isRetry, IStagedResource stagedResource,
             BufferedWriter writer, DataContext context, BigDecimal maxKBytesPerSec, ProcessInfo processInfo) {
-        final int MAX_WRITE_LENGTH = 32768;
-        BufferedReader reader = stagedResource.getReader();
         try {
             // Retry means we've sent this batch before, so let's ask to
             // retry the batch from the target's staging
             if (isRetry) {
+                BufferedReader reader = stagedResource.getReader();
                 String line = null;
                 while ((line = reader.readLine()) != null) {
                     if (line.startsWith(CsvConstants.BATCH)) {
@@ -1395,68 +1413,23 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
                 writer.flush();
                 processInfo.setCurrentDataCount(batch.getDataRowCount());
             } else {
-                long totalBytes = stagedResource.getSize();
-                long totalCharsRead = 0, totalBytesRead = 0;
-                int numCharsRead = 0, numBytesRead = 0;
-                long startTime = System.currentTimeMillis(), ts = startTime, bts = startTime;
-                boolean isThrottled = maxKBytesPerSec != null && maxKBytesPerSec.compareTo(BigDecimal.ZERO) > 0;
-                long totalThrottleTime = 0;
-                int bufferSize = MAX_WRITE_LENGTH;
-                if (isThrottled) {
-                    bufferSize = maxKBytesPerSec.multiply(new BigDecimal(1024)).intValue();
-                }
-                char[] buffer = new char[bufferSize];
-                boolean batchStatsWritten = false;
-                String prevBuffer = "";
-                while ((numCharsRead = reader.read(buffer)) != -1) {
-                    if (!batchStatsWritten && nodeService.findNode(batch.getNodeId(), true).isVersionGreaterThanOrEqualTo(3, 9, 0)) {
-                        batchStatsWritten = writeBatchStats(writer, buffer, numCharsRead, prevBuffer, batch);
-                        prevBuffer = new String(buffer);
-                    } else {
-                        writer.write(buffer, 0, numCharsRead);
-                    }
-                    totalCharsRead += numCharsRead;
-                    if (Thread.currentThread().isInterrupted()) {
-                        throw new IoException("This thread was interrupted");
-                    }
-                    long batchStatusUpdateMillis = parameterService.getLong(ParameterConstants.OUTGOING_BATCH_UPDATE_STATUS_MILLIS);
-                    if (System.currentTimeMillis() - ts > batchStatusUpdateMillis && batch.getStatus() != Status.SE && batch.getStatus() != Status.RS) {
-                        changeBatchStatus(Status.SE, batch, mode);
-                    }
-                    if (System.currentTimeMillis() - ts > LOG_PROCESS_SUMMARY_THRESHOLD) {
-                        log.info(
-                                "Batch '{}', for node '{}', for process 'send from stage' has been processing for {} seconds.  "
-                                        + "The following stats have been gathered: {}",
-                                new Object[] { batch.getBatchId(), batch.getNodeId(), (System.currentTimeMillis() - startTime) / 1000,
-                                        "CHARS=" + totalCharsRead });
-                        ts = System.currentTimeMillis();
-                    }
-                    if (isThrottled) {
-                        numBytesRead += new String(buffer, 0, numCharsRead).getBytes().length;
-                        totalBytesRead += numBytesRead;
-                        if (numBytesRead >= bufferSize) {
-                            long expectedMillis = (long) (((numBytesRead / 1024f) / maxKBytesPerSec.floatValue()) * 1000);
-                            long actualMillis = System.currentTimeMillis() - bts;
-                            if (actualMillis < expectedMillis) {
-                                totalThrottleTime += expectedMillis - actualMillis;
-                                Thread.sleep(expectedMillis - actualMillis);
-                            }
-                            numBytesRead = 0;
-                            bts = System.currentTimeMillis();
-                        }
-                    } else {
-                        totalBytesRead += new String(buffer, 0, numCharsRead).getBytes().length;
-                    }
-                    processInfo.setCurrentDataCount((long) ((totalBytesRead / (double) totalBytes) * batch.getDataRowCount()));
+                boolean isBatchStatsSupported = nodeService.findNode(batch.getNodeId(), true).isVersionGreaterThanOrEqualTo(3, 9, 0);
+                TransferProgress progress = new TransferProgress(batch, stagedResource.getSize(), maxKBytesPerSec);
+                if (writer instanceof OutputStreamBufferedWriter && stagedResource.isFileResource()
+                        && StandardCharsets.UTF_8.equals(((OutputStreamBufferedWriter) writer).getCharset())) {
+                    transferBytesFromStaging(mode, batch, stagedResource, (OutputStreamBufferedWriter) writer, isBatchStatsSupported, progress,
+                            processInfo);
+                } else {
+                    transferCharsFromStaging(mode, batch, stagedResource, writer, isBatchStatsSupported, progress, processInfo);
                 }
                 if (batch.getSentCount() == 1) {
                     statisticManager.incrementDataSent(batch.getChannelId(), batch.getDataRowCount());
-                    statisticManager.incrementDataBytesSent(batch.getChannelId(), totalBytesRead);
+                    statisticManager.incrementDataBytesSent(batch.getChannelId(), progress.totalBytesRead);
                 }
-                if (log.isDebugEnabled() && totalThrottleTime > 0) {
+                if (log.isDebugEnabled() && progress.totalThrottleTime > 0) {
                     log.debug("Batch '{}' for node '{}' took {}ms for {} bytes and was throttled for {}ms because limit is set to {} KB/s",
-                            batch.getBatchId(), batch.getNodeId(), (System.currentTimeMillis() - startTime), totalBytesRead,
-                            totalThrottleTime, maxKBytesPerSec);
+                            batch.getBatchId(), batch.getNodeId(), (System.currentTimeMillis() - progress.startTime), progress.totalBytesRead,
+                            progress.totalThrottleTime, maxKBytesPerSec);
                 }
             }
             if (writer instanceof BatchBufferedWriter) {
@@ -1470,6 +1443,105 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
         }
     }
 
+    /**
+     * Copy the staged batch to the transport as bytes. The staging file is already UTF-8, so the content is never decoded, and the batch stats line is
+     * inserted after the batch line by scanning the bytes.
+     */
+    protected void transferBytesFromStaging(ExtractMode mode, OutgoingBatch batch, IStagedResource stagedResource, OutputStreamBufferedWriter writer,
+            boolean isBatchStatsSupported, TransferProgress progress, ProcessInfo processInfo) throws IOException, InterruptedException {
+        InputStream is = stagedResource.getInputStream();
+        byte[] buffer = new byte[progress.bufferSize];
+        BatchLineFinder batchLineFinder = isBatchStatsSupported ? new BatchLineFinder() : null;
+        long batchStatusUpdateMillis = parameterService.getLong(ParameterConstants.OUTGOING_BATCH_UPDATE_STATUS_MILLIS);
+        int numBytesRead = 0;
+        while ((numBytesRead = is.read(buffer)) != -1) {
+            int index = batchLineFinder != null ? batchLineFinder.find(buffer, numBytesRead) : -1;
+            if (index > -1) {
+                writer.writeBytes(buffer, 0, index);
+                writer.write(getBatchStatsColumns() + System.lineSeparator() + getBatchStats(batch) + System.lineSeparator());
+                writer.writeBytes(buffer, index, numBytesRead - index);
+                batchLineFinder = null;
+            } else {
+                writer.writeBytes(buffer, 0, numBytesRead);
+            }
+            afterTransferChunk(mode, batch, numBytesRead, batchStatusUpdateMillis, progress, processInfo);
+        }
+        writer.flush();
+    }
+
+    protected void transferCharsFromStaging(ExtractMode mode, OutgoingBatch batch, IStagedResource stagedResource, BufferedWriter writer,
+            boolean isBatchStatsSupported, TransferProgress progress, ProcessInfo processInfo) throws IOException, InterruptedException {
+        BufferedReader reader = stagedResource.getReader();
+        char[] buffer = new char[progress.bufferSize];
+        boolean batchStatsWritten = !isBatchStatsSupported;
+        String prevBuffer = "";
+        long batchStatusUpdateMillis = parameterService.getLong(ParameterConstants.OUTGOING_BATCH_UPDATE_STATUS_MILLIS);
+        int numCharsRead = 0;
+        while ((numCharsRead = reader.read(buffer)) != -1) {
+            if (!batchStatsWritten) {
+                batchStatsWritten = writeBatchStats(writer, buffer, numCharsRead, prevBuffer, batch);
+                prevBuffer = new String(buffer);
+            } else {
+                writer.write(buffer, 0, numCharsRead);
+            }
+            afterTransferChunk(mode, batch, getUtf8Length(buffer, numCharsRead), batchStatusUpdateMillis, progress, processInfo);
+        }
+    }
+
+    protected void afterTransferChunk(ExtractMode mode, OutgoingBatch batch, int numBytesRead, long batchStatusUpdateMillis, TransferProgress progress,
+            ProcessInfo processInfo) throws InterruptedException {
+        progress.totalBytesRead += numBytesRead;
+        if (Thread.currentThread().isInterrupted()) {
+            throw new IoException("This thread was interrupted");
+        }
+        if (System.currentTimeMillis() - progress.ts > batchStatusUpdateMillis && batch.getStatus() != Status.SE && batch.getStatus() != Status.RS) {
+            changeBatchStatus(Status.SE, batch, mode);
+        }
+        if (System.currentTimeMillis() - progress.ts > LOG_PROCESS_SUMMARY_THRESHOLD) {
+            log.info(
+                    "Batch '{}', for node '{}', for process 'send from stage' has been processing for {} seconds.  "
+                            + "The following stats have been gathered: {}",
+                    new Object[] { batch.getBatchId(), batch.getNodeId(), (System.currentTimeMillis() - progress.startTime) / 1000,
+                            "BYTES=" + progress.totalBytesRead });
+            progress.ts = System.currentTimeMillis();
+        }
+        if (progress.isThrottled) {
+            progress.numBytesSinceThrottle += numBytesRead;
+            if (progress.numBytesSinceThrottle >= progress.bufferSize) {
+                long expectedMillis = (long) (((progress.numBytesSinceThrottle / 1024f) / progress.maxKBytesPerSec.floatValue()) * 1000);
+                long actualMillis = System.currentTimeMillis() - progress.bts;
+                if (actualMillis < expectedMillis) {
+                    progress.totalThrottleTime += expectedMillis - actualMillis;
+                    Thread.sleep(expectedMillis - actualMillis);
+                }
+                progress.numBytesSinceThrottle = 0;
+                progress.bts = System.currentTimeMillis();
+            }
+        }
+        processInfo.setCurrentDataCount((long) (Math.min(1d, progress.totalBytesRead / (double) progress.totalBytes) * batch.getDataRowCount()));
+    }
+
+    /**
+     * Number of bytes the characters encode to in UTF-8, without encoding them
+     */
+    protected static int getUtf8Length(char[] buffer, int length) {
+        int byteCount = 0;
+        for (int i = 0; i < length; i++) {
+            char c = buffer[i];
+            if (c < 0x80) {
+                byteCount++;
+            } else if (c < 0x800) {
+                byteCount += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(buffer[i + 1])) {
+                byteCount += 4;
+                i++;
+            } else {
+                byteCount += 3;
+            }
+        }
+        return byteCount;
+    }
+
     protected int findStatsIndex(String bufferString, String prevBuffer) {
         int index = -1;
         String fullBuffer = prevBuffer + bufferString;
@@ -1840,95 +1912,175 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
             if (!canProcessExtractRequest(request, nodeCommunication.getCommunicationType())) {
                 continue;
             }
-            Node identity = nodeService.findIdentity();
-            Node targetNode = nodeService.findNode(nodeCommunication.getNodeId(), true);
-            log.info("Starting request {} to extract table {} into batches {} through {} for node {}.",
-                    new Object[] { request.getRequestId(), request.getTableName(), request.getStartBatchId(), request.getEndBatchId(), request.getNodeId() });
-            List<OutgoingBatch> batches = outgoingBatchService.getOutgoingBatchRange(request.getStartBatchId(), request.getEndBatchId()).getBatches();
-            ProcessInfo processInfo = statisticManager.newProcessInfo(new ProcessInfoKey(identity
-                    .getNodeId(), nodeCommunication.getQueue(), nodeCommunication.getNodeId(),
-                    getProcessType()));
-            processInfo.setTotalBatchCount(batches.size());
-            List<ExtractRequest> childRequests = allChildRequests.get(request.getRequestId());
-            try {
-                boolean isCanceled = true;
-                boolean isRestarted = false;
-                for (OutgoingBatch outgoingBatch : batches) {
-                    if (outgoingBatch.getStatus() != Status.OK && outgoingBatch.getStatus() != Status.IG) {
-                        isCanceled = false;
-                    }
-                    if (outgoingBatch.getStatus() != Status.RQ) {
-                        isRestarted = true;
-                    }
-                }
-                if (!isCanceled) {
-                    Channel channel = configurationService.getChannel(batches.get(0).getChannelId());
-                    /*
-                     * "Trick" the extractor to extract one reload batch, but we will split it across the N batches when writing it
-                     */
-                    OutgoingBatch firstBatch = batches.get(0);
-                    processInfo.setCurrentLoadId(firstBatch.getLoadId());
-                    processInfo.setStatus(ProcessStatus.QUERYING);
-                    if (isRestarted) {
-                        restartExtractRequest(batches, request, childRequests);
-                    }
-                    MultiBatchStagingWriter multiBatchStagingWriter = buildMultiBatchStagingWriter(request, childRequests, identity, targetNode, batches,
-                            processInfo, channel, isRestarted);
-                    extractOutgoingBatch(processInfo, targetNode, multiBatchStagingWriter,
-                            firstBatch, false, false, ExtractMode.FOR_SYM_CLIENT, new ClusterLockRefreshListener(clusterService));
-                    checkSendDeferredConstraints(request, childRequests, targetNode);
-                } else {
-                    log.info("Batches already had an OK status for request {} to extract table {} for batches {} through {} for node {}.  Not extracting.",
-                            new Object[] { request.getRequestId(), request.getTableName(), request.getStartBatchId(), request.getEndBatchId(), request
-                                    .getNodeId() });
+            List<ExtractRequest> rangeRequests = getRangeRequests(requests, i);
+            if (rangeRequests.size() > 1) {
+                i += rangeRequests.size() - 1;
+                if (!extractRangeRequests(nodeCommunication, rangeRequests, allChildRequests)) {
+                    break;
                 }
-                ISqlTransaction transaction = null;
+            } else if (!extractRequest(nodeCommunication, request, allChildRequests.get(request.getRequestId()), nodeCommunication.getQueue())) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Requests for the key ranges of one table are inserted together, so they are found next to each other in the list
+     */
+    protected List<ExtractRequest> getRangeRequests(List<ExtractRequest> requests, int index) {
+        List<ExtractRequest> rangeRequests = new ArrayList<ExtractRequest>();
+        ExtractRequest request = requests.get(index);
+        rangeRequests.add(request);
+        for (int i = index + 1; i < requests.size(); i++) {
+            ExtractRequest next = requests.get(i);
+            if (next.getLoadId() == request.getLoadId() && StringUtils.equals(next.getTriggerId(), request.getTriggerId())
+                    && StringUtils.equals(next.getRouterId(), request.getRouterId())
+                    && StringUtils.equalsIgnoreCase(next.getTableName(), request.getTableName())) {
+                rangeRequests.add(next);
+            } else {
+                break;
+            }
+        }
+        return rangeRequests;
+    }
+
+    /**
+     * Extract the key ranges of one table at the same time, each with its own process info
+     * 
+     * @return false if extracting should stop because staging is low on space
+     */
+    protected boolean extractRangeRequests(final NodeCommunication nodeCommunication, List<ExtractRequest> rangeRequests,
+            final Map<Long, List<ExtractRequest>> allChildRequests) {
+        int threadCount = Math.max(1, Math.min(parameterService.getInt(ParameterConstants.INITIAL_LOAD_EXTRACT_RANGE_THREAD_COUNT, 4),
+                rangeRequests.size()));
+        log.info("Extracting {} ranges of table {} for node {} using {} threads", rangeRequests.size(), rangeRequests.get(0).getTableName(),
+                nodeCommunication.getNodeId(), threadCount);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount, new CustomizableThreadFactory(String.format("%s-extract-range",
+                parameterService.getEngineName().toLowerCase())));
+        try {
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(rangeRequests.size());
+            for (int i = 0; i < rangeRequests.size(); i++) {
+                final ExtractRequest request = rangeRequests.get(i);
+                final String queue = nodeCommunication.getQueue() + "-" + (i + 1);
+                futures.add(executor.submit(() -> {
+                    MDC.put("engineName", engine.getParameterService().getEngineName());
+                    return extractRequest(nodeCommunication, request, allChildRequests.get(request.getRequestId()), queue);
+                }));
+            }
+            boolean isContinue = true;
+            RuntimeException failure = null;
+            for (Future<Boolean> future : futures) {
                 try {
-                    transaction = sqlTemplate.startSqlTransaction();
-                    long extractMillis = new Date().getTime() - processInfo.getStartTime().getTime();
-                    updateExtractRequestStatus(transaction, request.getRequestId(), ExtractStatus.OK, processInfo.getCurrentDataCount(), extractMillis);
-                    if (childRequests != null) {
-                        for (ExtractRequest childRequest : childRequests) {
-                            updateExtractRequestStatus(transaction, childRequest.getRequestId(), ExtractStatus.OK, processInfo.getCurrentDataCount(),
-                                    extractMillis);
-                        }
-                    }
-                    transaction.commit();
-                    log.info("Done with request {} to extract table {} into batches {} through {} for node {}",
-                            request.getRequestId(), request.getTableName(), request.getStartBatchId(), request.getEndBatchId(), request.getNodeId());
-                } catch (Error ex) {
-                    if (transaction != null) {
-                        transaction.rollback();
+                    isContinue &= future.get();
+                } catch (ExecutionException ex) {
+                    if (failure == null) {
+                        failure = ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : new RuntimeException(ex.getCause());
                     }
-                    throw ex;
-                } catch (RuntimeException ex) {
-                    if (transaction != null) {
-                        transaction.rollback();
-                    }
-                    throw ex;
-                } finally {
-                    close(transaction);
+                } catch (InterruptedException ex) {
+                    throw new CancellationException(ex.getMessage());
                 }
-                releaseMissedExtractRequests();
-                processInfo.setStatus(ProcessInfo.ProcessStatus.OK);
-            } catch (CancellationException ex) {
-                log.info("Interrupted on request {} to extract table {} for batches {} through {} for node {}",
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return isContinue;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return false if extracting should stop because staging is low on space
+     */
+    protected boolean extractRequest(NodeCommunication nodeCommunication, ExtractRequest request, List<ExtractRequest> childRequests, String queue) {
+        Node identity = nodeService.findIdentity();
+        Node targetNode = nodeService.findNode(nodeCommunication.getNodeId(), true);
+        log.info("Starting request {} to extract table {} into batches {} through {} for node {}.",
+                new Object[] { request.getRequestId(), request.getTableName(), request.getStartBatchId(), request.getEndBatchId(), request.getNodeId() });
+        List<OutgoingBatch> batches = outgoingBatchService.getOutgoingBatchRange(request.getStartBatchId(), request.getEndBatchId()).getBatches();
+        ProcessInfo processInfo = statisticManager.newProcessInfo(new ProcessInfoKey(identity
+                .getNodeId(), queue, nodeCommunication.getNodeId(),
+                getProcessType()));
+        processInfo.setTotalBatchCount(batches.size());
+        try {
+            boolean isCanceled = true;
+            boolean isRestarted = false;
+            for (OutgoingBatch outgoingBatch : batches) {
+                if (outgoingBatch.getStatus() != Status.OK && outgoingBatch.getStatus() != Status.IG) {
+                    isCanceled = false;
+                }
+                if (outgoingBatch.getStatus() != Status.RQ) {
+                    isRestarted = true;
+                }
+            }
+            if (!isCanceled) {
+                Channel channel = configurationService.getChannel(batches.get(0).getChannelId());
+                /*
+                 * "Trick" the extractor to extract one reload batch, but we will split it across the N batches when writing it
+                 */
+                OutgoingBatch firstBatch = batches.get(0);
+                processInfo.setCurrentLoadId(firstBatch.getLoadId());
+                processInfo.setStatus(ProcessStatus.QUERYING);
+                if (isRestarted) {
+                    restartExtractRequest(batches, request, childRequests);
+                }
+                MultiBatchStagingWriter multiBatchStagingWriter = buildMultiBatchStagingWriter(request, childRequests, identity, targetNode, batches,
+                        processInfo, channel, isRestarted);
+                extractOutgoingBatch(processInfo, targetNode, multiBatchStagingWriter,
+                        firstBatch, false, false, ExtractMode.FOR_SYM_CLIENT, new ClusterLockRefreshListener(clusterService));
+                checkSendDeferredConstraints(request, childRequests, targetNode);
+            } else {
+                log.info("Batches already had an OK status for request {} to extract table {} for batches {} through {} for node {}.  Not extracting.",
                         new Object[] { request.getRequestId(), request.getTableName(), request.getStartBatchId(), request.getEndBatchId(), request
                                 .getNodeId() });
-                processInfo.setStatus(ProcessInfo.ProcessStatus.OK);
+            }
+            ISqlTransaction transaction = null;
+            try {
+                transaction = sqlTemplate.startSqlTransaction();
+                long extractMillis = new Date().getTime() - processInfo.getStartTime().getTime();
+                updateExtractRequestStatus(transaction, request.getRequestId(), ExtractStatus.OK, processInfo.getCurrentDataCount(), extractMillis);
+                if (childRequests != null) {
+                    for (ExtractRequest childRequest : childRequests) {
+                        updateExtractRequestStatus(transaction, childRequest.getRequestId(), ExtractStatus.OK, processInfo.getCurrentDataCount(),
+                                extractMillis);
+                    }
+                }
+                transaction.commit();
+                log.info("Done with request {} to extract table {} into batches {} through {} for node {}",
+                        request.getRequestId(), request.getTableName(), request.getStartBatchId(), request.getEndBatchId(), request.getNodeId());
+            } catch (Error ex) {
+                if (transaction != null) {
+                    transaction.rollback();
+                }
+                throw ex;
             } catch (RuntimeException ex) {
-                log.warn("Failed on request {} to extract table {} into batches {} through {} for node {}",
-                        new Object[] { request.getRequestId(), request.getTableName(), request.getStartBatchId(), request.getEndBatchId(), request
-                                .getNodeId() });
-                processInfo.setStatus(ProcessInfo.ProcessStatus.ERROR);
-                if (ex instanceof StagingLowFreeSpace) {
-                    log.error("Extract load is disabled because disk is almost full: {}", ex.getMessage());
-                    break;
-                } else {
-                    throw ex;
+                if (transaction != null) {
+                    transaction.rollback();
                 }
+                throw ex;
+            } finally {
+                close(transaction);
+            }
+            releaseMissedExtractRequests();
+            processInfo.setStatus(ProcessInfo.ProcessStatus.OK);
+        } catch (CancellationException ex) {
+            log.info("Interrupted on request {} to extract table {} for batches {} through {} for node {}",
+                    new Object[] { request.getRequestId(), request.getTableName(), request.getStartBatchId(), request.getEndBatchId(), request
+                            .getNodeId() });
+            processInfo.setStatus(ProcessInfo.ProcessStatus.OK);
+        } catch (RuntimeException ex) {
+            log.warn("Failed on request {} to extract table {} into batches {} through {} for node {}",
+                    new Object[] { request.getRequestId(), request.getTableName(), request.getStartBatchId(), request.getEndBatchId(), request
+                            .getNodeId() });
+            processInfo.setStatus(ProcessInfo.ProcessStatus.ERROR);
+            if (ex instanceof StagingLowFreeSpace) {
+                log.error("Extract load is disabled because disk is almost full: {}", ex.getMessage());
+                return false;
+            } else {
+                throw ex;
             }
         }
+        return true;
     }
 
     protected void restartExtractRequest(List<OutgoingBatch> batches, ExtractRequest request, List<ExtractRequest> childRequests) {
@@ -2124,6 +2276,65 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
         }
     }
 
+    static class TransferProgress {
+        final static int MAX_WRITE_LENGTH = 32768;
+        final long totalBytes;
+        final BigDecimal maxKBytesPerSec;
+        final boolean isThrottled;
+        final int bufferSize;
+        final long startTime = System.currentTimeMillis();
+        long ts = startTime;
+        long bts = startTime;
+        long totalBytesRead;
+        long numBytesSinceThrottle;
+        long totalThrottleTime;
+
+        TransferProgress(OutgoingBatch batch, long totalBytes, BigDecimal maxKBytesPerSec) {
+            this.totalBytes = totalBytes;
+            this.maxKBytesPerSec = maxKBytesPerSec;
+            this.isThrottled = maxKBytesPerSec != null && maxKBytesPerSec.compareTo(BigDecimal.ZERO) > 0;
+            this.bufferSize = isThrottled ? maxKBytesPerSec.multiply(new BigDecimal(1024)).intValue() : MAX_WRITE_LENGTH;
+        }
+    }
+
+    /**
+     * Finds the end of the "batch,{id}" line in a staged batch that is read as UTF-8 bytes, keeping its state between buffers so the line can span them.
+     */
+    static class BatchLineFinder {
+        final static byte[] BATCH_LINE_START = ("\n" + CsvConstants.BATCH).getBytes(StandardCharsets.US_ASCII);
+        final static int STATE_BEFORE_COMMA = BATCH_LINE_START.length;
+        final static int STATE_AFTER_COMMA = STATE_BEFORE_COMMA + 1;
+        final static int STATE_DIGITS = STATE_AFTER_COMMA + 1;
+        final static int STATE_CARRIAGE_RETURN = STATE_DIGITS + 1;
+        int state;
+
+        /**
+         * @return the index just past the newline that ends the batch line, or -1 if it did not end in this buffer
+         */
+        int find(byte[] buffer, int length) {
+            for (int i = 0; i < length; i++) {
+                byte b = buffer[i];
+                if (state < STATE_BEFORE_COMMA) {
+                    state = b == BATCH_LINE_START[state] ? state + 1 : (b == '\n' ? 1 : 0);
+                } else if (b == '\n' && state != STATE_BEFORE_COMMA) {
+                    state = 0;
+                    return i + 1;
+                } else if (state == STATE_BEFORE_COMMA && b == ',') {
+                    state = STATE_AFTER_COMMA;
+                } else if ((state == STATE_BEFORE_COMMA || state == STATE_AFTER_COMMA) && (b == ' ' || b == '\t')) {
+                    continue;
+                } else if ((state == STATE_AFTER_COMMA || state == STATE_DIGITS) && b >= '0' && b <= '9') {
+                    state = STATE_DIGITS;
+                } else if (state != STATE_BEFORE_COMMA && b == '\r') {
+                    state = STATE_CARRIAGE_RETURN;
+                } else {
+                    state = b == '\n' ? 1 : 0;
+                }
+            }
+            return -1;
+        }
+    }
+
     static class FutureExtractStatus {
         boolean shouldExtractSkip;
         int batchExtractCount;
@@ -40,17 +40,20 @@ import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.db.model.Table;
@@ -96,6 +99,8 @@ import org.jumpmind.symmetric.io.stage.IStagedResource.State;
 import org.jumpmind.symmetric.io.stage.IStagingManager;
 import org.jumpmind.symmetric.io.stage.SimpleStagingDataWriter;
 import org.jumpmind.symmetric.io.stage.StagingLowFreeSpace;
+import org.jumpmind.symmetric.load.BatchDependencyTracker;
+import org.jumpmind.symmetric.load.BatchDependencyTracker.BatchFootprint;
 import org.jumpmind.symmetric.load.ConfigurationChangedDatabaseWriterFilter;
 import org.jumpmind.symmetric.load.DefaultDataLoaderFactory;
 import org.jumpmind.symmetric.load.DynamicDatabaseWriterFilter;
@@ -161,6 +166,7 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
     private ISymmetricEngine engine = null;
     private Date lastUpdateTime;
     private CustomizableThreadFactory threadFactory;
+    private Map<String, BatchFootprint> batchFootprints = BatchDependencyTracker.newFootprintCache(1000);
 
     public DataLoaderService(ISymmetricEngine engine) {
         super(engine.getParameterService(), engine.getSymmetricDialect());
@@ -554,17 +560,31 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
                 if (threadFactory == null) {
                     threadFactory = new CustomizableThreadFactory(parameterService.getEngineName().toLowerCase() + "-dataloader");
                 }
-                ExecutorService executor = Executors.newFixedThreadPool(1, threadFactory);
+                int workers = Math.max(1, parameterService.getInt(ParameterConstants.DATA_LOADER_PARALLEL_WORKERS, 1));
+                ExecutorService executor = Executors.newFixedThreadPool(workers, threadFactory);
                 LoadIntoDatabaseOnArrivalListener loadListener = new LoadIntoDatabaseOnArrivalListener(transferInfo,
-                        sourceNode.getNodeId(), listener, executor);
+                        sourceNode.getNodeId(), listener, executor, workers > 1 ? new BatchDependencyTracker(getTargetPlatform(), batchFootprints) : null);
                 SimpleStagingDataWriter stageWriter = null;
+                boolean staged = false;
                 try {
                     stageWriter = new SimpleStagingDataWriter(transferInfo, transport.openReader(), stagingManager, Constants.STAGING_CATEGORY_INCOMING,
                             memoryThresholdInBytes, BatchType.LOAD, targetNodeId, ctx, loadListener);
                     stageWriter.process();
+                    staged = true;
                 } finally {
                     /* Previously submitted tasks will still be executed */
                     executor.shutdown();
+                    if (!staged) {
+                        /*
+                         * Batches that workers already loaded must be gathered before the error is handled, so they are acknowledged, their status is
+                         * not saved while a worker is still saving it, and the failed batch is the one used to resolve foreign keys
+                         */
+                        try {
+                            awaitTermination(executor);
+                        } finally {
+                            loadListener.finishParallelLoads(ctx);
+                        }
+                    }
                 }
                 OutputStreamWriter outWriter = null;
                 if (out != null) {
@@ -583,6 +603,7 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
                     transport.close();
                     awaitTermination(executor);
                 }
+                loadListener.finishParallelLoads(ctx);
                 loadListener.isDone();
                 if (stageWriter.getException() != null) {
                     throw stageWriter.getException();
@@ -971,24 +992,38 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
         private long batchStartsToArriveTimeInMs;
         private String sourceNodeId;
         private ProcessInfo transferInfo;
-        private ProcessInfo loadInfo;
         private ExecutorService executor;
         private List<Future<IncomingBatch>> futures = new ArrayList<Future<IncomingBatch>>();
-        private boolean isError;
+        private volatile boolean isError;
+        private BatchDependencyTracker dependencyTracker;
+        private List<ParallelBatchLoad> parallelLoads = new ArrayList<ParallelBatchLoad>();
+        private Map<Thread, WorkerStatistics> workerStatistics = new ConcurrentHashMap<Thread, WorkerStatistics>();
+        private AtomicInteger workerCount = new AtomicInteger();
 
         public LoadIntoDatabaseOnArrivalListener(ProcessInfo transferInfo, String sourceNodeId,
                 ManageIncomingBatchListener listener, ExecutorService executor) {
+            this(transferInfo, sourceNodeId, listener, executor, null);
+        }
+
+        /**
+         * @param dependencyTracker
+         *            when not null, batches are loaded in parallel by the executor as far as their dependencies allow
+         */
+        public LoadIntoDatabaseOnArrivalListener(ProcessInfo transferInfo, String sourceNodeId,
+                ManageIncomingBatchListener listener, ExecutorService executor, BatchDependencyTracker dependencyTracker) {
             this.sourceNodeId = sourceNodeId;
             this.listener = listener;
             this.executor = executor;
             this.transferInfo = transferInfo;
+            this.dependencyTracker = dependencyTracker;
         }
 
         public void start(DataContext ctx, Batch batch) {
             batchStartsToArriveTimeInMs = System.currentTimeMillis();
         }
 
-        protected ProtocolDataReader buildDataReader(final Batch batchInStaging, final IStagedResource resource) {
+        protected ProtocolDataReader buildDataReader(final Batch batchInStaging, final IStagedResource resource,
+                final ManageIncomingBatchListener listener) {
             return new ProtocolDataReader(BatchType.LOAD, batchInStaging.getTargetNodeId(), resource) {
                 @Override
                 public Table nextTable() {
@@ -1011,95 +1046,207 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
 
         public void end(final DataContext ctx, final Batch batchInStaging, final IStagedResource resource) {
             final long networkMillis = System.currentTimeMillis() - batchStartsToArriveTimeInMs;
-            Callable<IncomingBatch> loadBatchFromStage = new Callable<IncomingBatch>() {
+            if (dependencyTracker != null) {
+                endParallel(ctx, batchInStaging, resource, networkMillis);
+            } else if (resource == null) {
+                markMissingFromStaging(listener, batchInStaging);
+            } else {
+                futures.add(executor.submit(new Callable<IncomingBatch>() {
+                    public IncomingBatch call() throws Exception {
+                        return loadBatchFromStage(ctx, listener, batchInStaging, resource, networkMillis, transferInfo.getQueue());
+                    }
+                }));
+            }
+        }
+
+        /**
+         * Each batch gets its own listener and context so batches can load at the same time. The load waits for the loads of earlier batches it depends
+         * on, and the batches processed are gathered in the order they arrived by {@link #finishParallelLoads(DataContext)}.
+         */
+        protected void endParallel(DataContext ctx, final Batch batchInStaging, final IStagedResource resource, final long networkMillis) {
+            final ManageIncomingBatchListener batchListener = new ManageIncomingBatchListener(transferInfo, engine, listener);
+            final DataContext batchContext = new DataContext();
+            batchContext.getContext().putAll(ctx.getContext());
+            parallelLoads.add(new ParallelBatchLoad(batchListener, batchContext));
+            if (resource == null) {
+                markMissingFromStaging(batchListener, batchInStaging);
+                return;
+            }
+            BatchFootprint footprint = null;
+            if (resource.exists()) {
+                try {
+                    footprint = dependencyTracker.scan(batchInStaging.getChannelId(), resource);
+                } catch (Exception e) {
+                    /*
+                     * The batch is still loaded, on its own, so that a batch that can't be read fails and is recorded like any other batch in error
+                     */
+                    log.warn("Could not scan batch {} for dependencies, so it will be loaded alone: {}", batchInStaging.getNodeBatchId(),
+                            e.getMessage());
+                }
+            }
+            if (footprint == null) {
+                footprint = new BatchFootprint(batchInStaging.getChannelId(), true, Collections.<String> emptySet(),
+                        Collections.<String> emptySet());
+            }
+            final List<Future<?>> dependencies = dependencyTracker.getDependencies(footprint);
+            Future<IncomingBatch> future = executor.submit(new Callable<IncomingBatch>() {
                 public IncomingBatch call() throws Exception {
-                    IncomingBatch incomingBatch = null;
-                    DataProcessor processor = null;
-                    MDC.put("engineName", engine.getParameterService().getEngineName());
-                    if (!isError && resource != null && resource.exists()) {
+                    WorkerStatistics stats = getWorkerStatistics();
+                    long ts = System.currentTimeMillis();
+                    for (Future<?> dependency : dependencies) {
                         try {
-                            loadInfo = statisticManager.newProcessInfo(new ProcessInfoKey(transferInfo.getSourceNodeId(),
-                                    transferInfo.getQueue(), transferInfo.getTargetNodeId(), transferInfo.getProcessType() == PULL_JOB_TRANSFER ? PULL_JOB_LOAD
-                                            : PUSH_HANDLER_LOAD));
-                            if (batchInStaging.getStatistics() != null) {
-                                loadInfo.setTotalDataCount(batchInStaging.getStatistics().get(DataReaderStatistics.DATA_ROW_COUNT));
-                            }
-                            loadInfo.setStatus(ProcessInfo.ProcessStatus.LOADING);
-                            ProtocolDataReader reader = buildDataReader(batchInStaging, resource);
-                            processor = new DataProcessor(reader, null, listener, "data load from stage") {
-                                @Override
-                                protected IDataWriter chooseDataWriter(Batch batch) {
-                                    boolean isRetry = ((ManageIncomingBatchListener) listener).getCurrentBatch().isRetry();
-                                    return buildDataWriter(loadInfo, sourceNodeId, batch.getChannelId(), batch.getBatchId(), isRetry);
-                                }
-                            };
+                            dependency.get();
+                        } catch (ExecutionException e) {
+                            // the failed load reports its own error, and isError stops this batch from loading
+                        } catch (CancellationException e) {
+                        }
+                    }
+                    stats.waitMillis += System.currentTimeMillis() - ts;
+                    ts = System.currentTimeMillis();
+                    IncomingBatch incomingBatch = loadBatchFromStage(batchContext, batchListener, batchInStaging, resource, networkMillis,
+                            transferInfo.getQueue() + "-" + stats.workerNumber);
+                    stats.loadMillis += System.currentTimeMillis() - ts;
+                    if (incomingBatch != null) {
+                        stats.batchCount++;
+                        stats.rowCount += incomingBatch.getLoadRowCount();
+                    }
+                    return incomingBatch;
+                }
+            });
+            futures.add(future);
+            dependencyTracker.add(footprint, future);
+        }
+
+        protected WorkerStatistics getWorkerStatistics() {
+            Thread thread = Thread.currentThread();
+            WorkerStatistics stats = workerStatistics.get(thread);
+            if (stats == null) {
+                stats = new WorkerStatistics(workerCount.incrementAndGet());
+                workerStatistics.put(thread, stats);
+            }
+            return stats;
+        }
+
+        protected void markMissingFromStaging(ManageIncomingBatchListener listener, Batch batchInStaging) {
+            IncomingBatch incomingBatch = new IncomingBatch(batchInStaging);
+            listener.getBatchesProcessed().add(incomingBatch);
+            if (incomingBatchService.acquireIncomingBatch(incomingBatch)) {
+                log.info("Unable to retry batch {} because it's not in staging.  Setting status to resend.", batchInStaging.getNodeBatchId());
+                incomingBatch.setStatus(Status.RS);
+                incomingBatchService.updateIncomingBatch(incomingBatch);
+            }
+            isError = true;
+        }
+
+        protected IncomingBatch loadBatchFromStage(DataContext ctx, ManageIncomingBatchListener listener, Batch batchInStaging,
+                IStagedResource resource, long networkMillis, String queue) throws Exception {
+            IncomingBatch incomingBatch = null;
+            DataProcessor processor = null;
+            MDC.put("engineName", engine.getParameterService().getEngineName());
+            if (!isError && resource != null && resource.exists()) {
+                try {
+                    final ProcessInfo loadInfo = statisticManager.newProcessInfo(new ProcessInfoKey(transferInfo.getSourceNodeId(),
+                            queue, transferInfo.getTargetNodeId(), transferInfo.getProcessType() == PULL_JOB_TRANSFER ? PULL_JOB_LOAD
+                                    : PUSH_HANDLER_LOAD));
+                    if (batchInStaging.getStatistics() != null) {
+                        loadInfo.setTotalDataCount(batchInStaging.getStatistics().get(DataReaderStatistics.DATA_ROW_COUNT));
+                    }
+                    loadInfo.setStatus(ProcessInfo.ProcessStatus.LOADING);
+                    ProtocolDataReader reader = buildDataReader(batchInStaging, resource, listener);
+                    processor = new DataProcessor(reader, null, listener, "data load from stage") {
+                        @Override
+                        protected IDataWriter chooseDataWriter(Batch batch) {
+                            boolean isRetry = ((ManageIncomingBatchListener) listener).getCurrentBatch().isRetry();
+                            return buildDataWriter(loadInfo, sourceNodeId, batch.getChannelId(), batch.getBatchId(), isRetry);
+                        }
+                    };
+                    processor.process(ctx);
+                    if (loadInfo.getCurrentBatchCount() == 0) {
+                        loadInfo.setStatus(ProcessStatus.OK);
+                    }
+                } catch (Exception e) {
+                    if (ctx.get(ContextConstants.CONTEXT_BULK_WRITER_TO_USE) != null && ctx.get(ContextConstants.CONTEXT_BULK_WRITER_TO_USE).equals(
+                            "bulk")) {
+                        log.debug("Bulk loader failed : ", e);
+                        log.info("Bulk loader failed in class {} with message: {}", e.getClass().getName(), e.getMessage());
+                        ctx.put(ContextConstants.CONTEXT_BULK_WRITER_TO_USE, "default");
+                        ctx.setLastError(null);
+                        listener.currentBatch.setStatus(Status.OK);
+                        processor.setDataReader(buildDataReader(batchInStaging, resource, listener));
+                        try {
+                            listener.getBatchesProcessed().remove(listener.currentBatch);
                             processor.process(ctx);
-                            if (loadInfo.getCurrentBatchCount() == 0) {
-                                loadInfo.setStatus(ProcessStatus.OK);
-                            }
-                        } catch (Exception e) {
-                            if (ctx.get(ContextConstants.CONTEXT_BULK_WRITER_TO_USE) != null && ctx.get(ContextConstants.CONTEXT_BULK_WRITER_TO_USE).equals(
-                                    "bulk")) {
-                                log.debug("Bulk loader failed : ", e);
-                                log.info("Bulk loader failed in class {} with message: {}", e.getClass().getName(), e.getMessage());
-                                ctx.put(ContextConstants.CONTEXT_BULK_WRITER_TO_USE, "default");
-                                ctx.setLastError(null);
-                                listener.currentBatch.setStatus(Status.OK);
-                                processor.setDataReader(buildDataReader(batchInStaging, resource));
-                                try {
-                                    listener.getBatchesProcessed().remove(listener.currentBatch);
-                                    processor.process(ctx);
-                                } catch (Exception retryException) {
-                                    isError = true;
-                                    incomingBatch = listener.currentBatch;
-                                    incomingBatch.setStatus(Status.ER);
-                                    incomingBatch.setErrorFlag(true);
-                                    incomingBatchService.updateIncomingBatch(incomingBatch);
-                                    throw e;
-                                }
-                            } else {
-                                isError = true;
-                                if (listener.currentBatch.getSqlCode() == ErrorConstants.PROTOCOL_VIOLATION_CODE) {
-                                    log.info("The batch {} may be corrupt in staging, so removing it.", batchInStaging.getNodeBatchId());
-                                    resource.delete();
-                                    incomingBatch = listener.currentBatch;
-                                } else {
-                                    throw e;
-                                }
-                            }
-                        } finally {
+                        } catch (Exception retryException) {
+                            isError = true;
                             incomingBatch = listener.currentBatch;
-                            if (incomingBatch != null) {
-                                incomingBatch.setNetworkMillis(networkMillis);
-                                if (batchInStaging.isIgnored()) {
-                                    incomingBatch.incrementIgnoreCount();
-                                }
-                            }
-                            resource.setState(State.DONE);
-                            if (!resource.isFileResource()) {
-                                resource.delete();
-                            }
+                            incomingBatch.setStatus(Status.ER);
+                            incomingBatch.setErrorFlag(true);
+                            incomingBatchService.updateIncomingBatch(incomingBatch);
+                            throw e;
+                        }
+                    } else {
+                        isError = true;
+                        if (listener.currentBatch.getSqlCode() == ErrorConstants.PROTOCOL_VIOLATION_CODE) {
+                            log.info("The batch {} may be corrupt in staging, so removing it.", batchInStaging.getNodeBatchId());
+                            resource.delete();
+                            incomingBatch = listener.currentBatch;
+                        } else {
+                            throw e;
                         }
-                    } else if (resource == null || !resource.exists()) {
-                        log.info("The batch {} was missing in staging.  Setting status to resend.", batchInStaging.getNodeBatchId());
-                        incomingBatch = new IncomingBatch(batchInStaging);
-                        incomingBatch.setStatus(Status.RS);
-                        incomingBatchService.updateIncomingBatch(incomingBatch);
                     }
-                    return incomingBatch;
+                } finally {
+                    incomingBatch = listener.currentBatch;
+                    if (incomingBatch != null) {
+                        incomingBatch.setNetworkMillis(networkMillis);
+                        if (batchInStaging.isIgnored()) {
+                            incomingBatch.incrementIgnoreCount();
+                        }
+                    }
+                    resource.setState(State.DONE);
+                    if (!resource.isFileResource()) {
+                        resource.delete();
+                    }
                 }
-            };
-            if (resource == null) {
-                IncomingBatch incomingBatch = new IncomingBatch(batchInStaging);
-                listener.getBatchesProcessed().add(incomingBatch);
-                if (incomingBatchService.acquireIncomingBatch(incomingBatch)) {
-                    log.info("Unable to retry batch {} because it's not in staging.  Setting status to resend.", batchInStaging.getNodeBatchId());
-                    incomingBatch.setStatus(Status.RS);
-                    incomingBatchService.updateIncomingBatch(incomingBatch);
+            } else if (resource == null || !resource.exists()) {
+                log.info("The batch {} was missing in staging.  Setting status to resend.", batchInStaging.getNodeBatchId());
+                incomingBatch = new IncomingBatch(batchInStaging);
+                incomingBatch.setStatus(Status.RS);
+                incomingBatchService.updateIncomingBatch(incomingBatch);
+            }
+            return incomingBatch;
+        }
+
+        /**
+         * After the executor has terminated, gather the batches processed by the parallel loads in the order they arrived so acknowledgements go back in
+         * order. The first batch that failed becomes the current batch of the listener, and its context is copied so that errors can be resolved.
+         */
+        public void finishParallelLoads(DataContext ctx) {
+            if (dependencyTracker == null) {
+                return;
+            }
+            boolean foundError = false;
+            for (ParallelBatchLoad load : parallelLoads) {
+                listener.getBatchesProcessed().addAll(load.listener.getBatchesProcessed());
+                if (!foundError && load.listener.getCurrentBatch() != null) {
+                    listener.currentBatch = load.listener.getCurrentBatch();
+                    listener.isNewErrorForCurrentBatch = load.listener.isNewErrorForCurrentBatch();
+                    if (listener.isNewErrorForCurrentBatch || listener.currentBatch.getStatus() == Status.ER) {
+                        foundError = true;
+                        ctx.setBatch(load.context.getBatch());
+                        ctx.setTable(load.context.getTable());
+                        ctx.setData(load.context.getData());
+                    }
                 }
-                isError = true;
-            } else {
-                futures.add(executor.submit(loadBatchFromStage));
+            }
+            parallelLoads.clear();
+            if (workerStatistics.size() > 0) {
+                StringBuilder sb = new StringBuilder();
+                for (WorkerStatistics stats : workerStatistics.values()) {
+                    sb.append(String.format(" [worker=%d, batches=%d, rows=%d, loadMillis=%d, waitMillis=%d]", stats.workerNumber,
+                            stats.batchCount, stats.rowCount, stats.loadMillis, stats.waitMillis));
+                }
+                log.info("Parallel load from node {} used {} workers:{}", sourceNodeId, workerStatistics.size(), sb);
+                workerStatistics.clear();
             }
         }
 
@@ -1120,6 +1267,28 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
         }
     }
 
+    static class ParallelBatchLoad {
+        final ManageIncomingBatchListener listener;
+        final DataContext context;
+
+        ParallelBatchLoad(ManageIncomingBatchListener listener, DataContext context) {
+            this.listener = listener;
+            this.context = context;
+        }
+    }
+
+    static class WorkerStatistics {
+        final int workerNumber;
+        long batchCount;
+        long rowCount;
+        long loadMillis;
+        long waitMillis;
+
+        WorkerStatistics(int workerNumber) {
+            this.workerNumber = workerNumber;
+        }
+    }
+
     public static class ConflictNodeGroupLink extends Conflict {
         private static final long serialVersionUID = 1L;
         protected NodeGroupLink nodeGroupLink;
@@ -47,9 +47,11 @@ import org.apache.commons.text.StringEscapeUtils;
 import org.jumpmind.db.model.Table;
 import org.jumpmind.db.platform.DatabaseInfo;
 import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.AbstractIndexedRowMapper;
 import org.jumpmind.db.sql.ISqlReadCursor;
 import org.jumpmind.db.sql.ISqlRowMapper;
 import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.db.sql.IndexedRow;
 import org.jumpmind.db.sql.InvalidSqlException;
 import org.jumpmind.db.sql.Row;
 import org.jumpmind.db.sql.SqlException;
@@ -65,6 +67,7 @@ import org.jumpmind.symmetric.common.TableConstants;
 import org.jumpmind.symmetric.db.ISymmetricDialect;
 import org.jumpmind.symmetric.db.SequenceIdentifier;
 import org.jumpmind.symmetric.ext.IHeartbeatListener;
+import org.jumpmind.symmetric.extract.TableRangePartitioner;
 import org.jumpmind.symmetric.io.data.Batch;
 import org.jumpmind.symmetric.io.data.CsvData;
 import org.jumpmind.symmetric.io.data.CsvUtils;
@@ -1402,6 +1405,18 @@ public class DataService extends AbstractService implements IDataService {
                             rowCount = getDataCountForReload(table, targetNode, selectSql);
                         }
                         long transformMultiplier = getTransformMultiplier(table, triggerRouter);
+                        List<String> ranges = null;
+                        if (parentRequestId == 0 && parameterService.is(ParameterConstants.INITIAL_LOAD_USE_EXTRACT_JOB)) {
+                            ranges = getExtractRanges(table, targetNode, selectSql, rowCount);
+                        }
+                        if (ranges != null && ranges.size() > 1) {
+                            firstBatchId = insertRangeLoadBatchesForReload(transaction, targetNode, triggerRouter, triggerHistory, table,
+                                    channel, selectSql, ranges, loadId, createBy, rowCount, transformMultiplier, firstBatchId);
+                            if (!transactional) {
+                                transaction.commit();
+                            }
+                            continue;
+                        }
                         long startBatchId = 0;
                         long numberOfBatches = 1;
                         if (parameterService.is(ParameterConstants.INITIAL_LOAD_USE_EXTRACT_JOB)) {
@@ -1438,7 +1453,7 @@ public class DataService extends AbstractService implements IDataService {
             }
         }
         // Needs to have a "data batch" to give point of reference for setup/finalize batches if no actual data batches
-        if (requests.size() == 0) {
+        if (requests.size() == 0 && firstBatchId == 0) {
             long startBatchId = 0;
             if (platform.supportsMultiThreadedTransactions()) {
                 startBatchId = engine.getSequenceService().nextRange(Constants.SEQUENCE_OUTGOING_BATCH, 1);
@@ -1451,6 +1466,82 @@ public class DataService extends AbstractService implements IDataService {
         return requests;
     }
 
+    /**
+     * Split a large table into key ranges that are extracted at the same time. Each range gets its own batches and extract request. The ranges are not
+     * shared with other nodes, which each split the table for themselves. The rows in each range are counted, because ranges split evenly between the
+     * minimum and maximum key can hold very different numbers of rows, and the extract can only roll over to the batches that were created here.
+     * 
+     * @return the first batch id of the load
+     */
+    protected long insertRangeLoadBatchesForReload(ISqlTransaction transaction, Node targetNode, TriggerRouter triggerRouter,
+            TriggerHistory triggerHistory, Table table, Channel channel, String selectSql, List<String> ranges, long loadId, String createBy,
+            long rowCount, long transformMultiplier, long firstBatchId) {
+        log.info("Splitting table {} with {} rows into {} ranges for load {} to node {}", table.getName(), rowCount, ranges.size(), loadId,
+                targetNode.getNodeId());
+        String whereSql = stripWhere(selectSql);
+        for (int i = 0; i < ranges.size(); i++) {
+            String rangeSql = String.format("(%s) and (%s)", whereSql, ranges.get(i));
+            long rangeRowCount = getDataCountForReload(table, targetNode, rangeSql);
+            long numberOfBatches = 1;
+            if (rangeRowCount > 0) {
+                numberOfBatches = (long) Math.ceil((rangeRowCount * transformMultiplier) / (channel.getMaxBatchSize() * 1f));
+            }
+            long startBatchId = insertRequestedOutgoingBatches(transaction, targetNode, triggerRouter, triggerHistory, rangeSql, loadId, createBy,
+                    channel.getChannelId(), rangeRowCount, channel.getMaxBatchSize(), numberOfBatches);
+            long endBatchId = startBatchId + numberOfBatches - 1;
+            firstBatchId = firstBatchId == 0 ? startBatchId : firstBatchId;
+            updateTableReloadStatusDataCounts(platform.supportsMultiThreadedTransactions() ? null : transaction,
+                    loadId, firstBatchId, endBatchId, numberOfBatches, rangeRowCount);
+            engine.getDataExtractorService().requestExtractRequest(transaction, targetNode.getNodeId(), channel.getQueue(),
+                    triggerRouter, startBatchId, endBatchId, loadId, table.getName(), rangeRowCount, 0);
+        }
+        return firstBatchId;
+    }
+
+    /**
+     * @return the conditions for each key range of a table that is large enough to extract in ranges, otherwise null
+     */
+    protected List<String> getExtractRanges(final Table table, final Node targetNode, String selectSql, long rowCount) {
+        if (!parameterService.is(ParameterConstants.INITIAL_LOAD_EXTRACT_RANGE_ENABLED, false)) {
+            return null;
+        }
+        long rowsPerRange = parameterService.getLong(ParameterConstants.INITIAL_LOAD_EXTRACT_RANGE_ROWS, 10000000);
+        if (rowsPerRange <= 0 || rowCount <= rowsPerRange || table.getNameLowerCase().startsWith(symmetricDialect.getTablePrefix() + "_")
+                || table.getSelfReferencingForeignKey() != null) {
+            return null;
+        }
+        int rangeCount = (int) Math.min(Integer.MAX_VALUE, (rowCount + rowsPerRange - 1) / rowsPerRange);
+        TableRangePartitioner partitioner = new TableRangePartitioner(getTargetPlatform(table.getName())) {
+            @Override
+            protected String filterSql(String sql) {
+                return replaceReloadVariables(sql, targetNode, table);
+            }
+        };
+        try {
+            return partitioner.partition(table, stripWhere(selectSql), rowCount, rangeCount);
+        } catch (SqlException ex) {
+            log.warn("Unable to split table {} into ranges, so it will be extracted as a whole.  {}", table.getName(), ex.getMessage());
+            return null;
+        }
+    }
+
+    protected String stripWhere(String selectSql) {
+        if (selectSql != null && selectSql.trim().toUpperCase().startsWith("WHERE")) {
+            selectSql = selectSql.trim().substring(5);
+        }
+        return selectSql;
+    }
+
+    protected String replaceReloadVariables(String sql, Node targetNode, Table table) {
+        sql = FormatUtils.replace("groupId", targetNode.getNodeGroupId(), sql);
+        sql = FormatUtils.replace("externalId", targetNode.getExternalId(), sql);
+        sql = FormatUtils.replace("nodeId", targetNode.getNodeId(), sql);
+        for (IReloadVariableFilter filter : extensionService.getExtensionPointList(IReloadVariableFilter.class)) {
+            sql = filter.filterPurgeSql(sql, targetNode, table);
+        }
+        return sql;
+    }
+
     protected long getDataCountForReload(Table table, Node targetNode, String selectSql) throws SqlException {
         long rowCount = -1;
         if (parameterService.is(ParameterConstants.INITIAL_LOAD_USE_ESTIMATED_COUNTS) &&
@@ -1462,17 +1553,9 @@ public class DataService extends AbstractService implements IDataService {
             String quote = dbInfo.getDelimiterToken();
             String catalogSeparator = dbInfo.getCatalogSeparator();
             String schemaSeparator = dbInfo.getSchemaSeparator();
-            if (selectSql != null && selectSql.trim().toUpperCase().startsWith("WHERE")) {
-                selectSql = selectSql.trim().substring(5);
-            }
             String sql = String.format("select count(*) from %s t where %s", table
-                    .getQualifiedTableName(quote, catalogSeparator, schemaSeparator), selectSql);
-            sql = FormatUtils.replace("groupId", targetNode.getNodeGroupId(), sql);
-            sql = FormatUtils.replace("externalId", targetNode.getExternalId(), sql);
-            sql = FormatUtils.replace("nodeId", targetNode.getNodeId(), sql);
-            for (IReloadVariableFilter filter : extensionService.getExtensionPointList(IReloadVariableFilter.class)) {
-                sql = filter.filterPurgeSql(sql, targetNode, table);
-            }
+                    .getQualifiedTableName(quote, catalogSeparator, schemaSeparator), stripWhere(selectSql));
+            sql = replaceReloadVariables(sql, targetNode, table);
             try {
                 rowCount = getTargetPlatform().getSqlTemplateDirty().queryForLong(sql);
             } catch (SqlException ex) {
@@ -3034,32 +3117,51 @@ public class DataService extends AbstractService implements IDataService {
         }
     }
 
-    public class DataMapper implements ISqlRowMapper<Data> {
+    public class DataMapper extends AbstractIndexedRowMapper<Data> {
+        private static final int ROW_DATA = 0;
+        private static final int PK_DATA = 1;
+        private static final int OLD_DATA = 2;
+        private static final int CHANNEL_ID = 3;
+        private static final int TRANSACTION_ID = 4;
+        private static final int TABLE_NAME = 5;
+        private static final int EVENT_TYPE = 6;
+        private static final int SOURCE_NODE_ID = 7;
+        private static final int EXTERNAL_DATA = 8;
+        private static final int NODE_LIST = 9;
+        private static final int DATA_ID = 10;
+        private static final int CREATE_TIME = 11;
+        private static final int TRIGGER_HIST_ID = 12;
+        private static final int IS_PREROUTED = 13;
         private List<TriggerRouter> triggerRouters;
         private List<TriggerHistory> activeTriggerHistories;
         private HashMap<String, TriggerHistory> mismatchedTableName;
         private HashSet<Integer> missingConfigTriggerHist;
         private HashSet<Integer> mismatchedTriggerHist;
 
-        public Data mapRow(Row row) {
+        public DataMapper() {
+            super("ROW_DATA", "PK_DATA", "OLD_DATA", "CHANNEL_ID", "TRANSACTION_ID", "TABLE_NAME", "EVENT_TYPE", "SOURCE_NODE_ID",
+                    "EXTERNAL_DATA", "NODE_LIST", "DATA_ID", "CREATE_TIME", "TRIGGER_HIST_ID", "IS_PREROUTED");
+        }
+
+        public Data mapRow(IndexedRow row) {
             Data data = new Data();
-            String rowData = row.getString("ROW_DATA", false);
+            String rowData = row.getString(ROW_DATA, false);
             data.putCsvData(CsvData.ROW_DATA, isNotBlank(rowData) ? rowData : null);
-            String pkData = row.getString("PK_DATA", false);
+            String pkData = row.getString(PK_DATA, false);
             data.putCsvData(CsvData.PK_DATA, isNotBlank(pkData) ? pkData : null);
-            String oldData = row.getString("OLD_DATA", false);
+            String oldData = row.getString(OLD_DATA, false);
             data.putCsvData(CsvData.OLD_DATA, isNotBlank(oldData) ? oldData : null);
-            data.putAttribute(CsvData.ATTRIBUTE_CHANNEL_ID, row.getString("CHANNEL_ID"));
-            data.putAttribute(CsvData.ATTRIBUTE_TX_ID, row.getString("TRANSACTION_ID", false));
-            String tableName = row.getString("TABLE_NAME");
+            data.putAttribute(CsvData.ATTRIBUTE_CHANNEL_ID, row.getString(CHANNEL_ID));
+            data.putAttribute(CsvData.ATTRIBUTE_TX_ID, row.getString(TRANSACTION_ID, false));
+            String tableName = row.getString(TABLE_NAME);
             data.putAttribute(CsvData.ATTRIBUTE_TABLE_NAME, tableName);
-            data.setDataEventType(DataEventType.getEventType(row.getString("EVENT_TYPE")));
-            data.putAttribute(CsvData.ATTRIBUTE_SOURCE_NODE_ID, row.getString("SOURCE_NODE_ID"));
-            data.putAttribute(CsvData.ATTRIBUTE_EXTERNAL_DATA, row.getString("EXTERNAL_DATA"));
-            data.putAttribute(CsvData.ATTRIBUTE_NODE_LIST, row.getString("NODE_LIST"));
-            data.putAttribute(CsvData.ATTRIBUTE_DATA_ID, row.getLong("DATA_ID"));
-            data.putAttribute(CsvData.ATTRIBUTE_CREATE_TIME, row.getDateTime("CREATE_TIME"));
-            int triggerHistId = row.getInt("TRIGGER_HIST_ID");
+            data.setDataEventType(DataEventType.getEventType(row.getString(EVENT_TYPE)));
+            data.putAttribute(CsvData.ATTRIBUTE_SOURCE_NODE_ID, row.getString(SOURCE_NODE_ID));
+            data.putAttribute(CsvData.ATTRIBUTE_EXTERNAL_DATA, row.getString(EXTERNAL_DATA));
+            data.putAttribute(CsvData.ATTRIBUTE_NODE_LIST, row.getString(NODE_LIST));
+            data.putAttribute(CsvData.ATTRIBUTE_DATA_ID, row.getLong(DATA_ID));
+            data.putAttribute(CsvData.ATTRIBUTE_CREATE_TIME, row.getDateTime(CREATE_TIME));
+            int triggerHistId = row.getInt(TRIGGER_HIST_ID);
             data.putAttribute(CsvData.ATTRIBUTE_TABLE_ID, triggerHistId);
             TriggerHistory triggerHistory = engine.getTriggerRouterService().getTriggerHistory(triggerHistId);
             if (triggerHistory == null) {
@@ -3081,7 +3183,7 @@ public class DataService extends AbstractService implements IDataService {
                 }
             }
             data.setTriggerHistory(triggerHistory);
-            data.setPreRouted(row.getBoolean("IS_PREROUTED"));
+            data.setPreRouted(row.getBoolean(IS_PREROUTED));
             return data;
         }
 
@@ -26,6 +26,7 @@ import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.common.TableConstants;
 import org.jumpmind.symmetric.extract.MultiBatchStagingWriter;
+import org.jumpmind.symmetric.file.FileSyncDelta;
 import org.jumpmind.symmetric.file.FileSyncZipDataWriter;
 import org.jumpmind.symmetric.io.data.IDataProcessorListener;
 import org.jumpmind.symmetric.io.data.IDataWriter;
@@ -121,6 +122,7 @@ public class FileSyncExtractorService extends DataExtractorService {
                         super.finish();
                     }
                 };
+                fileSyncWriter.setFileSyncDelta(FileSyncDelta.create(parameterService));
                 return fileSyncWriter;
             }
         };
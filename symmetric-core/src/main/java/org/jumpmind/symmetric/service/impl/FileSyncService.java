@@ -28,10 +28,13 @@ import java.nio.charset.Charset;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -53,10 +56,12 @@ import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.common.TableConstants;
 import org.jumpmind.symmetric.file.DirectorySnapshot;
 import org.jumpmind.symmetric.file.FileConflictException;
+import org.jumpmind.symmetric.file.FileSyncDelta;
 import org.jumpmind.symmetric.file.FileSyncZipDataWriter;
 import org.jumpmind.symmetric.file.FileTriggerFileModifiedListener;
 import org.jumpmind.symmetric.file.FileTriggerFileModifiedListener.FileModifiedCallback;
 import org.jumpmind.symmetric.file.FileTriggerTracker;
+import org.jumpmind.symmetric.file.FileTriggerWatcher;
 import org.jumpmind.symmetric.io.data.CsvData;
 import org.jumpmind.symmetric.io.data.DataEventType;
 import org.jumpmind.symmetric.io.stage.IStagedResource;
@@ -110,6 +115,7 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
     private long fileTriggerRoutersCacheTime;
     private Object cacheLock = new Object();
     private Date lastUpdateTime;
+    private Map<String, FileTriggerWatcher> fileTriggerWatchers = new ConcurrentHashMap<String, FileTriggerWatcher>();
 
     public FileSyncService(ISymmetricEngine engine) {
         super(engine.getParameterService(), engine.getSymmetricDialect(), engine.getExtensionService());
@@ -152,6 +158,7 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
                                 new ProcessInfoKey(local.getNodeId(), null, ProcessType.FILE_SYNC_TRACKER));
                         boolean useCrc = engine.getParameterService().is(ParameterConstants.FILE_SYNC_USE_CRC);
                         if (engine.getParameterService().is(ParameterConstants.FILE_SYNC_FAST_SCAN)) {
+                            closeFileTriggerWatchers(new HashSet<String>());
                             trackChangesFastScan(processInfo, useCrc);
                         } else {
                             trackChanges(processInfo, useCrc);
@@ -186,24 +193,83 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
         }
         Date currentDate = new Date();
         List<FileTriggerRouter> fileTriggerRouters = getFileTriggerRoutersForCurrentNode(false);
+        Set<String> watcherKeys = new HashSet<String>();
         for (FileTriggerRouter fileTriggerRouter : fileTriggerRouters) {
             if (fileTriggerRouter.isEnabled()) {
+                watcherKeys.add(getFileTriggerWatcherKey(fileTriggerRouter));
+                FileTriggerWatcher watcher = null;
                 try {
                     FileTrigger fileTrigger = fileTriggerRouter.getFileTrigger();
                     checkSourceDir(fileTriggerRouter);
                     boolean ignoreFiles = shouldIgnoreInitialFiles(fileTriggerRouter, fileTrigger, ctxDate);
-                    FileTriggerTracker tracker = new FileTriggerTracker(fileTriggerRouter, getDirectorySnapshot(fileTriggerRouter),
-                            processInfo, useCrc, engine);
-                    DirectorySnapshot dirSnapshot = tracker.trackChanges();
+                    DirectorySnapshot dirSnapshot = null;
+                    watcher = getFileTriggerWatcher(fileTriggerRouter, useCrc);
+                    if (watcher != null) {
+                        dirSnapshot = watcher.trackChanges(processInfo);
+                    } else {
+                        FileTriggerTracker tracker = new FileTriggerTracker(fileTriggerRouter, getDirectorySnapshot(fileTriggerRouter),
+                                processInfo, useCrc, engine);
+                        dirSnapshot = tracker.trackChanges();
+                    }
                     saveDirectorySnapshot(fileTriggerRouter, dirSnapshot, ignoreFiles);
                     engine.getContextService().save(ContextConstants.FILE_SYNC_FAST_SCAN_TRACK_TIME, String.valueOf(currentDate.getTime()));
                 } catch (Exception ex) {
+                    if (watcher != null) {
+                        watcher.setReconcileNeeded();
+                    }
                     log.error("Failed to track changes for file trigger router: "
                             + fileTriggerRouter.getFileTrigger().getTriggerId()
                             + "::" + fileTriggerRouter.getRouter().getRouterId(), ex);
                 }
             }
         }
+        closeFileTriggerWatchers(watcherKeys);
+    }
+
+    protected String getFileTriggerWatcherKey(FileTriggerRouter fileTriggerRouter) {
+        return fileTriggerRouter.getFileTrigger().getTriggerId() + "::" + fileTriggerRouter.getRouter().getRouterId();
+    }
+
+    /**
+     * Close the watchers of file trigger routers that were deleted or disabled
+     */
+    protected void closeFileTriggerWatchers(Set<String> keepKeys) {
+        Iterator<Map.Entry<String, FileTriggerWatcher>> iterator = fileTriggerWatchers.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, FileTriggerWatcher> entry = iterator.next();
+            if (!keepKeys.contains(entry.getKey())) {
+                iterator.remove();
+                entry.getValue().close();
+            }
+        }
+    }
+
+    /**
+     * Get the watcher that tracks changes for the file trigger router, or null if the file system watch is turned off, the trigger syncs on control
+     * files, or its directories could not be watched. The {@link FileTriggerTracker} handles those triggers. A watcher that failed is kept until the
+     * trigger changes, so the watch isn't tried again on every run.
+     */
+    protected FileTriggerWatcher getFileTriggerWatcher(FileTriggerRouter fileTriggerRouter, boolean useCrc) {
+        String key = getFileTriggerWatcherKey(fileTriggerRouter);
+        FileTriggerWatcher watcher = fileTriggerWatchers.get(key);
+        if (!engine.getParameterService().is(ParameterConstants.FILE_SYNC_USE_WATCH_SERVICE)
+                || fileTriggerRouter.getFileTrigger().isSyncOnCtlFile()) {
+            if (watcher != null) {
+                fileTriggerWatchers.remove(key);
+                watcher.close();
+            }
+            return null;
+        }
+        if (watcher == null || !watcher.isWatching(fileTriggerRouter, useCrc)) {
+            if (watcher != null) {
+                watcher.close();
+            }
+            watcher = new FileTriggerWatcher(fileTriggerRouter, this, useCrc,
+                    engine.getParameterService().getInt(ParameterConstants.FILE_SYNC_CRC_THREAD_COUNT, 4),
+                    engine.getParameterService().getLong(ParameterConstants.FILE_SYNC_WATCH_RECONCILE_PERIOD_MS, 3600000));
+            fileTriggerWatchers.put(key, watcher);
+        }
+        return watcher.isFailed() ? null : watcher;
     }
 
     protected void trackChangesFastScan(ProcessInfo processInfo, boolean useCrc) {
@@ -350,6 +416,10 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
         synchronized (cacheLock) {
             this.fileTriggerRoutersCacheTime = 0;
         }
+        for (FileTriggerWatcher watcher : fileTriggerWatchers.values()) {
+            watcher.close();
+        }
+        fileTriggerWatchers.clear();
     }
 
     public void saveFileTrigger(FileTrigger fileTrigger) {
@@ -583,6 +653,7 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
                                     targetNode.getNodeId(), "filesync.zip");
                             dataWriter = new FileSyncZipDataWriter(maxBytesToSync, this,
                                     engine.getNodeService(), stagedResource, engine.getExtensionService(), engine.getConfigurationService());
+                            dataWriter.setFileSyncDelta(FileSyncDelta.create(parameterService));
                         }
                         log.debug("Extracting batch {} for filesync.", currentBatch.getNodeBatchId());
                         ((DataExtractorService) engine.getDataExtractorService()).extractOutgoingBatch(
@@ -648,6 +719,16 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
                 }
                 currentBatch.setErrorFlag(true);
                 engine.getOutgoingBatchService().updateOutgoingBatch(currentBatch);
+                /*
+                 * signatures were saved as the files were zipped, but the node may never get them, so the files are
+                 * sent whole when the batches are extracted again
+                 */
+                for (OutgoingBatch processedBatch : processedBatches) {
+                    if (processedBatch != currentBatch) {
+                        dropFileSignatures(processedBatch);
+                    }
+                }
+                dropFileSignatures(currentBatch);
                 if (isStreamClosedByClient(e)) {
                     log.warn(
                             "Failed to extract file sync batch {}.  The stream was closed by the client.  The error was: {}",
@@ -769,6 +850,39 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
         }
     }
 
+    public void dropFileSignatures(OutgoingBatch outgoingBatch) {
+        FileSyncDelta delta = FileSyncDelta.create(parameterService);
+        if (delta == null) {
+            return;
+        }
+        log.debug("Dropping file sync signatures for outgoing batch-{}", outgoingBatch.getBatchId());
+        Table snapshotTable = platform.getTableFromCache(
+                TableConstants.getTableName(tablePrefix, TableConstants.SYM_FILE_SNAPSHOT), false);
+        ISqlReadCursor<Data> cursor = engine.getDataService().selectDataFor(
+                outgoingBatch.getBatchId(), outgoingBatch.getChannelId());
+        try {
+            Data data = cursor.next();
+            while (data != null) {
+                if (data.getDataEventType() == DataEventType.INSERT || data.getDataEventType() == DataEventType.UPDATE) {
+                    Map<String, String> columnData = data.toColumnNameValuePairs(
+                            snapshotTable.getColumnNames(), CsvData.ROW_DATA);
+                    FileSnapshot fileSnapshot = new FileSnapshot();
+                    fileSnapshot.setTriggerId(columnData.get("TRIGGER_ID"));
+                    fileSnapshot.setRouterId(columnData.get("ROUTER_ID"));
+                    fileSnapshot.setFileName(columnData.get("FILE_NAME"));
+                    fileSnapshot.setRelativeDir(columnData.get("RELATIVE_DIR"));
+                    delta.deleteSignature(outgoingBatch.getNodeId(), fileSnapshot);
+                } else if (data.getDataEventType() == DataEventType.RELOAD) {
+                    // a reload sends whole directories, so none of the node's signatures can be trusted
+                    delta.deleteSignatures(outgoingBatch.getNodeId());
+                }
+                data = cursor.next();
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
     public void loadFilesFromPush(String nodeId, InputStream in, OutputStream out) {
         INodeService nodeService = engine.getNodeService();
         Node local = nodeService.findIdentity();
@@ -29,9 +29,11 @@ import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.db.platform.DatabaseNamesConstants;
+import org.jumpmind.db.sql.AbstractIndexedRowMapper;
 import org.jumpmind.db.sql.ISqlReadCursor;
 import org.jumpmind.db.sql.ISqlRowMapper;
 import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.db.sql.IndexedRow;
 import org.jumpmind.db.sql.Row;
 import org.jumpmind.db.sql.UniqueKeyException;
 import org.jumpmind.db.sql.mapper.DateMapper;
@@ -225,21 +227,24 @@ public class IncomingBatchService extends AbstractService implements IIncomingBa
     }
 
     public boolean acquireIncomingBatch(IncomingBatch batch) {
+        if (batch.isPersistable() && !isRecordOkBatchesEnabled()) {
+            return acquireIncomingBatch(batch, findIncomingBatch(batch.getBatchId(), batch.getNodeId()));
+        }
+        return acquireIncomingBatch(batch, null);
+    }
+
+    public boolean acquireIncomingBatch(IncomingBatch batch, IncomingBatch existingBatch) {
         boolean okayToProcess = true;
         if (batch.isPersistable()) {
-            IncomingBatch existingBatch = null;
-            if (isRecordOkBatchesEnabled()) {
+            if (existingBatch != null) {
+                batch.setRetry(true);
+            } else if (isRecordOkBatchesEnabled()) {
                 try {
                     insertIncomingBatch(batch);
                 } catch (UniqueKeyException e) {
                     batch.setRetry(true);
                     existingBatch = findIncomingBatch(batch.getBatchId(), batch.getNodeId());
                 }
-            } else {
-                existingBatch = findIncomingBatch(batch.getBatchId(), batch.getNodeId());
-                if (existingBatch != null) {
-                    batch.setRetry(true);
-                }
             }
             if (batch.isRetry()) {
                 if (existingBatch.getStatus() == Status.ER || existingBatch.getStatus() == Status.LD || existingBatch.getStatus() == Status.RS
@@ -275,6 +280,11 @@ public class IncomingBatchService extends AbstractService implements IIncomingBa
         return okayToProcess;
     }
 
+    public List<IncomingBatch> findIncomingBatchesFrom(String nodeId, long startBatchId, int maxRows) {
+        return sqlTemplate.query(getSql("selectIncomingBatchPrefixSql", "findIncomingBatchesFromSql"), maxRows, new IncomingBatchMapper(),
+                new Object[] { nodeId, startBatchId }, new int[] { Types.VARCHAR, symmetricDialect.getSqlTypeForIds() });
+    }
+
     public void insertIncomingBatch(ISqlTransaction transaction, IncomingBatch batch) {
         if (batch.isPersistable()) {
             boolean alreadyExists = false;
@@ -507,67 +517,127 @@ public class IncomingBatchService extends AbstractService implements IIncomingBa
         }
     }
 
-    static class IncomingBatchMapper implements ISqlRowMapper<IncomingBatch> {
+    static class IncomingBatchMapper extends AbstractIndexedRowMapper<IncomingBatch> {
+        private static final int BATCH_ID = 0;
+        private static final int NODE_ID = 1;
+        private static final int CHANNEL_ID = 2;
+        private static final int STATUS = 3;
+        private static final int ROUTER_MILLIS = 4;
+        private static final int NETWORK_MILLIS = 5;
+        private static final int FILTER_MILLIS = 6;
+        private static final int LOAD_MILLIS = 7;
+        private static final int EXTRACT_MILLIS = 8;
+        private static final int TRANSFORM_EXTRACT_MILLIS = 9;
+        private static final int TRANSFORM_LOAD_MILLIS = 10;
+        private static final int FAILED_ROW_NUMBER = 11;
+        private static final int FAILED_LINE_NUMBER = 12;
+        private static final int BYTE_COUNT = 13;
+        private static final int LOAD_FLAG = 14;
+        private static final int EXTRACT_COUNT = 15;
+        private static final int SENT_COUNT = 16;
+        private static final int LOAD_COUNT = 17;
+        private static final int DATA_ROW_COUNT = 18;
+        private static final int LOAD_ROW_COUNT = 19;
+        private static final int EXTRACT_ROW_COUNT = 20;
+        private static final int RELOAD_ROW_COUNT = 21;
+        private static final int DATA_INSERT_ROW_COUNT = 22;
+        private static final int DATA_UPDATE_ROW_COUNT = 23;
+        private static final int DATA_DELETE_ROW_COUNT = 24;
+        private static final int LOAD_INSERT_ROW_COUNT = 25;
+        private static final int LOAD_UPDATE_ROW_COUNT = 26;
+        private static final int LOAD_DELETE_ROW_COUNT = 27;
+        private static final int EXTRACT_INSERT_ROW_COUNT = 28;
+        private static final int EXTRACT_UPDATE_ROW_COUNT = 29;
+        private static final int EXTRACT_DELETE_ROW_COUNT = 30;
+        private static final int OTHER_ROW_COUNT = 31;
+        private static final int FALLBACK_INSERT_COUNT = 32;
+        private static final int FALLBACK_UPDATE_COUNT = 33;
+        private static final int IGNORE_COUNT = 34;
+        private static final int IGNORE_ROW_COUNT = 35;
+        private static final int MISSING_DELETE_COUNT = 36;
+        private static final int SKIP_COUNT = 37;
+        private static final int SQL_STATE = 38;
+        private static final int SQL_CODE = 39;
+        private static final int SQL_MESSAGE = 40;
+        private static final int LAST_UPDATE_HOSTNAME = 41;
+        private static final int LAST_UPDATE_TIME = 42;
+        private static final int CREATE_TIME = 43;
+        private static final int ERROR_FLAG = 44;
+        private static final int SUMMARY = 45;
+        private static final int LOAD_ID = 46;
+        private static final int COMMON_FLAG = 47;
+        private static final int FAILED_DATA_ID = 48;
+        static final String[] COLUMN_NAMES = {
+                "batch_id", "node_id", "channel_id", "status", "router_millis", "network_millis", "filter_millis", "load_millis", "extract_millis",
+                "transform_extract_millis", "transform_load_millis", "failed_row_number", "failed_line_number", "byte_count", "load_flag",
+                "extract_count", "sent_count", "load_count", "data_row_count", "load_row_count", "extract_row_count", "reload_row_count",
+                "data_insert_row_count", "data_update_row_count", "data_delete_row_count", "load_insert_row_count", "load_update_row_count",
+                "load_delete_row_count", "extract_insert_row_count", "extract_update_row_count", "extract_delete_row_count", "other_row_count",
+                "fallback_insert_count", "fallback_update_count", "ignore_count", "ignore_row_count", "missing_delete_count", "skip_count",
+                "sql_state", "sql_code", "sql_message", "last_update_hostname", "last_update_time", "create_time", "error_flag", "summary", "load_id",
+                "common_flag", "failed_data_id" };
         IncomingBatch batchToRefresh = null;
 
         public IncomingBatchMapper(IncomingBatch batchToRefresh) {
+            super(COLUMN_NAMES);
             this.batchToRefresh = batchToRefresh;
         }
 
         public IncomingBatchMapper() {
+            super(COLUMN_NAMES);
         }
 
-        public IncomingBatch mapRow(Row rs) {
+        public IncomingBatch mapRow(IndexedRow rs) {
             IncomingBatch batch = batchToRefresh != null ? batchToRefresh : new IncomingBatch();
-            batch.setBatchId(rs.getLong("batch_id"));
-            batch.setNodeId(rs.getString("node_id"));
-            batch.setChannelId(rs.getString("channel_id"));
-            batch.setStatusFromString(rs.getString("status"));
-            batch.setRouterMillis(rs.getLong("router_millis"));
-            batch.setNetworkMillis(rs.getLong("network_millis"));
-            batch.setFilterMillis(rs.getLong("filter_millis"));
-            batch.setLoadMillis(rs.getLong("load_millis"));
-            batch.setExtractMillis(rs.getLong("extract_millis"));
-            batch.setTransformExtractMillis(rs.getLong("transform_extract_millis"));
-            batch.setTransformLoadMillis(rs.getLong("transform_load_millis"));
-            batch.setFailedRowNumber(rs.getLong("failed_row_number"));
-            batch.setFailedLineNumber(rs.getLong("failed_line_number"));
-            batch.setByteCount(rs.getLong("byte_count"));
-            batch.setLoadFlag(rs.getBoolean("load_flag"));
-            batch.setExtractCount(rs.getLong("extract_count"));
-            batch.setSentCount(rs.getLong("sent_count"));
-            batch.setLoadCount(rs.getLong("load_count"));
-            batch.setDataRowCount(rs.getLong("data_row_count"));
-            batch.setLoadRowCount(rs.getLong("load_row_count"));
-            batch.setExtractRowCount(rs.getLong("extract_row_count"));
-            batch.setReloadRowCount(rs.getLong("reload_row_count"));
-            batch.setDataInsertRowCount(rs.getLong("data_insert_row_count"));
-            batch.setDataUpdateRowCount(rs.getLong("data_update_row_count"));
-            batch.setDataDeleteRowCount(rs.getLong("data_delete_row_count"));
-            batch.setLoadInsertRowCount(rs.getLong("load_insert_row_count"));
-            batch.setLoadUpdateRowCount(rs.getLong("load_update_row_count"));
-            batch.setLoadDeleteRowCount(rs.getLong("load_delete_row_count"));
-            batch.setExtractInsertRowCount(rs.getLong("extract_insert_row_count"));
-            batch.setExtractUpdateRowCount(rs.getLong("extract_update_row_count"));
-            batch.setExtractDeleteRowCount(rs.getLong("extract_delete_row_count"));
-            batch.setOtherRowCount(rs.getLong("other_row_count"));
-            batch.setFallbackInsertCount(rs.getLong("fallback_insert_count"));
-            batch.setFallbackUpdateCount(rs.getLong("fallback_update_count"));
-            batch.setIgnoreCount(rs.getLong("ignore_count"));
-            batch.setIgnoreRowCount(rs.getLong("ignore_row_count"));
-            batch.setMissingDeleteCount(rs.getLong("missing_delete_count"));
-            batch.setSkipCount(rs.getLong("skip_count"));
-            batch.setSqlState(rs.getString("sql_state"));
-            batch.setSqlCode(rs.getInt("sql_code"));
-            batch.setSqlMessage(rs.getString("sql_message"));
-            batch.setLastUpdatedHostName(rs.getString("last_update_hostname"));
-            batch.setLastUpdatedTime(rs.getDateTime("last_update_time"));
-            batch.setCreateTime(rs.getDateTime("create_time"));
-            batch.setErrorFlag(rs.getBoolean("error_flag"));
-            batch.setSummary(rs.getString("summary"));
-            batch.setLoadId(rs.getLong("load_id"));
-            batch.setCommonFlag(rs.getBoolean("common_flag"));
-            batch.setFailedDataId(rs.getLong("failed_data_id"));
+            batch.setBatchId(rs.getLong(BATCH_ID));
+            batch.setNodeId(rs.getString(NODE_ID));
+            batch.setChannelId(rs.getString(CHANNEL_ID));
+            batch.setStatusFromString(rs.getString(STATUS));
+            batch.setRouterMillis(rs.getLong(ROUTER_MILLIS));
+            batch.setNetworkMillis(rs.getLong(NETWORK_MILLIS));
+            batch.setFilterMillis(rs.getLong(FILTER_MILLIS));
+            batch.setLoadMillis(rs.getLong(LOAD_MILLIS));
+            batch.setExtractMillis(rs.getLong(EXTRACT_MILLIS));
+            batch.setTransformExtractMillis(rs.getLong(TRANSFORM_EXTRACT_MILLIS));
+            batch.setTransformLoadMillis(rs.getLong(TRANSFORM_LOAD_MILLIS));
+            batch.setFailedRowNumber(rs.getLong(FAILED_ROW_NUMBER));
+            batch.setFailedLineNumber(rs.getLong(FAILED_LINE_NUMBER));
+            batch.setByteCount(rs.getLong(BYTE_COUNT));
+            batch.setLoadFlag(rs.getBoolean(LOAD_FLAG));
+            batch.setExtractCount(rs.getLong(EXTRACT_COUNT));
+            batch.setSentCount(rs.getLong(SENT_COUNT));
+            batch.setLoadCount(rs.getLong(LOAD_COUNT));
+            batch.setDataRowCount(rs.getLong(DATA_ROW_COUNT));
+            batch.setLoadRowCount(rs.getLong(LOAD_ROW_COUNT));
+            batch.setExtractRowCount(rs.getLong(EXTRACT_ROW_COUNT));
+            batch.setReloadRowCount(rs.getLong(RELOAD_ROW_COUNT));
+            batch.setDataInsertRowCount(rs.getLong(DATA_INSERT_ROW_COUNT));
+            batch.setDataUpdateRowCount(rs.getLong(DATA_UPDATE_ROW_COUNT));
+            batch.setDataDeleteRowCount(rs.getLong(DATA_DELETE_ROW_COUNT));
+            batch.setLoadInsertRowCount(rs.getLong(LOAD_INSERT_ROW_COUNT));
+            batch.setLoadUpdateRowCount(rs.getLong(LOAD_UPDATE_ROW_COUNT));
+            batch.setLoadDeleteRowCount(rs.getLong(LOAD_DELETE_ROW_COUNT));
+            batch.setExtractInsertRowCount(rs.getLong(EXTRACT_INSERT_ROW_COUNT));
+            batch.setExtractUpdateRowCount(rs.getLong(EXTRACT_UPDATE_ROW_COUNT));
+            batch.setExtractDeleteRowCount(rs.getLong(EXTRACT_DELETE_ROW_COUNT));
+            batch.setOtherRowCount(rs.getLong(OTHER_ROW_COUNT));
+            batch.setFallbackInsertCount(rs.getLong(FALLBACK_INSERT_COUNT));
+            batch.setFallbackUpdateCount(rs.getLong(FALLBACK_UPDATE_COUNT));
+            batch.setIgnoreCount(rs.getLong(IGNORE_COUNT));
+            batch.setIgnoreRowCount(rs.getLong(IGNORE_ROW_COUNT));
+            batch.setMissingDeleteCount(rs.getLong(MISSING_DELETE_COUNT));
+            batch.setSkipCount(rs.getLong(SKIP_COUNT));
+            batch.setSqlState(rs.getString(SQL_STATE));
+            batch.setSqlCode(rs.getInt(SQL_CODE));
+            batch.setSqlMessage(rs.getString(SQL_MESSAGE));
+            batch.setLastUpdatedHostName(rs.getString(LAST_UPDATE_HOSTNAME));
+            batch.setLastUpdatedTime(rs.getDateTime(LAST_UPDATE_TIME));
+            batch.setCreateTime(rs.getDateTime(CREATE_TIME));
+            batch.setErrorFlag(rs.getBoolean(ERROR_FLAG));
+            batch.setSummary(rs.getString(SUMMARY));
+            batch.setLoadId(rs.getLong(LOAD_ID));
+            batch.setCommonFlag(rs.getBoolean(COMMON_FLAG));
+            batch.setFailedDataId(rs.getLong(FAILED_DATA_ID));
             return batch;
         }
     }
@@ -52,6 +52,8 @@ public class IncomingBatchServiceSqlMap extends AbstractSqlMap {
 
         putSql("findIncomingBatchByBatchIdSql", "where batch_id = ? " );
 
+        putSql("findIncomingBatchesFromSql", "where node_id = ? and batch_id >= ? order by batch_id   " );
+
         putSql("listIncomingBatchesInErrorForNodeSql" ,"" + 
 "where node_id=? and error_flag=1   " );
 
@@ -25,7 +25,11 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.zip.ZipException;
 
@@ -77,6 +81,7 @@ class ManageIncomingBatchListener implements IDataProcessorListener {
     private IStatisticManager statisticManager;
     private ISymmetricDialect symmetricDialect;
     private IDataLoaderService dataLoaderService;
+    private BatchStatusGroup batchStatusGroup;
 
     public ManageIncomingBatchListener(ProcessInfo processInfo, ISymmetricEngine engine) {
         this.processInfo = processInfo;
@@ -86,6 +91,19 @@ class ManageIncomingBatchListener implements IDataProcessorListener {
         this.dataLoaderService = engine.getDataLoaderService();
         this.incomingBatchService = engine.getIncomingBatchService();
         this.statisticManager = engine.getStatisticManager();
+        int selectGroupSize = parameterService.getInt(ParameterConstants.INCOMING_BATCH_SELECT_GROUP_SIZE, 1);
+        if (selectGroupSize > 1 && !incomingBatchService.isRecordOkBatchesEnabled()) {
+            this.batchStatusGroup = new BatchStatusGroup(incomingBatchService, selectGroupSize);
+        }
+    }
+
+    /**
+     * A listener for one batch of a transport stream that is loaded at the same time as other batches of the stream. It shares the batch status
+     * group of the listener for the stream.
+     */
+    public ManageIncomingBatchListener(ProcessInfo processInfo, ISymmetricEngine engine, ManageIncomingBatchListener streamListener) {
+        this(processInfo, engine);
+        this.batchStatusGroup = streamListener.batchStatusGroup;
     }
 
     public void beforeBatchEnd(DataContext context) {
@@ -120,7 +138,9 @@ class ManageIncomingBatchListener implements IDataProcessorListener {
             }
             this.currentBatch = incomingBatch;
             context.put("currentBatch", this.currentBatch);
-            if (incomingBatchService.acquireIncomingBatch(incomingBatch)) {
+            boolean okayToProcess = batchStatusGroup != null ? batchStatusGroup.acquire(incomingBatch)
+                    : incomingBatchService.acquireIncomingBatch(incomingBatch);
+            if (okayToProcess) {
                 return true;
             }
         }
@@ -367,4 +387,63 @@ class ManageIncomingBatchListener implements IDataProcessorListener {
     public boolean isNewErrorForCurrentBatch() {
         return isNewErrorForCurrentBatch;
     }
+
+    /**
+     * Lookup of the existing incoming_batch rows for a whole transport stream when OK batches are not recorded. The rows for a range of batch ids from
+     * the source node are selected with one query instead of one query per batch. The status of each batch is still saved as soon as it loads, so
+     * recovery is the same as without the group.
+     * <p>
+     * It is not used when OK batches are recorded, because then the row for a new batch is inserted without being looked up. That insert is still
+     * done on its own, because the batch ids of a stream are only known as each batch is read, and the insert has to be committed before the batch
+     * loads, because its unique key keeps two streams from loading the same batch.
+     */
+    static class BatchStatusGroup {
+        private final IIncomingBatchService incomingBatchService;
+        private final int selectGroupSize;
+        private Map<Long, IncomingBatch> existingBatches = new HashMap<Long, IncomingBatch>();
+        private Set<Long> acquiredBatchIds = new HashSet<Long>();
+        private String nodeId;
+        private long startBatchId = -1;
+        private long endBatchId = -1;
+
+        BatchStatusGroup(IIncomingBatchService incomingBatchService, int selectGroupSize) {
+            this.incomingBatchService = incomingBatchService;
+            this.selectGroupSize = selectGroupSize;
+        }
+
+        public boolean acquire(IncomingBatch batch) {
+            if (batch.isPersistable()) {
+                IncomingBatch existingBatch = null;
+                boolean isSelected = false;
+                synchronized (this) {
+                    long batchId = batch.getBatchId();
+                    /*
+                     * A batch that is loaded again in the same stream has a row that changed since it was selected
+                     */
+                    if (acquiredBatchIds.add(batchId)) {
+                        if (!batch.getNodeId().equals(nodeId) || batchId < startBatchId || batchId > endBatchId) {
+                            selectExistingBatches(batch.getNodeId(), batchId);
+                        }
+                        existingBatch = existingBatches.get(batchId);
+                        isSelected = true;
+                    }
+                }
+                if (isSelected) {
+                    return incomingBatchService.acquireIncomingBatch(batch, existingBatch);
+                }
+            }
+            return incomingBatchService.acquireIncomingBatch(batch);
+        }
+
+        protected void selectExistingBatches(String nodeId, long batchId) {
+            List<IncomingBatch> batches = incomingBatchService.findIncomingBatchesFrom(nodeId, batchId, selectGroupSize);
+            existingBatches.clear();
+            for (IncomingBatch batch : batches) {
+                existingBatches.put(batch.getBatchId(), batch);
+            }
+            this.nodeId = nodeId;
+            this.startBatchId = batchId;
+            this.endBatchId = batches.size() < selectGroupSize ? Long.MAX_VALUE : batches.get(batches.size() - 1).getBatchId();
+        }
+    }
 }
\ No newline at end of file
@@ -61,10 +61,12 @@ import org.jumpmind.symmetric.service.INodeService;
 import org.jumpmind.symmetric.service.IParameterService;
 import org.jumpmind.util.AppUtils;
 import org.jumpmind.util.RandomTimeSlot;
+import org.jumpmind.util.VirtualThreadFactory;
 import org.slf4j.MDC;
 
 public class NodeCommunicationService extends AbstractService implements INodeCommunicationService {
     private Map<CommunicationType, ThreadPoolExecutor> executors = new HashMap<NodeCommunication.CommunicationType, ThreadPoolExecutor>();
+    private boolean virtualThreadsUnsupportedLogged;
     private INodeService nodeService;
     private IClusterService clusterService;
     private IConfigurationService configurationService;
@@ -433,10 +435,15 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
                 break;
         }
         int threadCount = parameterService.getInt(threadCountParameter, 1);
+        boolean useVirtualThreads = isVirtualThreadsEnabled();
         if (service != null && service.getCorePoolSize() != threadCount) {
             log.info("{} has changed from {} to {}.  Restarting thread pool", new Object[] { threadCountParameter, service.getCorePoolSize(), threadCount });
             stop();
             service = null;
+        } else if (service != null && (service.getThreadFactory() instanceof VirtualThreadFactory) != useVirtualThreads) {
+            log.info("{} has changed to {}.  Restarting thread pool", ParameterConstants.NODE_COMMUNICATION_VIRTUAL_THREADS_ENABLED, useVirtualThreads);
+            stop();
+            service = null;
         }
         if (service == null) {
             synchronized (this) {
@@ -450,8 +457,12 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
                         log.info("{} will use {} threads", communicationType.name().toLowerCase(),
                                 threadCount);
                     }
-                    service = (ThreadPoolExecutor) Executors.newFixedThreadPool(threadCount,
-                            new ChannelThreadFactory(parameterService.getEngineName(), communicationType.name()));
+                    ChannelThreadFactory channelThreadFactory = new ChannelThreadFactory(parameterService.getEngineName(), communicationType.name());
+                    ThreadFactory threadFactory = channelThreadFactory;
+                    if (useVirtualThreads) {
+                        threadFactory = new VirtualThreadFactory(channelThreadFactory.getThreadPrefix());
+                    }
+                    service = (ThreadPoolExecutor) Executors.newFixedThreadPool(threadCount, threadFactory);
                     executors.put(communicationType, service);
                 }
             }
@@ -459,6 +470,23 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
         return service;
     }
 
+    /**
+     * Virtual threads are used when they are enabled and the runtime supports them. A virtual thread releases its carrier thread while it waits on the
+     * network, so the thread count can be as large as the number of nodes without the cost of a platform thread for each.
+     */
+    protected boolean isVirtualThreadsEnabled() {
+        boolean enabled = parameterService.is(ParameterConstants.NODE_COMMUNICATION_VIRTUAL_THREADS_ENABLED, false);
+        if (enabled && !VirtualThreadFactory.isSupported()) {
+            if (!virtualThreadsUnsupportedLogged) {
+                log.warn("{} is enabled but virtual threads require Java 21 or later.  Using platform threads instead.",
+                        ParameterConstants.NODE_COMMUNICATION_VIRTUAL_THREADS_ENABLED);
+                virtualThreadsUnsupportedLogged = true;
+            }
+            enabled = false;
+        }
+        return enabled;
+    }
+
     public int getAvailableThreads(CommunicationType communicationType) {
         ThreadPoolExecutor service = getExecutor(communicationType);
         return service.getMaximumPoolSize() - service.getActiveCount();
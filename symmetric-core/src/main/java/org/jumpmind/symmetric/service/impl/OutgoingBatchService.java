@@ -31,9 +31,11 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
+import org.jumpmind.db.sql.AbstractIndexedRowMapper;
 import org.jumpmind.db.sql.ISqlReadCursor;
 import org.jumpmind.db.sql.ISqlRowMapper;
 import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.db.sql.IndexedRow;
 import org.jumpmind.db.sql.Row;
 import org.jumpmind.db.sql.mapper.LongMapper;
 import org.jumpmind.db.sql.mapper.StringMapper;
@@ -199,66 +201,39 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
         if (outgoingBatch.getStatus() != Status.OK) {
             sql += getSql("statusNotOk");
         }
-        transaction.prepareAndExecute(sql,
-                new Object[] { outgoingBatch.getStatus().name(), outgoingBatch.getLoadId(), outgoingBatch.isExtractJobFlag() ? 1 : 0,
-                        outgoingBatch.isLoadFlag() ? 1 : 0, outgoingBatch.isErrorFlag() ? 1 : 0, outgoingBatch.getByteCount(),
-                        outgoingBatch.getExtractCount(), outgoingBatch.getSentCount(), outgoingBatch.getLoadCount(),
-                        outgoingBatch.getDataRowCount(), outgoingBatch.getReloadRowCount(), outgoingBatch.getDataInsertRowCount(),
-                        outgoingBatch.getDataUpdateRowCount(), outgoingBatch.getDataDeleteRowCount(), outgoingBatch.getOtherRowCount(),
-                        outgoingBatch.getIgnoreCount(), outgoingBatch.getRouterMillis(), outgoingBatch.getNetworkMillis(),
-                        outgoingBatch.getFilterMillis(), outgoingBatch.getLoadMillis(), outgoingBatch.getExtractMillis(),
-                        outgoingBatch.getExtractStartTime(), outgoingBatch.getTransferStartTime(), outgoingBatch.getLoadStartTime(),
-                        outgoingBatch.getSqlState(), outgoingBatch.getSqlCode(), FormatUtils.abbreviateForLogging(outgoingBatch.getSqlMessage()),
-                        outgoingBatch.getFailedDataId(), outgoingBatch.getFailedLineNumber(),
-                        outgoingBatch.getLastUpdatedHostName(), outgoingBatch.getSummary(), outgoingBatch.getLoadRowCount(),
-                        outgoingBatch.getLoadInsertRowCount(), outgoingBatch.getLoadUpdateRowCount(), outgoingBatch.getLoadDeleteRowCount(),
-                        outgoingBatch.getFallbackInsertCount(), outgoingBatch.getFallbackUpdateCount(), outgoingBatch.getIgnoreRowCount(),
-                        outgoingBatch.getMissingDeleteCount(), outgoingBatch.getSkipCount(), outgoingBatch.getExtractRowCount(),
-                        outgoingBatch.getExtractInsertRowCount(), outgoingBatch.getExtractUpdateRowCount(),
-                        outgoingBatch.getExtractDeleteRowCount(), outgoingBatch.getTransformExtractMillis(), outgoingBatch.getTransformLoadMillis(),
-                        outgoingBatch.getBatchId(), outgoingBatch.getNodeId() },
-                new int[] { Types.CHAR, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
-                        Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
-                        Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
-                        Types.TIMESTAMP, Types.TIMESTAMP, Types.TIMESTAMP, Types.VARCHAR, Types.NUMERIC, Types.VARCHAR, Types.NUMERIC, Types.NUMERIC,
-                        Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
-                        Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
-                        Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
-                        symmetricDialect.getSqlTypeForIds(), Types.VARCHAR });
+        transaction.prepareAndExecute(sql, getUpdateOutgoingBatchArgs(outgoingBatch), getUpdateOutgoingBatchTypes());
     }
 
     public void updateOutgoingBatches(ISqlTransaction transaction, List<OutgoingBatch> batches, int flushSize) {
-        int[] types = new int[] { Types.CHAR, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
-                Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
-                Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
-                Types.TIMESTAMP, Types.TIMESTAMP, Types.TIMESTAMP, Types.VARCHAR, Types.NUMERIC, Types.VARCHAR, Types.NUMERIC, Types.NUMERIC,
-                Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
-                Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
-                Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
-                symmetricDialect.getSqlTypeForIds(), Types.VARCHAR };
+        updateOutgoingBatches(transaction, getSql("updateOutgoingBatchSql"), batches, flushSize);
+    }
+
+    public void updateAcknowledgedOutgoingBatches(ISqlTransaction transaction, List<OutgoingBatch> batches, int flushSize) {
+        List<OutgoingBatch> okBatches = new ArrayList<OutgoingBatch>(batches.size());
+        List<OutgoingBatch> notOkBatches = new ArrayList<OutgoingBatch>(batches.size());
+        for (OutgoingBatch outgoingBatch : batches) {
+            if (outgoingBatch.getStatus() == Status.OK) {
+                okBatches.add(outgoingBatch);
+            } else {
+                notOkBatches.add(outgoingBatch);
+            }
+        }
+        if (okBatches.size() > 0) {
+            updateOutgoingBatches(transaction, getSql("updateOutgoingBatchSql"), okBatches, flushSize);
+        }
+        if (notOkBatches.size() > 0) {
+            updateOutgoingBatches(transaction, getSql("updateOutgoingBatchSql") + getSql("statusNotOk"), notOkBatches, flushSize);
+        }
+    }
+
+    protected void updateOutgoingBatches(ISqlTransaction transaction, String sql, List<OutgoingBatch> batches, int flushSize) {
+        int[] types = getUpdateOutgoingBatchTypes();
         int count = 0;
-        transaction.prepare(getSql("updateOutgoingBatchSql"));
+        transaction.prepare(sql);
         for (OutgoingBatch outgoingBatch : batches) {
             outgoingBatch.setLastUpdatedTime(new Date());
             outgoingBatch.setLastUpdatedHostName(clusterService.getServerId());
-            transaction.addRow(getSql("updateOutgoingBatchSql"),
-                    new Object[] { outgoingBatch.getStatus().name(), outgoingBatch.getLoadId(), outgoingBatch.isExtractJobFlag() ? 1 : 0,
-                            outgoingBatch.isLoadFlag() ? 1 : 0, outgoingBatch.isErrorFlag() ? 1 : 0, outgoingBatch.getByteCount(),
-                            outgoingBatch.getExtractCount(), outgoingBatch.getSentCount(), outgoingBatch.getLoadCount(),
-                            outgoingBatch.getDataRowCount(), outgoingBatch.getReloadRowCount(), outgoingBatch.getDataInsertRowCount(),
-                            outgoingBatch.getDataUpdateRowCount(), outgoingBatch.getDataDeleteRowCount(), outgoingBatch.getOtherRowCount(),
-                            outgoingBatch.getIgnoreCount(), outgoingBatch.getRouterMillis(), outgoingBatch.getNetworkMillis(),
-                            outgoingBatch.getFilterMillis(), outgoingBatch.getLoadMillis(), outgoingBatch.getExtractMillis(),
-                            outgoingBatch.getExtractStartTime(), outgoingBatch.getTransferStartTime(), outgoingBatch.getLoadStartTime(),
-                            outgoingBatch.getSqlState(), outgoingBatch.getSqlCode(), FormatUtils.abbreviateForLogging(outgoingBatch.getSqlMessage()),
-                            outgoingBatch.getFailedDataId(), outgoingBatch.getFailedLineNumber(),
-                            outgoingBatch.getLastUpdatedHostName(), outgoingBatch.getSummary(), outgoingBatch.getLoadRowCount(),
-                            outgoingBatch.getLoadInsertRowCount(), outgoingBatch.getLoadUpdateRowCount(), outgoingBatch.getLoadDeleteRowCount(),
-                            outgoingBatch.getFallbackInsertCount(), outgoingBatch.getFallbackUpdateCount(), outgoingBatch.getIgnoreRowCount(),
-                            outgoingBatch.getMissingDeleteCount(), outgoingBatch.getSkipCount(), outgoingBatch.getExtractRowCount(),
-                            outgoingBatch.getExtractInsertRowCount(), outgoingBatch.getExtractUpdateRowCount(),
-                            outgoingBatch.getExtractDeleteRowCount(), outgoingBatch.getTransformExtractMillis(), outgoingBatch.getTransformLoadMillis(),
-                            outgoingBatch.getBatchId(), outgoingBatch.getNodeId() }, types);
+            transaction.addRow(sql, getUpdateOutgoingBatchArgs(outgoingBatch), types);
             if (++count >= flushSize) {
                 transaction.flush();
                 count = 0;
@@ -267,6 +242,37 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
         transaction.flush();
     }
 
+    protected Object[] getUpdateOutgoingBatchArgs(OutgoingBatch outgoingBatch) {
+        return new Object[] { outgoingBatch.getStatus().name(), outgoingBatch.getLoadId(), outgoingBatch.isExtractJobFlag() ? 1 : 0,
+                outgoingBatch.isLoadFlag() ? 1 : 0, outgoingBatch.isErrorFlag() ? 1 : 0, outgoingBatch.getByteCount(),
+                outgoingBatch.getExtractCount(), outgoingBatch.getSentCount(), outgoingBatch.getLoadCount(),
+                outgoingBatch.getDataRowCount(), outgoingBatch.getReloadRowCount(), outgoingBatch.getDataInsertRowCount(),
+                outgoingBatch.getDataUpdateRowCount(), outgoingBatch.getDataDeleteRowCount(), outgoingBatch.getOtherRowCount(),
+                outgoingBatch.getIgnoreCount(), outgoingBatch.getRouterMillis(), outgoingBatch.getNetworkMillis(),
+                outgoingBatch.getFilterMillis(), outgoingBatch.getLoadMillis(), outgoingBatch.getExtractMillis(),
+                outgoingBatch.getExtractStartTime(), outgoingBatch.getTransferStartTime(), outgoingBatch.getLoadStartTime(),
+                outgoingBatch.getSqlState(), outgoingBatch.getSqlCode(), FormatUtils.abbreviateForLogging(outgoingBatch.getSqlMessage()),
+                outgoingBatch.getFailedDataId(), outgoingBatch.getFailedLineNumber(),
+                outgoingBatch.getLastUpdatedHostName(), outgoingBatch.getSummary(), outgoingBatch.getLoadRowCount(),
+                outgoingBatch.getLoadInsertRowCount(), outgoingBatch.getLoadUpdateRowCount(), outgoingBatch.getLoadDeleteRowCount(),
+                outgoingBatch.getFallbackInsertCount(), outgoingBatch.getFallbackUpdateCount(), outgoingBatch.getIgnoreRowCount(),
+                outgoingBatch.getMissingDeleteCount(), outgoingBatch.getSkipCount(), outgoingBatch.getExtractRowCount(),
+                outgoingBatch.getExtractInsertRowCount(), outgoingBatch.getExtractUpdateRowCount(),
+                outgoingBatch.getExtractDeleteRowCount(), outgoingBatch.getTransformExtractMillis(), outgoingBatch.getTransformLoadMillis(),
+                outgoingBatch.getBatchId(), outgoingBatch.getNodeId() };
+    }
+
+    protected int[] getUpdateOutgoingBatchTypes() {
+        return new int[] { Types.CHAR, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
+                Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
+                Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
+                Types.TIMESTAMP, Types.TIMESTAMP, Types.TIMESTAMP, Types.VARCHAR, Types.NUMERIC, Types.VARCHAR, Types.NUMERIC, Types.NUMERIC,
+                Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
+                Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
+                Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
+                symmetricDialect.getSqlTypeForIds(), Types.VARCHAR };
+    }
+
     public void updateOutgoingBatchStatus(ISqlTransaction transaction, Status status, String nodeId, long startBatchId, long endBatchId) {
         transaction.prepareAndExecute(getSql("updateOutgoingBatchStatusSql"),
                 new Object[] { status.name(), new Date(), clusterService.getServerId(), nodeId, startBatchId, endBatchId },
@@ -366,6 +372,12 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
         }
     }
 
+    public List<OutgoingBatch> findOutgoingBatches(String nodeId, long startBatchId, long endBatchId) {
+        return sqlTemplateDirty.query(getSql("selectOutgoingBatchPrefixSql", "selectOutgoingBatchNodeRangeSql"),
+                new OutgoingBatchMapper(true), new Object[] { nodeId, startBatchId, endBatchId },
+                new int[] { Types.VARCHAR, symmetricDialect.getSqlTypeForIds(), symmetricDialect.getSqlTypeForIds() });
+    }
+
     public int countOutgoingBatchesInError() {
         return sqlTemplateDirty.queryForInt(getSql("countOutgoingBatchesErrorsSql"));
     }
@@ -798,12 +810,75 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
         }
     }
 
-    class OutgoingBatchMapper implements ISqlRowMapper<OutgoingBatch> {
+    class OutgoingBatchMapper extends AbstractIndexedRowMapper<OutgoingBatch> {
+        private static final int CHANNEL_ID = 0;
+        private static final int NODE_ID = 1;
+        private static final int STATUS = 2;
+        private static final int BATCH_ID = 3;
+        private static final int BYTE_COUNT = 4;
+        private static final int EXTRACT_COUNT = 5;
+        private static final int SENT_COUNT = 6;
+        private static final int LOAD_COUNT = 7;
+        private static final int DATA_ROW_COUNT = 8;
+        private static final int LOAD_ROW_COUNT = 9;
+        private static final int EXTRACT_ROW_COUNT = 10;
+        private static final int RELOAD_ROW_COUNT = 11;
+        private static final int DATA_INSERT_ROW_COUNT = 12;
+        private static final int DATA_UPDATE_ROW_COUNT = 13;
+        private static final int DATA_DELETE_ROW_COUNT = 14;
+        private static final int LOAD_INSERT_ROW_COUNT = 15;
+        private static final int LOAD_UPDATE_ROW_COUNT = 16;
+        private static final int LOAD_DELETE_ROW_COUNT = 17;
+        private static final int EXTRACT_INSERT_ROW_COUNT = 18;
+        private static final int EXTRACT_UPDATE_ROW_COUNT = 19;
+        private static final int EXTRACT_DELETE_ROW_COUNT = 20;
+        private static final int OTHER_ROW_COUNT = 21;
+        private static final int IGNORE_COUNT = 22;
+        private static final int ROUTER_MILLIS = 23;
+        private static final int NETWORK_MILLIS = 24;
+        private static final int FILTER_MILLIS = 25;
+        private static final int LOAD_MILLIS = 26;
+        private static final int EXTRACT_MILLIS = 27;
+        private static final int TRANSFORM_EXTRACT_MILLIS = 28;
+        private static final int TRANSFORM_LOAD_MILLIS = 29;
+        private static final int EXTRACT_START_TIME = 30;
+        private static final int TRANSFER_START_TIME = 31;
+        private static final int LOAD_START_TIME = 32;
+        private static final int SQL_STATE = 33;
+        private static final int SQL_CODE = 34;
+        private static final int SQL_MESSAGE = 35;
+        private static final int FAILED_DATA_ID = 36;
+        private static final int FAILED_LINE_NUMBER = 37;
+        private static final int LAST_UPDATE_HOSTNAME = 38;
+        private static final int LAST_UPDATE_TIME = 39;
+        private static final int CREATE_TIME = 40;
+        private static final int LOAD_FLAG = 41;
+        private static final int ERROR_FLAG = 42;
+        private static final int COMMON_FLAG = 43;
+        private static final int EXTRACT_JOB_FLAG = 44;
+        private static final int LOAD_ID = 45;
+        private static final int CREATE_BY = 46;
+        private static final int SUMMARY = 47;
+        private static final int FALLBACK_INSERT_COUNT = 48;
+        private static final int FALLBACK_UPDATE_COUNT = 49;
+        private static final int IGNORE_ROW_COUNT = 50;
+        private static final int MISSING_DELETE_COUNT = 51;
+        private static final int SKIP_COUNT = 52;
         private boolean statusOnly = false;
         private boolean includeDisabledChannels = false;
         private Map<String, Channel> channels;
 
         public OutgoingBatchMapper(boolean includeDisabledChannels, boolean statusOnly) {
+            super(
+                    "channel_id", "node_id", "status", "batch_id", "byte_count", "extract_count", "sent_count", "load_count", "data_row_count",
+                    "load_row_count", "extract_row_count", "reload_row_count", "data_insert_row_count", "data_update_row_count",
+                    "data_delete_row_count", "load_insert_row_count", "load_update_row_count", "load_delete_row_count", "extract_insert_row_count",
+                    "extract_update_row_count", "extract_delete_row_count", "other_row_count", "ignore_count", "router_millis", "network_millis",
+                    "filter_millis", "load_millis", "extract_millis", "transform_extract_millis", "transform_load_millis", "extract_start_time",
+                    "transfer_start_time", "load_start_time", "sql_state", "sql_code", "sql_message", "failed_data_id", "failed_line_number",
+                    "last_update_hostname", "last_update_time", "create_time", "load_flag", "error_flag", "common_flag", "extract_job_flag",
+                    "load_id", "create_by", "summary", "fallback_insert_count", "fallback_update_count", "ignore_row_count", "missing_delete_count",
+                    "skip_count");
             this.includeDisabledChannels = includeDisabledChannels;
             this.statusOnly = statusOnly;
             this.channels = configurationService.getChannels(false);
@@ -813,65 +888,65 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
             this(includeDisabledChannels, false);
         }
 
-        public OutgoingBatch mapRow(Row rs) {
-            String channelId = rs.getString("channel_id");
+        public OutgoingBatch mapRow(IndexedRow rs) {
+            String channelId = rs.getString(CHANNEL_ID);
             Channel channel = channels.get(channelId);
             if (channel != null && (includeDisabledChannels || channel.isEnabled())) {
                 OutgoingBatch batch = new OutgoingBatch();
-                batch.setNodeId(rs.getString("node_id"));
-                batch.setStatusFromString(rs.getString("status"));
-                batch.setBatchId(rs.getLong("batch_id"));
+                batch.setNodeId(rs.getString(NODE_ID));
+                batch.setStatusFromString(rs.getString(STATUS));
+                batch.setBatchId(rs.getLong(BATCH_ID));
                 if (!statusOnly) {
                     batch.setChannelId(channelId);
-                    batch.setByteCount(rs.getLong("byte_count"));
-                    batch.setExtractCount(rs.getLong("extract_count"));
-                    batch.setSentCount(rs.getLong("sent_count"));
-                    batch.setLoadCount(rs.getLong("load_count"));
-                    batch.setDataRowCount(rs.getLong("data_row_count"));
-                    batch.setLoadRowCount(rs.getLong("load_row_count"));
-                    batch.setExtractRowCount(rs.getLong("extract_row_count"));
-                    batch.setReloadRowCount(rs.getLong("reload_row_count"));
-                    batch.setDataInsertRowCount(rs.getLong("data_insert_row_count"));
-                    batch.setDataUpdateRowCount(rs.getLong("data_update_row_count"));
-                    batch.setDataDeleteRowCount(rs.getLong("data_delete_row_count"));
-                    batch.setLoadInsertRowCount(rs.getLong("load_insert_row_count"));
-                    batch.setLoadUpdateRowCount(rs.getLong("load_update_row_count"));
-                    batch.setLoadDeleteRowCount(rs.getLong("load_delete_row_count"));
-                    batch.setExtractInsertRowCount(rs.getLong("extract_insert_row_count"));
-                    batch.setExtractUpdateRowCount(rs.getLong("extract_update_row_count"));
-                    batch.setExtractDeleteRowCount(rs.getLong("extract_delete_row_count"));
-                    batch.setOtherRowCount(rs.getLong("other_row_count"));
-                    batch.setIgnoreCount(rs.getLong("ignore_count"));
-                    batch.setRouterMillis(rs.getLong("router_millis"));
-                    batch.setNetworkMillis(rs.getLong("network_millis"));
-                    batch.setFilterMillis(rs.getLong("filter_millis"));
-                    batch.setLoadMillis(rs.getLong("load_millis"));
-                    batch.setExtractMillis(rs.getLong("extract_millis"));
-                    batch.setTransformExtractMillis(rs.getLong("transform_extract_millis"));
-                    batch.setTransformLoadMillis(rs.getLong("transform_load_millis"));
-                    batch.setExtractStartTime(rs.getDateTime("extract_start_time"));
-                    batch.setTransferStartTime(rs.getDateTime("transfer_start_time"));
-                    batch.setLoadStartTime(rs.getDateTime("load_start_time"));
-                    batch.setSqlState(rs.getString("sql_state"));
-                    batch.setSqlCode(rs.getInt("sql_code"));
-                    batch.setSqlMessage(rs.getString("sql_message"));
-                    batch.setFailedDataId(rs.getLong("failed_data_id"));
-                    batch.setFailedLineNumber(rs.getLong("failed_line_number"));
-                    batch.setLastUpdatedHostName(rs.getString("last_update_hostname"));
-                    batch.setLastUpdatedTime(rs.getDateTime("last_update_time"));
-                    batch.setCreateTime(rs.getDateTime("create_time"));
-                    batch.setLoadFlag(rs.getBoolean("load_flag"));
-                    batch.setErrorFlag(rs.getBoolean("error_flag"));
-                    batch.setCommonFlag(rs.getBoolean("common_flag"));
-                    batch.setExtractJobFlag(rs.getBoolean("extract_job_flag"));
-                    batch.setLoadId(rs.getLong("load_id"));
-                    batch.setCreateBy(rs.getString("create_by"));
-                    batch.setSummary(rs.getString("summary"));
-                    batch.setFallbackInsertCount(rs.getLong("fallback_insert_count"));
-                    batch.setFallbackUpdateCount(rs.getLong("fallback_update_count"));
-                    batch.setIgnoreRowCount(rs.getLong("ignore_row_count"));
-                    batch.setMissingDeleteCount(rs.getLong("missing_delete_count"));
-                    batch.setSkipCount(rs.getLong("skip_count"));
+                    batch.setByteCount(rs.getLong(BYTE_COUNT));
+                    batch.setExtractCount(rs.getLong(EXTRACT_COUNT));
+                    batch.setSentCount(rs.getLong(SENT_COUNT));
+                    batch.setLoadCount(rs.getLong(LOAD_COUNT));
+                    batch.setDataRowCount(rs.getLong(DATA_ROW_COUNT));
+                    batch.setLoadRowCount(rs.getLong(LOAD_ROW_COUNT));
+                    batch.setExtractRowCount(rs.getLong(EXTRACT_ROW_COUNT));
+                    batch.setReloadRowCount(rs.getLong(RELOAD_ROW_COUNT));
+                    batch.setDataInsertRowCount(rs.getLong(DATA_INSERT_ROW_COUNT));
+                    batch.setDataUpdateRowCount(rs.getLong(DATA_UPDATE_ROW_COUNT));
+                    batch.setDataDeleteRowCount(rs.getLong(DATA_DELETE_ROW_COUNT));
+                    batch.setLoadInsertRowCount(rs.getLong(LOAD_INSERT_ROW_COUNT));
+                    batch.setLoadUpdateRowCount(rs.getLong(LOAD_UPDATE_ROW_COUNT));
+                    batch.setLoadDeleteRowCount(rs.getLong(LOAD_DELETE_ROW_COUNT));
+                    batch.setExtractInsertRowCount(rs.getLong(EXTRACT_INSERT_ROW_COUNT));
+                    batch.setExtractUpdateRowCount(rs.getLong(EXTRACT_UPDATE_ROW_COUNT));
+                    batch.setExtractDeleteRowCount(rs.getLong(EXTRACT_DELETE_ROW_COUNT));
+                    batch.setOtherRowCount(rs.getLong(OTHER_ROW_COUNT));
+                    batch.setIgnoreCount(rs.getLong(IGNORE_COUNT));
+                    batch.setRouterMillis(rs.getLong(ROUTER_MILLIS));
+                    batch.setNetworkMillis(rs.getLong(NETWORK_MILLIS));
+                    batch.setFilterMillis(rs.getLong(FILTER_MILLIS));
+                    batch.setLoadMillis(rs.getLong(LOAD_MILLIS));
+                    batch.setExtractMillis(rs.getLong(EXTRACT_MILLIS));
+                    batch.setTransformExtractMillis(rs.getLong(TRANSFORM_EXTRACT_MILLIS));
+                    batch.setTransformLoadMillis(rs.getLong(TRANSFORM_LOAD_MILLIS));
+                    batch.setExtractStartTime(rs.getDateTime(EXTRACT_START_TIME));
+                    batch.setTransferStartTime(rs.getDateTime(TRANSFER_START_TIME));
+                    batch.setLoadStartTime(rs.getDateTime(LOAD_START_TIME));
+                    batch.setSqlState(rs.getString(SQL_STATE));
+                    batch.setSqlCode(rs.getInt(SQL_CODE));
+                    batch.setSqlMessage(rs.getString(SQL_MESSAGE));
+                    batch.setFailedDataId(rs.getLong(FAILED_DATA_ID));
+                    batch.setFailedLineNumber(rs.getLong(FAILED_LINE_NUMBER));
+                    batch.setLastUpdatedHostName(rs.getString(LAST_UPDATE_HOSTNAME));
+                    batch.setLastUpdatedTime(rs.getDateTime(LAST_UPDATE_TIME));
+                    batch.setCreateTime(rs.getDateTime(CREATE_TIME));
+                    batch.setLoadFlag(rs.getBoolean(LOAD_FLAG));
+                    batch.setErrorFlag(rs.getBoolean(ERROR_FLAG));
+                    batch.setCommonFlag(rs.getBoolean(COMMON_FLAG));
+                    batch.setExtractJobFlag(rs.getBoolean(EXTRACT_JOB_FLAG));
+                    batch.setLoadId(rs.getLong(LOAD_ID));
+                    batch.setCreateBy(rs.getString(CREATE_BY));
+                    batch.setSummary(rs.getString(SUMMARY));
+                    batch.setFallbackInsertCount(rs.getLong(FALLBACK_INSERT_COUNT));
+                    batch.setFallbackUpdateCount(rs.getLong(FALLBACK_UPDATE_COUNT));
+                    batch.setIgnoreRowCount(rs.getLong(IGNORE_ROW_COUNT));
+                    batch.setMissingDeleteCount(rs.getLong(MISSING_DELETE_COUNT));
+                    batch.setSkipCount(rs.getLong(SKIP_COUNT));
                 }
                 return batch;
             } else {
@@ -80,6 +80,8 @@ public class OutgoingBatchServiceSqlMap extends AbstractSqlMap {
                         " and b.node_id = ? and c.queue = ? and b.status in (?, ?, ?, ?, ?, ?, ?, ?) order by b.batch_id asc   ");
         putSql("selectOutgoingBatchRangeSql",
                 "where batch_id between ? and ? order by batch_id   ");
+        putSql("selectOutgoingBatchNodeRangeSql",
+                "where node_id = ? and batch_id between ? and ? order by batch_id   ");
         putSql("selectOutgoingBatchLoadSql",
                 "where load_id = ? order by batch_id   ");
         putSql("selectOutgoingBatchLoadByBatchRangeByTableNameSql",
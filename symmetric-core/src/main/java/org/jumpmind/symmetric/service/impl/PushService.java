@@ -24,6 +24,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.symmetric.common.ParameterConstants;
@@ -90,7 +91,11 @@ public class PushService extends AbstractOfflineDetectorService implements IPush
         return new HashMap<String, Date>(startTimesOfNodesBeingPushedTo);
     }
 
-    synchronized public RemoteNodeStatuses pushData(boolean force) {
+    public RemoteNodeStatuses pushData(boolean force) {
+        return pushData(force, null);
+    }
+
+    synchronized public RemoteNodeStatuses pushData(boolean force, Set<String> nodeCommunicationIds) {
         RemoteNodeStatuses statuses = new RemoteNodeStatuses(configurationService.getChannels(false));
         Node identity = nodeService.findIdentity();
         if (identity != null && identity.isSyncEnabled()) {
@@ -103,6 +108,9 @@ public class PushService extends AbstractOfflineDetectorService implements IPush
                         int availableThreads = nodeCommunicationService.getAvailableThreads(CommunicationType.PUSH);
                         boolean isMasterToMaster = configurationService.isMasterToMaster();
                         for (NodeCommunication nodeCommunication : nodes) {
+                            if (nodeCommunicationIds != null && !nodeCommunicationIds.contains(nodeCommunication.getIdentifier())) {
+                                continue;
+                            }
                             boolean meetsMinimumTime = true;
                             if (minimumPeriodMs > 0 && nodeCommunication.getLastLockTime() != null &&
                                     (System.currentTimeMillis() - nodeCommunication.getLastLockTime().getTime()) < minimumPeriodMs) {
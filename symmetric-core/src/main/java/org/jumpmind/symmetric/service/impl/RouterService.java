@@ -26,13 +26,19 @@ import static org.jumpmind.symmetric.common.Constants.LOG_PROCESS_SUMMARY_THRESH
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -87,6 +93,7 @@ import org.jumpmind.symmetric.route.DelayRoutingException;
 import org.jumpmind.symmetric.route.FileSyncDataRouter;
 import org.jumpmind.symmetric.route.IBatchAlgorithm;
 import org.jumpmind.symmetric.route.IDataRouter;
+import org.jumpmind.symmetric.route.IRoutingListener;
 import org.jumpmind.symmetric.route.IDataToRouteReader;
 import org.jumpmind.symmetric.route.LookupTableDataRouter;
 import org.jumpmind.symmetric.route.NonTransactionalBatchAlgorithm;
@@ -99,27 +106,32 @@ import org.jumpmind.symmetric.service.IExtensionService;
 import org.jumpmind.symmetric.service.IRouterService;
 import org.jumpmind.symmetric.statistic.StatisticConstants;
 import org.jumpmind.symmetric.util.CounterStat;
+import org.jumpmind.util.CustomizableThreadFactory;
 import org.jumpmind.util.FormatUtils;
+import org.slf4j.MDC;
 
 /**
  * @see IRouterService
  */
 public class RouterService extends AbstractService implements IRouterService {
     final int MAX_LOGGING_LENGTH = 512;
-    protected Map<Integer, CounterStat> missingTriggerRouter = new HashMap<Integer, CounterStat>();
-    protected Map<String, CounterStat> invalidRouterType = new HashMap<String, CounterStat>();
-    protected Map<Integer, CounterStat> missingColumns = new HashMap<Integer, CounterStat>();
+    protected Map<Integer, CounterStat> missingTriggerRouter = new ConcurrentHashMap<Integer, CounterStat>();
+    protected Map<String, CounterStat> invalidRouterType = new ConcurrentHashMap<String, CounterStat>();
+    protected Map<Integer, CounterStat> missingColumns = new ConcurrentHashMap<Integer, CounterStat>();
     protected long triggerRouterCacheTime = 0;
-    protected Map<String, Boolean> commonBatchesLastKnownState = new HashMap<String, Boolean>();
+    protected Map<String, Boolean> commonBatchesLastKnownState = new ConcurrentHashMap<String, Boolean>();
     protected long commonBatchesCacheTime;
-    protected Map<String, Boolean> defaultRouterOnlyLastKnownState = new HashMap<String, Boolean>();
+    protected Map<String, Boolean> defaultRouterOnlyLastKnownState = new ConcurrentHashMap<String, Boolean>();
     protected long defaultRoutersCacheTime;
     protected transient ExecutorService readThread = null;
+    protected final Object readThreadLock = new Object();
+    protected transient ExecutorService channelRouterThreads = null;
+    protected int channelRouterThreadCount;
     protected ISymmetricEngine engine;
     protected IExtensionService extensionService;
     protected DataGapDetector gapDetector;
     protected boolean firstTimeCheck = true;
-    protected boolean hasMaxDataRoutedOnChannel;
+    protected volatile boolean hasMaxDataRoutedOnChannel;
 
     public RouterService(ISymmetricEngine engine) {
         super(engine.getParameterService(), engine.getSymmetricDialect());
@@ -161,15 +173,21 @@ public class RouterService extends AbstractService implements IRouterService {
     }
 
     public synchronized void stop() {
-        if (readThread != null) {
-            try {
-                log.info("RouterService is shutting down");
-                readThread.shutdown();
-                readThread = null;
-            } catch (Exception ex) {
-                log.error("", ex);
+        synchronized (readThreadLock) {
+            if (readThread != null) {
+                try {
+                    log.info("RouterService is shutting down");
+                    readThread.shutdown();
+                    readThread = null;
+                } catch (Exception ex) {
+                    log.error("", ex);
+                }
             }
         }
+        if (channelRouterThreads != null) {
+            channelRouterThreads.shutdownNow();
+            channelRouterThreads = null;
+        }
     }
 
     /**
@@ -238,13 +256,14 @@ public class RouterService extends AbstractService implements IRouterService {
     }
 
     /**
-     * We route data channel by channel for two reasons. One is that if/when we decide to multi-thread the routing it is a simple matter of inserting a thread
-     * pool here and waiting for all channels to be processed. The other reason is to reduce the number of connections we are required to have.
+     * We route data channel by channel to reduce the number of connections we are required to have. When routing.thread.per.server.count is greater than
+     * one, the channels are routed concurrently on a bounded thread pool, each with its own reader and transaction, and the data ids are merged into the gap
+     * detector as each channel finishes.
      */
     protected long routeDataForEachChannel() {
         long dataCount = 0;
-        Node sourceNode = engine.getNodeService().findIdentity();
-        ProcessInfo processInfo = engine.getStatisticManager().newProcessInfo(
+        final Node sourceNode = engine.getNodeService().findIdentity();
+        final ProcessInfo processInfo = engine.getStatisticManager().newProcessInfo(
                 new ProcessInfoKey(sourceNode.getNodeId(), null, ProcessType.ROUTER_JOB));
         processInfo.setStatus(ProcessInfo.ProcessStatus.PROCESSING);
         try {
@@ -253,12 +272,10 @@ public class RouterService extends AbstractService implements IRouterService {
             if (parameterService.is(ParameterConstants.ROUTING_QUERY_CHANNELS_FIRST)) {
                 readyChannels = getReadyChannels();
             }
+            List<NodeChannel> channelsToRoute = new ArrayList<NodeChannel>();
             for (NodeChannel nodeChannel : channels) {
-                engine.getClusterService().refreshLock(ClusterConstants.ROUTE);
                 if (nodeChannel.isEnabled() && (readyChannels == null || readyChannels.contains(nodeChannel.getChannelId()))) {
-                    processInfo.setCurrentTableName("");
-                    processInfo.setCurrentChannelId(nodeChannel.getChannelId());
-                    dataCount += routeDataForChannel(processInfo, nodeChannel, sourceNode, false, null, null);
+                    channelsToRoute.add(nodeChannel);
                 } else if (!nodeChannel.isEnabled()) {
                     gapDetector.setIsAllDataRead(false);
                     if (log.isDebugEnabled()) {
@@ -266,6 +283,22 @@ public class RouterService extends AbstractService implements IRouterService {
                     }
                 }
             }
+            Map<String, Long> timesByChannel = new ConcurrentHashMap<String, Long>();
+            long ts = System.currentTimeMillis();
+            ExecutorService executor = getChannelRouterThreads(channelsToRoute.size());
+            if (executor == null) {
+                for (NodeChannel nodeChannel : channelsToRoute) {
+                    engine.getClusterService().refreshLock(ClusterConstants.ROUTE);
+                    processInfo.setCurrentTableName("");
+                    processInfo.setCurrentChannelId(nodeChannel.getChannelId());
+                    long channelTs = System.currentTimeMillis();
+                    dataCount += routeDataForChannel(processInfo, nodeChannel, sourceNode, false, null, null);
+                    timesByChannel.put(nodeChannel.getChannelId(), System.currentTimeMillis() - channelTs);
+                }
+            } else {
+                dataCount = routeDataForEachChannelInParallel(executor, processInfo, sourceNode, channelsToRoute, timesByChannel);
+            }
+            logTimesByChannel(channelsToRoute, timesByChannel, System.currentTimeMillis() - ts);
             processInfo.setStatus(ProcessInfo.ProcessStatus.OK);
         } catch (RuntimeException ex) {
             processInfo.setStatus(ProcessInfo.ProcessStatus.ERROR);
@@ -275,6 +308,129 @@ public class RouterService extends AbstractService implements IRouterService {
         return dataCount;
     }
 
+    protected long routeDataForEachChannelInParallel(ExecutorService executor, final ProcessInfo processInfo, final Node sourceNode,
+            List<NodeChannel> channelsToRoute, final Map<String, Long> timesByChannel) {
+        long dataCount = 0;
+        final String engineName = parameterService.getEngineName();
+        final List<BigLobRetry> bigLobRetries = Collections.synchronizedList(new ArrayList<BigLobRetry>());
+        List<Future<Long>> futures = new ArrayList<Future<Long>>(channelsToRoute.size());
+        for (final NodeChannel nodeChannel : channelsToRoute) {
+            futures.add(executor.submit(new Callable<Long>() {
+                public Long call() {
+                    MDC.put("engineName", engineName);
+                    engine.getClusterService().refreshLock(ClusterConstants.ROUTE);
+                    ProcessInfo channelProcessInfo = engine.getStatisticManager().newProcessInfo(
+                            new ProcessInfoKey(sourceNode.getNodeId(), nodeChannel.getChannelId(), null, ProcessType.ROUTER_JOB));
+                    channelProcessInfo.setStatus(ProcessInfo.ProcessStatus.PROCESSING);
+                    channelProcessInfo.setCurrentTableName("");
+                    channelProcessInfo.setCurrentChannelId(nodeChannel.getChannelId());
+                    long channelTs = System.currentTimeMillis();
+                    try {
+                        long count = routeDataForChannel(channelProcessInfo, nodeChannel, sourceNode, false, null, null, bigLobRetries);
+                        channelProcessInfo.setStatus(ProcessInfo.ProcessStatus.OK);
+                        return count;
+                    } catch (RuntimeException ex) {
+                        channelProcessInfo.setStatus(ProcessInfo.ProcessStatus.ERROR);
+                        throw ex;
+                    } finally {
+                        timesByChannel.put(nodeChannel.getChannelId(), System.currentTimeMillis() - channelTs);
+                    }
+                }
+            }));
+        }
+        RuntimeException firstException = null;
+        for (Future<Long> future : futures) {
+            try {
+                dataCount += future.get();
+            } catch (InterruptedException e) {
+                for (Future<Long> toCancel : futures) {
+                    toCancel.cancel(true);
+                }
+                Thread.currentThread().interrupt();
+                throw new SymmetricException("Interrupted while waiting for channels to route", e);
+            } catch (ExecutionException e) {
+                if (firstException == null) {
+                    firstException = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                            : new SymmetricException(e.getCause());
+                }
+            }
+        }
+        if (firstException != null) {
+            throw firstException;
+        }
+        for (BigLobRetry retry : bigLobRetries) {
+            processInfo.setCurrentChannelId(retry.nodeChannel.getChannelId());
+            dataCount += retryWithBigLob(processInfo, retry, sourceNode);
+        }
+        return dataCount;
+    }
+
+    /**
+     * Routing that failed because of a large value is retried with contains_big_lobs enabled. The retry commits and resets the gap detector, so when
+     * channels are routed in parallel it is deferred until all channel workers are done.
+     */
+    protected long retryWithBigLob(ProcessInfo processInfo, BigLobRetry retry, Node sourceNode) {
+        synchronized (gapDetector) {
+            gapDetector.addDataIds(retry.dataIds);
+            gapDetector.afterRouting();
+            gapDetector.beforeRouting();
+        }
+        return routeDataForChannel(processInfo, retry.nodeChannel, sourceNode, true, retry.batchesByNodes, retry.batchesByGroups);
+    }
+
+    static class BigLobRetry {
+        final NodeChannel nodeChannel;
+        final List<Long> dataIds;
+        final Map<String, OutgoingBatch> batchesByNodes;
+        final Map<Integer, Map<String, OutgoingBatch>> batchesByGroups;
+
+        BigLobRetry(NodeChannel nodeChannel, List<Long> dataIds, Map<String, OutgoingBatch> batchesByNodes,
+                Map<Integer, Map<String, OutgoingBatch>> batchesByGroups) {
+            this.nodeChannel = nodeChannel;
+            this.dataIds = dataIds;
+            this.batchesByNodes = batchesByNodes;
+            this.batchesByGroups = batchesByGroups;
+        }
+    }
+
+    protected synchronized ExecutorService getChannelRouterThreads(int channelCount) {
+        int threadCount = parameterService.getInt(ParameterConstants.ROUTING_THREAD_COUNT_PER_SERVER, 1);
+        if (parameterService.is(ParameterConstants.SYNCHRONIZE_ALL_JOBS, false)) {
+            threadCount = 1;
+        }
+        if (channelRouterThreads != null && channelRouterThreadCount != threadCount) {
+            channelRouterThreads.shutdown();
+            channelRouterThreads = null;
+        }
+        if (threadCount <= 1 || channelCount <= 1) {
+            return null;
+        }
+        if (channelRouterThreads == null) {
+            channelRouterThreads = Executors.newFixedThreadPool(threadCount, new CustomizableThreadFactory(
+                    parameterService.getEngineName().toLowerCase() + "-router-channel"));
+            channelRouterThreadCount = threadCount;
+        }
+        return channelRouterThreads;
+    }
+
+    protected void logTimesByChannel(List<NodeChannel> channelsToRoute, Map<String, Long> timesByChannel, long totalTime) {
+        boolean isLongOperation = totalTime > Constants.LONG_OPERATION_THRESHOLD;
+        if (timesByChannel.size() > 0 && (isLongOperation || log.isDebugEnabled())) {
+            Map<String, Long> orderedTimes = new LinkedHashMap<String, Long>();
+            for (NodeChannel nodeChannel : channelsToRoute) {
+                Long millis = timesByChannel.get(nodeChannel.getChannelId());
+                if (millis != null) {
+                    orderedTimes.put(nodeChannel.getChannelId(), millis);
+                }
+            }
+            if (isLongOperation) {
+                log.info("Routing times by channel in {} ms: {}", totalTime, orderedTimes);
+            } else {
+                log.debug("Routing times by channel in {} ms: {}", totalTime, orderedTimes);
+            }
+        }
+    }
+
     protected Set<String> getReadyChannels() {
         List<DataGap> dataGaps = gapDetector.getDataGaps();
         int dataIdSqlType = engine.getSymmetricDialect().getSqlTypeForIds();
@@ -447,6 +603,13 @@ public class RouterService extends AbstractService implements IRouterService {
 
     protected long routeDataForChannel(ProcessInfo processInfo, final NodeChannel nodeChannel, final Node sourceNode, boolean isOverrideContainsBigLob,
             Map<String, OutgoingBatch> overrideBatchesByNodes, Map<Integer, Map<String, OutgoingBatch>> overrideBatchesByGroups) {
+        return routeDataForChannel(processInfo, nodeChannel, sourceNode, isOverrideContainsBigLob, overrideBatchesByNodes, overrideBatchesByGroups,
+                null);
+    }
+
+    protected long routeDataForChannel(ProcessInfo processInfo, final NodeChannel nodeChannel, final Node sourceNode, boolean isOverrideContainsBigLob,
+            Map<String, OutgoingBatch> overrideBatchesByNodes, Map<Integer, Map<String, OutgoingBatch>> overrideBatchesByGroups,
+            List<BigLobRetry> deferredBigLobRetries) {
         ChannelRouterContext context = null;
         long ts = System.currentTimeMillis();
         long dataCount = -1;
@@ -522,12 +685,15 @@ public class RouterService extends AbstractService implements IRouterService {
                 }
                 log.info("Re-attempting routing for batch {} with contains_big_lobs temporarily enabled for channel {}",
                         batchId, nodeChannel.getChannelId());
-                dataCount = 0;
-                gapDetector.addDataIds(context.getDataIds());
-                gapDetector.afterRouting();
-                gapDetector.beforeRouting();
-                long dataCountWithBigLob = routeDataForChannel(processInfo, nodeChannel, sourceNode, true, batchesByNodes, batchesByGroups);
-                dataCount = context.getCommittedDataEventCount() + dataCountWithBigLob;
+                BigLobRetry retry = new BigLobRetry(nodeChannel, new ArrayList<Long>(context.getDataIds()), batchesByNodes, batchesByGroups);
+                if (deferredBigLobRetries != null) {
+                    deferredBigLobRetries.add(retry);
+                    dataCount = context.getCommittedDataEventCount();
+                } else {
+                    dataCount = 0;
+                    long dataCountWithBigLob = retryWithBigLob(processInfo, retry, sourceNode);
+                    dataCount = context.getCommittedDataEventCount() + dataCountWithBigLob;
+                }
             }
         } catch (CommonBatchCollisionException e) {
             log.info(e.getMessage());
@@ -550,7 +716,9 @@ public class RouterService extends AbstractService implements IRouterService {
                     completeBatchesAndCommit(context);
                     gapDetector.addDataIds(context.getDataIds());
                     gapDetector.setIsAllDataRead(context.getDataIds().size() < context.getChannel().getMaxDataToRoute());
-                    hasMaxDataRoutedOnChannel |= context.getDataIds().size() >= context.getChannel().getMaxDataToRoute();
+                    if (context.getDataIds().size() >= context.getChannel().getMaxDataToRoute()) {
+                        hasMaxDataRoutedOnChannel = true;
+                    }
                     if (parameterService.is(ParameterConstants.ROUTING_COLLECT_STATS_UNROUTED)) {
                         Data lastDataProcessed = context.getLastDataProcessed();
                         if (lastDataProcessed != null && lastDataProcessed.getDataId() > 0) {
@@ -603,6 +771,11 @@ public class RouterService extends AbstractService implements IRouterService {
             dataRouter.contextCommitted(context);
         }
         context.setNeedsCommitted(false);
+        if (batches.size() > 0) {
+            for (IRoutingListener listener : extensionService.getExtensionPointList(IRoutingListener.class)) {
+                listener.batchesRouted(batches);
+            }
+        }
     }
 
     protected void completeBatches(ChannelRouterContext context, List<OutgoingBatch> batches, Set<IDataRouter> usedRouters) {
@@ -652,6 +825,17 @@ public class RouterService extends AbstractService implements IRouterService {
         if (parameterService.is(ParameterConstants.SYNCHRONIZE_ALL_JOBS)) {
             reader.run();
         } else {
+            getReadThread().execute(reader);
+        }
+        return reader;
+    }
+
+    /**
+     * Channel workers start readers concurrently, so the reader thread pool is created under its own lock. The service lock is held by the routing job
+     * while it waits on the workers.
+     */
+    protected ExecutorService getReadThread() {
+        synchronized (readThreadLock) {
             if (readThread == null) {
                 readThread = Executors.newCachedThreadPool(new ThreadFactory() {
                     final AtomicInteger threadNumber = new AtomicInteger(1);
@@ -670,9 +854,8 @@ public class RouterService extends AbstractService implements IRouterService {
                     }
                 });
             }
-            readThread.execute(reader);
+            return readThread;
         }
-        return reader;
     }
 
     /**
@@ -961,6 +1144,9 @@ public class RouterService extends AbstractService implements IRouterService {
                 batch.incrementRowCount(eventType);
                 batch.incrementDataRowCount();
                 batch.incrementTableCount(tableName);
+                if (batch.getDataCreateTime() == null) {
+                    batch.setDataCreateTime(dataMetaData.getData().getCreateTime());
+                }
                 if (loadId != -1) {
                     batch.setLoadId(loadId);
                 }
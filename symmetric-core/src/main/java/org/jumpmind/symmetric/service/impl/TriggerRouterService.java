@@ -1877,6 +1877,7 @@ public class TriggerRouterService extends AbstractService implements ITriggerRou
             } else if (table.calculateTableHashcode() != latestHistoryBeforeRebuild.getTableHash()) {
                 reason = TriggerReBuildReason.TABLE_SCHEMA_CHANGED;
                 forceRebuildOfTriggers = true;
+                symmetricDialect.getTargetPlatform(table.getName()).resetCachedTableModel(table.getCatalog(), table.getSchema(), table.getName());
             } else if (trigger.hasChangedSinceLastTriggerBuild(latestHistoryBeforeRebuild
                     .getCreateTime())
                     || trigger.toHashedValue() != latestHistoryBeforeRebuild.getTriggerRowHash()) {
@@ -0,0 +1,93 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.statistic;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accumulates the {@link ChannelStats} for a channel between flushes of the {@link StatisticManager}
+ */
+public class ChannelStatsCounters extends StatisticCounters {
+    public static final int DATA_ROUTED = 0;
+    public static final int DATA_EXTRACTED = 1;
+    public static final int DATA_BYTES_EXTRACTED = 2;
+    public static final int DATA_EXTRACTED_ERRORS = 3;
+    public static final int DATA_EVENT_INSERTED = 4;
+    public static final int DATA_SENT = 5;
+    public static final int DATA_BYTES_SENT = 6;
+    public static final int DATA_SENT_ERRORS = 7;
+    public static final int DATA_LOADED = 8;
+    public static final int DATA_BYTES_LOADED = 9;
+    public static final int DATA_LOADED_ERRORS = 10;
+    public static final int DATA_LOADED_OUTGOING = 11;
+    public static final int DATA_BYTES_LOADED_OUTGOING = 12;
+    public static final int DATA_LOADED_OUTGOING_ERRORS = 13;
+    protected static final int SIZE = 14;
+    protected final String channelId;
+    protected final AtomicLong dataUnRouted = new AtomicLong();
+
+    public ChannelStatsCounters(String channelId) {
+        super(SIZE);
+        this.channelId = channelId;
+    }
+
+    public void setDataUnRouted(long count) {
+        dataUnRouted.set(count);
+    }
+
+    public ChannelStats peek(String nodeId, String hostName) {
+        Date startTime = getStartTime();
+        return toChannelStats(nodeId, hostName, startTime, null, peek(), dataUnRouted.get());
+    }
+
+    /**
+     * The stats since the last snapshot, which end now. The unrouted count is a current value rather than a counter, so it starts over at zero.
+     */
+    public ChannelStats snapshot(String nodeId, String hostName, Date endTime) {
+        Date startTime = getStartTime();
+        return toChannelStats(nodeId, hostName, startTime, endTime, snapshot(), dataUnRouted.getAndSet(0));
+    }
+
+    protected ChannelStats toChannelStats(String nodeId, String hostName, Date startTime, Date endTime, long[] values, long unRouted) {
+        ChannelStats stats = new ChannelStats(nodeId, hostName, startTime, endTime, channelId);
+        stats.setDataRouted(values[DATA_ROUTED]);
+        stats.setDataUnRouted(unRouted);
+        stats.setDataExtracted(values[DATA_EXTRACTED]);
+        stats.setDataBytesExtracted(values[DATA_BYTES_EXTRACTED]);
+        stats.setDataExtractedErrors(values[DATA_EXTRACTED_ERRORS]);
+        stats.setDataEventInserted(values[DATA_EVENT_INSERTED]);
+        stats.setDataSent(values[DATA_SENT]);
+        stats.setDataBytesSent(values[DATA_BYTES_SENT]);
+        stats.setDataSentErrors(values[DATA_SENT_ERRORS]);
+        stats.setDataLoaded(values[DATA_LOADED]);
+        stats.setDataBytesLoaded(values[DATA_BYTES_LOADED]);
+        stats.setDataLoadedErrors(values[DATA_LOADED_ERRORS]);
+        stats.setDataLoadedOutgoing(values[DATA_LOADED_OUTGOING]);
+        stats.setDataBytesLoadedOutgoing(values[DATA_BYTES_LOADED_OUTGOING]);
+        stats.setDataLoadedOutgoingErrors(values[DATA_LOADED_OUTGOING_ERRORS]);
+        return stats;
+    }
+
+    public String getChannelId() {
+        return channelId;
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.statistic;
+
+import java.util.Date;
+
+/**
+ * Accumulates the {@link HostStats} between flushes of the {@link StatisticManager}
+ */
+public class HostStatsCounters extends StatisticCounters {
+    public static final int RESTARTED = 0;
+    public static final int NODES_PULLED = 1;
+    public static final int TOTAL_NODES_PULL_TIME = 2;
+    public static final int NODES_PUSHED = 3;
+    public static final int TOTAL_NODES_PUSH_TIME = 4;
+    public static final int NODES_REJECTED = 5;
+    public static final int NODES_REGISTERED = 6;
+    public static final int NODES_LOADED = 7;
+    public static final int NODES_DISABLED = 8;
+    public static final int PURGED_DATA_ROWS = 9;
+    public static final int PURGED_DATA_EVENT_ROWS = 10;
+    public static final int PURGED_BATCH_OUTGOING_ROWS = 11;
+    public static final int PURGED_BATCH_INCOMING_ROWS = 12;
+    public static final int TRIGGERS_CREATED_COUNT = 13;
+    public static final int TRIGGERS_REBUILT_COUNT = 14;
+    public static final int TRIGGERS_REMOVED_COUNT = 15;
+    protected static final int SIZE = 16;
+
+    public HostStatsCounters() {
+        super(SIZE);
+    }
+
+    public HostStats peek(String nodeId, String hostName) {
+        Date startTime = getStartTime();
+        return toHostStats(nodeId, hostName, startTime, null, peek());
+    }
+
+    public HostStats snapshot(String nodeId, String hostName, Date endTime) {
+        Date startTime = getStartTime();
+        return toHostStats(nodeId, hostName, startTime, endTime, snapshot());
+    }
+
+    protected HostStats toHostStats(String nodeId, String hostName, Date startTime, Date endTime, long[] values) {
+        HostStats stats = new HostStats(nodeId, hostName, startTime, endTime);
+        stats.setRestarted(values[RESTARTED]);
+        stats.setNodesPulled(values[NODES_PULLED]);
+        stats.setTotalNodesPullTime(values[TOTAL_NODES_PULL_TIME]);
+        stats.setNodesPushed(values[NODES_PUSHED]);
+        stats.setTotalNodesPushTime(values[TOTAL_NODES_PUSH_TIME]);
+        stats.setNodesRejected(values[NODES_REJECTED]);
+        stats.setNodesRegistered(values[NODES_REGISTERED]);
+        stats.setNodesLoaded(values[NODES_LOADED]);
+        stats.setNodesDisabled(values[NODES_DISABLED]);
+        stats.setPurgedDataRows(values[PURGED_DATA_ROWS]);
+        stats.setPurgedDataEventRows(values[PURGED_DATA_EVENT_ROWS]);
+        stats.setPurgedBatchOutgoingRows(values[PURGED_BATCH_OUTGOING_ROWS]);
+        stats.setPurgedBatchIncomingRows(values[PURGED_BATCH_INCOMING_ROWS]);
+        stats.setTriggersCreatedCount(values[TRIGGERS_CREATED_COUNT]);
+        stats.setTriggersRebuiltCount(values[TRIGGERS_REBUILT_COUNT]);
+        stats.setTriggersRemovedCount(values[TRIGGERS_REMOVED_COUNT]);
+        return stats;
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.statistic;
+
+import java.util.Date;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters that many threads can increment without blocking each other. Each counter is a {@link LongAdder}, which spreads contended updates over
+ * striped cells. A snapshot reads the totals and returns what was added since the previous snapshot, so taking one never blocks the threads that update
+ * the counters, and an update that races with a snapshot is counted in the next one instead of being lost.
+ */
+public class StatisticCounters {
+    protected final LongAdder[] counters;
+    protected final long[] snapshotTotals;
+    protected Date startTime = new Date();
+
+    public StatisticCounters(int size) {
+        counters = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            counters[i] = new LongAdder();
+        }
+        snapshotTotals = new long[size];
+    }
+
+    public void add(int counter, long count) {
+        counters[counter].add(count);
+    }
+
+    /**
+     * What has been added to each counter since the last snapshot, without starting a new period
+     */
+    public synchronized long[] peek() {
+        long[] values = new long[counters.length];
+        for (int i = 0; i < counters.length; i++) {
+            values[i] = counters[i].sum() - snapshotTotals[i];
+        }
+        return values;
+    }
+
+    /**
+     * What has been added to each counter since the last snapshot. The next period starts now.
+     */
+    public synchronized long[] snapshot() {
+        long[] values = new long[counters.length];
+        for (int i = 0; i < counters.length; i++) {
+            long total = counters[i].sum();
+            values[i] = total - snapshotTotals[i];
+            snapshotTotals[i] = total;
+        }
+        startTime = new Date();
+        return values;
+    }
+
+    public synchronized Date getStartTime() {
+        return startTime;
+    }
+}
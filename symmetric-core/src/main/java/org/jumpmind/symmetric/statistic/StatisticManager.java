@@ -59,17 +59,15 @@ public class StatisticManager implements IStatisticManager {
     protected Logger log = LoggerFactory.getLogger(getClass());
     private static final String UNKNOWN = "Unknown";
     private static final int NUMBER_OF_PERMITS = 1000;
-    private Map<String, ChannelStats> channelStats = new ConcurrentHashMap<String, ChannelStats>();
+    private ConcurrentHashMap<String, ChannelStatsCounters> channelCounters = new ConcurrentHashMap<String, ChannelStatsCounters>();
     private List<JobStats> jobStats = new ArrayList<JobStats>();
-    private HostStats hostStats;
+    private HostStatsCounters hostCounters = new HostStatsCounters();
     private ConcurrentHashMap<Long, RouterStats> routerStatsByBatch = new ConcurrentHashMap<Long, RouterStats>();
     protected INodeService nodeService;
     protected IStatisticService statisticService;
     protected IParameterService parameterService;
     protected IConfigurationService configurationService;
     protected IClusterService clusterService;
-    protected Semaphore channelStatsLock = new Semaphore(NUMBER_OF_PERMITS, true);
-    protected Semaphore hostStatsLock = new Semaphore(NUMBER_OF_PERMITS, true);
     protected Semaphore jobStatsLock = new Semaphore(NUMBER_OF_PERMITS, true);
     protected Semaphore tableStatsLock = new Semaphore(NUMBER_OF_PERMITS, true);
     protected Map<ProcessInfoKey, ProcessInfo> processInfos = new ConcurrentHashMap<ProcessInfoKey, ProcessInfo>();
@@ -188,282 +186,127 @@ public class StatisticManager implements IStatisticManager {
     }
 
     public void incrementDataRouted(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataRouted(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelCounters(channelId).add(ChannelStatsCounters.DATA_ROUTED, count);
     }
 
     public void setDataUnRouted(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).setDataUnRouted(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelCounters(channelId).setDataUnRouted(count);
     }
 
     public void incrementDataExtracted(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataExtracted(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelCounters(channelId).add(ChannelStatsCounters.DATA_EXTRACTED, count);
     }
 
     public void incrementDataBytesExtracted(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataBytesExtracted(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelCounters(channelId).add(ChannelStatsCounters.DATA_BYTES_EXTRACTED, count);
     }
 
     public void incrementDataExtractedErrors(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataExtractedErrors(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelCounters(channelId).add(ChannelStatsCounters.DATA_EXTRACTED_ERRORS, count);
     }
 
     public void incrementDataEventInserted(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataEventInserted(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelCounters(channelId).add(ChannelStatsCounters.DATA_EVENT_INSERTED, count);
     }
 
     public void incrementDataSent(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataSent(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelCounters(channelId).add(ChannelStatsCounters.DATA_SENT, count);
     }
 
     public void incrementDataBytesSent(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataBytesSent(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelCounters(channelId).add(ChannelStatsCounters.DATA_BYTES_SENT, count);
     }
 
     public void incrementDataSentErrors(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataSentErrors(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelCounters(channelId).add(ChannelStatsCounters.DATA_SENT_ERRORS, count);
     }
 
     public void incrementDataLoaded(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataLoaded(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelCounters(channelId).add(ChannelStatsCounters.DATA_LOADED, count);
     }
 
     public void incrementDataBytesLoaded(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataBytesLoaded(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelCounters(channelId).add(ChannelStatsCounters.DATA_BYTES_LOADED, count);
     }
 
     public void incrementDataLoadedErrors(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataLoadedErrors(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelCounters(channelId).add(ChannelStatsCounters.DATA_LOADED_ERRORS, count);
     }
 
     public void incrementDataLoadedOutgoing(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataLoadedOutgoing(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelCounters(channelId).add(ChannelStatsCounters.DATA_LOADED_OUTGOING, count);
     }
 
     public void incrementDataBytesLoadedOutgoing(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataBytesLoadedOutgoing(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelCounters(channelId).add(ChannelStatsCounters.DATA_BYTES_LOADED_OUTGOING, count);
     }
 
     public void incrementDataLoadedOutgoingErrors(String channelId, long count) {
-        channelStatsLock.acquireUninterruptibly();
-        try {
-            getChannelStats(channelId).incrementDataLoadedOutgoingErrors(count);
-        } finally {
-            channelStatsLock.release();
-        }
+        getChannelCounters(channelId).add(ChannelStatsCounters.DATA_LOADED_OUTGOING_ERRORS, count);
     }
 
     public void incrementRestart() {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementRestarted(1);
-        } finally {
-            hostStatsLock.release();
-        }
+        hostCounters.add(HostStatsCounters.RESTARTED, 1);
     }
 
     public void incrementNodesPulled(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementNodesPulled(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        hostCounters.add(HostStatsCounters.NODES_PULLED, count);
     }
 
     public void incrementNodesPushed(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementNodesPushed(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        hostCounters.add(HostStatsCounters.NODES_PUSHED, count);
     }
 
     public void incrementTotalNodesPulledTime(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementTotalNodesPullTime(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        hostCounters.add(HostStatsCounters.TOTAL_NODES_PULL_TIME, count);
     }
 
     public void incrementTotalNodesPushedTime(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementTotalNodesPushTime(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        hostCounters.add(HostStatsCounters.TOTAL_NODES_PUSH_TIME, count);
     }
 
     public void incrementNodesRejected(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementNodesRejected(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        hostCounters.add(HostStatsCounters.NODES_REJECTED, count);
     }
 
     public void incrementNodesRegistered(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementNodesRegistered(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        hostCounters.add(HostStatsCounters.NODES_REGISTERED, count);
     }
 
     public void incrementNodesLoaded(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementNodesLoaded(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        hostCounters.add(HostStatsCounters.NODES_LOADED, count);
     }
 
     public void incrementNodesDisabled(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementNodesDisabled(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        hostCounters.add(HostStatsCounters.NODES_DISABLED, count);
     }
 
     public void incrementPurgedBatchIncomingRows(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementPurgedBatchIncomingRows(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        hostCounters.add(HostStatsCounters.PURGED_BATCH_INCOMING_ROWS, count);
     }
 
     public void incrementPurgedBatchOutgoingRows(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementPurgedBatchOutgoingRows(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        hostCounters.add(HostStatsCounters.PURGED_BATCH_OUTGOING_ROWS, count);
     }
 
     public void incrementPurgedDataRows(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementPurgedDataRows(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        hostCounters.add(HostStatsCounters.PURGED_DATA_ROWS, count);
     }
 
     public void incrementPurgedDataEventRows(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementPurgedDataEventRows(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        hostCounters.add(HostStatsCounters.PURGED_DATA_EVENT_ROWS, count);
     }
 
     public void incrementTriggersRemovedCount(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementTriggersRemovedCount(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        hostCounters.add(HostStatsCounters.TRIGGERS_REMOVED_COUNT, count);
     }
 
     public void incrementTriggersRebuiltCount(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementTriggersRebuiltCount(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        hostCounters.add(HostStatsCounters.TRIGGERS_REBUILT_COUNT, count);
     }
 
     public void incrementTriggersCreatedCount(long count) {
-        hostStatsLock.acquireUninterruptibly();
-        try {
-            getHostStats().incrementTriggersCreatedCount(count);
-        } finally {
-            hostStatsLock.release();
-        }
+        hostCounters.add(HostStatsCounters.TRIGGERS_CREATED_COUNT, count);
     }
 
     protected void saveAdditionalStats(Date endTime, ChannelStats stats) {
@@ -473,32 +316,39 @@ public class StatisticManager implements IStatisticManager {
         baseChannelStatsInMemory.get(endTime).put(stats.getChannelId(), stats);
     }
 
-    public void flush() {
+    public synchronized void flush() {
         boolean recordStatistics = parameterService.is(ParameterConstants.STATISTIC_RECORD_ENABLE,
                 false);
         long recordStatisticsCountThreshold = parameterService.getLong(ParameterConstants.STATISTIC_RECORD_COUNT_THRESHOLD, -1);
-        if (channelStats != null) {
-            channelStatsLock.acquireUninterruptibly(NUMBER_OF_PERMITS);
-            try {
+        Node node = nodeService.getCachedIdentity();
+        String nodeId = node != null ? node.getNodeId() : UNKNOWN;
+        String serverId = clusterService.getServerId();
+        Date endTime = new Date();
+        /*
+         * Until this node has an identity, channel and host counts are left on the counters, so the first flush after registration saves them for
+         * this node instead of dropping them
+         */
+        boolean keepCounts = recordStatistics && node == null;
+        if (keepCounts) {
+            log.debug("Keeping statistics in memory until the identity of this node is known");
+        }
+        Set<String> channelIds = initChannelCounters();
+        if (!keepCounts) {
+            for (ChannelStatsCounters counters : channelCounters.values()) {
+                ChannelStats stats = counters.snapshot(nodeId, serverId, endTime);
                 if (recordStatistics) {
-                    Date endTime = new Date();
-                    for (ChannelStats stats : channelStats.values()) {
-                        if (stats.getNodeId().equals(UNKNOWN)) {
-                            Node node = nodeService.getCachedIdentity();
-                            if (node != null) {
-                                stats.setNodeId(node.getNodeId());
-                            }
-                        }
-                        stats.setEndTime(endTime);
-                        saveAdditionalStats(endTime, stats);
-                        if (stats.isNonZero()) {
-                            statisticService.save(stats);
-                        }
+                    saveAdditionalStats(endTime, stats);
+                    if (stats.isNonZero()) {
+                        statisticService.save(stats);
                     }
                 }
-                resetChannelStats(true);
-            } finally {
-                channelStatsLock.release(NUMBER_OF_PERMITS);
+                /*
+                 * Counters for a channel that is no longer configured are removed once their last counts are taken. They are created again if the
+                 * channel is used again.
+                 */
+                if (!channelIds.contains(counters.getChannelId())) {
+                    channelCounters.remove(counters.getChannelId(), counters);
+                }
             }
         }
         int rowsLoaded = 0;
@@ -518,22 +368,10 @@ public class StatisticManager implements IStatisticManager {
                 log.debug("===================================");
             }
         }
-        if (hostStats != null) {
-            hostStatsLock.acquireUninterruptibly(NUMBER_OF_PERMITS);
-            try {
-                if (recordStatistics && hostStats.isNonZero()) {
-                    if (hostStats.getNodeId().equals(UNKNOWN)) {
-                        Node node = nodeService.getCachedIdentity();
-                        if (node != null) {
-                            hostStats.setNodeId(node.getNodeId());
-                        }
-                    }
-                    hostStats.setEndTime(new Date());
-                    statisticService.save(hostStats);
-                }
-                hostStats = null;
-            } finally {
-                hostStatsLock.release(NUMBER_OF_PERMITS);
+        if (!keepCounts) {
+            HostStats hostStats = hostCounters.snapshot(nodeId, serverId, endTime);
+            if (recordStatistics && hostStats.isNonZero()) {
+                statisticService.save(hostStats);
             }
         }
         if (jobStats != null) {
@@ -545,17 +383,14 @@ public class StatisticManager implements IStatisticManager {
             } finally {
                 jobStatsLock.release(NUMBER_OF_PERMITS);
             }
-            if (toFlush != null && recordStatistics) {
-                Node node = nodeService.getCachedIdentity();
-                if (node != null) {
-                    String nodeId = node.getNodeId();
-                    String serverId = clusterService.getServerId();
-                    for (JobStats stats : toFlush) {
-                        if (recordStatisticsCountThreshold > 0 && stats.getProcessedCount() > recordStatisticsCountThreshold) {
-                            stats.setNodeId(nodeId);
-                            stats.setHostName(serverId);
-                            statisticService.save(stats);
-                        }
+            if (toFlush != null && keepCounts && toFlush.size() > 0) {
+                log.debug("Discarding {} job statistics because the identity of this node is not known", toFlush.size());
+            } else if (toFlush != null && recordStatistics) {
+                for (JobStats stats : toFlush) {
+                    if (recordStatisticsCountThreshold > 0 && stats.getProcessedCount() > recordStatisticsCountThreshold) {
+                        stats.setNodeId(nodeId);
+                        stats.setHostName(serverId);
+                        statisticService.save(stats);
                     }
                 }
             }
@@ -575,69 +410,46 @@ public class StatisticManager implements IStatisticManager {
     }
 
     public Map<String, ChannelStats> getWorkingChannelStats() {
-        if (channelStats != null) {
-            HashMap<String, ChannelStats> stats = new HashMap<String, ChannelStats>();
-            for (ChannelStats stat : channelStats.values()) {
-                ChannelStats newStat = new ChannelStats(stat.getNodeId(), stat.getHostName(), stat.getStartTime(),
-                        stat.getEndTime(), stat.getChannelId());
-                newStat.add(stat);
-                stats.put(newStat.getChannelId(), newStat);
-            }
-            return stats;
-        } else {
-            return new HashMap<String, ChannelStats>();
-        }
-    }
-
-    public HostStats getWorkingHostStats() {
-        if (this.hostStats != null) {
-            return new HostStats(this.hostStats);
-        } else {
-            return new HostStats();
-        }
-    }
-
-    protected void resetChannelStats(boolean force) {
-        if (force) {
-            channelStats = null;
-        }
-        if (channelStats == null) {
-            List<NodeChannel> channels = configurationService.getNodeChannels(false);
-            channelStats = new HashMap<String, ChannelStats>(channels.size());
-            for (NodeChannel nodeChannel : channels) {
-                getChannelStats(nodeChannel.getChannelId());
-            }
-        }
-    }
-
-    protected ChannelStats getChannelStats(String channelId) {
-        resetChannelStats(false);
-        ChannelStats stats = channelStats.get(channelId);
-        if (stats == null) {
-            Node node = nodeService.getCachedIdentity();
-            if (node != null) {
-                stats = new ChannelStats(node.getNodeId(), clusterService.getServerId(),
-                        new Date(), null, channelId);
-                channelStats.put(channelId, stats);
-            } else {
-                stats = new ChannelStats(UNKNOWN, clusterService.getServerId(), new Date(), null,
-                        channelId);
-            }
+        initChannelCounters();
+        Node node = nodeService.getCachedIdentity();
+        String nodeId = node != null ? node.getNodeId() : UNKNOWN;
+        String serverId = clusterService.getServerId();
+        HashMap<String, ChannelStats> stats = new HashMap<String, ChannelStats>();
+        for (ChannelStatsCounters counters : channelCounters.values()) {
+            stats.put(counters.getChannelId(), counters.peek(nodeId, serverId));
         }
         return stats;
     }
 
-    protected HostStats getHostStats() {
-        if (hostStats == null) {
-            Node node = nodeService.getCachedIdentity();
-            if (node != null) {
-                hostStats = new HostStats(node.getNodeId(), clusterService.getServerId(),
-                        new Date(), null);
-            } else {
-                hostStats = new HostStats(UNKNOWN, clusterService.getServerId(), new Date(), null);
+    public HostStats getWorkingHostStats() {
+        Node node = nodeService.getCachedIdentity();
+        return hostCounters.peek(node != null ? node.getNodeId() : UNKNOWN, clusterService.getServerId());
+    }
+
+    /**
+     * Make sure there are counters for every channel, so that stats are reported for channels that have not been used yet
+     * 
+     * @return the ids of the configured channels
+     */
+    protected Set<String> initChannelCounters() {
+        Set<String> channelIds = new HashSet<String>();
+        for (NodeChannel nodeChannel : configurationService.getNodeChannels(false)) {
+            getChannelCounters(nodeChannel.getChannelId());
+            channelIds.add(nodeChannel.getChannelId());
+        }
+        return channelIds;
+    }
+
+    protected ChannelStatsCounters getChannelCounters(String channelId) {
+        ChannelStatsCounters counters = channelCounters.get(channelId);
+        if (counters == null) {
+            counters = new ChannelStatsCounters(channelId);
+            ChannelStatsCounters existing = channelCounters.putIfAbsent(channelId, counters);
+            if (existing != null) {
+                counters = existing;
             }
         }
-        return hostStats;
+        return counters;
     }
 
     @Override
@@ -25,7 +25,6 @@ import java.io.BufferedWriter;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
@@ -35,7 +34,7 @@ public class TransportUtils {
     }
 
     public static BufferedWriter toWriter(OutputStream os) {
-        return new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+        return new OutputStreamBufferedWriter(os, StandardCharsets.UTF_8);
     }
 
     public static String toCSV(Map<?, ?> map) {
@@ -24,7 +24,6 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.Charset;
@@ -45,6 +44,7 @@ import org.jumpmind.symmetric.transport.AuthenticationException;
 import org.jumpmind.symmetric.transport.ConnectionRejectedException;
 import org.jumpmind.symmetric.transport.IOutgoingWithResponseTransport;
 import org.jumpmind.symmetric.transport.NoReservationException;
+import org.jumpmind.symmetric.transport.OutputStreamBufferedWriter;
 import org.jumpmind.symmetric.transport.ServiceUnavailableException;
 import org.jumpmind.symmetric.transport.SyncDisabledException;
 import org.jumpmind.symmetric.web.WebConstants;
@@ -250,8 +250,7 @@ public class HttpOutgoingTransport implements IOutgoingWithResponseTransport {
     }
 
     public BufferedWriter openWriter() {
-        OutputStreamWriter wout = new OutputStreamWriter(openStream(), StandardCharsets.UTF_8);
-        writer = new BufferedWriter(wout);
+        writer = new OutputStreamBufferedWriter(openStream(), StandardCharsets.UTF_8);
         return writer;
     }
 
@@ -197,9 +197,7 @@ public class InternalTransportManager extends AbstractTransportManager implement
                 String ackData = getAcknowledgementData(remote.requires13Compatiblity(),
                         local.getNodeId(), list);
                 List<BatchAck> batches = readAcknowledgement(ackData);
-                for (BatchAck batchInfo : batches) {
-                    remoteEngine.getAcknowledgeService().ack(batchInfo);
-                }
+                remoteEngine.getAcknowledgeService().ack(batches);
             }
             return WebConstants.SC_OK;
         } catch (Exception ex) {
@@ -0,0 +1,309 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.util;
+
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.lang.model.SourceVersion;
+
+import org.jumpmind.symmetric.service.IExtensionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Translates a bean shell script into the body of a Java method that is compiled once with the {@link IExtensionService} and then run for each row instead
+ * of being interpreted. The variables that would be set on the interpreter are collected in {@link Variables} and declared as local variables that are bound
+ * by index, so the script is compiled again only when the names or types of the variables change, like when a router is used for another table.
+ * <p>
+ * Like the interpreter, the value of the last statement is returned when the script does not return a value itself. A script that cannot be translated or
+ * compiled, because it relies on loose typing or other bean shell syntax, is remembered and null is returned so the caller can use the interpreter.
+ */
+public class BshScriptCompiler {
+    protected static final String CODE_START = "import java.util.*;\nimport java.io.*;\nimport java.net.*;\n\n"
+            + "public class BshCompiledScript implements " + BshScriptCompiler.ICompiledScript.class.getCanonicalName() + " {\n"
+            + "    public Object execute(Object[] values) throws Exception {\n";
+    protected static final String CODE_END = "\n        }\n        return null;\n    }\n}\n";
+    protected static final Pattern FIRST_WORD = Pattern.compile("^([A-Za-z_$][\\w$]*)");
+    protected static final Pattern DECLARATION = Pattern.compile(
+            "^[A-Za-z_$][\\w$.]*(\\s*<[^=;]*>)?(\\s*\\[\\s*\\])*\\s+[A-Za-z_$][\\w$]*\\s*(=.*)?$", Pattern.DOTALL);
+    protected static final String[] SIMPLE_STATEMENTS = { "return", "throw", "break", "continue" };
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    protected IExtensionService extensionService;
+    protected Map<String, Script> scripts = new ConcurrentHashMap<String, Script>();
+
+    public BshScriptCompiler(IExtensionService extensionService) {
+        this.extensionService = extensionService;
+    }
+
+    /**
+     * Returns the compiled script for the variables, or null if the script has to be interpreted.
+     */
+    public ICompiledScript getCompiledScript(String script, Variables variables) {
+        if (extensionService == null) {
+            return null;
+        }
+        Script compiled = scripts.get(script);
+        if (compiled == null) {
+            compiled = new Script();
+            Script existing = scripts.putIfAbsent(script, compiled);
+            if (existing != null) {
+                compiled = existing;
+            }
+        }
+        Variant variant = compiled.lastVariant;
+        if (variant == null || !variables.matches(variant.names, variant.types)) {
+            variant = getVariant(compiled, script, variables);
+            compiled.lastVariant = variant;
+        }
+        return variant.compiledScript;
+    }
+
+    protected synchronized Variant getVariant(Script compiled, String script, Variables variables) {
+        String signature = variables.getSignature();
+        Variant variant = compiled.variants.get(signature);
+        if (variant == null) {
+            String[] names = Arrays.copyOf(variables.names, variables.size);
+            Class<?>[] types = Arrays.copyOf(variables.types, variables.size);
+            ICompiledScript compiledScript = null;
+            String javaCode = translate(script, names, types);
+            if (javaCode == null) {
+                log.info("The bsh script could not be translated to Java and will be interpreted: {}", script);
+            } else {
+                try {
+                    compiledScript = (ICompiledScript) extensionService.getCompiledClass(javaCode);
+                } catch (Throwable e) {
+                    log.info("The bsh script could not be compiled and will be interpreted: {}\n{}", script, e.getMessage());
+                }
+            }
+            variant = new Variant(names, types, compiledScript);
+            compiled.variants.put(signature, variant);
+        }
+        return variant;
+    }
+
+    /**
+     * Returns the Java source of a class that declares the variables and runs the script, or null if the script cannot be translated.
+     */
+    public static String translate(String script, String[] names, Class<?>[] types) {
+        String body = translateBody(script);
+        if (body == null) {
+            return null;
+        }
+        StringBuilder javaCode = new StringBuilder(CODE_START);
+        for (int i = 0; i < names.length; i++) {
+            if (SourceVersion.isIdentifier(names[i]) && !SourceVersion.isKeyword(names[i])) {
+                String typeName = types[i].getCanonicalName();
+                javaCode.append("        ").append(typeName).append(" ").append(names[i]).append(" = (").append(typeName).append(") values[")
+                        .append(i).append("];\n");
+            }
+        }
+        javaCode.append("        if (true) {\n").append(body).append(CODE_END);
+        return javaCode.toString();
+    }
+
+    /**
+     * Changes the last statement of the script to return its value, the way the interpreter does. Returns null if the comments, strings, or brackets are
+     * not balanced or the last statement has no value that Java can return.
+     */
+    protected static String translateBody(String script) {
+        char[] code = script.toCharArray();
+        int depth = 0;
+        int lastBoundary = -1;
+        int previousBoundary = -1;
+        for (int i = 0; i < code.length; i++) {
+            char c = code[i];
+            char next = i + 1 < code.length ? code[i + 1] : 0;
+            if (c == '/' && next == '/') {
+                while (i < code.length && code[i] != '\n') {
+                    code[i++] = ' ';
+                }
+            } else if (c == '/' && next == '*') {
+                int end = script.indexOf("*/", i + 2);
+                if (end < 0) {
+                    return null;
+                }
+                for (; i < end + 2; i++) {
+                    if (code[i] != '\n') {
+                        code[i] = ' ';
+                    }
+                }
+                i--;
+            } else if (c == '"' || c == '\'') {
+                for (i++; i < code.length && code[i] != c; i++) {
+                    if (code[i] == '\\') {
+                        i++;
+                    } else if (code[i] == '\n') {
+                        return null;
+                    }
+                }
+                if (i >= code.length) {
+                    return null;
+                }
+            } else if (c == '(' || c == '[' || c == '{') {
+                depth++;
+            } else if (c == ')' || c == ']' || c == '}') {
+                if (--depth < 0) {
+                    return null;
+                }
+            }
+            if (depth == 0 && (c == ';' || c == '}')) {
+                previousBoundary = lastBoundary;
+                lastBoundary = i;
+            }
+        }
+        if (depth != 0) {
+            return null;
+        }
+        String text = new String(code);
+        String tail = text.substring(lastBoundary + 1).trim();
+        if (tail.length() > 0) {
+            String statement = translateLastStatement(tail);
+            return statement == null ? null : text.substring(0, lastBoundary + 1) + "\n" + statement;
+        } else if (lastBoundary < 0) {
+            return null;
+        } else if (code[lastBoundary] == '}') {
+            return text;
+        } else {
+            String last = text.substring(previousBoundary + 1, lastBoundary).trim();
+            if (last.length() == 0) {
+                return null;
+            }
+            String statement = translateLastStatement(last);
+            return statement == null ? null
+                    : text.substring(0, previousBoundary + 1) + "\n" + statement + text.substring(lastBoundary + 1);
+        }
+    }
+
+    protected static String translateLastStatement(String statement) {
+        Matcher matcher = FIRST_WORD.matcher(statement);
+        if (matcher.find()) {
+            String word = matcher.group(1);
+            for (String simpleStatement : SIMPLE_STATEMENTS) {
+                if (simpleStatement.equals(word)) {
+                    return statement + ";";
+                }
+            }
+            if (SourceVersion.isKeyword(word) && !word.equals("new") && !word.equals("this") && !word.equals("null") && !word.equals("true")
+                    && !word.equals("false") && !word.equals("super")) {
+                return null;
+            }
+        }
+        if (DECLARATION.matcher(statement).matches()) {
+            return null;
+        }
+        return "return (" + statement + ");";
+    }
+
+    /**
+     * A compiled script that runs with the values of the variables in the order they were set.
+     */
+    public interface ICompiledScript {
+        public Object execute(Object[] values) throws Exception;
+    }
+
+    /**
+     * The names, types, and values of the variables for a script, which can be cleared and set again for each row. Setting a name again replaces its value
+     * like it does in the interpreter. A value that is not an instance of its type is declared as an Object.
+     */
+    public static class Variables {
+        protected String[] names = new String[32];
+        protected Class<?>[] types = new Class<?>[32];
+        protected Object[] values = new Object[32];
+        protected int size;
+        protected Map<String, Integer> indexes = new HashMap<String, Integer>();
+
+        public void clear() {
+            Arrays.fill(values, 0, size, null);
+            indexes.clear();
+            size = 0;
+        }
+
+        public void set(String name, Class<?> type, Object value) {
+            if ((value != null && !type.isInstance(value)) || !Modifier.isPublic(type.getModifiers())) {
+                type = Object.class;
+            }
+            Integer index = indexes.get(name);
+            if (index == null) {
+                if (size == names.length) {
+                    names = Arrays.copyOf(names, size * 2);
+                    types = Arrays.copyOf(types, size * 2);
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                index = size++;
+                indexes.put(name, index);
+                names[index] = name;
+            }
+            types[index] = type;
+            values[index] = value;
+        }
+
+        public Object[] getValues() {
+            return values;
+        }
+
+        public String[] getNames() {
+            return Arrays.copyOf(names, size);
+        }
+
+        protected boolean matches(String[] otherNames, Class<?>[] otherTypes) {
+            if (otherNames.length != size) {
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                if (types[i] != otherTypes[i] || !names[i].equals(otherNames[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        protected String getSignature() {
+            StringBuilder signature = new StringBuilder();
+            for (int i = 0; i < size; i++) {
+                signature.append(names[i]).append(' ').append(types[i].getName()).append(';');
+            }
+            return signature.toString();
+        }
+    }
+
+    static class Script {
+        volatile Variant lastVariant;
+        Map<String, Variant> variants = new HashMap<String, Variant>();
+    }
+
+    static class Variant {
+        final String[] names;
+        final Class<?>[] types;
+        final ICompiledScript compiledScript;
+
+        Variant(String[] names, Class<?>[] types, ICompiledScript compiledScript) {
+            this.names = names;
+            this.types = types;
+            this.compiledScript = compiledScript;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.extract;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlRowMapper;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class TableRangePartitionerTest {
+    @Test
+    public void testSplitEvenly() {
+        assertEquals(Arrays.asList("26", "51", "76"), TableRangePartitioner.splitEvenly(BigInteger.ONE, BigInteger.valueOf(100), 4));
+        assertEquals(Arrays.asList("-5", "0", "5"), TableRangePartitioner.splitEvenly(BigInteger.valueOf(-10), BigInteger.valueOf(9), 4));
+    }
+
+    @Test
+    public void testSplitEvenlyNarrowRange() {
+        assertEquals(Arrays.asList("2"), TableRangePartitioner.splitEvenly(BigInteger.ONE, BigInteger.valueOf(2), 4));
+        assertEquals(0, TableRangePartitioner.splitEvenly(BigInteger.ONE, BigInteger.ONE, 4).size());
+    }
+
+    @Test
+    public void testBuildRanges() {
+        List<String> ranges = TableRangePartitioner.buildRanges("t.id", Arrays.asList("10", "20"), true);
+        assertEquals(Arrays.asList("t.id < 10", "t.id >= 10 and t.id < 20", "t.id >= 20"), ranges);
+        ranges = TableRangePartitioner.buildRanges("t.name", Arrays.asList("m", "o'neil"), false);
+        assertEquals(Arrays.asList("t.name < 'm'", "t.name >= 'm' and t.name < 'o''neil'", "t.name >= 'o''neil'"), ranges);
+    }
+
+    @Test
+    public void testSampleByOffset() {
+        final List<String> keys = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add(String.format("k%04d", i / 2));
+        }
+        IDatabasePlatform platform = mock(IDatabasePlatform.class);
+        ISqlTemplate sqlTemplate = mock(ISqlTemplate.class);
+        when(platform.getSqlTemplateDirty()).thenReturn(sqlTemplate);
+        when(platform.supportsLimitOffset()).thenReturn(true);
+        when(platform.massageForLimitOffset(anyString(), anyInt(), anyInt())).thenAnswer(new Answer<String>() {
+            public String answer(InvocationOnMock invocation) throws Throwable {
+                return invocation.getArgument(0) + " offset " + invocation.getArgument(2);
+            }
+        });
+        when(sqlTemplate.queryForObject(anyString(), eq(String.class))).thenAnswer(new Answer<String>() {
+            public String answer(InvocationOnMock invocation) throws Throwable {
+                String sql = invocation.getArgument(0);
+                int offset = Integer.parseInt(sql.substring(sql.lastIndexOf(' ') + 1));
+                return offset < keys.size() ? keys.get(offset) : null;
+            }
+        });
+        TableRangePartitioner partitioner = new TableRangePartitioner(platform);
+        assertEquals(Arrays.asList("k0125", "k0250", "k0375"), partitioner.sample("select t.name from t order by t.name", 1000, 4));
+        verify(sqlTemplate, times(3)).queryForObject(anyString(), eq(String.class));
+        verify(sqlTemplate, never()).queryForCursor(anyString(), any(ISqlRowMapper.class));
+
+        // A row count that is too high stops at the end of the table
+        assertEquals(Arrays.asList("k0250"), partitioner.sample("select t.name from t order by t.name", 2000, 4));
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.jumpmind.symmetric.model.FileSnapshot;
+import org.jumpmind.symmetric.model.Node;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FileSyncDeltaTest {
+    File directory = new File("target/delta").getAbsoluteFile();
+    File sourceFile = new File(directory, "source/data.bin");
+    File targetFile = new File(directory, "target/data.bin");
+    File deltaFile = new File(directory, "data.bin" + FileSyncDelta.DELTA_SUFFIX);
+
+    @BeforeEach
+    public void setupTest() throws Exception {
+        FileUtils.deleteQuietly(directory);
+        directory.mkdirs();
+    }
+
+    @Test
+    public void testDeltaAfterInsert() throws Exception {
+        byte[] original = randomBytes(2 * 1024 * 1024, 1);
+        FileUtils.writeByteArrayToFile(sourceFile, original);
+        FileSyncDelta.Signature previous = FileSyncDelta.writeFull(sourceFile, new ByteArrayOutputStream());
+        assertEquals(original.length, previous.getLiteralByteCount());
+        FileUtils.copyFile(sourceFile, targetFile);
+
+        byte[] inserted = randomBytes(1000, 2);
+        byte[] modified = new byte[original.length + inserted.length];
+        System.arraycopy(original, 0, modified, 0, 500000);
+        System.arraycopy(inserted, 0, modified, 500000, inserted.length);
+        System.arraycopy(original, 500000, modified, 500000 + inserted.length, original.length - 500000);
+        FileUtils.writeByteArrayToFile(sourceFile, modified);
+
+        ByteArrayOutputStream delta = new ByteArrayOutputStream();
+        FileSyncDelta.Signature signature = FileSyncDelta.writeDelta(sourceFile, previous, delta);
+        assertEquals(modified.length, signature.getSize());
+        assertTrue(signature.getLiteralByteCount() < 200000);
+        assertTrue(delta.size() < 200000);
+
+        FileUtils.writeByteArrayToFile(deltaFile, delta.toByteArray());
+        FileSyncDelta.apply(deltaFile, targetFile);
+        assertTrue(Arrays.equals(modified, FileUtils.readFileToByteArray(targetFile)));
+        assertEquals(sourceFile.lastModified(), targetFile.lastModified());
+        assertEquals(1, targetFile.getParentFile().list().length);
+    }
+
+    @Test
+    public void testDeltaWithChangedTarget() throws Exception {
+        byte[] original = randomBytes(512 * 1024, 3);
+        FileUtils.writeByteArrayToFile(sourceFile, original);
+        FileSyncDelta.Signature previous = FileSyncDelta.writeFull(sourceFile, new ByteArrayOutputStream());
+        original[100] = (byte) (original[100] + 1);
+        FileUtils.writeByteArrayToFile(sourceFile, original);
+        ByteArrayOutputStream delta = new ByteArrayOutputStream();
+        FileSyncDelta.writeDelta(sourceFile, previous, delta);
+        FileUtils.writeByteArrayToFile(deltaFile, delta.toByteArray());
+
+        byte[] other = randomBytes(512 * 1024, 4);
+        FileUtils.writeByteArrayToFile(targetFile, other);
+        try {
+            FileSyncDelta.apply(deltaFile, targetFile);
+            fail("Expected a conflict");
+        } catch (FileConflictException ex) {
+        }
+        assertTrue(Arrays.equals(other, FileUtils.readFileToByteArray(targetFile)));
+        assertEquals(1, targetFile.getParentFile().list().length);
+    }
+
+    @Test
+    public void testPreviousSignature() throws Exception {
+        FileSyncDelta fileSyncDelta = new FileSyncDelta(new File(directory, "signatures"), 1024);
+        FileUtils.writeByteArrayToFile(sourceFile, randomBytes(100000, 5));
+        FileSyncDelta.Signature signature = FileSyncDelta.writeFull(sourceFile, new ByteArrayOutputStream());
+        FileSnapshot snapshot = new FileSnapshot();
+        snapshot.setTriggerId("trigger");
+        snapshot.setRouterId("router");
+        snapshot.setRelativeDir("a/b");
+        snapshot.setFileName("data.bin");
+        fileSyncDelta.saveSignature("00001", snapshot, signature);
+
+        assertNull(fileSyncDelta.getPreviousSignature("00001", snapshot));
+        snapshot.setOldCrc32Checksum(FileUtils.checksumCRC32(sourceFile));
+        FileSyncDelta.Signature previous = fileSyncDelta.getPreviousSignature("00001", snapshot);
+        assertNotNull(previous);
+        assertEquals(signature.getChunkCount(), previous.getChunkCount());
+        assertEquals(signature.getSize(), previous.getSize());
+        assertNull(fileSyncDelta.getPreviousSignature("00002", snapshot));
+        snapshot.setOldCrc32Checksum(snapshot.getOldCrc32Checksum() + 1);
+        assertNull(fileSyncDelta.getPreviousSignature("00001", snapshot));
+    }
+
+    @Test
+    public void testDeleteSignature() throws Exception {
+        FileSyncDelta fileSyncDelta = new FileSyncDelta(new File(directory, "signatures"), 1024);
+        FileUtils.writeByteArrayToFile(sourceFile, randomBytes(100000, 6));
+        FileSyncDelta.Signature signature = FileSyncDelta.writeFull(sourceFile, new ByteArrayOutputStream());
+        FileSnapshot snapshot = new FileSnapshot();
+        snapshot.setTriggerId("trigger");
+        snapshot.setRouterId("router");
+        snapshot.setRelativeDir(".");
+        snapshot.setFileName("data.bin");
+        snapshot.setOldCrc32Checksum(FileUtils.checksumCRC32(sourceFile));
+        fileSyncDelta.saveSignature("00001", snapshot, signature);
+        fileSyncDelta.saveSignature("00002", snapshot, signature);
+
+        fileSyncDelta.deleteSignature("00001", snapshot);
+        assertNull(fileSyncDelta.getPreviousSignature("00001", snapshot));
+        assertNotNull(fileSyncDelta.getPreviousSignature("00002", snapshot));
+        fileSyncDelta.saveSignature("00001", snapshot, signature);
+        fileSyncDelta.deleteSignatures("00001");
+        assertNull(fileSyncDelta.getPreviousSignature("00001", snapshot));
+        assertNotNull(fileSyncDelta.getPreviousSignature("00002", snapshot));
+    }
+
+    protected byte[] randomBytes(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void testSupportedByVersion() throws Exception {
+        Node node = new Node();
+        assertFalse(FileSyncDelta.isSupportedBy(null));
+        assertFalse(FileSyncDelta.isSupportedBy(node));
+        node.setSymmetricVersion("3.13.5");
+        assertFalse(FileSyncDelta.isSupportedBy(node));
+        node.setSymmetricVersion(FileSyncDelta.MIN_TARGET_VERSION);
+        assertTrue(FileSyncDelta.isSupportedBy(node));
+        node.setSymmetricVersion("development");
+        assertTrue(FileSyncDelta.isSupportedBy(node));
+    }
+}
@@ -0,0 +1,176 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.jumpmind.symmetric.model.FileSnapshot;
+import org.jumpmind.symmetric.model.FileSnapshot.LastEventType;
+import org.jumpmind.symmetric.model.FileTrigger;
+import org.jumpmind.symmetric.model.FileTriggerRouter;
+import org.jumpmind.symmetric.model.Router;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FileTriggerWatcherTest {
+    File directory = new File("target/watch").getAbsoluteFile();
+    File subdirectory = new File(directory, "a");
+    File fileInDirectory1 = new File(directory, "1.txt");
+    File fileInDirectory2 = new File(directory, "2.csv");
+    File fileInSubDirectory = new File(subdirectory, "3.doc");
+    FileTriggerWatcher watcher;
+
+    @BeforeEach
+    public void setupTest() throws Exception {
+        FileUtils.deleteQuietly(directory);
+        directory.mkdirs();
+        subdirectory.mkdirs();
+        FileUtils.write(fileInDirectory1, "abc", Charset.defaultCharset(), false);
+        FileUtils.write(fileInDirectory2, "abcdef", Charset.defaultCharset(), false);
+        FileUtils.write(fileInSubDirectory, "abcdefghi", Charset.defaultCharset(), false);
+    }
+
+    @AfterEach
+    public void cleanupTest() {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    @Test
+    public void testFirstRunReconciles() throws Exception {
+        watcher = new FileTriggerWatcher(newFileTriggerRouter(true, null), null, true, 2, 3600000);
+        DirectorySnapshot changes = watcher.trackChanges(null);
+        assertEquals(4, changes.size());
+        for (FileSnapshot snapshot : changes) {
+            assertEquals(LastEventType.CREATE, snapshot.getLastEventType());
+        }
+        assertEquals(0, watcher.trackChanges(null).size());
+    }
+
+    @Test
+    public void testWatchedChanges() throws Exception {
+        watcher = new FileTriggerWatcher(newFileTriggerRouter(true, null), null, false, 1, 3600000);
+        watcher.trackChanges(null);
+        File newFile = new File(subdirectory, "4.txt");
+        FileUtils.write(newFile, "new", Charset.defaultCharset(), false);
+        FileUtils.write(fileInDirectory2, "changed", Charset.defaultCharset(), false);
+        FileUtils.deleteQuietly(fileInDirectory1);
+        Map<String, LastEventType> events = trackUntil(3);
+        assertEquals(LastEventType.CREATE, events.get("4.txt"));
+        assertEquals(LastEventType.MODIFY, events.get("2.csv"));
+        assertEquals(LastEventType.DELETE, events.get("1.txt"));
+    }
+
+    @Test
+    public void testWatchedNewDirectory() throws Exception {
+        watcher = new FileTriggerWatcher(newFileTriggerRouter(true, null), null, false, 1, 3600000);
+        watcher.trackChanges(null);
+        File newDirectory = new File(subdirectory, "b");
+        newDirectory.mkdirs();
+        FileUtils.write(new File(newDirectory, "5.txt"), "new", Charset.defaultCharset(), false);
+        Map<String, LastEventType> events = trackUntil(2);
+        assertEquals(LastEventType.CREATE, events.get("b"));
+        assertEquals(LastEventType.CREATE, events.get("5.txt"));
+        FileUtils.write(new File(newDirectory, "6.txt"), "new", Charset.defaultCharset(), false);
+        events = trackUntil(1);
+        assertEquals(LastEventType.CREATE, events.get("6.txt"));
+    }
+
+    @Test
+    public void testWatchedIncludes() throws Exception {
+        watcher = new FileTriggerWatcher(newFileTriggerRouter(false, "*.txt"), null, false, 1, 3600000);
+        assertEquals(1, watcher.trackChanges(null).size());
+        FileUtils.write(new File(directory, "7.csv"), "new", Charset.defaultCharset(), false);
+        FileUtils.write(new File(directory, "8.txt"), "new", Charset.defaultCharset(), false);
+        Map<String, LastEventType> events = trackUntil(1);
+        assertEquals(LastEventType.CREATE, events.get("8.txt"));
+        assertFalse(events.containsKey("7.csv"));
+    }
+
+    @Test
+    public void testReconcileAgainstLastSnapshot() throws Exception {
+        FileTriggerRouter fileTriggerRouter = newFileTriggerRouter(true, null);
+        final DirectorySnapshot lastSnapshot = new DirectorySnapshot(fileTriggerRouter);
+        lastSnapshot.add(new FileSnapshot(fileTriggerRouter, subdirectory, LastEventType.CREATE, false));
+        lastSnapshot.add(new FileSnapshot(fileTriggerRouter, fileInDirectory1, LastEventType.CREATE, false));
+        lastSnapshot.add(new FileSnapshot(fileTriggerRouter, fileInSubDirectory, LastEventType.MODIFY, false));
+        FileSnapshot deleted = new FileSnapshot(fileTriggerRouter, new File(directory, "9.txt"), LastEventType.CREATE, false);
+        lastSnapshot.add(deleted);
+        FileSnapshot changed = new FileSnapshot(fileTriggerRouter, fileInDirectory1, LastEventType.CREATE, false);
+        changed.setFileSize(changed.getFileSize() + 1);
+        lastSnapshot.set(1, changed);
+        watcher = new FileTriggerWatcher(fileTriggerRouter, null, true, 2, 3600000) {
+            @Override
+            protected DirectorySnapshot getLastSnapshot() {
+                return lastSnapshot;
+            }
+        };
+        Map<String, LastEventType> events = toMap(watcher.trackChanges(null));
+        assertEquals(3, events.size());
+        assertEquals(LastEventType.MODIFY, events.get("1.txt"));
+        assertEquals(LastEventType.CREATE, events.get("2.csv"));
+        assertEquals(LastEventType.DELETE, events.get("9.txt"));
+    }
+
+    @Test
+    public void testReconcileAfterChangesWereNotSaved() throws Exception {
+        watcher = new FileTriggerWatcher(newFileTriggerRouter(true, null), null, false, 1, 3600000);
+        watcher.trackChanges(null);
+        FileUtils.write(new File(directory, "10.txt"), "new", Charset.defaultCharset(), false);
+        assertEquals(LastEventType.CREATE, trackUntil(1).get("10.txt"));
+        watcher.setReconcileNeeded();
+        Map<String, LastEventType> events = toMap(watcher.trackChanges(null));
+        assertEquals(5, events.size());
+        assertEquals(LastEventType.CREATE, events.get("10.txt"));
+        assertFalse(watcher.isFailed());
+    }
+
+    protected Map<String, LastEventType> trackUntil(int expectedCount) throws Exception {
+        Map<String, LastEventType> events = new HashMap<String, LastEventType>();
+        long endTime = System.currentTimeMillis() + 10000;
+        while (events.size() < expectedCount && System.currentTimeMillis() < endTime) {
+            Thread.sleep(50);
+            events.putAll(toMap(watcher.trackChanges(null)));
+        }
+        return events;
+    }
+
+    protected Map<String, LastEventType> toMap(DirectorySnapshot changes) {
+        Map<String, LastEventType> events = new HashMap<String, LastEventType>();
+        for (FileSnapshot snapshot : changes) {
+            events.put(snapshot.getFileName(), snapshot.getLastEventType());
+        }
+        return events;
+    }
+
+    protected FileTriggerRouter newFileTriggerRouter(boolean recurse, String includes) {
+        FileTrigger fileTrigger = new FileTrigger(directory.getAbsolutePath(), recurse, includes, null);
+        return new FileTriggerRouter(fileTrigger, new Router());
+    }
+}
@@ -0,0 +1,211 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.jumpmind.db.model.Column;
+import org.junit.jupiter.api.Test;
+
+public class DbCompareHashRangesTest {
+
+    @Test
+    public void testMatchingTablesUseOneSummary() throws Exception {
+        TreeMap<Long, String> source = createRows(0, 100000);
+        TreeMap<Long, String> target = createRows(0, 100000);
+        TestHashRanges hashRanges = new TestHashRanges(source, target, 1000);
+        hashRanges.compare();
+        assertEquals(1, hashRanges.getSummaryCount());
+        assertEquals(0, hashRanges.getRowCompareCount());
+        assertEquals(100000, hashRanges.matchedRows);
+        assertTrue(hashRanges.differences.isEmpty());
+    }
+
+    @Test
+    public void testDifferencesAreFoundInSmallRanges() throws Exception {
+        TreeMap<Long, String> source = createRows(0, 100000);
+        TreeMap<Long, String> target = createRows(0, 100000);
+        target.put(12345l, "changed");
+        target.remove(67890l);
+        target.put(100005l, "extra");
+        source.put(-50l, "missing");
+        TestHashRanges hashRanges = new TestHashRanges(source, target, 1000);
+        hashRanges.compare();
+        assertEquals(Arrays.asList(-50l, 12345l, 67890l, 100005l), hashRanges.differences);
+        assertEquals(100000 - 2, hashRanges.matchedRows);
+        assertTrue(hashRanges.rowsCompared <= 4 * 1000);
+        assertTrue(hashRanges.getSummaryCount() < 100);
+    }
+
+    @Test
+    public void testEmptySides() throws Exception {
+        TreeMap<Long, String> source = createRows(0, 5000);
+        TestHashRanges hashRanges = new TestHashRanges(source, new TreeMap<Long, String>(), 100);
+        hashRanges.compare();
+        assertEquals(5000, hashRanges.differences.size());
+        hashRanges = new TestHashRanges(new TreeMap<Long, String>(), new TreeMap<Long, String>(), 100);
+        hashRanges.compare();
+        assertEquals(0, hashRanges.differences.size());
+        assertEquals(0, hashRanges.getRowCompareCount());
+    }
+
+    @Test
+    public void testExtremeKeys() throws Exception {
+        TreeMap<Long, String> source = new TreeMap<Long, String>();
+        source.put(Long.MIN_VALUE, "a");
+        source.put(Long.MAX_VALUE, "b");
+        TreeMap<Long, String> target = new TreeMap<Long, String>(source);
+        target.put(0l, "c");
+        TestHashRanges hashRanges = new TestHashRanges(source, target, 0);
+        hashRanges.compare();
+        assertEquals(Arrays.asList(0l), hashRanges.differences);
+        assertEquals(2, hashRanges.matchedRows);
+    }
+
+    @Test
+    public void testRangeKey() throws Exception {
+        Column id = new Column("id", true, Types.BIGINT, 0, 0);
+        Column amount = new Column("amount", true, Types.DECIMAL, 10, 2);
+        Column name = new Column("name", true, Types.VARCHAR, 10, 0);
+        assertTrue(DbCompareHashRanges.isRangeKey(new Column[] { id }));
+        assertFalse(DbCompareHashRanges.isRangeKey(new Column[] { amount }));
+        assertFalse(DbCompareHashRanges.isRangeKey(new Column[] { name }));
+        assertFalse(DbCompareHashRanges.isRangeKey(new Column[] { id, name }));
+        assertNotNull(DbCompareHashRanges.getChecksumSql("postgres", Arrays.asList(id, name), "\""));
+        assertNull(DbCompareHashRanges.getChecksumSql("h2", Arrays.asList(id, name), "\""));
+        assertNull(DbCompareHashRanges.getChecksumSql("postgres", Arrays.asList(id, new Column("data", false, Types.BLOB, 0, 0)), "\""));
+    }
+
+    @Test
+    public void testMssqlChecksumOnLargeRange() throws Exception {
+        Column id = new Column("id", true, Types.BIGINT, 0, 0);
+        Column name = new Column("name", true, Types.VARCHAR, 10, 0);
+        String sql = DbCompareHashRanges.getChecksumSql("mssql2008", Arrays.asList(id, name), "\"");
+        assertTrue(sql, sql.startsWith("sum(cast(cast(substring(hashbytes('MD5', "));
+        assertTrue(sql, sql.endsWith("), 1, 7) as bigint) as decimal(38,0)))"));
+
+        TreeMap<Long, String> source = createRows(0, 200000);
+        TreeMap<Long, String> target = createRows(0, 200000);
+        target.put(150000l, "changed");
+        TestHashRanges hashRanges = new Md5HashRanges(source, target, 1000);
+        hashRanges.compare();
+        assertEquals(Arrays.asList(150000l), hashRanges.differences);
+        assertEquals(200000 - 1, hashRanges.matchedRows);
+
+        DbCompareHashRanges.Summary summary = hashRanges.summarize(DbCompareHashRanges.SOURCE, null, null);
+        BigDecimal checksum = new BigDecimal(summary.getChecksum());
+        assertTrue("A bigint sum would have overflowed", checksum.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0);
+        assertTrue(checksum.precision() < 38);
+    }
+
+    protected TreeMap<Long, String> createRows(long start, long end) {
+        TreeMap<Long, String> rows = new TreeMap<Long, String>();
+        for (long i = start; i < end; i++) {
+            rows.put(i, "row " + i);
+        }
+        return rows;
+    }
+
+    class Md5HashRanges extends TestHashRanges {
+        Md5HashRanges(TreeMap<Long, String> source, TreeMap<Long, String> target, long rowCompareThreshold) {
+            super(source, target, rowCompareThreshold);
+        }
+
+        /**
+         * Sums the first 7 bytes of each row's MD5 the way the SQL Server checksum does
+         */
+        @Override
+        protected Summary summarize(int side, Long low, Long high) {
+            TreeMap<Long, String> rows = side == SOURCE ? source : target;
+            SortedMap<Long, String> range = low == null ? rows : rows.subMap(low, true, high, true);
+            BigInteger checksum = BigInteger.ZERO;
+            try {
+                MessageDigest md5 = MessageDigest.getInstance("MD5");
+                for (Map.Entry<Long, String> row : range.entrySet()) {
+                    byte[] hash = md5.digest((row.getKey() + "|" + row.getValue()).getBytes("UTF-8"));
+                    checksum = checksum.add(new BigInteger(1, Arrays.copyOf(hash, 7)));
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            return new Summary(range.size(), checksum.toString(), range.isEmpty() ? null : range.firstKey(),
+                    range.isEmpty() ? null : range.lastKey());
+        }
+    }
+
+    class TestHashRanges extends DbCompareHashRanges {
+        TreeMap<Long, String> source;
+        TreeMap<Long, String> target;
+        long matchedRows;
+        long rowsCompared;
+        List<Long> differences = new ArrayList<Long>();
+
+        TestHashRanges(TreeMap<Long, String> source, TreeMap<Long, String> target, long rowCompareThreshold) {
+            super(rowCompareThreshold);
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        protected Summary summarize(int side, Long low, Long high) {
+            TreeMap<Long, String> rows = side == SOURCE ? source : target;
+            SortedMap<Long, String> range = low == null ? rows : rows.subMap(low, true, high, true);
+            long checksum = 0;
+            for (Map.Entry<Long, String> row : range.entrySet()) {
+                checksum += (row.getKey() + ":" + row.getValue()).hashCode();
+            }
+            return new Summary(range.size(), Long.toString(checksum), range.isEmpty() ? null : range.firstKey(),
+                    range.isEmpty() ? null : range.lastKey());
+        }
+
+        @Override
+        protected void compareRows(long low, long high) {
+            TreeMap<Long, String> keys = new TreeMap<Long, String>(source.subMap(low, true, high, true));
+            keys.putAll(target.subMap(low, true, high, true));
+            for (Long key : keys.keySet()) {
+                rowsCompared++;
+                String sourceRow = source.get(key);
+                String targetRow = target.get(key);
+                if (sourceRow != null && sourceRow.equals(targetRow)) {
+                    matchedRows++;
+                } else {
+                    differences.add(key);
+                }
+            }
+        }
+
+        @Override
+        protected void matched(long rowCount) {
+            matchedRows += rowCount;
+        }
+    }
+}
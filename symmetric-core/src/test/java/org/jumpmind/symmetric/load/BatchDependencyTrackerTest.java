@@ -0,0 +1,156 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.load;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.jumpmind.symmetric.io.stage.IStagedResource;
+import org.jumpmind.symmetric.load.BatchDependencyTracker.BatchFootprint;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class BatchDependencyTrackerTest {
+    @Test
+    public void testScan() throws Exception {
+        BatchDependencyTracker tracker = new TestableTracker();
+        BatchFootprint footprint = tracker.scan("default", reader("nodeid,001\nchannel,default\nbatch,1\nschema,\ncatalog,\n"
+                + "table,Orders\nkeys,id\ncolumns,id,customer_id\ninsert,1,2\ntable,order_line\ncolumns,id,order_id\ninsert,1,1\ncommit,1\n"));
+        assertFalse(footprint.isBarrier());
+        assertEquals(set("orders", "order_line"), footprint.getTables());
+        assertEquals(set("customer", "orders"), footprint.getParentTables());
+        footprint = tracker.scan("default", reader("batch,2\nsql,\"delete from orders\"\ncommit,2\n"));
+        assertTrue(footprint.isBarrier());
+        footprint = tracker.scan("config", reader("batch,3\ntable,orders\ninsert,1,2\ncommit,3\n"));
+        assertTrue(footprint.isBarrier());
+        footprint = tracker.scan("default", reader("batch,4\ntable,unknown_table\ninsert,1,2\ncommit,4\n"));
+        assertTrue(footprint.isBarrier());
+    }
+
+    @Test
+    public void testScanStagedBatchOnce() throws Exception {
+        final File file = File.createTempFile("batch", ".done");
+        try {
+            FileUtils.writeStringToFile(file, "batch,1\ntable,orders\ninsert,1,2\ncommit,1\n", StandardCharsets.UTF_8);
+            IStagedResource resource = mock(IStagedResource.class);
+            when(resource.isFileResource()).thenReturn(true);
+            when(resource.getFile()).thenReturn(file);
+            when(resource.getReader()).thenAnswer(new Answer<BufferedReader>() {
+                public BufferedReader answer(InvocationOnMock invocation) throws Throwable {
+                    return reader(FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+                }
+            });
+            Map<String, BatchFootprint> footprints = BatchDependencyTracker.newFootprintCache(10);
+            BatchFootprint footprint = new TestableTracker(footprints).scan("default", resource);
+            assertEquals(set("orders"), footprint.getTables());
+            assertSame(footprint, new TestableTracker(footprints).scan("default", resource));
+            verify(resource, times(1)).getReader();
+            FileUtils.writeStringToFile(file, "batch,1\ntable,item\ninsert,1,2\ninsert,2,3\ncommit,1\n", StandardCharsets.UTF_8);
+            assertEquals(set("item"), new TestableTracker(footprints).scan("default", resource).getTables());
+            verify(resource, times(2)).getReader();
+        } finally {
+            FileUtils.deleteQuietly(file);
+        }
+    }
+
+    @Test
+    public void testDependsOn() throws Exception {
+        BatchFootprint orders = footprint("a", false, set("orders"), set("customer"));
+        BatchFootprint customer = footprint("b", false, set("customer"), set());
+        BatchFootprint items = footprint("c", false, set("item"), set());
+        BatchFootprint sameChannel = footprint("a", false, set("item"), set());
+        BatchFootprint barrier = footprint("d", true, set(), set());
+        assertTrue(orders.dependsOn(customer));
+        assertTrue(customer.dependsOn(orders));
+        assertFalse(orders.dependsOn(items));
+        assertFalse(items.dependsOn(customer));
+        assertTrue(sameChannel.dependsOn(orders));
+        assertTrue(barrier.dependsOn(items));
+        assertTrue(items.dependsOn(barrier));
+    }
+
+    @Test
+    public void testGetDependencies() throws Exception {
+        BatchDependencyTracker tracker = new TestableTracker();
+        CompletableFuture<Object> first = new CompletableFuture<Object>();
+        CompletableFuture<Object> second = new CompletableFuture<Object>();
+        tracker.add(footprint("a", false, set("orders"), set()), first);
+        tracker.add(footprint("b", false, set("item"), set()), second);
+        assertEquals(Collections.<Future<?>> singletonList(first), tracker.getDependencies(footprint("c", false, set("orders"), set())));
+        assertEquals(0, tracker.getDependencies(footprint("c", false, set("customer"), set())).size());
+        assertEquals(2, tracker.getDependencies(footprint("c", true, set(), set())).size());
+        first.complete(null);
+        assertEquals(1, tracker.getDependencies(footprint("c", true, set(), set())).size());
+        assertEquals(1, tracker.getInFlightCount());
+    }
+
+    protected static BufferedReader reader(String csv) {
+        return new BufferedReader(new StringReader(csv));
+    }
+
+    protected static BatchFootprint footprint(String channelId, boolean barrier, Set<String> tables, Set<String> parentTables) {
+        return new BatchFootprint(channelId, barrier, tables, parentTables);
+    }
+
+    protected static Set<String> set(String... values) {
+        Set<String> set = new HashSet<String>();
+        Collections.addAll(set, values);
+        return set;
+    }
+
+    static class TestableTracker extends BatchDependencyTracker {
+        public TestableTracker() {
+            super(null);
+        }
+
+        public TestableTracker(Map<String, BatchFootprint> footprintsByStagedFile) {
+            super(null, footprintsByStagedFile);
+        }
+
+        @Override
+        protected Set<String> getParentTables(String catalogName, String schemaName, String tableName) {
+            if (tableName.equalsIgnoreCase("orders")) {
+                return set("customer");
+            } else if (tableName.equalsIgnoreCase("order_line")) {
+                return set("orders");
+            } else if (tableName.equalsIgnoreCase("unknown_table")) {
+                return null;
+            }
+            return set();
+        }
+    }
+}
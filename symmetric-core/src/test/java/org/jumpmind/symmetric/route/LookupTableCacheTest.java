@@ -0,0 +1,214 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.jumpmind.db.sql.ISqlRowMapper;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.jumpmind.db.sql.Row;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.junit.jupiter.api.Test;
+
+public class LookupTableCacheTest {
+    static final String COLUMNS = "BRAND_ID,STORE_ID,NAME";
+
+    @Test
+    public void testApplyCapturedChanges() {
+        LookupTableCache cache = new LookupTableCache("STORE", "brand_id", "store_id", null, "sym");
+        cache.apply(DataEventType.INSERT, COLUMNS, "\"1\",\"s1\",\"a\"", null, "STORE_ID", "\"s1\"");
+        cache.apply(DataEventType.INSERT, COLUMNS, "\"1\",\"s2\",\"b\"", null, "STORE_ID", "\"s2\"");
+        cache.apply(DataEventType.INSERT, COLUMNS, "\"2\",\"s3\",\"c\"", null, "STORE_ID", "\"s3\"");
+        assertTrue(cache.contains("1", "s1"));
+        assertTrue(cache.contains("1", "s2"));
+        assertFalse(cache.contains("1", "s3"));
+        cache.apply(DataEventType.UPDATE, COLUMNS, "\"2\",\"s2\",\"b\"", "\"1\",\"s2\",\"b\"", "STORE_ID", "\"s2\"");
+        assertFalse(cache.contains("1", "s2"));
+        assertTrue(cache.contains("2", "s2"));
+        assertTrue(cache.contains("2", "s3"));
+        cache.apply(DataEventType.DELETE, COLUMNS, null, "\"1\",\"s1\",\"a\"", "STORE_ID", "\"s1\"");
+        assertFalse(cache.containsKey("1"));
+        assertTrue(cache.containsKey("2"));
+    }
+
+    @Test
+    public void testUpdateKeepingKey() {
+        LookupTableCache cache = new LookupTableCache("STORE", "brand_id", "store_id", null, "sym");
+        cache.fullRefreshNeeded = false;
+        cache.apply(DataEventType.INSERT, COLUMNS, "\"1\",\"s1\",\"a\"", null, "STORE_ID", "\"s1\"");
+        cache.apply(DataEventType.UPDATE, COLUMNS, "\"1\",\"s2\",\"a\"", "\"1\",\"s1\",\"a\"", "STORE_ID", "\"s2\"");
+        assertEquals("s2", cache.externalIdsByKey.get("1"));
+        cache.apply(DataEventType.INSERT, COLUMNS, "\"1\",\"s3\",\"b\"", null, "STORE_ID", "\"s3\"");
+        cache.apply(DataEventType.UPDATE, COLUMNS, "\"1\",\"s4\",\"b\"", "\"1\",\"s3\",\"b\"", "STORE_ID", "\"s4\"");
+        assertTrue(cache.contains("1", "s2"));
+        assertTrue(cache.contains("1", "s4"));
+        assertFalse(cache.contains("1", "s3"));
+        assertFalse(cache.fullRefreshNeeded);
+    }
+
+    @Test
+    public void testTableWithoutTriggerIsReloaded() {
+        final int[] fullRefreshes = new int[1];
+        final boolean[] hasTrigger = new boolean[1];
+        LookupTableCache cache = new LookupTableCache("STORE", "brand_id", "store_id", null, "sym") {
+            @Override
+            protected void checkCaptured(ISqlTemplate template) {
+                captured = hasTrigger[0];
+            }
+
+            @Override
+            protected void fullRefresh(ISqlTemplate template) {
+                fullRefreshes[0]++;
+            }
+
+            @Override
+            protected void refreshFromCapturedData(ISqlTemplate template) {
+            }
+        };
+        cache.refresh(null, 0, true);
+        cache.refresh(null, 0, true);
+        assertEquals(2, fullRefreshes[0]);
+        assertEquals(0, cache.getIncrementalRefreshCount());
+        hasTrigger[0] = true;
+        cache.refresh(null, 0, true);
+        cache.refresh(null, 0, true);
+        assertEquals(3, fullRefreshes[0]);
+        assertEquals(1, cache.getIncrementalRefreshCount());
+    }
+
+    @Test
+    public void testChangeThatCannotBeAppliedForcesFullRefresh() {
+        LookupTableCache cache = new LookupTableCache("STORE", "brand_id", "store_id", null, "sym");
+        cache.fullRefreshNeeded = false;
+        cache.apply(DataEventType.INSERT, COLUMNS, "\"1\",\"s1\",\"a\"", null, "STORE_ID", "\"s1\"");
+        assertFalse(cache.fullRefreshNeeded);
+        cache.apply(DataEventType.UPDATE, COLUMNS, "\"2\",\"s1\",\"a\"", null, "STORE_ID", "\"s1\"");
+        assertTrue(cache.fullRefreshNeeded);
+    }
+
+    @Test
+    public void testExternalIdsAreInterned() {
+        LookupTableCache cache = new LookupTableCache("STORE", "brand_id", "store_id", null, "sym");
+        cache.apply(DataEventType.INSERT, COLUMNS, "\"1\",\"s1\",\"a\"", null, "STORE_ID", "\"s1\"");
+        cache.apply(DataEventType.INSERT, COLUMNS, "\"2\",\"s1\",\"a\"", null, "STORE_ID", "\"s1\"");
+        assertSame(cache.externalIdsByKey.get("1"), cache.externalIdsByKey.get("2"));
+    }
+
+    @Test
+    public void testChangeCommittedOutOfOrderIsApplied() {
+        final List<Row> rows = new ArrayList<Row>();
+        final List<Long> applied = new ArrayList<Long>();
+        LookupTableCache cache = new LookupTableCache("STORE", "brand_id", "store_id", null, "sym") {
+            @Override
+            protected int forEachRow(ISqlTemplate template, String sql, ISqlRowMapper<Object> mapper, Object... args) {
+                for (Row row : rows) {
+                    if (row.getLong("data_id") > (Long) args[0]) {
+                        mapper.mapRow(row);
+                    }
+                }
+                return rows.size();
+            }
+
+            @Override
+            protected void apply(DataEventType eventType, String columnNames, String rowData, String oldData, String pkColumnNames, String pkData) {
+                applied.add(lastDataId);
+                super.apply(eventType, columnNames, rowData, oldData, pkColumnNames, pkData);
+            }
+        };
+        cache.fullRefreshNeeded = false;
+        cache.captured = true;
+        cache.lastDataId = 10;
+        ISqlTemplate template = mock(ISqlTemplate.class);
+        when(template.queryForLong(contains("data_gap"), any())).thenReturn(11l);
+
+        rows.add(newDataRow(12, DataEventType.INSERT, "\"1\",\"s1\",\"a\"", null));
+        cache.refresh(template, 0, true);
+        assertTrue(cache.contains("1", "s1"));
+        assertEquals(1, applied.size());
+
+        rows.add(0, newDataRow(11, DataEventType.INSERT, "\"2\",\"s2\",\"b\"", null));
+        rows.add(newDataRow(13, DataEventType.DELETE, null, "\"1\",\"s1\",\"a\""));
+        cache.refresh(template, 0, true);
+        assertTrue(cache.contains("2", "s2"));
+        assertFalse(cache.containsKey("1"));
+        assertEquals(3, applied.size());
+        assertEquals(13, cache.lastDataId);
+
+        when(template.queryForLong(contains("data_gap"), any())).thenReturn(0l);
+        cache.refresh(template, 0, true);
+        assertEquals(3, applied.size());
+        assertEquals(13, cache.dataIdFloor);
+        assertTrue(cache.appliedDataIds.isEmpty());
+    }
+
+    @Test
+    public void testDeletedRowWithLastUpdateColumnForcesFullRefresh() {
+        final int[] fullRefreshes = new int[1];
+        LookupTableCache cache = new LookupTableCache("STORE", "brand_id", "store_id", "last_update", "sym") {
+            @Override
+            protected void fullRefresh(ISqlTemplate template) {
+                fullRefreshes[0]++;
+            }
+
+            @Override
+            protected Date selectMaxLastUpdateTime(ISqlTemplate template) {
+                return new Date(0);
+            }
+
+            @Override
+            protected int forEachRow(ISqlTemplate template, String sql, ISqlRowMapper<Object> mapper, Object... args) {
+                return 0;
+            }
+        };
+        cache.fullRefreshNeeded = false;
+        cache.add(cache.externalIdsByKey, "1", "s1");
+        cache.add(cache.externalIdsByKey, "1", "s2");
+        cache.pairCount = 2;
+        ISqlTemplate template = mock(ISqlTemplate.class);
+        when(template.queryForLong(anyString())).thenReturn(2l);
+        cache.refresh(template, 0, true);
+        assertEquals(0, fullRefreshes[0]);
+        when(template.queryForLong(anyString())).thenReturn(1l);
+        cache.refresh(template, 0, true);
+        assertEquals(1, fullRefreshes[0]);
+    }
+
+    protected Row newDataRow(long dataId, DataEventType eventType, String rowData, String oldData) {
+        Row row = new Row(7);
+        row.put("data_id", dataId);
+        row.put("event_type", eventType.getCode());
+        row.put("row_data", rowData);
+        row.put("old_data", oldData);
+        row.put("column_names", COLUMNS);
+        row.put("pk_column_names", "STORE_ID");
+        row.put("pk_data", null);
+        return row;
+    }
+}
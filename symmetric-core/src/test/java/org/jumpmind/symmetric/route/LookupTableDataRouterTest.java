@@ -113,4 +113,11 @@ public class LookupTableDataRouterTest {
         }
         assertEquals(false, valid);
     }
+
+    @Test
+    public void testLastUpdateColumn() {
+        LookupTableDataRouter router = new LookupTableDataRouter();
+        assertEquals("LAST_UPDATED", router.parse("LOOKUP_TABLE=STORE KEY_COLUMN=BRAND_ID LOOKUP_KEY_COLUMN=BRAND_ID " +
+                "EXTERNAL_ID_COLUMN=STORE_ID ALL_NODES_VALUE=ALL LAST_UPDATE_COLUMN=LAST_UPDATED").get(LookupTableDataRouter.PARAM_LAST_UPDATE_COLUMN));
+    }
 }
@@ -0,0 +1,180 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.jumpmind.symmetric.model.Data;
+
+/**
+ * Compares the transactional peek ahead algorithm of {@link DataGapRouteReader} using the old {@link ArrayList} buffer against the {@link PeekAheadQueue}.
+ * Rows from many transactions are interleaved the way they are captured on a busy table. Run with optional arguments of the peek ahead window and the number
+ * of concurrent transactions.
+ */
+public class PeekAheadQueuePerf {
+    static final int[] ROW_COUNTS = { 10000, 100000, 1000000 };
+
+    public static void main(String[] args) {
+        int peekAheadCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int concurrentTransactions = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        System.out.println(String.format("Peek ahead window of %d with %d concurrent transactions", peekAheadCount, concurrentTransactions));
+        for (int rowCount : ROW_COUNTS) {
+            List<Data> rows = buildInterleavedRows(rowCount, concurrentTransactions, 42);
+            long ts = System.currentTimeMillis();
+            long[] expected = routeWithList(rows, peekAheadCount);
+            long listMillis = System.currentTimeMillis() - ts;
+            ts = System.currentTimeMillis();
+            long[] actual = routeWithPeekAheadQueue(rows, peekAheadCount);
+            long queueMillis = System.currentTimeMillis() - ts;
+            if (!java.util.Arrays.equals(expected, actual)) {
+                throw new IllegalStateException("Routing order differs for " + rowCount + " rows");
+            }
+            System.out.println(String.format("rows=%,d list=%,d ms (%,.0f rows/sec) queue=%,d ms (%,.0f rows/sec)", rowCount,
+                    listMillis, rowsPerSecond(rowCount, listMillis), queueMillis, rowsPerSecond(rowCount, queueMillis)));
+        }
+    }
+
+    protected static double rowsPerSecond(int rowCount, long millis) {
+        return rowCount * 1000d / Math.max(1, millis);
+    }
+
+    protected static List<Data> buildInterleavedRows(int rowCount, int concurrentTransactions, long seed) {
+        Random random = new Random(seed);
+        List<Data> rows = new ArrayList<Data>(rowCount);
+        int[] openTransactions = new int[concurrentTransactions];
+        int[] rowsLeft = new int[concurrentTransactions];
+        int nextTransactionId = 0;
+        for (int i = 0; i < concurrentTransactions; i++) {
+            openTransactions[i] = nextTransactionId++;
+            rowsLeft[i] = 1 + random.nextInt(200);
+        }
+        for (int dataId = 1; dataId <= rowCount; dataId++) {
+            int slot = random.nextInt(concurrentTransactions);
+            rows.add(new Data(dataId, null, "\"" + dataId + "\",\"value\"", null, "table1", null, null, null,
+                    Integer.toString(openTransactions[slot]), null));
+            if (--rowsLeft[slot] == 0) {
+                openTransactions[slot] = nextTransactionId++;
+                rowsLeft[slot] = 1 + random.nextInt(200);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * The algorithm of executeTransactional() before it used the {@link PeekAheadQueue}
+     */
+    protected static long[] routeWithList(List<Data> rows, int peekAheadCount) {
+        long[] routed = new long[rows.size()];
+        int routedCount = 0;
+        Iterator<Data> cursor = rows.iterator();
+        List<Data> peekAheadQueue = new ArrayList<Data>(peekAheadCount);
+        String lastTransactionId = null;
+        int lastPeekAheadIndex = 0;
+        boolean moreData = true;
+        while (true) {
+            if (moreData && (lastTransactionId != null || peekAheadQueue.size() == 0)) {
+                for (int i = 0; i < peekAheadCount && (moreData = cursor.hasNext()); i++) {
+                    peekAheadQueue.add(cursor.next());
+                }
+            }
+            int dataWithSameTransactionIdCount = 0;
+            while (peekAheadQueue.size() > 0 && lastTransactionId == null) {
+                Data data = peekAheadQueue.remove(0);
+                routed[routedCount++] = data.getDataId();
+                lastTransactionId = data.getTransactionId();
+                dataWithSameTransactionIdCount++;
+            }
+            if (lastTransactionId != null && peekAheadQueue.size() > 0) {
+                Iterator<Data> datas = peekAheadQueue.iterator();
+                int index = 0;
+                while (datas.hasNext()) {
+                    Data data = datas.next();
+                    if (lastTransactionId.equals(data.getTransactionId())) {
+                        dataWithSameTransactionIdCount++;
+                        datas.remove();
+                        routed[routedCount++] = data.getDataId();
+                        lastPeekAheadIndex = index;
+                    } else {
+                        index++;
+                    }
+                }
+                if (dataWithSameTransactionIdCount == 0 || peekAheadQueue.size() - lastPeekAheadIndex > peekAheadCount) {
+                    lastTransactionId = null;
+                    lastPeekAheadIndex = 0;
+                }
+            }
+            if (!moreData && peekAheadQueue.size() == 0) {
+                break;
+            }
+        }
+        return routed;
+    }
+
+    /**
+     * The algorithm of executeTransactional() using the {@link PeekAheadQueue}
+     */
+    protected static long[] routeWithPeekAheadQueue(List<Data> rows, int peekAheadCount) {
+        long[] routed = new long[rows.size()];
+        int routedCount = 0;
+        Iterator<Data> cursor = rows.iterator();
+        PeekAheadQueue peekAheadQueue = new PeekAheadQueue();
+        String lastTransactionId = null;
+        long lastPeekAheadSequence = 0;
+        boolean moreData = true;
+        while (true) {
+            if (moreData && (lastTransactionId != null || peekAheadQueue.isEmpty())) {
+                for (int i = 0; i < peekAheadCount && (moreData = cursor.hasNext()); i++) {
+                    peekAheadQueue.add(cursor.next());
+                }
+            }
+            int dataWithSameTransactionIdCount = 0;
+            while (!peekAheadQueue.isEmpty() && lastTransactionId == null) {
+                lastPeekAheadSequence = peekAheadQueue.peekSequence();
+                Data data = peekAheadQueue.poll();
+                routed[routedCount++] = data.getDataId();
+                lastTransactionId = data.getTransactionId();
+                dataWithSameTransactionIdCount++;
+            }
+            if (lastTransactionId != null && !peekAheadQueue.isEmpty()) {
+                long sequence = peekAheadQueue.peekSequence(lastTransactionId);
+                while (sequence > 0) {
+                    Data data = peekAheadQueue.poll(lastTransactionId);
+                    dataWithSameTransactionIdCount++;
+                    routed[routedCount++] = data.getDataId();
+                    lastPeekAheadSequence = sequence;
+                    sequence = peekAheadQueue.peekSequence(lastTransactionId);
+                }
+                if (dataWithSameTransactionIdCount == 0
+                        || peekAheadQueue.countAddedAfter(lastPeekAheadSequence, peekAheadCount) > peekAheadCount) {
+                    lastTransactionId = null;
+                    lastPeekAheadSequence = 0;
+                }
+            }
+            if (!moreData && peekAheadQueue.isEmpty()) {
+                break;
+            }
+        }
+        return routed;
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.jumpmind.symmetric.model.Data;
+import org.junit.jupiter.api.Test;
+
+public class PeekAheadQueueTest {
+    final static String TABLE1 = "table1";
+    final static String TRAN1 = "1";
+    final static String TRAN2 = "2";
+
+    @Test
+    public void testPollInReadOrder() {
+        PeekAheadQueue queue = new PeekAheadQueue();
+        queue.add(newData(1, TRAN1));
+        queue.add(newData(2, null));
+        queue.add(newData(3, TRAN2));
+        assertEquals(3, queue.size());
+        assertEquals(1, queue.poll().getDataId());
+        assertEquals(2, queue.poll().getDataId());
+        assertEquals(3, queue.poll().getDataId());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.getSizeInBytes());
+    }
+
+    @Test
+    public void testPollByTransaction() {
+        PeekAheadQueue queue = new PeekAheadQueue();
+        queue.add(newData(1, TRAN1));
+        queue.add(newData(2, TRAN2));
+        queue.add(newData(3, TRAN1));
+        queue.add(newData(4, TRAN2));
+        queue.add(newData(5, TRAN1));
+        assertEquals(1, queue.peekSequence(TRAN1));
+        assertEquals(1, queue.poll(TRAN1).getDataId());
+        assertEquals(3, queue.poll(TRAN1).getDataId());
+        assertEquals(5, queue.poll(TRAN1).getDataId());
+        assertNull(queue.poll(TRAN1));
+        assertEquals(-1, queue.peekSequence(TRAN1));
+        assertEquals(2, queue.size());
+        assertEquals(2, queue.poll().getDataId());
+        assertEquals(4, queue.poll(TRAN2).getDataId());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testCountAddedAfter() {
+        PeekAheadQueue queue = new PeekAheadQueue();
+        queue.add(newData(1, TRAN1));
+        queue.add(newData(2, TRAN2));
+        queue.add(newData(3, TRAN1));
+        queue.add(newData(4, TRAN2));
+        long sequence = queue.peekSequence(TRAN1);
+        queue.poll(TRAN1);
+        assertEquals(3, queue.countAddedAfter(sequence, 10));
+        sequence = queue.peekSequence(TRAN1);
+        queue.poll(TRAN1);
+        assertEquals(1, queue.countAddedAfter(sequence, 10));
+        assertEquals(2, queue.countAddedAfter(0, 1));
+    }
+
+    @Test
+    public void testSizeInBytes() {
+        PeekAheadQueue queue = new PeekAheadQueue();
+        Data data = newData(1, TRAN1);
+        queue.add(data);
+        queue.add(newData(2, TRAN1));
+        assertTrue(queue.getSizeInBytes() > PeekAheadQueue.estimateSizeInBytes(data));
+        queue.clear();
+        assertEquals(0, queue.getSizeInBytes());
+        assertNull(queue.poll(TRAN1));
+    }
+
+    protected Data newData(long dataId, String transactionId) {
+        return new Data(dataId, null, "\"" + dataId + "\"", null, TABLE1, null, null, null, transactionId, null);
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.jumpmind.db.sql.mapper.StringMapper;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.model.Data;
+import org.jumpmind.symmetric.model.DataMetaData;
+import org.jumpmind.symmetric.model.Node;
+import org.jumpmind.symmetric.model.NodeChannel;
+import org.jumpmind.symmetric.model.NodeGroupLink;
+import org.jumpmind.symmetric.model.Router;
+import org.jumpmind.symmetric.model.TriggerHistory;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class SubSelectDataRouterTest {
+    @Test
+    public void testNodeIdCache() throws Exception {
+        ISymmetricDialect symmetricDialect = mock(ISymmetricDialect.class);
+        IParameterService parameterService = mock(IParameterService.class);
+        IDatabasePlatform platform = mock(IDatabasePlatform.class);
+        ISqlTemplate sqlTemplate = mock(ISqlTemplate.class);
+        when(symmetricDialect.getParameterService()).thenReturn(parameterService);
+        when(symmetricDialect.getPlatform()).thenReturn(platform);
+        when(symmetricDialect.getTablePrefix()).thenReturn("sym");
+        when(symmetricDialect.getBinaryEncoding()).thenReturn(BinaryEncoding.HEX);
+        when(parameterService.getInt(eq(ParameterConstants.ROUTING_SUBSELECT_CACHE_SIZE), eq(0))).thenReturn(2);
+        when(platform.getSqlTemplate()).thenReturn(sqlTemplate);
+        when(platform.getObjectValues(any(BinaryEncoding.class), any(Table.class), any(String[].class), any(String[].class)))
+                .thenAnswer(new Answer<Object[]>() {
+                    public Object[] answer(InvocationOnMock invocation) {
+                        return invocation.getArgument(3);
+                    }
+                });
+        when(sqlTemplate.query(anyString(), any(StringMapper.class), anyMap())).thenAnswer(new Answer<List<String>>() {
+            public List<String> answer(InvocationOnMock invocation) {
+                Map<String, Object> params = invocation.getArgument(2);
+                return Collections.singletonList("store" + params.get("STORE_ID"));
+            }
+        });
+
+        SubSelectDataRouter router = new SubSelectDataRouter(symmetricDialect);
+        SimpleRouterContext routingContext = new SimpleRouterContext();
+        Router routerModel = new Router();
+        routerModel.setRouterId("router1");
+        routerModel.setRouterExpression("c.external_id = :STORE_ID");
+        routerModel.setNodeGroupLink(new NodeGroupLink("corp", "store"));
+        Set<Node> nodes = new HashSet<Node>();
+
+        assertEquals(Collections.singleton("store1"), route(router, routingContext, routerModel, nodes, "1"));
+        assertEquals(Collections.singleton("store2"), route(router, routingContext, routerModel, nodes, "2"));
+        assertEquals(2, routingContext.getStat(SubSelectDataRouter.STAT_QUERY_COUNT));
+
+        Set<String> nodeIds = route(router, routingContext, routerModel, nodes, "1");
+        assertEquals(Collections.singleton("store1"), nodeIds);
+        assertEquals(2, routingContext.getStat(SubSelectDataRouter.STAT_QUERY_COUNT));
+        assertEquals(1, routingContext.getStat(SubSelectDataRouter.STAT_CACHE_HIT_COUNT));
+        nodeIds.clear();
+
+        // store 2 was used least recently, so it is evicted to make room for store 3
+        route(router, routingContext, routerModel, nodes, "3");
+        assertEquals(Collections.singleton("store1"), route(router, routingContext, routerModel, nodes, "1"));
+        assertEquals(3, routingContext.getStat(SubSelectDataRouter.STAT_QUERY_COUNT));
+        assertEquals(2, routingContext.getStat(SubSelectDataRouter.STAT_CACHE_HIT_COUNT));
+        route(router, routingContext, routerModel, nodes, "2");
+        assertEquals(4, routingContext.getStat(SubSelectDataRouter.STAT_QUERY_COUNT));
+
+        router.contextCommitted(routingContext);
+        route(router, routingContext, routerModel, nodes, "2");
+        assertEquals(5, routingContext.getStat(SubSelectDataRouter.STAT_QUERY_COUNT));
+        assertEquals(2, routingContext.getStat(SubSelectDataRouter.STAT_CACHE_HIT_COUNT));
+    }
+
+    protected Set<String> route(SubSelectDataRouter router, SimpleRouterContext routingContext, Router routerModel,
+            Set<Node> nodes, String storeId) {
+        Data data = new Data();
+        data.setDataEventType(DataEventType.INSERT);
+        data.setRowData("1," + storeId);
+        data.setTriggerHistory(new TriggerHistory("store_item", "ID", "ID,STORE_ID"));
+        DataMetaData dataMetaData = new DataMetaData(data, new Table(), routerModel, new NodeChannel());
+        return router.routeToNodes(routingContext, dataMetaData, nodes, false, false, null);
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.model.AbstractBatch.Status;
+import org.jumpmind.symmetric.model.BatchAck;
+import org.jumpmind.symmetric.model.BatchAckResult;
+import org.jumpmind.symmetric.model.OutgoingBatch;
+import org.jumpmind.symmetric.service.IConfigurationService;
+import org.jumpmind.symmetric.service.IExtensionService;
+import org.jumpmind.symmetric.service.IOutgoingBatchService;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.jumpmind.symmetric.statistic.IStatisticManager;
+import org.jumpmind.symmetric.transport.IAcknowledgeEventListener;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class AcknowledgeServiceTest {
+    @Test
+    public void testAckInBulk() throws Exception {
+        ISymmetricEngine engine = mock(ISymmetricEngine.class);
+        IParameterService parameterService = mock(IParameterService.class);
+        ISymmetricDialect symmetricDialect = mock(ISymmetricDialect.class);
+        IDatabasePlatform platform = mock(IDatabasePlatform.class);
+        ISqlTemplate sqlTemplate = mock(ISqlTemplate.class);
+        IExtensionService extensionService = mock(IExtensionService.class);
+        IOutgoingBatchService outgoingBatchService = mock(IOutgoingBatchService.class);
+        when(engine.getParameterService()).thenReturn(parameterService);
+        when(engine.getSymmetricDialect()).thenReturn(symmetricDialect);
+        when(engine.getExtensionService()).thenReturn(extensionService);
+        when(engine.getOutgoingBatchService()).thenReturn(outgoingBatchService);
+        when(engine.getStatisticManager()).thenReturn(mock(IStatisticManager.class));
+        when(engine.getConfigurationService()).thenReturn(mock(IConfigurationService.class));
+        when(parameterService.getTablePrefix()).thenReturn("sym");
+        when(symmetricDialect.getPlatform()).thenReturn(platform);
+        when(platform.getSqlTemplate()).thenReturn(sqlTemplate);
+        when(sqlTemplate.startSqlTransaction()).thenReturn(mock(ISqlTransaction.class));
+
+        final List<Long> events = new ArrayList<Long>();
+        IAcknowledgeEventListener listener = new IAcknowledgeEventListener() {
+            public void onAcknowledgeEvent(BatchAck batchInfo) {
+                events.add(batchInfo.getBatchId());
+            }
+        };
+        when(extensionService.getExtensionPointList(IAcknowledgeEventListener.class)).thenReturn(Collections.singletonList(listener));
+        List<OutgoingBatch> outgoingBatches = new ArrayList<OutgoingBatch>();
+        List<BatchAck> acks = new ArrayList<BatchAck>();
+        for (long batchId = 1; batchId <= 3; batchId++) {
+            OutgoingBatch outgoingBatch = new OutgoingBatch("00001", "default", Status.LD);
+            outgoingBatch.setBatchId(batchId);
+            outgoingBatches.add(outgoingBatch);
+            BatchAck ack = new BatchAck(batchId);
+            ack.setNodeId("00001");
+            acks.add(ack);
+        }
+        when(outgoingBatchService.findOutgoingBatches("00001", 1, 3)).thenReturn(outgoingBatches);
+        final List<Integer> saveSizes = new ArrayList<Integer>();
+        doAnswer(new Answer<Object>() {
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                List<OutgoingBatch> batches = invocation.getArgument(1);
+                saveSizes.add(batches.size());
+                for (OutgoingBatch batch : batches) {
+                    if (batch.getBatchId() == 2) {
+                        throw new RuntimeException("Could not save batch 2");
+                    }
+                }
+                return null;
+            }
+        }).when(outgoingBatchService).updateAcknowledgedOutgoingBatches(any(ISqlTransaction.class), anyList(), anyInt());
+
+        List<BatchAckResult> results = new AcknowledgeService(engine).ack(acks);
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isOk());
+        assertFalse(results.get(1).isOk());
+        assertTrue(results.get(2).isOk());
+        assertEquals(3, saveSizes.get(0).intValue());
+        assertEquals(4, saveSizes.size());
+        assertEquals(3, events.size());
+        assertEquals(Long.valueOf(1), events.get(0));
+        assertEquals(Long.valueOf(3), events.get(2));
+        assertEquals(Status.OK, outgoingBatches.get(0).getStatus());
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.jumpmind.symmetric.service.impl.DataExtractorService.BatchLineFinder;
+import org.junit.jupiter.api.Test;
+
+public class BatchLineFinderTest {
+    static final String HEADER = "nodeid,001\nbinary,BASE64\nchannel,default\n";
+    static final String BATCH = "batch,1234\n";
+    static final String BODY = "table,sym_node\nkeys,node_id\ninsert,\"1\",\"2\"\ncommit,1234\n";
+
+    @Test
+    public void testFindInOneBuffer() {
+        byte[] bytes = (HEADER + BATCH + BODY).getBytes(StandardCharsets.UTF_8);
+        assertEquals((HEADER + BATCH).length(), new BatchLineFinder().find(bytes, bytes.length));
+    }
+
+    @Test
+    public void testFindAcrossBuffers() {
+        byte[] bytes = (HEADER + BATCH + BODY).getBytes(StandardCharsets.UTF_8);
+        for (int bufferSize = 1; bufferSize < bytes.length; bufferSize++) {
+            assertEquals("Buffer size " + bufferSize, (HEADER + BATCH).length(), find(bytes, bufferSize));
+        }
+    }
+
+    @Test
+    public void testFindWithCarriageReturnAndSpaces() {
+        String header = "nodeid,001\r\nchannel,default\r\n";
+        byte[] bytes = (header + "batch , 55\r\n" + BODY).getBytes(StandardCharsets.UTF_8);
+        assertEquals((header + "batch , 55\r\n").length(), find(bytes, 7));
+    }
+
+    @Test
+    public void testIgnoreSimilarLines() {
+        String header = "nodeid,001\nbatchsize,5\ncatalog,batch\nbatch_table,1\n";
+        byte[] bytes = (header + BATCH + BODY).getBytes(StandardCharsets.UTF_8);
+        assertEquals((header + BATCH).length(), find(bytes, 5));
+    }
+
+    @Test
+    public void testNotFound() {
+        byte[] bytes = (HEADER + BODY).getBytes(StandardCharsets.UTF_8);
+        assertEquals(-1, find(bytes, 16));
+    }
+
+    protected int find(byte[] bytes, int bufferSize) {
+        BatchLineFinder finder = new BatchLineFinder();
+        byte[] buffer = new byte[bufferSize];
+        for (int offset = 0; offset < bytes.length; offset += bufferSize) {
+            int length = Math.min(bufferSize, bytes.length - offset);
+            System.arraycopy(bytes, offset, buffer, 0, length);
+            int index = finder.find(buffer, length);
+            if (index > -1) {
+                return offset + index;
+            }
+        }
+        return -1;
+    }
+}
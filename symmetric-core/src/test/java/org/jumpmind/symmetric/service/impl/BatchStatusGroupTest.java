@@ -0,0 +1,139 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.io.data.Batch;
+import org.jumpmind.symmetric.io.data.Batch.BatchType;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.model.AbstractBatch.Status;
+import org.jumpmind.symmetric.model.IncomingBatch;
+import org.jumpmind.symmetric.service.IIncomingBatchService;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.jumpmind.symmetric.service.impl.ManageIncomingBatchListener.BatchStatusGroup;
+import org.junit.jupiter.api.Test;
+
+public class BatchStatusGroupTest {
+    @Test
+    public void testExistingBatchesSelectedOnceForRange() {
+        IIncomingBatchService incomingBatchService = mock(IIncomingBatchService.class);
+        IncomingBatch existing = newBatch(10);
+        existing.setStatus(Status.ER);
+        when(incomingBatchService.findIncomingBatchesFrom("00001", 10, 100)).thenReturn(Arrays.asList(existing));
+        when(incomingBatchService.acquireIncomingBatch(any(IncomingBatch.class), any())).thenReturn(true);
+        BatchStatusGroup group = new BatchStatusGroup(incomingBatchService, 100);
+        IncomingBatch batch10 = newBatch(10);
+        IncomingBatch batch11 = newBatch(11);
+        IncomingBatch batch12 = newBatch(12);
+        assertTrue(group.acquire(batch10));
+        assertTrue(group.acquire(batch11));
+        assertTrue(group.acquire(batch12));
+        verify(incomingBatchService, times(1)).findIncomingBatchesFrom("00001", 10, 100);
+        verify(incomingBatchService).acquireIncomingBatch(batch10, existing);
+        verify(incomingBatchService).acquireIncomingBatch(batch11, null);
+        verify(incomingBatchService).acquireIncomingBatch(batch12, null);
+    }
+
+    @Test
+    public void testBatchOutsideRangeSelectsAgain() {
+        IIncomingBatchService incomingBatchService = mock(IIncomingBatchService.class);
+        when(incomingBatchService.findIncomingBatchesFrom("00001", 10, 2)).thenReturn(Arrays.asList(newBatch(10), newBatch(11)));
+        when(incomingBatchService.findIncomingBatchesFrom("00001", 12, 2)).thenReturn(new ArrayList<IncomingBatch>());
+        BatchStatusGroup group = new BatchStatusGroup(incomingBatchService, 2);
+        group.acquire(newBatch(10));
+        group.acquire(newBatch(11));
+        group.acquire(newBatch(12));
+        group.acquire(newBatch(13));
+        verify(incomingBatchService).findIncomingBatchesFrom("00001", 10, 2);
+        verify(incomingBatchService).findIncomingBatchesFrom("00001", 12, 2);
+    }
+
+    @Test
+    public void testBatchAcquiredAgainIsLookedUp() {
+        IIncomingBatchService incomingBatchService = mock(IIncomingBatchService.class);
+        when(incomingBatchService.findIncomingBatchesFrom("00001", 10, 100)).thenReturn(new ArrayList<IncomingBatch>());
+        BatchStatusGroup group = new BatchStatusGroup(incomingBatchService, 100);
+        IncomingBatch first = newBatch(10);
+        IncomingBatch second = newBatch(10);
+        group.acquire(first);
+        group.acquire(second);
+        verify(incomingBatchService).acquireIncomingBatch(first, null);
+        verify(incomingBatchService).acquireIncomingBatch(second);
+    }
+
+    @Test
+    public void testRecordOkBatchesAcquiredWithoutSelect() {
+        IIncomingBatchService incomingBatchService = mock(IIncomingBatchService.class);
+        when(incomingBatchService.isRecordOkBatchesEnabled()).thenReturn(true);
+        when(incomingBatchService.acquireIncomingBatch(any(IncomingBatch.class))).thenReturn(true);
+        ManageIncomingBatchListener listener = new ManageIncomingBatchListener(null, newEngine(incomingBatchService));
+        assertTrue(listener.beforeBatchStarted(new DataContext(new Batch(BatchType.LOAD, 10, "default", BinaryEncoding.BASE64, "00001",
+                "00000", false))));
+        verify(incomingBatchService).acquireIncomingBatch(listener.getCurrentBatch());
+        verify(incomingBatchService, never()).findIncomingBatchesFrom(anyString(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void testRecordOkDisabledSelectsByGroup() {
+        IIncomingBatchService incomingBatchService = mock(IIncomingBatchService.class);
+        when(incomingBatchService.findIncomingBatchesFrom("00001", 10, 100)).thenReturn(new ArrayList<IncomingBatch>());
+        when(incomingBatchService.acquireIncomingBatch(any(IncomingBatch.class), any())).thenReturn(true);
+        ManageIncomingBatchListener listener = new ManageIncomingBatchListener(null, newEngine(incomingBatchService));
+        assertTrue(listener.beforeBatchStarted(new DataContext(new Batch(BatchType.LOAD, 10, "default", BinaryEncoding.BASE64, "00001",
+                "00000", false))));
+        verify(incomingBatchService).findIncomingBatchesFrom("00001", 10, 100);
+        verify(incomingBatchService).acquireIncomingBatch(listener.getCurrentBatch(), null);
+    }
+
+    protected ISymmetricEngine newEngine(IIncomingBatchService incomingBatchService) {
+        IParameterService parameterService = mock(IParameterService.class);
+        when(parameterService.is(ParameterConstants.DATA_LOADER_ENABLED)).thenReturn(true);
+        when(parameterService.getInt(ParameterConstants.INCOMING_BATCH_SELECT_GROUP_SIZE, 1)).thenReturn(100);
+        ISymmetricEngine engine = mock(ISymmetricEngine.class);
+        when(engine.getParameterService()).thenReturn(parameterService);
+        when(engine.getIncomingBatchService()).thenReturn(incomingBatchService);
+        return engine;
+    }
+
+    protected IncomingBatch newBatch(long batchId) {
+        IncomingBatch batch = new IncomingBatch();
+        batch.setBatchId(batchId);
+        batch.setNodeId("00001");
+        batch.setStatus(Status.LD);
+        return batch;
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.model.Channel;
+import org.jumpmind.symmetric.model.NodeCommunication;
+import org.jumpmind.symmetric.model.NodeCommunication.CommunicationType;
+import org.jumpmind.symmetric.model.RemoteNodeStatus;
+import org.jumpmind.symmetric.model.RemoteNodeStatuses;
+import org.jumpmind.symmetric.service.IClusterService;
+import org.jumpmind.symmetric.service.IConfigurationService;
+import org.jumpmind.symmetric.service.INodeCommunicationService.INodeCommunicationExecutor;
+import org.jumpmind.symmetric.service.INodeService;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.jumpmind.util.VirtualThreadFactory;
+
+/**
+ * Simulates one round of pulls from many nodes through {@link NodeCommunicationService#execute} to compare its platform thread pool against the same
+ * pool backed by virtual threads. Each node is served by a stub transport that blocks for the network latency of a request and response, the way an HTTP
+ * pull waits on a remote node. The platform pool is capped at 200 threads as a practical limit for one server. Run with optional arguments of the number
+ * of nodes, the number of threads and the latency in milliseconds.
+ */
+public class NodeCommunicationPerf {
+    public static void main(String[] args) throws Exception {
+        int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int threadCount = args.length > 1 ? Integer.parseInt(args[1]) : nodeCount;
+        long latencyMillis = args.length > 2 ? Long.parseLong(args[2]) : 200;
+        StubTransport transport = new StubTransport(latencyMillis);
+        System.out.println(String.format("%d nodes, %d threads, %d ms latency", nodeCount, threadCount, latencyMillis));
+        run("platform", false, nodeCount, Math.min(threadCount, 200), transport);
+        if (VirtualThreadFactory.isSupported()) {
+            run("virtual", true, nodeCount, threadCount, transport);
+        } else {
+            System.out.println("virtual: not supported on Java " + System.getProperty("java.version"));
+        }
+    }
+
+    protected static void run(String name, boolean virtualThreads, int nodeCount, int threadCount, final StubTransport transport)
+            throws InterruptedException {
+        NodeCommunicationService service = createService(virtualThreads, threadCount);
+        RemoteNodeStatuses statuses = new RemoteNodeStatuses(new HashMap<String, Channel>());
+        final CountDownLatch done = new CountDownLatch(nodeCount);
+        INodeCommunicationExecutor executor = new INodeCommunicationExecutor() {
+            public void execute(NodeCommunication nodeCommunication, RemoteNodeStatus status) {
+                try {
+                    transport.pull(nodeCommunication.getNodeId());
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+        transport.peakPlatformThreads = 0;
+        long ts = System.currentTimeMillis();
+        for (int i = 0; i < nodeCount; i++) {
+            NodeCommunication nodeCommunication = new NodeCommunication();
+            nodeCommunication.setNodeId(Integer.toString(i));
+            nodeCommunication.setQueue("default");
+            nodeCommunication.setCommunicationType(CommunicationType.PULL);
+            if (!service.execute(nodeCommunication, statuses, executor)) {
+                done.countDown();
+            }
+        }
+        done.await();
+        long millis = System.currentTimeMillis() - ts;
+        service.stop();
+        System.out.println(String.format("%s: %d threads pulled from %d nodes in %,d ms (%,.0f nodes/sec), %d live platform threads at peak", name,
+                threadCount, nodeCount, millis, nodeCount * 1000d / Math.max(1, millis), transport.peakPlatformThreads));
+    }
+
+    /**
+     * Builds the service without a database. Clustering is off, so node communication is locked in memory and never saved.
+     */
+    protected static NodeCommunicationService createService(boolean virtualThreads, int threadCount) {
+        IParameterService parameterService = mock(IParameterService.class);
+        when(parameterService.getTablePrefix()).thenReturn("sym");
+        when(parameterService.getEngineName()).thenReturn("perf");
+        when(parameterService.getInt(ParameterConstants.PULL_THREAD_COUNT_PER_SERVER, 1)).thenReturn(threadCount);
+        when(parameterService.getInt(ParameterConstants.PULL_LOCK_TIMEOUT_MS, 7200000)).thenReturn(7200000);
+        when(parameterService.is(ParameterConstants.NODE_COMMUNICATION_VIRTUAL_THREADS_ENABLED, false)).thenReturn(virtualThreads);
+        ISymmetricDialect symmetricDialect = mock(ISymmetricDialect.class);
+        when(symmetricDialect.getPlatform()).thenReturn(mock(IDatabasePlatform.class));
+        IClusterService clusterService = mock(IClusterService.class);
+        when(clusterService.getServerId()).thenReturn("perf");
+        return new NodeCommunicationService(clusterService, mock(INodeService.class), parameterService, mock(IConfigurationService.class),
+                symmetricDialect);
+    }
+
+    /**
+     * Stands in for the HTTP transport to a remote node by blocking for the round trip of a request
+     */
+    static class StubTransport {
+        final long latencyMillis;
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        volatile int peakPlatformThreads;
+
+        StubTransport(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        String pull(String nodeId) {
+            int liveThreads = threadBean.getThreadCount();
+            if (liveThreads > peakPlatformThreads) {
+                peakPlatformThreads = liveThreads;
+            }
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "batch for node " + nodeId;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.jumpmind.symmetric.config.IParameterChangeListener;
+import org.jumpmind.symmetric.config.ParameterSnapshot;
+import org.junit.jupiter.api.Test;
+
+public class ParameterSnapshotTest {
+    @Test
+    public void testTypedValues() {
+        Properties properties = new Properties();
+        properties.setProperty("int", " 42 ");
+        properties.setProperty("long", "9000000000");
+        properties.setProperty("long.padded", " 7 ");
+        properties.setProperty("decimal", "1.5");
+        properties.setProperty("flag.one", "1");
+        properties.setProperty("flag.true", "TRUE ");
+        properties.setProperty("text", "hello");
+        properties.setProperty("blank", "  ");
+        MockParameterService parameterService = new MockParameterService(properties);
+        assertEquals(42, parameterService.getInt("int"));
+        assertEquals(9000000000l, parameterService.getLong("long"));
+        assertEquals(3, parameterService.getInt("long", 3));
+        assertEquals(5, parameterService.getLong("long.padded", 5));
+        assertEquals(new BigDecimal("1.5"), parameterService.getDecimal("decimal"));
+        assertTrue(parameterService.is("flag.one"));
+        assertTrue(parameterService.is("flag.true"));
+        assertFalse(parameterService.is("text", true));
+        assertEquals(11, parameterService.getInt("text", 11));
+        assertEquals("hello", parameterService.getString("text"));
+        assertEquals("default", parameterService.getString("blank", "default"));
+        assertTrue(parameterService.is("blank", true));
+        assertNull(parameterService.getString("missing"));
+    }
+
+    @Test
+    public void testSnapshotIsReusedUntilReread() {
+        Properties properties = new Properties();
+        properties.setProperty("a", "1");
+        MockParameterService parameterService = new MockParameterService(properties);
+        ParameterSnapshot snapshot = parameterService.getParameterSnapshot();
+        assertSame(snapshot, parameterService.getParameterSnapshot());
+        properties.setProperty("a", "2");
+        assertEquals(1, parameterService.getInt("a"));
+        parameterService.rereadParameters();
+        assertEquals(2, parameterService.getInt("a"));
+        assertEquals(1, snapshot.getInt("a"));
+    }
+
+    @Test
+    public void testChangeListener() {
+        Properties properties = new Properties();
+        properties.setProperty("same", "x");
+        properties.setProperty("changed", "1");
+        properties.setProperty("removed", "y");
+        MockParameterService parameterService = new MockParameterService(properties);
+        parameterService.getParameterSnapshot();
+        final List<Set<String>> changes = new ArrayList<Set<String>>();
+        parameterService.addParameterChangeListener(new IParameterChangeListener() {
+            public void parametersChanged(ParameterSnapshot oldParameters, ParameterSnapshot newParameters, Set<String> changedKeys) {
+                changes.add(changedKeys);
+            }
+        });
+        parameterService.rereadParameters();
+        assertEquals(0, changes.size());
+        properties.setProperty("changed", "2");
+        properties.remove("removed");
+        properties.setProperty("added", "z");
+        parameterService.rereadParameters();
+        assertEquals(1, changes.size());
+        assertEquals(new HashSet<String>(Arrays.asList("changed", "removed", "added")), changes.get(0));
+    }
+}
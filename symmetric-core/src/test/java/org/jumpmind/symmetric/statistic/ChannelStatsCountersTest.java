@@ -0,0 +1,81 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.statistic;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class ChannelStatsCountersTest {
+    @Test
+    public void testSnapshotStartsNewPeriod() {
+        ChannelStatsCounters counters = new ChannelStatsCounters("default");
+        counters.add(ChannelStatsCounters.DATA_SENT, 5);
+        counters.add(ChannelStatsCounters.DATA_BYTES_SENT, 500);
+        counters.setDataUnRouted(7);
+        ChannelStats stats = counters.peek("00000", "server");
+        assertEquals(5, stats.getDataSent());
+        assertEquals(500, stats.getDataBytesSent());
+        assertEquals(7, stats.getDataUnRouted());
+        stats = counters.snapshot("00000", "server", new Date());
+        assertEquals(5, stats.getDataSent());
+        assertEquals("default", stats.getChannelId());
+        counters.add(ChannelStatsCounters.DATA_SENT, 2);
+        stats = counters.snapshot("00000", "server", new Date());
+        assertEquals(2, stats.getDataSent());
+        assertEquals(0, stats.getDataBytesSent());
+        assertEquals(0, stats.getDataUnRouted());
+    }
+
+    @Test
+    public void testNoIncrementsLostDuringSnapshots() throws Exception {
+        final ChannelStatsCounters counters = new ChannelStatsCounters("default");
+        final int threadCount = 8;
+        final int incrementsPerThread = 200000;
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread() {
+                public void run() {
+                    for (int j = 0; j < incrementsPerThread; j++) {
+                        counters.add(ChannelStatsCounters.DATA_LOADED, 1);
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        long total = 0;
+        boolean running = true;
+        while (running) {
+            total += counters.snapshot("00000", "server", new Date()).getDataLoaded();
+            running = false;
+            for (Thread thread : threads) {
+                running |= thread.isAlive();
+            }
+        }
+        total += counters.snapshot("00000", "server", new Date()).getDataLoaded();
+        assertEquals(threadCount * incrementsPerThread, total);
+    }
+}
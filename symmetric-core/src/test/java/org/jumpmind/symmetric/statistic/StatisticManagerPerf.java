@@ -0,0 +1,134 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.statistic;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares channel stats updates guarded by the fair {@link Semaphore} that {@link StatisticManager} used to take for every increment against the
+ * {@link ChannelStatsCounters}, with 1 to 64 updater threads and a flush every 100 milliseconds. Run with an optional argument of the milliseconds to run
+ * each thread count.
+ */
+public class StatisticManagerPerf {
+    static final int[] THREAD_COUNTS = { 1, 2, 4, 8, 16, 32, 64 };
+    static final int NUMBER_OF_PERMITS = 1000;
+    static final long FLUSH_MILLIS = 100;
+
+    interface Updater {
+        void increment(long count);
+
+        long flush();
+    }
+
+    public static void main(String[] args) throws Exception {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 2000;
+        for (int threadCount : THREAD_COUNTS) {
+            long semaphoreOps = run(new SemaphoreUpdater(), threadCount, millis);
+            long counterOps = run(new CountersUpdater(), threadCount, millis);
+            System.out.println(String.format("threads=%2d semaphore=%,14d ops/sec counters=%,14d ops/sec", threadCount,
+                    semaphoreOps * 1000 / millis, counterOps * 1000 / millis));
+        }
+    }
+
+    protected static long run(final Updater updater, int threadCount, long millis) throws Exception {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final LongAdder operations = new LongAdder();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < threadCount; i++) {
+            threads.add(new Thread() {
+                public void run() {
+                    long count = 0;
+                    while (running.get()) {
+                        updater.increment(1);
+                        count++;
+                    }
+                    operations.add(count);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        long flushed = 0;
+        long endTime = System.currentTimeMillis() + millis;
+        while (System.currentTimeMillis() < endTime) {
+            Thread.sleep(FLUSH_MILLIS);
+            flushed += updater.flush();
+        }
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        flushed += updater.flush();
+        if (flushed != operations.sum()) {
+            throw new IllegalStateException(updater.getClass().getSimpleName() + " flushed " + flushed + " of " + operations.sum() + " increments");
+        }
+        return operations.sum();
+    }
+
+    /**
+     * How {@link StatisticManager} updated channel stats before it used {@link ChannelStatsCounters}. The permits let updaters run together, so the
+     * plain fields of {@link ChannelStats} lost increments; the monitor here keeps the count exact so that it can be checked.
+     */
+    static class SemaphoreUpdater implements Updater {
+        Semaphore channelStatsLock = new Semaphore(NUMBER_OF_PERMITS, true);
+        ChannelStats stats = new ChannelStats("00000", "server", new Date(), null, "default");
+
+        public void increment(long count) {
+            channelStatsLock.acquireUninterruptibly();
+            try {
+                synchronized (stats) {
+                    stats.incrementDataSent(count);
+                }
+            } finally {
+                channelStatsLock.release();
+            }
+        }
+
+        public long flush() {
+            channelStatsLock.acquireUninterruptibly(NUMBER_OF_PERMITS);
+            try {
+                long count = stats.getDataSent();
+                stats = new ChannelStats("00000", "server", new Date(), null, "default");
+                return count;
+            } finally {
+                channelStatsLock.release(NUMBER_OF_PERMITS);
+            }
+        }
+    }
+
+    static class CountersUpdater implements Updater {
+        ChannelStatsCounters counters = new ChannelStatsCounters("default");
+
+        public void increment(long count) {
+            counters.add(ChannelStatsCounters.DATA_SENT, count);
+        }
+
+        public long flush() {
+            return counters.snapshot("00000", "server", new Date()).getDataSent();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlRowMapper;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.jumpmind.db.sql.Row;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.data.transform.LookupColumnTransform;
+import org.jumpmind.symmetric.io.data.transform.TransformColumn;
+import org.jumpmind.symmetric.io.data.transform.TransformPoint;
+import org.jumpmind.symmetric.io.data.transform.TransformTable;
+import org.jumpmind.symmetric.io.data.transform.TransformedData;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class LookupColumnTransformTest {
+    static final String SQL = "select name from dim where code = :CODE";
+    IParameterService parameterService;
+    IDatabasePlatform platform;
+    ISqlTemplate sqlTemplate;
+    DataContext context;
+    LookupColumnTransform transform;
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    public void setUp() throws Exception {
+        parameterService = mock(IParameterService.class);
+        when(parameterService.is(ParameterConstants.CACHE_TRANSFORM_LOOKUP_ENABLED)).thenReturn(true);
+        when(parameterService.getInt(eq(ParameterConstants.CACHE_TRANSFORM_LOOKUP_MAX_SIZE), anyInt())).thenReturn(100);
+        when(parameterService.getLong(eq(ParameterConstants.CACHE_TRANSFORM_LOOKUP_TIMEOUT_IN_MS), anyLong())).thenReturn(60000L);
+        sqlTemplate = mock(ISqlTemplate.class);
+        when(sqlTemplate.query(eq(SQL), any(ISqlRowMapper.class), anyMap())).thenAnswer(new Answer<List<String>>() {
+            public List<String> answer(InvocationOnMock invocation) {
+                Map<String, Object> namedParams = (Map<String, Object>) invocation.getArguments()[2];
+                List<String> values = new ArrayList<String>();
+                if ("A".equals(namedParams.get("CODE"))) {
+                    values.add("Alpha");
+                }
+                return values;
+            }
+        });
+        platform = mock(IDatabasePlatform.class);
+        when(platform.getSqlTemplate()).thenReturn(sqlTemplate);
+        context = new DataContext();
+        transform = new LookupColumnTransform(parameterService);
+    }
+
+    @Test
+    public void testCachedAndNoRowResults() throws Exception {
+        assertEquals("Alpha", lookup("A"));
+        assertEquals("Alpha", lookup("A"));
+        assertNull(lookup("X"));
+        assertNull(lookup("X"));
+        verifyQueries(2);
+    }
+
+    @Test
+    public void testLoadingLookupTableBypassesCache() throws Exception {
+        assertEquals("Alpha", lookup("A"));
+        transform.beforeWrite(context, new Table("DIM"), null);
+        assertEquals("Alpha", lookup("A"));
+        assertEquals("Alpha", lookup("A"));
+        verifyQueries(3);
+        transform.batchCommitted(context);
+        assertEquals("Alpha", lookup("A"));
+        assertEquals("Alpha", lookup("A"));
+        verifyQueries(4);
+    }
+
+    @Test
+    public void testLoadingLookupTableBypassesColdCache() throws Exception {
+        transform.beforeWrite(context, new Table("DIM"), null);
+        assertEquals("Alpha", lookup("A"));
+        assertEquals("Alpha", lookup("A"));
+        verifyQueries(2);
+        transform.batchRolledback(context);
+        assertEquals("Alpha", lookup("A"));
+        assertEquals("Alpha", lookup("A"));
+        verifyQueries(3);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testInvalidatedDuringQueryIsNotCached() throws Exception {
+        final DataContext otherContext = new DataContext();
+        transform.beforeWrite(otherContext, new Table("DIM"), null);
+        when(sqlTemplate.query(eq(SQL), any(ISqlRowMapper.class), anyMap())).thenAnswer(new Answer<List<String>>() {
+            public List<String> answer(InvocationOnMock invocation) {
+                transform.batchCommitted(otherContext);
+                List<String> values = new ArrayList<String>();
+                values.add("Alpha");
+                return values;
+            }
+        });
+        assertEquals("Alpha", lookup("A"));
+        assertEquals("Alpha", lookup("A"));
+        verifyQueries(2);
+        assertEquals("Alpha", lookup("A"));
+        verifyQueries(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testPreload() throws Exception {
+        when(parameterService.is(ParameterConstants.CACHE_TRANSFORM_LOOKUP_PRELOAD)).thenReturn(true);
+        when(sqlTemplate.query(eq("select code as sym_lookup_key_0, name as sym_lookup_value from dim"), eq(100), any(ISqlRowMapper.class)))
+                .thenAnswer(new Answer<List<Object>>() {
+                    public List<Object> answer(InvocationOnMock invocation) {
+                        ISqlRowMapper<Object> mapper = (ISqlRowMapper<Object>) invocation.getArguments()[2];
+                        List<Object> rows = new ArrayList<Object>();
+                        Row row = new Row(2);
+                        row.put("sym_lookup_key_0", "A");
+                        row.put("sym_lookup_value", "Alpha");
+                        rows.add(mapper.mapRow(row));
+                        return rows;
+                    }
+                });
+        assertEquals("Alpha", lookup("A"));
+        verifyQueries(0);
+        assertNull(lookup("X"));
+        verifyQueries(1);
+    }
+
+    protected String lookup(String code) throws Exception {
+        TransformColumn column = new TransformColumn("code", "name", false, "lookup", SQL);
+        TransformTable table = new TransformTable("fact", "fact", TransformPoint.LOAD, column);
+        Map<String, String> sourceValues = new HashMap<String, String>();
+        sourceValues.put("CODE", code);
+        TransformedData data = new TransformedData(table, DataEventType.INSERT, new HashMap<String, String>(), null, sourceValues);
+        return transform.transform(platform, context, column, data, sourceValues, code, null).getNewValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void verifyQueries(int count) {
+        verify(sqlTemplate, times(count)).query(eq(SQL), any(ISqlRowMapper.class), anyMap());
+    }
+}
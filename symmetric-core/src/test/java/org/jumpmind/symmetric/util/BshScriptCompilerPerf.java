@@ -0,0 +1,143 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.util;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jumpmind.symmetric.service.IExtensionService;
+import org.jumpmind.symmetric.util.BshScriptCompiler.ICompiledScript;
+import org.jumpmind.symmetric.util.BshScriptCompiler.Variables;
+import org.jumpmind.util.SimpleClassCompiler;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import bsh.Interpreter;
+
+/**
+ * Compares running representative bean shell column transforms in the interpreter, the way {@link org.jumpmind.symmetric.io.data.transform.BshColumnTransform}
+ * does, against running them compiled by the {@link BshScriptCompiler}. Run with optional arguments of the number of rows and the number of source columns.
+ */
+public class BshScriptCompilerPerf {
+    static final String[] SCRIPTS = {
+            "currentValue == null ? null : currentValue.trim().toUpperCase()",
+            "FIRST_NAME + \" \" + LAST_NAME",
+            "if (\"D\".equals(STATUS)) {\n  return \"deleted\";\n}\nreturn currentValue;",
+            "String amount = AMOUNT;\nif (amount == null || amount.length() == 0) {\n  return \"0\";\n}\n"
+                    + "return new java.math.BigDecimal(amount).setScale(2, java.math.RoundingMode.HALF_UP).toString();" };
+
+    public static void main(String[] args) throws Exception {
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int columnCount = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        final SimpleClassCompiler simpleClassCompiler = new SimpleClassCompiler();
+        IExtensionService extensionService = mock(IExtensionService.class);
+        when(extensionService.getCompiledClass(anyString())).thenAnswer(new Answer<Object>() {
+            public Object answer(InvocationOnMock invocation) throws Exception {
+                return simpleClassCompiler.getCompiledClass((String) invocation.getArguments()[0]);
+            }
+        });
+        BshScriptCompiler scriptCompiler = new BshScriptCompiler(extensionService);
+        System.out.println(String.format("Transforming %,d rows with %d source columns", rowCount, columnCount));
+        for (String script : SCRIPTS) {
+            Map<String, String> sourceValues = buildSourceValues(columnCount);
+            long ts = System.currentTimeMillis();
+            Object[] expected = interpret(script, sourceValues, rowCount);
+            long interpretMillis = System.currentTimeMillis() - ts;
+            ts = System.currentTimeMillis();
+            Object[] actual = compile(scriptCompiler, script, sourceValues, rowCount);
+            long compileMillis = System.currentTimeMillis() - ts;
+            if (!java.util.Arrays.equals(expected, actual)) {
+                throw new IllegalStateException("Results differ for script: " + script);
+            }
+            System.out.println(String.format("%s\n  interpreted=%,d ms (%,.0f rows/sec) compiled=%,d ms (%,.0f rows/sec)", script, interpretMillis,
+                    rowsPerSecond(rowCount, interpretMillis), compileMillis, rowsPerSecond(rowCount, compileMillis)));
+        }
+    }
+
+    protected static double rowsPerSecond(int rowCount, long millis) {
+        return rowCount * 1000d / Math.max(1, millis);
+    }
+
+    protected static Map<String, String> buildSourceValues(int columnCount) {
+        Map<String, String> sourceValues = new LinkedHashMap<String, String>();
+        sourceValues.put("FIRST_NAME", "Jane");
+        sourceValues.put("LAST_NAME", "Doe");
+        sourceValues.put("STATUS", "A");
+        sourceValues.put("AMOUNT", "12.345");
+        for (int i = sourceValues.size(); i < columnCount; i++) {
+            sourceValues.put("COLUMN_" + i, "value " + i);
+        }
+        return sourceValues;
+    }
+
+    protected static String currentValue(int row) {
+        return row % 10 == 0 ? null : " value " + row + " ";
+    }
+
+    protected static Object[] interpret(String script, Map<String, String> sourceValues, int rowCount) throws Exception {
+        Object[] results = new Object[rowCount];
+        Interpreter interpreter = new Interpreter();
+        interpreter.eval(String.format("transform_1() {\n%s\n}", script));
+        for (int row = 0; row < rowCount; row++) {
+            sourceValues.put("STATUS", row % 3 == 0 ? "D" : "A");
+            interpreter.set("currentValue", currentValue(row));
+            interpreter.set("oldValue", null);
+            interpreter.set("channelId", "default");
+            for (String columnName : sourceValues.keySet()) {
+                interpreter.set(columnName.toUpperCase(), sourceValues.get(columnName));
+                interpreter.set(columnName, sourceValues.get(columnName));
+            }
+            results[row] = interpreter.eval("transform_1()");
+            for (String columnName : sourceValues.keySet()) {
+                interpreter.unset(columnName.toUpperCase());
+                interpreter.unset(columnName);
+            }
+        }
+        return results;
+    }
+
+    protected static Object[] compile(BshScriptCompiler scriptCompiler, String script, Map<String, String> sourceValues, int rowCount)
+            throws Exception {
+        Object[] results = new Object[rowCount];
+        Variables variables = new Variables();
+        for (int row = 0; row < rowCount; row++) {
+            sourceValues.put("STATUS", row % 3 == 0 ? "D" : "A");
+            variables.clear();
+            variables.set("currentValue", String.class, currentValue(row));
+            variables.set("oldValue", String.class, null);
+            variables.set("channelId", String.class, "default");
+            for (String columnName : sourceValues.keySet()) {
+                variables.set(columnName.toUpperCase(), String.class, sourceValues.get(columnName));
+                variables.set(columnName, String.class, sourceValues.get(columnName));
+            }
+            ICompiledScript compiledScript = scriptCompiler.getCompiledScript(script, variables);
+            if (compiledScript == null) {
+                throw new IllegalStateException("Could not compile script: " + script);
+            }
+            results[row] = compiledScript.execute(variables.getValues());
+        }
+        return results;
+    }
+}
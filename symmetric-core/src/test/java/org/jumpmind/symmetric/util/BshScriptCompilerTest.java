@@ -0,0 +1,121 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jumpmind.symmetric.service.IExtensionService;
+import org.jumpmind.symmetric.util.BshScriptCompiler.ICompiledScript;
+import org.jumpmind.symmetric.util.BshScriptCompiler.Variables;
+import org.jumpmind.util.SimpleClassCompiler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class BshScriptCompilerTest {
+    IExtensionService extensionService;
+    BshScriptCompiler scriptCompiler;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        final SimpleClassCompiler simpleClassCompiler = new SimpleClassCompiler();
+        extensionService = mock(IExtensionService.class);
+        when(extensionService.getCompiledClass(anyString())).thenAnswer(new Answer<Object>() {
+            public Object answer(InvocationOnMock invocation) throws Exception {
+                return simpleClassCompiler.getCompiledClass((String) invocation.getArguments()[0]);
+            }
+        });
+        scriptCompiler = new BshScriptCompiler(extensionService);
+    }
+
+    @Test
+    public void testExpressionReturnsValue() throws Exception {
+        Variables variables = new Variables();
+        variables.set("S1", String.class, "a");
+        variables.set("ID", String.class, "1");
+        ICompiledScript script = scriptCompiler.getCompiledScript("S1+\"-\"+ID", variables);
+        assertNotNull(script);
+        assertEquals("a-1", script.execute(variables.getValues()));
+        variables.clear();
+        variables.set("S1", String.class, "b");
+        variables.set("ID", String.class, "2");
+        assertEquals("b-2", scriptCompiler.getCompiledScript("S1+\"-\"+ID", variables).execute(variables.getValues()));
+        verify(extensionService, times(1)).getCompiledClass(anyString());
+    }
+
+    @Test
+    public void testLastStatementReturnsValue() throws Exception {
+        Set<String> targetNodes = new HashSet<String>();
+        Variables variables = new Variables();
+        variables.set("targetNodes", Set.class, targetNodes);
+        variables.set("STORE_ID", Object.class, "001");
+        String router = "// route to the store\nif (STORE_ID != null) {\n  targetNodes.add(STORE_ID.toString());\n}\ntargetNodes.add(\"corp\"); ";
+        ICompiledScript script = scriptCompiler.getCompiledScript(router, variables);
+        assertNotNull(script);
+        assertEquals(Boolean.TRUE, script.execute(variables.getValues()));
+        assertTrue(targetNodes.contains("001"));
+        assertTrue(targetNodes.contains("corp"));
+    }
+
+    @Test
+    public void testReturnFromBlocks() throws Exception {
+        Variables variables = new Variables();
+        variables.set("currentValue", String.class, "x");
+        String transform = "if (currentValue == null) {\n  return \"none\";\n} else {\n  return currentValue.toUpperCase();\n}";
+        assertEquals("X", scriptCompiler.getCompiledScript(transform, variables).execute(variables.getValues()));
+    }
+
+    @Test
+    public void testLooseTypingIsInterpreted() throws Exception {
+        Variables variables = new Variables();
+        variables.set("currentValue", String.class, "x");
+        String transform = "count = 1;\nreturn currentValue + count;";
+        assertNull(scriptCompiler.getCompiledScript(transform, variables));
+        assertNull(scriptCompiler.getCompiledScript(transform, variables));
+        assertNull(scriptCompiler.getCompiledScript("return \"unbalanced\"; }", variables));
+        verify(extensionService, times(1)).getCompiledClass(anyString());
+    }
+
+    @Test
+    public void testVariablesChangeRecompiles() throws Exception {
+        Variables variables = new Variables();
+        variables.set("A", String.class, "1");
+        assertEquals("1", scriptCompiler.getCompiledScript("A", variables).execute(variables.getValues()));
+        variables.clear();
+        variables.set("B", String.class, "2");
+        variables.set("A", String.class, "3");
+        variables.set("A", String.class, "4");
+        assertEquals("4", scriptCompiler.getCompiledScript("A", variables).execute(variables.getValues()));
+        verify(extensionService, times(2)).getCompiledClass(anyString());
+    }
+}
@@ -54,9 +54,7 @@ import java.sql.Array;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -114,8 +112,7 @@ public abstract class AbstractDatabasePlatform implements IDatabasePlatform {
     /* The model reader for this platform. */
     protected IDdlReader ddlReader;
     protected IDdlBuilder ddlBuilder;
-    protected Map<String, Table> tableCache = Collections.synchronizedMap(new HashMap<String, Table>());
-    private long lastTimeCachedModelClearedInMs = System.currentTimeMillis();
+    protected TableMetadataCache tableCache = new TableMetadataCache(this);
     protected long clearCacheModelTimeoutInMs = DateUtils.MILLIS_PER_HOUR;
     protected String defaultSchema;
     protected String defaultCatalog;
@@ -324,8 +321,19 @@ public abstract class AbstractDatabasePlatform implements IDatabasePlatform {
     }
 
     public void resetCachedTableModel() {
-        this.tableCache = Collections.synchronizedMap(new HashMap<String, Table>());
-        lastTimeCachedModelClearedInMs = System.currentTimeMillis();
+        tableCache.invalidateAll();
+    }
+
+    public void resetCachedTableModel(String catalogName, String schemaName, String tableName) {
+        tableCache.invalidate(catalogName, schemaName, tableName);
+        if (catalogName == null || schemaName == null) {
+            tableCache.invalidate(catalogName == null ? getDefaultCatalog() : catalogName, schemaName == null ? getDefaultSchema() : schemaName,
+                    tableName);
+        }
+    }
+
+    public TableMetadataCache getTableMetadataCache() {
+        return tableCache;
     }
 
     public Table getTableFromCache(String tableName, boolean forceReread) {
@@ -333,24 +341,7 @@ public abstract class AbstractDatabasePlatform implements IDatabasePlatform {
     }
 
     public Table getTableFromCache(String catalogName, String schemaName, String tableName, boolean forceReread) {
-        if (System.currentTimeMillis() - lastTimeCachedModelClearedInMs > clearCacheModelTimeoutInMs) {
-            resetCachedTableModel();
-        }
-        Map<String, Table> model = tableCache;
-        String key = Table.getFullyQualifiedTableName(catalogName, schemaName, tableName);
-        Table retTable = model != null ? model.get(key) : null;
-        if (retTable == null || forceReread) {
-            try {
-                Table table = readTableFromDatabase(catalogName, schemaName, tableName);
-                tableCache.put(key, table);
-                retTable = table;
-            } catch (RuntimeException ex) {
-                throw ex;
-            } catch (Exception ex) {
-                throw new RuntimeException(ex);
-            }
-        }
-        return retTable;
+        return tableCache.get(catalogName, schemaName, tableName, forceReread);
     }
 
     public Object[] getObjectValues(BinaryEncoding encoding, Table table, String[] columnNames, String[] values) {
@@ -371,89 +362,135 @@ public abstract class AbstractDatabasePlatform implements IDatabasePlatform {
     public Object[] getObjectValues(BinaryEncoding encoding, String[] values, Column[] orderedMetaData, boolean useVariableDates,
             boolean fitToColumn) {
         if (values != null) {
-            List<Object> list = new ArrayList<Object>(values.length);
-            for (int i = 0; i < values.length; i++) {
-                String value = values[i];
-                Column column = orderedMetaData.length > i ? orderedMetaData[i] : null;
-                try {
-                    if (column != null) {
-                        list.add(getObjectValue(value, column, encoding, useVariableDates, fitToColumn));
-                    }
-                } catch (Exception ex) {
-                    String valueTrimmed = FormatUtils.abbreviateForLogging(value);
-                    throw new RuntimeException("Could not convert a value of " + valueTrimmed + " for column " + column.getName()
-                            + " of mapped type " + column.getMappedType() + " jdbc type "
-                            + column.getJdbcTypeName() + " (" + column.getJdbcTypeCode() + ")", ex);
-                }
-            }
-            return list.toArray();
+            return getObjectValues(getValueConverters(encoding, orderedMetaData, useVariableDates, fitToColumn), values, orderedMetaData);
         } else {
             return null;
         }
     }
 
-    protected Object getObjectValue(String value, Column column, BinaryEncoding encoding, boolean useVariableDates, boolean fitToColumn)
-            throws DecoderException {
-        Object objectValue = value;
-        int type = column.getMappedTypeCode();
-        if ((value == null || (getDdlBuilder().getDatabaseInfo().isEmptyStringNulled() && value.equals(""))) && column.isRequired()
-                && column.isOfTextType()) {
-            objectValue = REQUIRED_FIELD_NULL_SUBSTITUTE;
-        }
-        if (value != null) {
-            if (type == Types.DATE || type == Types.TIMESTAMP || type == Types.TIME) {
-                objectValue = parseDate(type, value, useVariableDates);
-            } else if (type == Types.CHAR) {
-                if ((StringUtils.isBlank(value) && getDdlBuilder().getDatabaseInfo().isBlankCharColumnSpacePadded())
-                        || (StringUtils.isNotBlank(value) && getDdlBuilder().getDatabaseInfo().isNonBlankCharColumnSpacePadded())) {
-                    if (column.getSizeAsInt() != column.getCharOctetLength()) {
-                        // using multiple-byte character set, the size is maximum number of characters
-                        objectValue = StringUtils.rightPad(value, column.getSizeAsInt(), ' ');
-                    } else {
-                        // single-byte character set or field defined as number of bytes
-                        objectValue = value + StringUtils.repeat(" ", column.getCharOctetLength() - value.getBytes(Charset.defaultCharset()).length);
+    public IValueConverter[] getValueConverters(BinaryEncoding encoding, Column[] orderedMetaData, boolean useVariableDates, boolean fitToColumn) {
+        IValueConverter[] converters = new IValueConverter[orderedMetaData.length];
+        for (int i = 0; i < orderedMetaData.length; i++) {
+            if (orderedMetaData[i] != null) {
+                converters[i] = getValueConverter(orderedMetaData[i], encoding, useVariableDates, fitToColumn);
+            }
+        }
+        return converters;
+    }
+
+    /**
+     * Decide how values of the column are converted once, so that converting a value only runs the conversion for its type. Platforms that
+     * change how values are converted override this, and {@link #getObjectValue(String, Column, BinaryEncoding, boolean, boolean)} uses it too.
+     */
+    protected IValueConverter getValueConverter(final Column column, final BinaryEncoding encoding, final boolean useVariableDates,
+            final boolean fitToColumn) {
+        final int type = column.getMappedTypeCode();
+        final DatabaseInfo databaseInfo = getDdlBuilder().getDatabaseInfo();
+        TypeConverter typeConverter = null;
+        if (type == Types.DATE || type == Types.TIMESTAMP || type == Types.TIME) {
+            typeConverter = new TypeConverter() {
+                public Object convert(String value, Object objectValue) {
+                    return parseDate(type, value, useVariableDates);
+                }
+            };
+        } else if (type == Types.CHAR) {
+            final boolean blankPadded = databaseInfo.isBlankCharColumnSpacePadded();
+            final boolean nonBlankPadded = databaseInfo.isNonBlankCharColumnSpacePadded();
+            final boolean trimmed = databaseInfo.isCharColumnSpaceTrimmed();
+            final int size = column.getSizeAsInt();
+            final int charOctetLength = column.getCharOctetLength();
+            typeConverter = new TypeConverter() {
+                public Object convert(String value, Object objectValue) {
+                    boolean blank = StringUtils.isBlank(value);
+                    if ((blank && blankPadded) || (!blank && nonBlankPadded)) {
+                        if (size != charOctetLength) {
+                            return StringUtils.rightPad(value, size, ' ');
+                        } else {
+                            return value + StringUtils.repeat(" ", charOctetLength - value.getBytes(Charset.defaultCharset()).length);
+                        }
+                    } else if (trimmed) {
+                        return StringUtils.stripEnd(value, " ");
                     }
-                } else if (getDdlBuilder().getDatabaseInfo().isCharColumnSpaceTrimmed()) {
-                    objectValue = StringUtils.stripEnd(value, " ");
+                    return objectValue;
+                }
+            };
+        } else if (type == Types.BIGINT) {
+            typeConverter = new TypeConverter() {
+                public Object convert(String value, Object objectValue) {
+                    return parseBigInteger(value);
                 }
-            } else if (type == Types.BIGINT) {
-                objectValue = parseBigInteger(value);
-            } else if (type == Types.INTEGER || type == Types.SMALLINT || type == Types.BIT || type == Types.TINYINT) {
-                objectValue = parseInteger(value);
-            } else if (type == Types.FLOAT) {
-                objectValue = parseFloat(value);
-            } else if (type == Types.NUMERIC || type == Types.DECIMAL || type == Types.DOUBLE || type == Types.REAL) {
-                objectValue = parseBigDecimal(value);
-            } else if (type == Types.BOOLEAN) {
-                objectValue = value.equals("1") ? Boolean.TRUE : Boolean.FALSE;
-            } else if (!(column.getJdbcTypeName() != null && FormatUtils.upper(column.getJdbcTypeName()).contains(TypeMap.GEOMETRY))
-                    && !(column.getJdbcTypeName() != null && FormatUtils.upper(column.getJdbcTypeName()).contains(TypeMap.GEOGRAPHY))
-                    && (type == Types.BLOB || type == Types.LONGVARBINARY || type == Types.BINARY || type == Types.VARBINARY ||
-                    // SQLServer ntext type
-                            type == -10)) {
-                if (encoding == BinaryEncoding.NONE) {
-                    objectValue = value.getBytes(Charset.defaultCharset());
-                } else if (encoding == BinaryEncoding.BASE64) {
-                    objectValue = Base64.decodeBase64(value.getBytes(Charset.defaultCharset()));
-                } else if (encoding == BinaryEncoding.HEX) {
-                    objectValue = Hex.decodeHex(value.toCharArray());
+            };
+        } else if (type == Types.INTEGER || type == Types.SMALLINT || type == Types.BIT || type == Types.TINYINT) {
+            typeConverter = new TypeConverter() {
+                public Object convert(String value, Object objectValue) {
+                    return parseInteger(value);
                 }
-            } else if (type == Types.ARRAY) {
-                objectValue = createArray(column, value);
+            };
+        } else if (type == Types.FLOAT) {
+            typeConverter = new TypeConverter() {
+                public Object convert(String value, Object objectValue) {
+                    return parseFloat(value);
+                }
+            };
+        } else if (type == Types.NUMERIC || type == Types.DECIMAL || type == Types.DOUBLE || type == Types.REAL) {
+            typeConverter = new TypeConverter() {
+                public Object convert(String value, Object objectValue) {
+                    return parseBigDecimal(value);
+                }
+            };
+        } else if (type == Types.BOOLEAN) {
+            typeConverter = new TypeConverter() {
+                public Object convert(String value, Object objectValue) {
+                    return value.equals("1") ? Boolean.TRUE : Boolean.FALSE;
+                }
+            };
+        } else if (!(column.getJdbcTypeName() != null && FormatUtils.upper(column.getJdbcTypeName()).contains(TypeMap.GEOMETRY))
+                && !(column.getJdbcTypeName() != null && FormatUtils.upper(column.getJdbcTypeName()).contains(TypeMap.GEOGRAPHY))
+                && (type == Types.BLOB || type == Types.LONGVARBINARY || type == Types.BINARY || type == Types.VARBINARY ||
+                // SQLServer ntext type
+                        type == -10)) {
+            if (encoding == BinaryEncoding.NONE) {
+                typeConverter = new TypeConverter() {
+                    public Object convert(String value, Object objectValue) {
+                        return value.getBytes(Charset.defaultCharset());
+                    }
+                };
+            } else if (encoding == BinaryEncoding.BASE64) {
+                typeConverter = new TypeConverter() {
+                    public Object convert(String value, Object objectValue) {
+                        return Base64.decodeBase64(value.getBytes(Charset.defaultCharset()));
+                    }
+                };
+            } else if (encoding == BinaryEncoding.HEX) {
+                typeConverter = new TypeConverter() {
+                    public Object convert(String value, Object objectValue) throws DecoderException {
+                        return Hex.decodeHex(value.toCharArray());
+                    }
+                };
             }
+        } else if (type == Types.ARRAY) {
+            typeConverter = new TypeConverter() {
+                public Object convert(String value, Object objectValue) {
+                    return createArray(column, value);
+                }
+            };
         }
-        if (objectValue instanceof String) {
-            String stringValue = cleanTextForTextBasedColumns((String) objectValue);
-            int size = column.getSizeAsInt();
-            if (settings.isRightTrimCharValues()) {
-                stringValue = StringUtils.stripEnd(stringValue, null);
-            }
-            if (fitToColumn && size > 0 && stringValue.length() > size) {
-                stringValue = stringValue.substring(0, size);
-            }
-            objectValue = stringValue;
+        return new ColumnValueConverter(typeConverter,
+                column.isRequired() && column.isOfTextType(), databaseInfo.isEmptyStringNulled(),
+                settings.isRightTrimCharValues(), fitToColumn ? column.getSizeAsInt() : 0);
+    }
+
+    protected Object getObjectValue(String value, Column column, BinaryEncoding encoding, boolean useVariableDates, boolean fitToColumn)
+            throws DecoderException {
+        try {
+            return getValueConverter(column, encoding, useVariableDates, fitToColumn).convert(value);
+        } catch (DecoderException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
         }
-        return objectValue;
     }
 
     protected Object parseFloat(String value) {
@@ -1240,4 +1277,48 @@ public abstract class AbstractDatabasePlatform implements IDatabasePlatform {
     public String getSliceTableSql(String columnName, int sliceNum, int totalSlices) {
         return "";
     }
+
+    /**
+     * The part of a value conversion that depends on the type of the column. It is given the value, which is not null, and the value converted so far.
+     */
+    protected interface TypeConverter {
+        public Object convert(String value, Object objectValue) throws Exception;
+    }
+
+    protected class ColumnValueConverter implements IValueConverter {
+        protected TypeConverter typeConverter;
+        protected boolean requiredText;
+        protected boolean emptyStringNulled;
+        protected boolean rightTrim;
+        protected int fitToSize;
+
+        public ColumnValueConverter(TypeConverter typeConverter, boolean requiredText, boolean emptyStringNulled, boolean rightTrim, int fitToSize) {
+            this.typeConverter = typeConverter;
+            this.requiredText = requiredText;
+            this.emptyStringNulled = emptyStringNulled;
+            this.rightTrim = rightTrim;
+            this.fitToSize = fitToSize;
+        }
+
+        public Object convert(String value) throws Exception {
+            Object objectValue = value;
+            if (requiredText && (value == null || (emptyStringNulled && value.equals("")))) {
+                objectValue = REQUIRED_FIELD_NULL_SUBSTITUTE;
+            }
+            if (value != null && typeConverter != null) {
+                objectValue = typeConverter.convert(value, objectValue);
+            }
+            if (objectValue instanceof String) {
+                String stringValue = cleanTextForTextBasedColumns((String) objectValue);
+                if (rightTrim) {
+                    stringValue = StringUtils.stripEnd(stringValue, null);
+                }
+                if (fitToSize > 0 && stringValue.length() > fitToSize) {
+                    stringValue = stringValue.substring(0, fitToSize);
+                }
+                objectValue = stringValue;
+            }
+            return objectValue;
+        }
+    }
 }
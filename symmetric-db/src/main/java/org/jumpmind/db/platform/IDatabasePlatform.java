@@ -40,6 +40,7 @@ package org.jumpmind.db.platform;
  */
 
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -53,6 +54,7 @@ import org.jumpmind.db.sql.DmlStatementOptions;
 import org.jumpmind.db.sql.ISqlTemplate;
 import org.jumpmind.db.sql.Row;
 import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.util.FormatUtils;
 
 /*
  * A platform encapsulates the database-related functionality such as performing queries
@@ -113,6 +115,21 @@ public interface IDatabasePlatform {
 
     public void resetCachedTableModel();
 
+    /**
+     * Remove a single table from the cache used by {@link IDatabasePlatform#getTableFromCache(String, String, String, boolean)}, so the next request
+     * for it reads it from the database. A platform that can't remove a single table resets the whole cache.
+     */
+    public default void resetCachedTableModel(String catalogName, String schemaName, String tableName) {
+        resetCachedTableModel();
+    }
+
+    /**
+     * The cache of table metadata, or null when the platform does not keep one
+     */
+    public default TableMetadataCache getTableMetadataCache() {
+        return null;
+    }
+
     public Table getTableFromCache(String tableName, boolean forceReread);
 
     public Table getTableFromCache(String catalogName, String schemaName, String tableName,
@@ -159,6 +176,51 @@ public interface IDatabasePlatform {
     public Object[] getObjectValues(BinaryEncoding encoding, String[] values,
             Column[] orderedMetaData, boolean useVariableDates, boolean fitToColumn);
 
+    /**
+     * Build the converters for the columns once, to convert many rows with {@link #getObjectValues(IValueConverter[], String[], Column[])}. A
+     * platform that does not build its own converters converts each value with
+     * {@link #getObjectValues(BinaryEncoding, String[], Column[], boolean, boolean)}.
+     */
+    public default IValueConverter[] getValueConverters(final BinaryEncoding encoding, Column[] orderedMetaData, final boolean useVariableDates,
+            final boolean fitToColumn) {
+        IValueConverter[] converters = new IValueConverter[orderedMetaData.length];
+        for (int i = 0; i < orderedMetaData.length; i++) {
+            if (orderedMetaData[i] != null) {
+                final Column[] columns = new Column[] { orderedMetaData[i] };
+                converters[i] = new IValueConverter() {
+                    public Object convert(String value) throws Exception {
+                        return getObjectValues(encoding, new String[] { value }, columns, useVariableDates, fitToColumn)[0];
+                    }
+                };
+            }
+        }
+        return converters;
+    }
+
+    public default Object[] getObjectValues(IValueConverter[] converters, String[] values, Column[] orderedMetaData) {
+        if (values != null) {
+            Object[] objectValues = new Object[values.length];
+            int count = 0;
+            for (int i = 0; i < values.length; i++) {
+                IValueConverter converter = converters.length > i ? converters[i] : null;
+                if (converter != null) {
+                    try {
+                        objectValues[count++] = converter.convert(values[i]);
+                    } catch (Exception ex) {
+                        Column column = orderedMetaData[i];
+                        String valueTrimmed = FormatUtils.abbreviateForLogging(values[i]);
+                        throw new RuntimeException("Could not convert a value of " + valueTrimmed + " for column " + column.getName()
+                                + " of mapped type " + column.getMappedType() + " jdbc type "
+                                + column.getJdbcTypeName() + " (" + column.getJdbcTypeCode() + ")", ex);
+                    }
+                }
+            }
+            return count == objectValues.length ? objectValues : Arrays.copyOf(objectValues, count);
+        } else {
+            return null;
+        }
+    }
+
     public String[] getStringValues(BinaryEncoding encoding, Column[] metaData, Row row, boolean useVariableDates, boolean indexByPosition);
 
     public String getCsvStringValue(BinaryEncoding encoding, Column[] metaData, Row row, boolean[] needEscaped);
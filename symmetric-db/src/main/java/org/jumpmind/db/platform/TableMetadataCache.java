@@ -0,0 +1,189 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.db.platform;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jumpmind.db.model.Table;
+
+/**
+ * Cache of table metadata read by a {@link IDatabasePlatform}. Each table expires on its own after
+ * {@link IDatabasePlatform#getClearCacheModelTimeoutInMs()}, so tables are not all read again at the same moment. Only one thread reads a given table
+ * from the database: other threads asking for a table that is not cached wait for that read, and threads asking for an expired table are served the
+ * expired table while one thread refreshes it.
+ */
+public class TableMetadataCache {
+    protected IDatabasePlatform platform;
+    protected ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    protected ConcurrentMap<String, FutureTask<Table>> loading = new ConcurrentHashMap<String, FutureTask<Table>>();
+    /**
+     * Incremented on every invalidation, so that a read which started before an invalidation is not cached after it
+     */
+    protected AtomicLong generation = new AtomicLong();
+    protected AtomicLong hitCount = new AtomicLong();
+    protected AtomicLong staleHitCount = new AtomicLong();
+    protected AtomicLong missCount = new AtomicLong();
+    protected AtomicLong loadCount = new AtomicLong();
+    protected AtomicLong loadTimeMs = new AtomicLong();
+
+    public TableMetadataCache(IDatabasePlatform platform) {
+        this.platform = platform;
+    }
+
+    public Table get(String catalogName, String schemaName, String tableName, boolean forceReread) {
+        String key = Table.getFullyQualifiedTableName(catalogName, schemaName, tableName);
+        if (forceReread) {
+            missCount.incrementAndGet();
+            return load(key, catalogName, schemaName, tableName);
+        }
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (System.currentTimeMillis() - entry.loadTime <= platform.getClearCacheModelTimeoutInMs()) {
+                hitCount.incrementAndGet();
+                return entry.table;
+            } else if (entry.refreshing.compareAndSet(false, true)) {
+                missCount.incrementAndGet();
+                try {
+                    return load(key, catalogName, schemaName, tableName);
+                } finally {
+                    entry.refreshing.set(false);
+                }
+            } else {
+                staleHitCount.incrementAndGet();
+                return entry.table;
+            }
+        }
+        missCount.incrementAndGet();
+        return loadOnce(key, catalogName, schemaName, tableName);
+    }
+
+    /**
+     * Read the table unless another thread is already reading it, in which case wait for that read
+     */
+    protected Table loadOnce(final String key, final String catalogName, final String schemaName, final String tableName) {
+        FutureTask<Table> task = new FutureTask<Table>(new Callable<Table>() {
+            public Table call() throws Exception {
+                Entry entry = entries.get(key);
+                if (entry != null) {
+                    return entry.table;
+                }
+                return load(key, catalogName, schemaName, tableName);
+            }
+        });
+        FutureTask<Table> existing = loading.putIfAbsent(key, task);
+        if (existing == null) {
+            try {
+                task.run();
+            } finally {
+                loading.remove(key, task);
+            }
+            existing = task;
+        }
+        try {
+            return existing.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+
+    protected Table load(String key, String catalogName, String schemaName, String tableName) {
+        long generationBeforeRead = generation.get();
+        long ts = System.currentTimeMillis();
+        Table table = platform.readTableFromDatabase(catalogName, schemaName, tableName);
+        long now = System.currentTimeMillis();
+        loadCount.incrementAndGet();
+        loadTimeMs.addAndGet(now - ts);
+        if (generationBeforeRead == generation.get()) {
+            if (table != null) {
+                entries.put(key, new Entry(table, now));
+            } else {
+                entries.remove(key);
+            }
+        }
+        return table;
+    }
+
+    public void invalidate(String catalogName, String schemaName, String tableName) {
+        generation.incrementAndGet();
+        entries.remove(Table.getFullyQualifiedTableName(catalogName, schemaName, tableName));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * The number of times an expired table was returned because another thread was refreshing it
+     */
+    public long getStaleHitCount() {
+        return staleHitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getLoadCount() {
+        return loadCount.get();
+    }
+
+    public long getLoadTimeMs() {
+        return loadTimeMs.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("tables=%d hits=%d staleHits=%d misses=%d loads=%d loadTimeMs=%d", size(), getHitCount(), getStaleHitCount(),
+                getMissCount(), getLoadCount(), getLoadTimeMs());
+    }
+
+    static class Entry {
+        final Table table;
+        final long loadTime;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(Table table, long loadTime) {
+            this.table = table;
+            this.loadTime = loadTime;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.db.sql;
+
+/**
+ * A row mapper that reads columns by position instead of by name. The mapper lists the columns it reads, and a cursor finds their positions in the
+ * result set once, so only those columns are read and each row is mapped without name lookups. Templates that don't read by position call
+ * {@link #mapRow(Row)}, which looks up the listed columns by name.
+ */
+public abstract class AbstractIndexedRowMapper<T> implements ISqlRowMapper<T> {
+    private final String[] columnNames;
+
+    public AbstractIndexedRowMapper(String... columnNames) {
+        this.columnNames = columnNames;
+    }
+
+    /**
+     * The columns read by this mapper. The index of a column in this array is its index in the {@link IndexedRow}.
+     */
+    public String[] getColumnNames() {
+        return columnNames;
+    }
+
+    public abstract T mapRow(IndexedRow row);
+
+    public T mapRow(Row row) {
+        return mapRow(IndexedRow.of(row, columnNames));
+    }
+}
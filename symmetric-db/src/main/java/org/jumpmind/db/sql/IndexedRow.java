@@ -0,0 +1,156 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.db.sql;
+
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * The values of one row, read by position. The positions are those of the column names given by an {@link AbstractIndexedRowMapper}, so a column is found
+ * without hashing its name. A column that is not in the result set reads as null, and throws {@link ColumnNotFoundException} where {@link Row} would.
+ * <p>
+ * The row is reused for each row of a result set, so a mapper should not keep it.
+ */
+public class IndexedRow {
+    protected String[] columnNames;
+    protected boolean[] present;
+    protected Object[] values;
+
+    public IndexedRow(String[] columnNames, boolean[] present) {
+        this.columnNames = columnNames;
+        this.present = present;
+        this.values = new Object[columnNames.length];
+    }
+
+    public static IndexedRow of(Row row, String[] columnNames) {
+        boolean[] present = new boolean[columnNames.length];
+        IndexedRow indexedRow = new IndexedRow(columnNames, present);
+        for (int i = 0; i < columnNames.length; i++) {
+            present[i] = row.containsKey(columnNames[i]);
+            indexedRow.values[i] = row.get(columnNames[i]);
+        }
+        return indexedRow;
+    }
+
+    public void setValue(int index, Object value) {
+        values[index] = value;
+    }
+
+    public Object get(int index) {
+        return values[index];
+    }
+
+    public boolean hasColumn(int index) {
+        return present[index];
+    }
+
+    public String getColumnName(int index) {
+        return columnNames[index];
+    }
+
+    public byte[] getBytes(int index) {
+        return Row.toBytes(values[index]);
+    }
+
+    public String getString(int index) {
+        return getString(index, true);
+    }
+
+    public String getString(int index, boolean checkForColumn) {
+        Object obj = values[index];
+        if (obj == null && checkForColumn) {
+            checkForColumn(index);
+        }
+        return Row.toString(obj);
+    }
+
+    public int getInt(int index) {
+        Object obj = values[index];
+        if (obj == null) {
+            checkForColumn(index);
+        }
+        return Row.toInt(obj);
+    }
+
+    public long getLong(int index) {
+        Object obj = values[index];
+        if (obj == null) {
+            checkForColumn(index);
+        }
+        return Row.toLong(obj);
+    }
+
+    public float getFloat(int index) {
+        Object obj = values[index];
+        if (obj == null) {
+            checkForColumn(index);
+        }
+        return Row.toFloat(obj);
+    }
+
+    public BigDecimal getBigDecimal(int index) {
+        Object obj = values[index];
+        if (obj == null) {
+            checkForColumn(index);
+        }
+        return Row.toBigDecimal(obj);
+    }
+
+    public boolean getBoolean(int index) {
+        Object obj = values[index];
+        if (obj == null) {
+            checkForColumn(index);
+        }
+        return Row.toBoolean(obj);
+    }
+
+    public Time getTime(int index) {
+        Object obj = values[index];
+        if (obj == null) {
+            checkForColumn(index);
+        }
+        return Row.toTime(obj);
+    }
+
+    public Timestamp getTimestamp(int index) {
+        Object obj = values[index];
+        if (obj == null) {
+            checkForColumn(index);
+        }
+        return Row.toTimestamp(obj);
+    }
+
+    public Date getDateTime(int index) {
+        Object obj = values[index];
+        if (obj == null) {
+            checkForColumn(index);
+        }
+        return Row.toDateTime(obj);
+    }
+
+    protected void checkForColumn(int index) {
+        if (!present[index]) {
+            throw new ColumnNotFoundException(columnNames[index]);
+        }
+    }
+}
@@ -61,7 +61,7 @@ public class Row extends LinkedCaseInsensitiveMap<Object> {
         return toBytes(obj);
     }
 
-    protected byte[] toBytes(Object obj) {
+    static byte[] toBytes(Object obj) {
         if (obj != null) {
             if (obj instanceof byte[]) {
                 return (byte[]) obj;
@@ -160,62 +160,121 @@ public class Row extends LinkedCaseInsensitiveMap<Object> {
 
     public String getString(String columnName, boolean checkForColumn) {
         Object obj = this.get(columnName);
-        if (obj != null) {
-            if (obj instanceof String) {
-                return (String) obj;
-            } else if (obj instanceof BigDecimal) {
-                return ((BigDecimal) obj).toPlainString();
-            } else if (obj instanceof byte[]) {
-                return Hex.encodeHexString((byte[]) obj);
-            } else {
-                return obj.toString();
-            }
-        } else {
-            if (checkForColumn) {
-                checkForColumn(columnName);
-            }
-            return null;
+        if (obj == null && checkForColumn) {
+            checkForColumn(columnName);
         }
+        return toString(obj);
     }
 
     public int getInt(String columnName) {
         Object obj = this.get(columnName);
+        if (obj == null) {
+            checkForColumn(columnName);
+        }
+        return toInt(obj);
+    }
+
+    public long getLong(String columnName) {
+        Object obj = this.get(columnName);
+        if (obj == null) {
+            checkForColumn(columnName);
+        }
+        return toLong(obj);
+    }
+
+    public float getFloat(String columnName) {
+        Object obj = this.get(columnName);
+        if (obj == null) {
+            checkForColumn(columnName);
+        }
+        return toFloat(obj);
+    }
+
+    public BigDecimal getBigDecimal(String columnName) {
+        Object obj = this.get(columnName);
+        if (obj == null) {
+            checkForColumn(columnName);
+        }
+        return toBigDecimal(obj);
+    }
+
+    public boolean getBoolean(String columnName) {
+        Object obj = this.get(columnName);
+        if (obj == null) {
+            checkForColumn(columnName);
+        }
+        return toBoolean(obj);
+    }
+
+    public Time getTime(String columnName) {
+        Object obj = this.get(columnName);
+        if (obj == null) {
+            checkForColumn(columnName);
+        }
+        return toTime(obj);
+    }
+
+    public Timestamp getTimestamp(String columnName) {
+        Object obj = this.get(columnName);
+        if (obj == null) {
+            checkForColumn(columnName);
+        }
+        return toTimestamp(obj);
+    }
+
+    public Date getDateTime(String columnName) {
+        Object obj = this.get(columnName);
+        if (obj == null) {
+            checkForColumn(columnName);
+        }
+        return toDateTime(obj);
+    }
+
+    static String toString(Object obj) {
+        if (obj instanceof String) {
+            return (String) obj;
+        } else if (obj instanceof BigDecimal) {
+            return ((BigDecimal) obj).toPlainString();
+        } else if (obj instanceof byte[]) {
+            return Hex.encodeHexString((byte[]) obj);
+        } else if (obj != null) {
+            return obj.toString();
+        } else {
+            return null;
+        }
+    }
+
+    static int toInt(Object obj) {
         if (obj instanceof Number) {
             return ((Number) obj).intValue();
         } else if (obj instanceof String) {
             return Integer.parseInt(obj.toString());
         } else {
-            checkForColumn(columnName);
             return 0;
         }
     }
 
-    public long getLong(String columnName) {
-        Object obj = this.get(columnName);
+    static long toLong(Object obj) {
         if (obj instanceof Number) {
             return ((Number) obj).longValue();
         } else if (obj instanceof String) {
             return Long.parseLong(obj.toString());
         } else {
-            checkForColumn(columnName);
             return 0;
         }
     }
 
-    public float getFloat(String columnName) {
-        Object obj = this.get(columnName);
+    static float toFloat(Object obj) {
         if (obj instanceof Number) {
             return ((Number) obj).floatValue();
         } else if (obj instanceof String) {
             return Float.parseFloat(obj.toString());
         } else {
-            checkForColumn(columnName);
             return 0;
         }
     }
 
-    public BigDecimal getBigDecimal(String columnName) {
-        Object obj = this.get(columnName);
+    static BigDecimal toBigDecimal(Object obj) {
         if (obj instanceof BigDecimal) {
             return (BigDecimal) obj;
         } else if (obj instanceof String) {
@@ -223,13 +282,11 @@ public class Row extends LinkedCaseInsensitiveMap<Object> {
         } else if (obj instanceof Integer) {
             return new BigDecimal(((Integer) obj).intValue());
         } else {
-            checkForColumn(columnName);
             return null;
         }
     }
 
-    public boolean getBoolean(String columnName) {
-        Object obj = this.get(columnName);
+    static boolean toBoolean(Object obj) {
         if ("1".equals(obj)) {
             return true;
         } else if (obj instanceof Number) {
@@ -240,23 +297,20 @@ public class Row extends LinkedCaseInsensitiveMap<Object> {
         } else if (obj instanceof String) {
             return Boolean.parseBoolean((String) obj);
         } else {
-            checkForColumn(columnName);
             return false;
         }
     }
 
-    public Time getTime(String columnName) {
-        Object obj = this.get(columnName);
+    static Time toTime(Object obj) {
         if (obj instanceof Time) {
             return (Time) obj;
         } else {
-            Date date = getDateTime(columnName);
+            Date date = toDateTime(obj);
             return new Time(date.getTime());
         }
     }
 
-    public Timestamp getTimestamp(String columnName) {
-        Object obj = this.get(columnName);
+    static Timestamp toTimestamp(Object obj) {
         if (obj instanceof Timestamp) {
             return (Timestamp) obj;
         } else if (obj instanceof LocalDateTime) {
@@ -264,7 +318,7 @@ public class Row extends LinkedCaseInsensitiveMap<Object> {
         } else if (obj instanceof LocalDate) {
             return Timestamp.valueOf(((LocalDate) obj).atStartOfDay());
         } else {
-            Date date = getDateTime(columnName);
+            Date date = toDateTime(obj);
             if (date != null) {
                 return new Timestamp(date.getTime());
             }
@@ -272,8 +326,7 @@ public class Row extends LinkedCaseInsensitiveMap<Object> {
         }
     }
 
-    public Date getDateTime(String columnName) {
-        Object obj = this.get(columnName);
+    static Date toDateTime(Object obj) {
         if (obj instanceof Number) {
             long value = ((Number) obj).longValue();
             return new Date(value);
@@ -291,7 +344,6 @@ public class Row extends LinkedCaseInsensitiveMap<Object> {
         } else if (obj instanceof LocalDate) {
             return new Date(Timestamp.valueOf(((LocalDate) obj).atStartOfDay()).getTime());
         } else {
-            checkForColumn(columnName);
             return null;
         }
     }
@@ -302,7 +354,7 @@ public class Row extends LinkedCaseInsensitiveMap<Object> {
         }
     }
 
-    final private java.util.Date getDate(String value, String[] pattern) {
+    static private java.util.Date getDate(String value, String[] pattern) {
         int spaceIndex = value.lastIndexOf(" ");
         int fractionIndex = value.lastIndexOf(".");
         if (spaceIndex > 0 && fractionIndex > 0 && value.substring(fractionIndex, value.length()).length() > 3) {
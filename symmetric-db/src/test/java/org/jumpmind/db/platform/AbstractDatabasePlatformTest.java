@@ -22,14 +22,18 @@ package org.jumpmind.db.platform;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.Arrays;
 import java.util.Date;
 
+import org.jumpmind.db.model.Column;
 import org.jumpmind.db.platform.h2.H2DdlBuilder;
 import org.jumpmind.db.sql.ISqlTemplate;
 import org.jumpmind.db.sql.SqlTemplateSettings;
+import org.jumpmind.db.util.BinaryEncoding;
 import org.junit.jupiter.api.Test;
 
 public class AbstractDatabasePlatformTest {
@@ -49,6 +53,28 @@ public class AbstractDatabasePlatformTest {
         }
     }
 
+    @Test
+    public void testValueConvertersMatchObjectValues() {
+        Column[] columns = { new Column("ID", true, Types.INTEGER, 10, 0), new Column("BIG", false, Types.BIGINT, 19, 0),
+                new Column("AMOUNT", false, Types.DECIMAL, 10, 2), new Column("RATE", false, Types.FLOAT, 10, 0),
+                new Column("CODE", false, Types.CHAR, 5, 0), new Column("NAME", false, Types.VARCHAR, 4, 0),
+                new Column("REQUIRED_NAME", false, Types.VARCHAR, 10, 0), new Column("FLAG", false, Types.BOOLEAN, 1, 0),
+                new Column("CREATED", false, Types.TIMESTAMP, 0, 0), new Column("BIRTHDAY", false, Types.DATE, 0, 0),
+                new Column("AT", false, Types.TIME, 0, 0), new Column("DATA", false, Types.BLOB, 0, 0) };
+        columns[6].setRequired(true);
+        String[][] rows = { { "1", "9223372036854775807", "12.5", "1,5", "ab", "abcdefg", "", "1", "2015-11-03 01:35:03.714566", "2015-11-03",
+                "13:45:07", "aGVsbG8=" }, { " 2 ", "1.0E3", "NaN", "0", " ", "abc ", null, "0", "2015-11-03 01:35:03", "2015-11-03 00:00:00.0",
+                        "13:45:07.5", null } };
+        for (BinaryEncoding encoding : new BinaryEncoding[] { BinaryEncoding.BASE64, BinaryEncoding.NONE }) {
+            IValueConverter[] converters = testDatabasePlatform.getValueConverters(encoding, columns, false, true);
+            for (String[] row : rows) {
+                Object[] expected = testDatabasePlatform.getObjectValues(encoding, row, columns, false, true);
+                Object[] actual = testDatabasePlatform.getObjectValues(converters, row, columns);
+                assertTrue(Arrays.deepToString(expected) + " != " + Arrays.deepToString(actual), Arrays.deepEquals(expected, actual));
+            }
+        }
+    }
+
     @Test
     public void testParseTimeZone() {
         assertEquals(-18000000, testDatabasePlatform.getTimeZone("EST").getRawOffset());
@@ -0,0 +1,184 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.db.platform;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.h2.H2DdlBuilder;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.jumpmind.db.sql.SqlTemplateSettings;
+import org.junit.jupiter.api.Test;
+
+public class TableMetadataCacheTest {
+    @Test
+    public void testCachedUntilExpired() throws Exception {
+        TestPlatform platform = new TestPlatform();
+        Table table = platform.getTableFromCache("TEST", false);
+        assertSame(table, platform.getTableFromCache("TEST", false));
+        assertEquals(1, platform.readCount.get());
+        assertNotSame(table, platform.getTableFromCache("TEST", true));
+        assertEquals(2, platform.readCount.get());
+        platform.setClearCacheModelTimeoutInMs(-1);
+        platform.getTableFromCache("TEST", false);
+        assertEquals(3, platform.readCount.get());
+        TableMetadataCache cache = platform.getTableMetadataCache();
+        assertEquals(1, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+        assertEquals(3, cache.getLoadCount());
+    }
+
+    @Test
+    public void testMissingTableNotCached() throws Exception {
+        TestPlatform platform = new TestPlatform();
+        assertNull(platform.getTableFromCache("MISSING", false));
+        assertNull(platform.getTableFromCache("MISSING", false));
+        assertEquals(2, platform.readCount.get());
+        assertEquals(0, platform.getTableMetadataCache().size());
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        TestPlatform platform = new TestPlatform();
+        platform.getTableFromCache("TEST", false);
+        platform.getTableFromCache("OTHER", false);
+        platform.resetCachedTableModel(null, null, "TEST");
+        assertEquals(1, platform.getTableMetadataCache().size());
+        platform.getTableFromCache("TEST", false);
+        platform.getTableFromCache("OTHER", false);
+        assertEquals(3, platform.readCount.get());
+        platform.resetCachedTableModel();
+        assertEquals(0, platform.getTableMetadataCache().size());
+    }
+
+    @Test
+    public void testOneReadForConcurrentMisses() throws Exception {
+        final TestPlatform platform = new TestPlatform();
+        platform.readStarted = new CountDownLatch(1);
+        platform.readReleased = new CountDownLatch(1);
+        final Table[] tables = new Table[5];
+        Thread[] threads = new Thread[tables.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                public void run() {
+                    tables[index] = platform.getTableFromCache("TEST", false);
+                }
+            };
+            threads[i].start();
+        }
+        platform.readStarted.await(10, TimeUnit.SECONDS);
+        Thread.sleep(100);
+        platform.readReleased.countDown();
+        for (Thread thread : threads) {
+            thread.join(10000);
+        }
+        assertEquals(1, platform.readCount.get());
+        for (Table table : tables) {
+            assertSame(tables[0], table);
+        }
+    }
+
+    @Test
+    public void testStaleServedDuringRefresh() throws Exception {
+        final TestPlatform platform = new TestPlatform();
+        Table stale = platform.getTableFromCache("TEST", false);
+        platform.setClearCacheModelTimeoutInMs(-1);
+        platform.readStarted = new CountDownLatch(1);
+        platform.readReleased = new CountDownLatch(1);
+        final Table[] refreshed = new Table[1];
+        Thread refresher = new Thread() {
+            public void run() {
+                refreshed[0] = platform.getTableFromCache("TEST", false);
+            }
+        };
+        refresher.start();
+        platform.readStarted.await(10, TimeUnit.SECONDS);
+        assertSame(stale, platform.getTableFromCache("TEST", false));
+        platform.readReleased.countDown();
+        refresher.join(10000);
+        assertNotSame(stale, refreshed[0]);
+        assertEquals(2, platform.readCount.get());
+        assertEquals(1, platform.getTableMetadataCache().getStaleHitCount());
+    }
+
+    static class TestPlatform extends AbstractDatabasePlatform {
+        AtomicInteger readCount = new AtomicInteger();
+        CountDownLatch readStarted;
+        CountDownLatch readReleased;
+
+        public TestPlatform() {
+            super(new SqlTemplateSettings());
+            ddlBuilder = new H2DdlBuilder();
+        }
+
+        @Override
+        public Table readTableFromDatabase(String catalogName, String schemaName, String tableName) {
+            readCount.incrementAndGet();
+            if (readStarted != null) {
+                readStarted.countDown();
+                try {
+                    readReleased.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return tableName.startsWith("MISSING") ? null : new Table(catalogName, schemaName, tableName);
+        }
+
+        @Override
+        public String getName() {
+            return "Test";
+        }
+
+        @Override
+        public String getDefaultSchema() {
+            return "SCHEMA";
+        }
+
+        @Override
+        public String getDefaultCatalog() {
+            return "CATALOG";
+        }
+
+        @Override
+        public <T> T getDataSource() {
+            return null;
+        }
+
+        @Override
+        public ISqlTemplate getSqlTemplate() {
+            return null;
+        }
+
+        @Override
+        public ISqlTemplate getSqlTemplateDirty() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.db.platform;
+
+import java.sql.Types;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.platform.h2.H2DdlBuilder;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.jumpmind.db.sql.SqlTemplateSettings;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.util.FormatUtils;
+
+/**
+ * Compares converting the values of a wide table row by row with {@link IDatabasePlatform#getObjectValues(BinaryEncoding, String[], Column[])}, which
+ * decides the conversion for every value, against converters built once for the table. It also compares parsing dates with a new
+ * {@link SimpleDateFormat} for each value, the way dates were parsed before, against {@link FormatUtils#parseDate(String, String[])}. Run with optional
+ * arguments of the number of rows and the number of columns.
+ */
+public class ValueConverterPerf {
+    static final int[] TYPES = { Types.INTEGER, Types.VARCHAR, Types.DECIMAL, Types.TIMESTAMP, Types.BIGINT, Types.CHAR, Types.DATE, Types.VARCHAR };
+    static final String[] VALUES = { "12345", "some text value", "1234.56", "2024-02-29 13:45:07.123", "9876543210", "ab", "2024-02-29",
+            "more text" };
+    static final IDdlBuilder DDL_BUILDER = new H2DdlBuilder();
+
+    public static void main(String[] args) {
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        int columnCount = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        AbstractDatabasePlatform platform = newPlatform();
+        Column[] columns = new Column[columnCount];
+        String[] values = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columns[i] = new Column("COLUMN" + i, i == 0, TYPES[i % TYPES.length], 20, 2);
+            values[i] = VALUES[i % VALUES.length];
+        }
+        for (int pass = 0; pass < 3; pass++) {
+            long ts = System.nanoTime();
+            Object[] expected = null;
+            for (int r = 0; r < rowCount; r++) {
+                expected = platform.getObjectValues(BinaryEncoding.BASE64, values, columns, false, false);
+            }
+            long perValueNanos = System.nanoTime() - ts;
+            ts = System.nanoTime();
+            IValueConverter[] converters = platform.getValueConverters(BinaryEncoding.BASE64, columns, false, false);
+            Object[] actual = null;
+            for (int r = 0; r < rowCount; r++) {
+                actual = platform.getObjectValues(converters, values, columns);
+            }
+            long convertersNanos = System.nanoTime() - ts;
+            if (!Arrays.deepEquals(expected, actual)) {
+                throw new IllegalStateException("Converted values differ");
+            }
+            System.out.println(String.format("rows=%,d columns=%d per value=%,d ns/row converters=%,d ns/row", rowCount, columnCount,
+                    perValueNanos / rowCount, convertersNanos / rowCount));
+        }
+        int dateCount = rowCount * 5;
+        for (int pass = 0; pass < 3; pass++) {
+            long ts = System.nanoTime();
+            long checksum = 0;
+            for (int i = 0; i < dateCount; i++) {
+                checksum += parseWithNewFormat(VALUES[3], FormatUtils.TIMESTAMP_PATTERNS).getTime();
+            }
+            long newFormatNanos = System.nanoTime() - ts;
+            ts = System.nanoTime();
+            for (int i = 0; i < dateCount; i++) {
+                checksum -= FormatUtils.parseDate(VALUES[3], FormatUtils.TIMESTAMP_PATTERNS).getTime();
+            }
+            long parseDateNanos = System.nanoTime() - ts;
+            if (checksum != 0) {
+                throw new IllegalStateException("Parsed dates differ");
+            }
+            System.out.println(String.format("dates=%,d new format per value=%,d ns/date parseDate=%,d ns/date", dateCount,
+                    newFormatNanos / dateCount, parseDateNanos / dateCount));
+        }
+    }
+
+    protected static java.util.Date parseWithNewFormat(String value, String[] patterns) {
+        SimpleDateFormat parser = new SimpleDateFormat(patterns[0]);
+        ParsePosition pos = new ParsePosition(0);
+        for (int i = 0; i < patterns.length; i++) {
+            if (i > 0) {
+                parser.applyPattern(patterns[i]);
+            }
+            pos.setIndex(0);
+            java.util.Date date = parser.parse(value, pos);
+            if (date != null && pos.getIndex() == value.length()) {
+                return date;
+            }
+        }
+        return null;
+    }
+
+    protected static AbstractDatabasePlatform newPlatform() {
+        return new AbstractDatabasePlatform(new SqlTemplateSettings()) {
+            @Override
+            public String getName() {
+                return "Test";
+            }
+
+            @Override
+            public String getDefaultSchema() {
+                return null;
+            }
+
+            @Override
+            public String getDefaultCatalog() {
+                return null;
+            }
+
+            @Override
+            public <T> T getDataSource() {
+                return null;
+            }
+
+            @Override
+            public ISqlTemplate getSqlTemplate() {
+                return null;
+            }
+
+            @Override
+            public ISqlTemplate getSqlTemplateDirty() {
+                return null;
+            }
+
+            @Override
+            public IDdlBuilder getDdlBuilder() {
+                return DDL_BUILDER;
+            }
+        };
+    }
+}
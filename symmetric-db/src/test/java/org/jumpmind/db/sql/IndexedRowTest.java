@@ -0,0 +1,66 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.db.sql;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+public class IndexedRowTest {
+    @Test
+    public void testOfRow() {
+        Row row = new Row(3);
+        row.put("BATCH_ID", new BigDecimal("42"));
+        row.put("status", "OK");
+        row.put("load_flag", 1);
+        IndexedRow indexedRow = IndexedRow.of(row, new String[] { "batch_id", "STATUS", "load_flag", "summary" });
+        assertEquals(42l, indexedRow.getLong(0));
+        assertEquals("OK", indexedRow.getString(1));
+        assertTrue(indexedRow.getBoolean(2));
+        assertNull(indexedRow.getString(3, false));
+    }
+
+    @Test
+    public void testMissingColumn() {
+        IndexedRow indexedRow = new IndexedRow(new String[] { "present", "missing" }, new boolean[] { true, false });
+        assertEquals(0, indexedRow.getInt(0));
+        try {
+            indexedRow.getInt(1);
+            fail("Expected the missing column to be reported");
+        } catch (ColumnNotFoundException ex) {
+        }
+    }
+
+    @Test
+    public void testIndexedMapperReadsRow() {
+        AbstractIndexedRowMapper<String> mapper = new AbstractIndexedRowMapper<String>("node_id", "channel_id") {
+            public String mapRow(IndexedRow row) {
+                return row.getString(0) + ":" + row.getString(1);
+            }
+        };
+        Row row = new Row(2);
+        row.put("CHANNEL_ID", "default");
+        row.put("NODE_ID", "001");
+        assertEquals("001:default", mapper.mapRow(row));
+    }
+}
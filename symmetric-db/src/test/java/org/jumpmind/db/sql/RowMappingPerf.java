@@ -0,0 +1,96 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.db.sql;
+
+import java.util.Arrays;
+
+/**
+ * Compares the cost of mapping rows by column name through a {@link Row} against mapping them by position through an {@link IndexedRow}. The values
+ * stand in for a result set with the columns of sym_outgoing_batch, and the mapper reads every column the way the outgoing batch mapper does. Run with an
+ * optional argument of the number of rows.
+ */
+public class RowMappingPerf {
+    static final String[] COLUMNS = { "batch_id", "node_id", "channel_id", "status", "load_id", "extract_job_flag", "load_flag", "error_flag",
+            "common_flag", "ignore_count", "byte_count", "extract_count", "sent_count", "load_count", "data_row_count", "reload_row_count",
+            "data_insert_row_count", "data_update_row_count", "data_delete_row_count", "other_row_count", "extract_row_count",
+            "extract_insert_row_count", "extract_update_row_count", "extract_delete_row_count", "load_row_count", "load_insert_row_count",
+            "load_update_row_count", "load_delete_row_count", "network_millis", "filter_millis", "load_millis", "router_millis", "extract_millis",
+            "transform_extract_millis", "transform_load_millis", "failed_data_id", "failed_line_number", "sql_state", "sql_code", "sql_message",
+            "summary", "last_update_hostname", "create_by" };
+
+    public static void main(String[] args) {
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        Object[] values = new Object[COLUMNS.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 3 == 0 ? "value" + i : Long.valueOf(i);
+        }
+        AbstractIndexedRowMapper<Long> mapper = new AbstractIndexedRowMapper<Long>(COLUMNS) {
+            public Long mapRow(IndexedRow row) {
+                long checksum = 0;
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    checksum += i % 3 == 0 ? row.getString(i).length() : row.getLong(i);
+                }
+                return checksum;
+            }
+        };
+        for (int pass = 0; pass < 3; pass++) {
+            long ts = System.nanoTime();
+            long byName = mapByName(values, rowCount);
+            long byNameNanos = System.nanoTime() - ts;
+            ts = System.nanoTime();
+            long byIndex = mapByIndex(mapper, values, rowCount);
+            long byIndexNanos = System.nanoTime() - ts;
+            if (byName != byIndex) {
+                throw new IllegalStateException("Mapped values differ");
+            }
+            System.out.println(String.format("rows=%,d by name=%,d ns/row by index=%,d ns/row", rowCount, byNameNanos / rowCount,
+                    byIndexNanos / rowCount));
+        }
+    }
+
+    protected static long mapByName(Object[] values, int rowCount) {
+        long checksum = 0;
+        for (int r = 0; r < rowCount; r++) {
+            Row row = new Row(COLUMNS.length);
+            for (int i = 0; i < COLUMNS.length; i++) {
+                row.put(COLUMNS[i], values[i]);
+            }
+            for (int i = 0; i < COLUMNS.length; i++) {
+                checksum += i % 3 == 0 ? row.getString(COLUMNS[i]).length() : row.getLong(COLUMNS[i]);
+            }
+        }
+        return checksum;
+    }
+
+    protected static long mapByIndex(AbstractIndexedRowMapper<Long> mapper, Object[] values, int rowCount) {
+        long checksum = 0;
+        boolean[] present = new boolean[COLUMNS.length];
+        Arrays.fill(present, true);
+        IndexedRow row = new IndexedRow(mapper.getColumnNames(), present);
+        for (int r = 0; r < rowCount; r++) {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                row.setValue(i, values[i]);
+            }
+            checksum += mapper.mapRow(row);
+        }
+        return checksum;
+    }
+}
@@ -21,6 +21,7 @@
 package org.jumpmind.symmetric.io.data;
 
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -48,9 +49,23 @@ public class CsvData {
     public static final String ATTRIBUTE_NODE_LIST = "nodeList";
     public static final String ATTRIBUTE_DATA_ID = "dataId";
     public static final String ATTRIBUTE_CREATE_TIME = "createTime";
+    private static final int ROW_SLOT = 0;
+    private static final int PK_SLOT = 1;
+    private static final int OLD_SLOT = 2;
+    private static final int RESOLVE_SLOT = 3;
+    private static final int SLOT_COUNT = 4;
+    /**
+     * The row, pk, old and resolve data live in fixed slots so that the common keys don't need a map per row. Any other key falls back to the maps.
+     */
+    private String[][] parsedSlots = null;
+    private String[] csvSlots = null;
     private Map<String, String[]> parsedCsvData = null;
     private Map<String, String> csvData = null;
     private Map<String, Object> attributes;
+    /**
+     * Read only attributes that are shared by every row of a batch or table, consulted after the row's own attributes
+     */
+    private Map<String, Object> sharedAttributes;
     private boolean noBinaryOldData = false;
     protected DataEventType dataEventType;
     protected boolean[] changedDataIndicators;
@@ -82,8 +97,7 @@ public class CsvData {
     }
 
     public boolean contains(String key) {
-        return (parsedCsvData != null && parsedCsvData.get(key) != null)
-                || (csvData != null && csvData.get(key) != null);
+        return getParsedValue(key) != null || getCsvValue(key) != null;
     }
 
     public void setDataEventType(DataEventType dataEventType) {
@@ -103,17 +117,37 @@ public class CsvData {
 
     @SuppressWarnings("unchecked")
     public <T> T getAttribute(String attributeName) {
-        return attributes == null ? null : (T) attributes.get(attributeName);
+        Object value = null;
+        if (attributes != null) {
+            value = attributes.get(attributeName);
+            if (value != null || attributes.containsKey(attributeName)) {
+                return (T) value;
+            }
+        }
+        if (sharedAttributes != null) {
+            value = sharedAttributes.get(attributeName);
+        }
+        return (T) value;
     }
 
     public void removeCsvData(String key) {
-        if (csvData != null) {
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            if (csvSlots != null) {
+                csvSlots[slot] = null;
+            }
+        } else if (csvData != null) {
             csvData.remove(key);
         }
     }
 
     public void removeParsedData(String key) {
-        if (parsedCsvData != null) {
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            if (parsedSlots != null) {
+                parsedSlots[slot] = null;
+            }
+        } else if (parsedCsvData != null) {
             parsedCsvData.remove(key);
         }
     }
@@ -125,20 +159,25 @@ public class CsvData {
 
     public void putCsvData(String key, String data) {
         removeAllData(key);
-        if (csvData == null) {
-            csvData = new HashMap<String, String>(2);
-        }
         changedDataIndicators = null;
-        csvData.put(key, data);
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            if (csvSlots == null) {
+                csvSlots = new String[SLOT_COUNT];
+            }
+            csvSlots[slot] = data;
+        } else {
+            if (csvData == null) {
+                csvData = new HashMap<String, String>(2);
+            }
+            csvData.put(key, data);
+        }
     }
 
     public String getCsvData(String key) {
-        String data = null;
-        if (csvData != null) {
-            data = csvData.get(key);
-        }
-        if (data == null && parsedCsvData != null) {
-            String[] parsedData = parsedCsvData.get(key);
+        String data = getCsvValue(key);
+        if (data == null) {
+            String[] parsedData = getParsedValue(key);
             if (parsedData != null) {
                 data = CsvUtils.escapeCsvData(parsedData);
                 // swap out data for parsed data so we don't
@@ -174,19 +213,28 @@ public class CsvData {
 
     public final void putParsedData(String key, String[] data) {
         removeAllData(key);
-        if (parsedCsvData == null) {
-            parsedCsvData = new HashMap<String, String[]>(2);
-        }
         changedDataIndicators = null;
-        parsedCsvData.put(key, data);
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            if (parsedSlots == null) {
+                if (data == null) {
+                    return;
+                }
+                parsedSlots = new String[SLOT_COUNT][];
+            }
+            parsedSlots[slot] = data;
+        } else {
+            if (parsedCsvData == null) {
+                parsedCsvData = new HashMap<String, String[]>(2);
+            }
+            parsedCsvData.put(key, data);
+        }
     }
 
     public String[] getParsedData(String key) {
-        String[] values = null;
-        if (parsedCsvData != null && parsedCsvData.containsKey(key)) {
-            values = parsedCsvData.get(key);
-        } else if (csvData != null && csvData.containsKey(key)) {
-            String data = csvData.get(key);
+        String[] values = getParsedValue(key);
+        if (values == null) {
+            String data = getCsvValue(key);
             if (data != null) {
                 values = CsvUtils.tokenizeCsvData(data);
                 putParsedData(key, values);
@@ -195,6 +243,48 @@ public class CsvData {
         return values;
     }
 
+    private String[] getParsedValue(String key) {
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            return parsedSlots == null ? null : parsedSlots[slot];
+        } else {
+            return parsedCsvData == null ? null : parsedCsvData.get(key);
+        }
+    }
+
+    private String getCsvValue(String key) {
+        int slot = slotOf(key);
+        if (slot >= 0) {
+            return csvSlots == null ? null : csvSlots[slot];
+        } else {
+            return csvData == null ? null : csvData.get(key);
+        }
+    }
+
+    private static int slotOf(String key) {
+        if (key == ROW_DATA) {
+            return ROW_SLOT;
+        } else if (key == PK_DATA) {
+            return PK_SLOT;
+        } else if (key == OLD_DATA) {
+            return OLD_SLOT;
+        } else if (key == null) {
+            return -1;
+        }
+        switch (key) {
+            case ROW_DATA:
+                return ROW_SLOT;
+            case PK_DATA:
+                return PK_SLOT;
+            case OLD_DATA:
+                return OLD_SLOT;
+            case RESOLVE_DATA:
+                return RESOLVE_SLOT;
+            default:
+                return -1;
+        }
+    }
+
     public Map<String, String> toKeyColumnValuePairs(Table table) {
         Map<String, String> data = toColumnNameValuePairs(table.getPrimaryKeyColumnNames(), CsvData.PK_DATA);
         if (data.size() == 0) {
@@ -246,6 +336,7 @@ public class CsvData {
     public CsvData copyWithoutOldData() {
         CsvData data = new CsvData(getDataEventType(), getParsedData(CsvData.ROW_DATA));
         data.attributes = attributes;
+        data.sharedAttributes = sharedAttributes;
         return data;
     }
 
@@ -288,6 +379,13 @@ public class CsvData {
 
     public long getSizeInBytes() {
         long size = 0;
+        if (csvSlots != null) {
+            for (String string : csvSlots) {
+                if (string != null) {
+                    size += string.getBytes(Charset.defaultCharset()).length;
+                }
+            }
+        }
         if (csvData != null) {
             Collection<String> values = csvData.values();
             for (String string : values) {
@@ -299,11 +397,52 @@ public class CsvData {
         return size;
     }
 
+    /**
+     * The row's attributes, including any shared attributes. Shared attributes are copied into the row's own map the first time this is called so that
+     * changes to the returned map only affect this row.
+     */
     public Map<String, Object> getAttributes() {
+        if (sharedAttributes != null) {
+            Map<String, Object> merged = new HashMap<String, Object>(sharedAttributes);
+            if (attributes != null) {
+                merged.putAll(attributes);
+            }
+            attributes = merged;
+            sharedAttributes = null;
+        }
         return attributes;
     }
 
     public void setAttributes(Map<String, Object> attributes) {
         this.attributes = attributes;
+        this.sharedAttributes = null;
+    }
+
+    /**
+     * Set read only attributes that are shared by many rows, like the channel and table of a batch, so that each row doesn't need its own copy. Attributes
+     * put on the row take precedence over shared attributes.
+     */
+    public void setSharedAttributes(Map<String, Object> sharedAttributes) {
+        this.sharedAttributes = sharedAttributes;
+    }
+
+    /**
+     * Clear all data and attributes so the instance can be reused for the next row. Only readers feeding a writer that does not hold on to rows should
+     * reuse instances.
+     */
+    public void reset() {
+        if (parsedSlots != null) {
+            Arrays.fill(parsedSlots, null);
+        }
+        if (csvSlots != null) {
+            Arrays.fill(csvSlots, null);
+        }
+        parsedCsvData = null;
+        csvData = null;
+        attributes = null;
+        sharedAttributes = null;
+        noBinaryOldData = false;
+        dataEventType = null;
+        changedDataIndicators = null;
     }
 }
\ No newline at end of file
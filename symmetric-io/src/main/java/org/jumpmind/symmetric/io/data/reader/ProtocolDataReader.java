@@ -31,6 +31,7 @@ import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -53,7 +54,6 @@ import org.jumpmind.symmetric.io.data.DataEventType;
 import org.jumpmind.symmetric.io.data.IDataReader;
 import org.jumpmind.symmetric.io.data.ProtocolException;
 import org.jumpmind.symmetric.io.stage.IStagedResource;
-import org.jumpmind.util.CollectionUtils;
 import org.jumpmind.util.Statistics;
 
 public class ProtocolDataReader extends AbstractDataReader implements IDataReader {
@@ -77,6 +77,9 @@ public class ProtocolDataReader extends AbstractDataReader implements IDataReade
     protected boolean streamToFile = true;
     protected long baseTime;
     protected Timestamp createTime;
+    protected Map<String, Object> sharedAttributes;
+    protected boolean reuseCsvData = false;
+    protected CsvData reusableCsvData;
 
     public ProtocolDataReader(BatchType batchType, String targetNodeId, StringBuilder input) {
         this(batchType, targetNodeId, new BufferedReader(new StringReader(input.toString())));
@@ -121,6 +124,18 @@ public class ProtocolDataReader extends AbstractDataReader implements IDataReade
         }
     }
 
+    /**
+     * Return the same {@link CsvData} instance for every row instead of allocating a new one. Only use this when the rows are handed to a writer that
+     * is done with each row before the next one is read and does not hold on to it, like the {@link org.jumpmind.symmetric.io.data.writer.ProtocolDataWriter}.
+     */
+    public void setReuseCsvData(boolean reuseCsvData) {
+        this.reuseCsvData = reuseCsvData;
+    }
+
+    public boolean isReuseCsvData() {
+        return reuseCsvData;
+    }
+
     public IStagedResource getStagedResource() {
         return stagedResource;
     }
@@ -167,22 +182,17 @@ public class ProtocolDataReader extends AbstractDataReader implements IDataReade
                     stats.increment(DataReaderStatistics.READ_RECORD_COUNT, 1);
                 }
                 if (tokens[0].equals(CsvConstants.INSERT)) {
-                    CsvData data = new CsvData();
+                    CsvData data = newCsvData();
                     data.setNoBinaryOldData(noBinaryOldData);
                     data.setDataEventType(DataEventType.INSERT);
-                    data.putParsedData(CsvData.ROW_DATA, CollectionUtils.copyOfRange(tokens, 1, tokens.length));
-                    if (createTime != null) {
-                        data.putAttribute(CsvData.ATTRIBUTE_CREATE_TIME, createTime);
-                    }
-                    data.putAttribute(CsvData.ATTRIBUTE_CHANNEL_ID, channelId);
-                    data.putAttribute(CsvData.ATTRIBUTE_TABLE_NAME, tableName);
-                    data.putAttribute(CsvData.ATTRIBUTE_SOURCE_NODE_ID, sourceNodeId);
+                    data.putParsedData(CsvData.ROW_DATA, Arrays.copyOfRange(tokens, 1, tokens.length));
+                    data.setSharedAttributes(getSharedAttributes());
                     tokens = null;
                     return data;
                 } else if (tokens[0].equals(CsvConstants.OLD)) {
-                    parsedOldData = CollectionUtils.copyOfRange(tokens, 1, tokens.length);
+                    parsedOldData = Arrays.copyOfRange(tokens, 1, tokens.length);
                 } else if (tokens[0].equals(CsvConstants.UPDATE)) {
-                    CsvData data = new CsvData();
+                    CsvData data = newCsvData();
                     data.setNoBinaryOldData(noBinaryOldData);
                     data.setDataEventType(DataEventType.UPDATE);
                     int columnCount = context.getLastParsedTable().getColumnCount();
@@ -194,33 +204,24 @@ public class ProtocolDataReader extends AbstractDataReader implements IDataReade
                                 ArrayUtils.toString(tokens));
                         throw new ProtocolException(msg);
                     }
-                    data.putParsedData(CsvData.ROW_DATA, CollectionUtils.copyOfRange(tokens, 1, columnCount + 1));
-                    data.putParsedData(CsvData.PK_DATA, CollectionUtils.copyOfRange(tokens, columnCount + 1, tokens.length));
+                    data.putParsedData(CsvData.ROW_DATA, Arrays.copyOfRange(tokens, 1, columnCount + 1));
+                    data.putParsedData(CsvData.PK_DATA, Arrays.copyOfRange(tokens, columnCount + 1, tokens.length));
                     data.putParsedData(CsvData.OLD_DATA, parsedOldData);
-                    if (createTime != null) {
-                        data.putAttribute(CsvData.ATTRIBUTE_CREATE_TIME, createTime);
-                    }
-                    data.putAttribute(CsvData.ATTRIBUTE_CHANNEL_ID, channelId);
-                    data.putAttribute(CsvData.ATTRIBUTE_TABLE_NAME, tableName);
-                    data.putAttribute(CsvData.ATTRIBUTE_SOURCE_NODE_ID, sourceNodeId);
+                    data.setSharedAttributes(getSharedAttributes());
                     tokens = null;
                     return data;
                 } else if (tokens[0].equals(CsvConstants.DELETE)) {
-                    CsvData data = new CsvData();
+                    CsvData data = newCsvData();
                     data.setNoBinaryOldData(noBinaryOldData);
                     data.setDataEventType(DataEventType.DELETE);
-                    data.putParsedData(CsvData.PK_DATA, CollectionUtils.copyOfRange(tokens, 1, tokens.length));
+                    data.putParsedData(CsvData.PK_DATA, Arrays.copyOfRange(tokens, 1, tokens.length));
                     data.putParsedData(CsvData.OLD_DATA, parsedOldData);
-                    if (createTime != null) {
-                        data.putAttribute(CsvData.ATTRIBUTE_CREATE_TIME, createTime);
-                    }
-                    data.putAttribute(CsvData.ATTRIBUTE_CHANNEL_ID, channelId);
-                    data.putAttribute(CsvData.ATTRIBUTE_TABLE_NAME, tableName);
-                    data.putAttribute(CsvData.ATTRIBUTE_SOURCE_NODE_ID, sourceNodeId);
+                    data.setSharedAttributes(getSharedAttributes());
                     tokens = null;
                     return data;
                 } else if (tokens[0].equals(CsvConstants.TIME)) {
                     createTime = new Timestamp(Long.parseLong(tokens[1]) + baseTime);
+                    sharedAttributes = null;
                 } else if (tokens[0].equals(CsvConstants.BATCH) || tokens[0].equals(CsvConstants.RETRY)) {
                     Batch batch = new Batch(batchType, Long.parseLong(tokens[1]), channelId, binaryEncoding, sourceNodeId, targetNodeId,
                             false);
@@ -231,6 +232,7 @@ public class ProtocolDataReader extends AbstractDataReader implements IDataReade
                     }
                     tokens = null;
                     createTime = null;
+                    sharedAttributes = null;
                     return batch;
                 } else if (tokens[0].equals(CsvConstants.NO_BINARY_OLD_DATA)) {
                     if (tokens.length > 1) {
@@ -238,16 +240,19 @@ public class ProtocolDataReader extends AbstractDataReader implements IDataReade
                     }
                 } else if (tokens[0].equals(CsvConstants.NODEID)) {
                     this.sourceNodeId = tokens[1];
+                    sharedAttributes = null;
                 } else if (tokens[0].equals(CsvConstants.BINARY)) {
                     this.binaryEncoding = BinaryEncoding.valueOf(tokens[1]);
                 } else if (tokens[0].equals(CsvConstants.CHANNEL)) {
                     this.channelId = tokens[1];
+                    sharedAttributes = null;
                 } else if (tokens[0].equals(CsvConstants.SCHEMA)) {
                     schemaName = tokens.length == 1 || StringUtils.isBlank(tokens[1]) ? null : tokens[1];
                 } else if (tokens[0].equals(CsvConstants.CATALOG)) {
                     catalogName = tokens.length == 1 || StringUtils.isBlank(tokens[1]) ? null : tokens[1];
                 } else if (tokens[0].equals(CsvConstants.TABLE)) {
                     tableName = tokens[1];
+                    sharedAttributes = null;
                     table = context.getParsedTables().get(Table.getFullyQualifiedTableName(catalogName, schemaName, tableName));
                     if (table != null) {
                         context.setLastParsedTable(table);
@@ -301,14 +306,15 @@ public class ProtocolDataReader extends AbstractDataReader implements IDataReade
                         batch.setIgnored(true);
                     }
                 } else if (tokens[0].equals(CsvConstants.STATS_COLUMNS)) {
-                    statsColumns = CollectionUtils.copyOfRange(tokens, 1, tokens.length);
+                    statsColumns = Arrays.copyOfRange(tokens, 1, tokens.length);
                 } else if (tokens[0].equals(CsvConstants.STATS)) {
-                    statsValues = CollectionUtils.copyOfRange(tokens, 1, tokens.length);
+                    statsValues = Arrays.copyOfRange(tokens, 1, tokens.length);
                     stats = stats != null ? stats : new DataReaderStatistics();
                     putStats(stats, statsColumns, statsValues);
                 } else if (tokens[0].equals(CsvConstants.BASETIME)) {
                     baseTime = Long.parseLong(tokens[1]);
                     createTime = new Timestamp(baseTime);
+                    sharedAttributes = null;
                 } else {
                     log.info("Unable to handle unknown csv values: " + Arrays.toString(tokens));
                 }
@@ -320,6 +326,36 @@ public class ProtocolDataReader extends AbstractDataReader implements IDataReade
         return null;
     }
 
+    protected CsvData newCsvData() {
+        if (reuseCsvData) {
+            if (reusableCsvData == null) {
+                reusableCsvData = new CsvData();
+            } else {
+                reusableCsvData.reset();
+            }
+            return reusableCsvData;
+        }
+        return new CsvData();
+    }
+
+    /**
+     * The attributes every row of the current table shares. The map is rebuilt only when the channel, table, source node or create time changes, so rows
+     * of the same table reference one read only map.
+     */
+    protected Map<String, Object> getSharedAttributes() {
+        if (sharedAttributes == null) {
+            Map<String, Object> attributes = new HashMap<String, Object>(8);
+            if (createTime != null) {
+                attributes.put(CsvData.ATTRIBUTE_CREATE_TIME, createTime);
+            }
+            attributes.put(CsvData.ATTRIBUTE_CHANNEL_ID, channelId);
+            attributes.put(CsvData.ATTRIBUTE_TABLE_NAME, tableName);
+            attributes.put(CsvData.ATTRIBUTE_SOURCE_NODE_ID, sourceNodeId);
+            sharedAttributes = Collections.unmodifiableMap(attributes);
+        }
+        return sharedAttributes;
+    }
+
     public Batch nextBatch() {
         if (next instanceof Batch) {
             this.batch = (Batch) next;
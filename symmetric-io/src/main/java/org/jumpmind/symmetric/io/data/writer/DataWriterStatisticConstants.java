@@ -23,6 +23,8 @@ package org.jumpmind.symmetric.io.data.writer;
 abstract public class DataWriterStatisticConstants {
     public static final String BYTECOUNT = "BYTECOUNT";
     public static final String TRANSFORMMILLIS = "TRANSFORMMILLIS";
+    public static final String LOOKUPCACHEHITS = "LOOKUPCACHEHITS";
+    public static final String LOOKUPCACHEMISSES = "LOOKUPCACHEMISSES";
     public static final String FILTERMILLIS = "FILTERMILLIS";
     public static final String LOADMILLIS = "LOADMILLIS";
     public static final String ROWCOUNT = "STATEMENTCOUNT";
@@ -27,6 +27,7 @@ import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +42,7 @@ import org.jumpmind.db.model.TypeMap;
 import org.jumpmind.db.platform.DatabaseInfo;
 import org.jumpmind.db.platform.DatabaseNamesConstants;
 import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.platform.IValueConverter;
 import org.jumpmind.db.sql.DataTruncationException;
 import org.jumpmind.db.sql.DmlStatement;
 import org.jumpmind.db.sql.DmlStatement.DmlType;
@@ -73,6 +75,10 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
     protected ISqlTransaction transaction;
     protected DmlStatement currentDmlStatement;
     protected Object[] currentDmlValues;
+    protected DmlStatement currentDmlConvertersStatement;
+    protected IValueConverter[] currentDmlConverters;
+    protected Column[] currentDmlMetaData;
+    protected Map<String, IValueConverter[]> valueConvertersBySql = new HashMap<String, IValueConverter[]>();
     protected LogSqlBuilder logSqlBuilder = new LogSqlBuilder();
     protected boolean isRequiresSavePointsInTransaction;
     protected Boolean isCteExpression;
@@ -125,6 +131,8 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
     @Override
     public boolean start(Table table) {
         currentDmlStatement = null;
+        currentDmlConvertersStatement = null;
+        valueConvertersBySql.clear();
         boolean process = super.start(table);
         if (process && targetTable != null) {
             allowInsertIntoAutoIncrementColumns(true, targetTable);
@@ -280,8 +288,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
             try {
                 getTransaction().execute("savepoint sym");
                 getTransaction().prepare(currentDmlStatement.getSql(false));
-                currentDmlValues = getPlatform().getObjectValues(batch.getBinaryEncoding(), values,
-                        currentDmlStatement.getMetaData(), false, writerSettings.isFitToColumn());
+                currentDmlValues = getPlatform().getObjectValues(getValueConverters(), values, currentDmlMetaData);
                 getTransaction().addRow(data, currentDmlValues, currentDmlStatement.getTypes());
             } catch (SqlException e) {
                 getTransaction().execute("rollback to savepoint sym");
@@ -999,6 +1006,24 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
         }
     }
 
+    /**
+     * Get the value converters for the current statement, which are built once for each statement of the table
+     */
+    protected IValueConverter[] getValueConverters() {
+        if (currentDmlConvertersStatement != currentDmlStatement) {
+            currentDmlMetaData = currentDmlStatement.getMetaData();
+            String sql = currentDmlStatement.getSql();
+            currentDmlConverters = valueConvertersBySql.get(sql);
+            if (currentDmlConverters == null) {
+                currentDmlConverters = getPlatform().getValueConverters(batch.getBinaryEncoding(), currentDmlMetaData, false,
+                        writerSettings.isFitToColumn());
+                valueConvertersBySql.put(sql, currentDmlConverters);
+            }
+            currentDmlConvertersStatement = currentDmlStatement;
+        }
+        return currentDmlConverters;
+    }
+
     protected void prepare() {
         getTransaction().prepare(currentDmlStatement.getSql());
     }
@@ -1008,8 +1033,7 @@ public class DefaultDatabaseWriter extends AbstractDatabaseWriter {
     }
 
     protected int execute(CsvData data, String[] values) {
-        currentDmlValues = getPlatform().getObjectValues(batch.getBinaryEncoding(), values,
-                currentDmlStatement.getMetaData(), false, writerSettings.isFitToColumn());
+        currentDmlValues = getPlatform().getObjectValues(getValueConverters(), values, currentDmlMetaData);
         if (log.isDebugEnabled()) {
             log.debug("Submitting data [{}] with types [{}]",
                     dmlValuesToString(currentDmlValues, currentDmlStatement.getTypes()),
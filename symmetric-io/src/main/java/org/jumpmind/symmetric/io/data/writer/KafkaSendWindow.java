@@ -0,0 +1,114 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.writer;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.jumpmind.exception.InterruptedException;
+
+/**
+ * Sends records to Kafka as they are produced while limiting how many records can be waiting on an acknowledgement. A send
+ * blocks when the window is full until the producer acknowledges an earlier record. The first failure reported to a callback
+ * is thrown from the next send or from {@link #await()}.
+ */
+public class KafkaSendWindow {
+    protected Producer<String, Object> producer;
+    protected int maxInFlight;
+    protected Semaphore available;
+    protected AtomicLong sentCount = new AtomicLong();
+    protected AtomicLong acknowledgedCount = new AtomicLong();
+    protected volatile Exception failure;
+
+    public KafkaSendWindow(Producer<String, Object> producer, int maxInFlight) {
+        this.producer = producer;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.available = new Semaphore(this.maxInFlight);
+    }
+
+    public void send(ProducerRecord<String, Object> record) {
+        checkFailure();
+        acquire(1);
+        try {
+            producer.send(record, new Callback() {
+                public void onCompletion(RecordMetadata metadata, Exception exception) {
+                    if (exception != null) {
+                        if (failure == null) {
+                            failure = exception;
+                        }
+                    } else {
+                        acknowledgedCount.incrementAndGet();
+                    }
+                    available.release();
+                }
+            });
+            sentCount.incrementAndGet();
+        } catch (RuntimeException ex) {
+            available.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Flushes the producer and waits until every record sent through this window has been acknowledged
+     */
+    public void await() {
+        producer.flush();
+        acquire(maxInFlight);
+        available.release(maxInFlight);
+        checkFailure();
+    }
+
+    protected void acquire(int permits) {
+        try {
+            available.acquire(permits);
+        } catch (java.lang.InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedException(ex);
+        }
+    }
+
+    protected void checkFailure() {
+        if (failure != null) {
+            throw new RuntimeException("Failed to send a message to Kafka", failure);
+        }
+    }
+
+    public int getInFlightCount() {
+        return maxInFlight - available.availablePermits();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getAcknowledgedCount() {
+        return acknowledgedCount.get();
+    }
+
+    public Exception getFailure() {
+        return failure;
+    }
+}
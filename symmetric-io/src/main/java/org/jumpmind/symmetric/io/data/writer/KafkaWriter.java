@@ -38,6 +38,7 @@ import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.Encoder;
 import org.apache.avro.io.EncoderFactory;
 import org.apache.commons.beanutils.BeanUtils;
@@ -46,6 +47,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.DateUtils;
 import org.apache.commons.text.StringEscapeUtils;
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.serialization.StringSerializer;
@@ -107,6 +109,9 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
     public final static String KAFKA_MESSAGE_BY_ROW = "ROW";
     public final static String KAFKA_TOPIC_BY_TABLE = "TABLE";
     public final static String KAFKA_TOPIC_BY_CHANNEL = "CHANNEL";
+    public final static String KAFKA_STREAMING = "kafka.streaming";
+    public final static String KAFKA_MAX_IN_FLIGHT = "kafka.max.in.flight";
+    public final static int KAFKA_MAX_IN_FLIGHT_DEFAULT = 1000;
     public final static String AVRO_CDC_SCHEMA = "{" + "\"type\":\"record\"," + "\"name\":\"cdc\"," + "\"fields\":["
             + "  { \"name\":\"table\", \"type\":\"string\" }," + "  { \"name\":\"eventType\", \"type\":\"string\" },"
             + "  { \"name\":\"data\", \"type\":{" + "     \"type\":\"array\", \"items\":{" + "         \"name\":\"column\","
@@ -114,12 +119,19 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
             + "            {\"name\":\"value\", \"type\":[\"null\", \"string\"]} ] }}}]}";
     Schema.Parser parser = new Schema.Parser();
     Schema schema = null;
+    Schema columnSchema = null;
+    GenericDatumWriter<GenericRecord> datumWriter;
+    BinaryEncoder encoder;
+    Gson gson = new Gson();
     Map<String, Object> configs = new HashMap<String, Object>();
     Map<String, Class<?>> tableClassCache = new HashMap<String, Class<?>>();
     Map<String, String> tableNameCache = new HashMap<String, String>();
     Map<String, Map<String, String>> tableColumnCache = new HashMap<String, Map<String, String>>();
-    public KafkaProducer<String, Object> kafkaProducer;
-    protected static Map<String, KafkaProducer<String, Object>> producerMap = new HashMap<String, KafkaProducer<String, Object>>();
+    public Producer<String, Object> kafkaProducer;
+    protected static Map<String, Producer<String, Object>> producerMap = new HashMap<String, Producer<String, Object>>();
+    protected boolean streaming;
+    protected int maxInFlight;
+    protected KafkaSendWindow sendWindow;
 
     public KafkaWriter(IDatabasePlatform symmetricPlatform, IDatabasePlatform targetPlatform, String prefix,
             IDatabaseWriterConflictResolver conflictResolver, DatabaseWriterSettings settings, String producer, String outputFormat,
@@ -127,6 +139,8 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
             String loadOnlyPrefix, TypedProperties props, String runtimeConfigTablePrefix, String channelReload) {
         super(symmetricPlatform, targetPlatform, prefix, conflictResolver, settings);
         schema = parser.parse(AVRO_CDC_SCHEMA);
+        columnSchema = schema.getField("data").schema().getElementType();
+        datumWriter = new GenericDatumWriter<GenericRecord>(schema);
         this.url = url;
         this.producer = producer;
         this.outputFormat = outputFormat;
@@ -138,6 +152,8 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
         this.props = props;
         this.runtimeConfigTablePrefix = runtimeConfigTablePrefix;
         this.channelReload = channelReload;
+        this.streaming = props.is(KAFKA_STREAMING, false);
+        this.maxInFlight = props.getInt(KAFKA_MAX_IN_FLIGHT, KAFKA_MAX_IN_FLIGHT_DEFAULT);
         if (this.url == null) {
             throw new RuntimeException(
                     "Kakfa not configured properly, verify you have set the endpoint to kafka with the following property : " + loadOnlyPrefix
@@ -223,7 +239,6 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
             kafkaText.append("{\"").append(table.getName()).append("\": {").append("\"eventType\": \"" + data.getDataEventType() + "\",")
                     .append("\"data\": { ");
             // Let Gson escape the json values
-            Gson gson = new Gson();
             for (int i = 0; i < table.getColumnNames().length; i++) {
                 kafkaText.append("\"").append(table.getColumnNames()[i]).append("\": ");
                 kafkaText.append(gson.toJson(rowData[i]));
@@ -305,21 +320,21 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
                 avroRecord.put("eventType", data.getDataEventType().toString());
                 Collection<GenericRecord> dataCollection = new ArrayList<GenericRecord>();
                 for (int i = 0; i < table.getColumnNames().length; i++) {
-                    GenericRecord columnRecord = new GenericData.Record(schema.getField("data").schema().getElementType());
+                    GenericRecord columnRecord = new GenericData.Record(columnSchema);
                     columnRecord.put("name", table.getColumnNames()[i]);
                     columnRecord.put("value", rowData[i]);
                     dataCollection.add(columnRecord);
                 }
                 avroRecord.put("data", dataCollection);
                 try {
-                    kafkaDataList.add(new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, datumToByteArray(schema, avroRecord)));
+                    addKafkaRecord(kafkaDataList, new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, toByteArray(avroRecord)));
                     return 1;
                 } catch (IOException ioe) {
                     throw new RuntimeException("Unable to convert row data to an Avro record", ioe);
                 }
             }
         }
-        kafkaDataList.add(new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, kafkaText.toString()));
+        addKafkaRecord(kafkaDataList, new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, kafkaText.toString()));
         return 1;
     }
 
@@ -328,7 +343,12 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
         statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS);
         Table table = this.sourceTable;
         int successValue = 0;
-        successValue = writeKafka(data, table);
+        if (isSymmetricTable(table != null ? table.getName() : "")) {
+            statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS);
+            return super.delete(data, useConflictDetection);
+        } else {
+            successValue = writeKafka(data, table);
+        }
         statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS);
         if (successValue == 1) {
             return LoadStatus.SUCCESS;
@@ -453,6 +473,7 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
             batchComplete(context);
             commit(false);
         } else {
+            sendWindow = null;
             rollback();
         }
     }
@@ -534,11 +555,11 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
     }
 
     public String getColumnName(String dbTableName, String dbColumnName, Object bean) {
-        if (tableColumnCache.containsKey(dbColumnName) && tableColumnCache.get(dbTableName).containsKey(dbColumnName)) {
+        if (tableColumnCache.containsKey(dbTableName) && tableColumnCache.get(dbTableName).containsKey(dbColumnName)) {
             return tableColumnCache.get(dbTableName).get(dbColumnName);
         } else {
             String columnName = null;
-            if (!tableColumnCache.containsKey(dbColumnName)) {
+            if (!tableColumnCache.containsKey(dbTableName)) {
                 tableColumnCache.put(dbTableName, new HashMap<String, String>());
             }
             String dbColumnNameSimple = dbColumnName.toLowerCase().replaceAll("[^a-z0-9]", "");
@@ -559,7 +580,34 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
 
     public void sendKafkaMessage(ProducerRecord<String, Object> record) {
         log.debug("Sending message (topic={}) (key={}) {}", record.topic(), record.key(), record.value());
-        kafkaProducer.send(record);
+        if (isStreaming()) {
+            if (sendWindow == null) {
+                sendWindow = new KafkaSendWindow(kafkaProducer, maxInFlight);
+            }
+            sendWindow.send(record);
+        } else {
+            kafkaProducer.send(record);
+        }
+    }
+
+    /**
+     * When streaming one message per row, the record is sent right away instead of being held until the batch is complete. A
+     * record that was sent can't be recalled when the batch rolls back, so a retried batch sends it to Kafka again.
+     */
+    protected void addKafkaRecord(List<ProducerRecord<String, Object>> kafkaDataList, ProducerRecord<String, Object> record) {
+        if (isStreaming() && confluentUrl == null && messageBy.equals(KAFKA_MESSAGE_BY_ROW)) {
+            sendKafkaMessage(record);
+        } else {
+            kafkaDataList.add(record);
+        }
+    }
+
+    protected byte[] toByteArray(GenericRecord datum) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        encoder = EncoderFactory.get().binaryEncoder(os, encoder);
+        datumWriter.write(datum, encoder);
+        encoder.flush();
+        return os.toByteArray();
     }
 
     public static byte[] datumToByteArray(Schema schema, GenericRecord datum) throws IOException {
@@ -576,8 +624,19 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
         }
     }
 
+    protected boolean isStreaming() {
+        return streaming && batch != null && isSentToKafka(batch);
+    }
+
+    /**
+     * Batches on the heartbeat and config channels only update SymmetricDS tables and are never sent to Kafka
+     */
+    protected boolean isSentToKafka(Batch batch) {
+        return !batch.getChannelId().equals("heartbeat") && !batch.getChannelId().equals("config");
+    }
+
     public void batchComplete(DataContext context) {
-        if (!context.getBatch().getChannelId().equals("heartbeat") && !context.getBatch().getChannelId().equals("config")) {
+        if (isSentToKafka(context.getBatch())) {
             String batchFileName = "batch-" + context.getBatch().getSourceNodeId() + "-" + context.getBatch().getBatchId();
             log.debug("Kafka client config: {}", configs);
             try {
@@ -599,14 +658,17 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
                     }
                     kafkaDataMap = new HashMap<String, List<ProducerRecord<String, Object>>>();
                 }
+                if (sendWindow != null) {
+                    sendWindow.await();
+                    log.debug("Kafka acknowledged {} messages for {}", sendWindow.getAcknowledgedCount(), batchFileName);
+                }
             } catch (Exception e) {
                 log.warn("Unable to write batch to Kafka " + batchFileName, e);
                 throw new RuntimeException(e);
                 // e.printStackTrace();
             } finally {
                 context.put(KAFKA_TEXT_CACHE, new HashMap<String, List<String>>());
-                tableNameCache.clear();
-                tableColumnCache = new HashMap<String, Map<String, String>>();
+                sendWindow = null;
             }
         }
     }
@@ -646,7 +708,6 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
             kafkaText.append("{\"").append(table.getName()).append("\": {").append("\"eventType\": \"" + data.getDataEventType() + "\",")
                     .append("\"data\": { ");
             // Let Gson escape the json values
-            Gson gson = new Gson();
             for (int i = 0; i < table.getColumnNames().length; i++) {
                 kafkaText.append("\"").append(table.getColumnNames()[i]).append("\": ");
                 kafkaText.append(gson.toJson(rowData[i]));
@@ -728,21 +789,21 @@ public class KafkaWriter extends DynamicDefaultDatabaseWriter {
                 avroRecord.put("eventType", data.getDataEventType().toString());
                 Collection<GenericRecord> dataCollection = new ArrayList<GenericRecord>();
                 for (int i = 0; i < table.getColumnNames().length; i++) {
-                    GenericRecord columnRecord = new GenericData.Record(schema.getField("data").schema().getElementType());
+                    GenericRecord columnRecord = new GenericData.Record(columnSchema);
                     columnRecord.put("name", table.getColumnNames()[i]);
                     columnRecord.put("value", rowData[i]);
                     dataCollection.add(columnRecord);
                 }
                 avroRecord.put("data", dataCollection);
                 try {
-                    kafkaDataList.add(new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, datumToByteArray(schema, avroRecord)));
+                    addKafkaRecord(kafkaDataList, new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, toByteArray(avroRecord)));
                     return 1;
                 } catch (IOException ioe) {
                     throw new RuntimeException("Unable to convert row data to an Avro record", ioe);
                 }
             }
         }
-        kafkaDataList.add(new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, kafkaText.toString()));
+        addKafkaRecord(kafkaDataList, new ProducerRecord<String, Object>(kafkaDataKey, kafkaKey, kafkaText.toString()));
         return 1;
     }
 }
@@ -82,6 +82,7 @@ public class StagingDataWriter extends AbstractProtocolDataWriter {
             if (resource == null || resource.getState() == State.DONE) {
                 log.debug("Creating staged resource for batch {}", batch.getNodeBatchId());
                 resource = stagingManager.create(category, location, batch.getBatchId());
+                resource.setCodec(stagingManager.getCodec(batch.getChannelId()));
                 if (acquireReference) {
                     resource.reference();
                 }
@@ -0,0 +1,283 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.stage;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses staging in independent blocks with {@link Deflater}. Each block is written as a frame of its uncompressed length, its compressed length, and
+ * the compressed bytes. A block that does not get smaller is stored as is, which is marked by the two lengths being equal. Blocks are small enough that
+ * memory use does not grow with the size of the batch, and the default level favors speed because staging is written and read once.
+ */
+public class DeflateStagingCodec implements IStagingCodec {
+    public static final String NAME = "deflate";
+    public static final int DEFAULT_BLOCK_SIZE = 65536;
+    protected int level;
+    protected int blockSize;
+
+    public DeflateStagingCodec() {
+        this(Deflater.BEST_SPEED, DEFAULT_BLOCK_SIZE);
+    }
+
+    public DeflateStagingCodec(int level, int blockSize) {
+        this.level = level;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public OutputStream compress(OutputStream out) throws IOException {
+        return new BlockOutputStream(out, level, blockSize);
+    }
+
+    @Override
+    public InputStream decompress(InputStream in) throws IOException {
+        return new BlockInputStream(in);
+    }
+
+    /**
+     * Adds up the uncompressed lengths of the block frames, skipping over the compressed bytes. When the file is still being written, a block is counted
+     * once its frame header is written.
+     */
+    @Override
+    public long getUncompressedLength(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        long length = 0;
+        byte[] header = new byte[8];
+        while (true) {
+            try {
+                data.readFully(header);
+            } catch (EOFException e) {
+                break;
+            }
+            int blockLength = ((header[0] & 0xff) << 24) | ((header[1] & 0xff) << 16) | ((header[2] & 0xff) << 8) | (header[3] & 0xff);
+            int compressedLength = ((header[4] & 0xff) << 24) | ((header[5] & 0xff) << 16) | ((header[6] & 0xff) << 8) | (header[7] & 0xff);
+            if (blockLength <= 0 || compressedLength <= 0 || compressedLength > blockLength) {
+                throw new IOException("Corrupt staging block with length " + blockLength + " and compressed length " + compressedLength);
+            }
+            length += blockLength;
+            long remaining = compressedLength;
+            while (remaining > 0) {
+                long skipped = data.skip(remaining);
+                if (skipped <= 0) {
+                    if (data.read() < 0) {
+                        return length;
+                    }
+                    skipped = 1;
+                }
+                remaining -= skipped;
+            }
+        }
+        return length;
+    }
+
+    static class BlockOutputStream extends FilterOutputStream {
+        protected Deflater deflater;
+        protected byte[] header = new byte[8];
+        protected byte[] block;
+        protected byte[] compressed;
+        protected int count;
+        protected boolean closed;
+
+        BlockOutputStream(OutputStream out, int level, int blockSize) {
+            super(out);
+            this.deflater = new Deflater(level, true);
+            this.block = new byte[blockSize];
+            this.compressed = new byte[blockSize + blockSize / 100 + 64];
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == block.length) {
+                writeBlock();
+            }
+            block[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == block.length) {
+                    writeBlock();
+                }
+                int length = Math.min(len, block.length - count);
+                System.arraycopy(b, off, block, count, length);
+                count += length;
+                off += length;
+                len -= length;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeBlock();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                try {
+                    flush();
+                } finally {
+                    deflater.end();
+                    out.close();
+                }
+            }
+        }
+
+        protected void writeBlock() throws IOException {
+            if (count == 0) {
+                return;
+            }
+            deflater.reset();
+            deflater.setInput(block, 0, count);
+            deflater.finish();
+            int compressedLength = 0;
+            while (!deflater.finished() && compressedLength < count) {
+                compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+            }
+            boolean isStored = !deflater.finished() || compressedLength >= count;
+            writeInt(count, 0);
+            writeInt(isStored ? count : compressedLength, 4);
+            out.write(header);
+            if (isStored) {
+                out.write(block, 0, count);
+            } else {
+                out.write(compressed, 0, compressedLength);
+            }
+            count = 0;
+        }
+
+        protected void writeInt(int value, int offset) {
+            header[offset] = (byte) (value >>> 24);
+            header[offset + 1] = (byte) (value >>> 16);
+            header[offset + 2] = (byte) (value >>> 8);
+            header[offset + 3] = (byte) value;
+        }
+    }
+
+    static class BlockInputStream extends InputStream {
+        protected DataInputStream in;
+        protected Inflater inflater = new Inflater(true);
+        protected byte[] block = new byte[0];
+        protected byte[] compressed = new byte[0];
+        protected int position;
+        protected int count;
+        protected boolean closed;
+
+        BlockInputStream(InputStream in) {
+            this.in = new DataInputStream(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == count && !readBlock()) {
+                return -1;
+            }
+            return block[position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position == count && !readBlock()) {
+                return -1;
+            }
+            int length = Math.min(len, count - position);
+            System.arraycopy(block, position, b, off, length);
+            position += length;
+            return length;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return count - position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                inflater.end();
+                in.close();
+            }
+        }
+
+        protected boolean readBlock() throws IOException {
+            int first = in.read();
+            if (first < 0) {
+                return false;
+            }
+            int length = (first << 24) | (in.readUnsignedByte() << 16) | in.readUnsignedShort();
+            int compressedLength = in.readInt();
+            if (length <= 0 || compressedLength <= 0 || compressedLength > length) {
+                throw new IOException("Corrupt staging block with length " + length + " and compressed length " + compressedLength);
+            }
+            if (block.length < length) {
+                block = new byte[length];
+            }
+            if (compressedLength == length) {
+                in.readFully(block, 0, length);
+            } else {
+                if (compressed.length < compressedLength) {
+                    compressed = new byte[compressedLength];
+                }
+                in.readFully(compressed, 0, compressedLength);
+                inflater.reset();
+                inflater.setInput(compressed, 0, compressedLength);
+                try {
+                    int inflated = 0;
+                    while (inflated < length && !inflater.finished()) {
+                        int n = inflater.inflate(block, inflated, length - inflated);
+                        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                            throw new EOFException("Truncated staging block");
+                        }
+                        inflated += n;
+                    }
+                    if (inflated != length) {
+                        throw new IOException("Corrupt staging block expected " + length + " bytes but inflated " + inflated);
+                    }
+                } catch (DataFormatException e) {
+                    throw new IOException(e);
+                }
+            }
+            position = 0;
+            count = length;
+            return true;
+        }
+    }
+}
@@ -43,12 +43,37 @@ public interface IStagedResource {
 
     public InputStream getInputStream();
 
+    /**
+     * Set the codec to compress with when the content spills to a file. It must be set before the resource is written. A resource that does not
+     * compress ignores it.
+     */
+    public default void setCodec(IStagingCodec codec) {
+    }
+
+    /**
+     * The codec the file is compressed with, or null when it is plain text
+     */
+    public default IStagingCodec getCodec() {
+        return null;
+    }
+
     public File getFile();
 
     public void close();
 
+    /**
+     * The number of bytes of content, which is the uncompressed length when the file is compressed
+     */
     public long getSize();
 
+    /**
+     * The number of bytes the file takes on disk, or 0 when the content is held in memory
+     */
+    public default long getDiskSize() {
+        File file = getFile();
+        return file != null && file.exists() ? file.length() : 0;
+    }
+
     public State getState();
 
     public String getPath();
@@ -0,0 +1,42 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.stage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compresses the content of a staged resource. A codec is registered with {@link StagingCodecs} by its name, which is written at the start of each
+ * compressed file so the file can be read back without knowing how it was configured.
+ */
+public interface IStagingCodec {
+    public String getName();
+
+    public OutputStream compress(OutputStream out) throws IOException;
+
+    public InputStream decompress(InputStream in) throws IOException;
+
+    /**
+     * The number of bytes the compressed content holds before it was compressed, read from a stream positioned after the header
+     */
+    public long getUncompressedLength(InputStream in) throws IOException;
+}
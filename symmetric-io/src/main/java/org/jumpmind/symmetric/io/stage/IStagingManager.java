@@ -37,4 +37,11 @@ public interface IStagingManager {
     public StagingFileLock acquireFileLock(String serverInfo, Object... path);
 
     public File getStagingDirectory();
+
+    /**
+     * The codec to compress staging for the channel with, or null to stage plain text
+     */
+    public default IStagingCodec getCodec(String channelId) {
+        return null;
+    }
 }
@@ -27,7 +27,6 @@ import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -59,6 +58,9 @@ public class StagedResource implements IStagedResource {
     protected Map<Thread, BufferedReader> readers = null;
     protected BufferedWriter writer;
     protected StagingManager stagingManager;
+    protected IStagingCodec codec;
+    protected long uncompressedSize;
+    protected long uncompressedSizeFileLength = -1;
 
     public StagedResource(File directory, String path, StagingManager stagingManager) {
         this.directory = directory;
@@ -231,7 +233,7 @@ public class StagedResource implements IStagedResource {
     }
 
     protected BufferedReader createReader() throws IOException {
-        return new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8.name()));
+        return new BufferedReader(new InputStreamReader(StagingCodecs.decompress(new FileInputStream(file)), StandardCharsets.UTF_8.name()));
     }
 
     private synchronized final void createReadersMap() {
@@ -312,13 +314,13 @@ public class StagedResource implements IStagedResource {
                 outputStream = createOutputStream();
             }
             return outputStream;
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             throw new IoException(e);
         }
     }
 
-    protected OutputStream createOutputStream() throws FileNotFoundException {
-        return new BufferedOutputStream(new FileOutputStream(file));
+    protected OutputStream createOutputStream() throws IOException {
+        return StagingCodecs.compress(codec, new BufferedOutputStream(new FileOutputStream(file)));
     }
 
     public synchronized InputStream getInputStream() {
@@ -346,8 +348,8 @@ public class StagedResource implements IStagedResource {
         return reader;
     }
 
-    protected InputStream createInputStream() throws FileNotFoundException {
-        return new BufferedInputStream(new FileInputStream(file));
+    protected InputStream createInputStream() throws IOException {
+        return StagingCodecs.decompress(new BufferedInputStream(new FileInputStream(file)));
     }
 
     public BufferedWriter getWriter(long threshold) {
@@ -367,12 +369,31 @@ public class StagedResource implements IStagedResource {
     }
 
     protected BufferedWriter createWriter(long threshold) {
-        return new BufferedWriter(new ThresholdFileWriter(threshold, this.memoryBuffer, file));
+        return new BufferedWriter(new ThresholdFileWriter(threshold, this.memoryBuffer, file, codec));
+    }
+
+    public void setCodec(IStagingCodec codec) {
+        this.codec = codec;
+    }
+
+    public IStagingCodec getCodec() {
+        if (codec == null && writer == null && outputStream == null && file != null && file.exists()) {
+            codec = StagingCodecs.getCodec(file);
+        }
+        return codec;
     }
 
     public long getSize() {
         if (file != null && file.exists()) {
-            return file.length();
+            if (getCodec() == null) {
+                return file.length();
+            }
+            long fileLength = file.length();
+            if (fileLength != uncompressedSizeFileLength) {
+                uncompressedSize = StagingCodecs.getUncompressedLength(file);
+                uncompressedSizeFileLength = fileLength;
+            }
+            return uncompressedSize;
         } else if (memoryBuffer != null) {
             return memoryBuffer.length();
         } else {
@@ -380,6 +401,14 @@ public class StagedResource implements IStagedResource {
         }
     }
 
+    public long getDiskSize() {
+        if (file != null && file.exists()) {
+            return file.length();
+        } else {
+            return 0;
+        }
+    }
+
     public boolean exists() {
         return (file != null && file.exists() && file.length() > 0) || (memoryBuffer != null && memoryBuffer.length() > 0);
     }
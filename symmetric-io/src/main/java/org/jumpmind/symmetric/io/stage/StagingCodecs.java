@@ -0,0 +1,170 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.stage;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jumpmind.exception.IoException;
+
+/**
+ * Registry of the {@link IStagingCodec}s that staged resources can be compressed with. A compressed staging file starts with a header of a zero byte, the
+ * letters SYMZ, and the length and name of the codec. Plain staging files are text, so they never start with a zero byte, and files without the header are
+ * read as is.
+ */
+public final class StagingCodecs {
+    public static final String NONE = "none";
+    protected static final byte[] MAGIC = { 0, 'S', 'Y', 'M', 'Z' };
+    protected static final int MAX_NAME_LENGTH = 127;
+    private static final Map<String, IStagingCodec> codecs = new ConcurrentHashMap<String, IStagingCodec>();
+    static {
+        register(new DeflateStagingCodec());
+    }
+
+    private StagingCodecs() {
+    }
+
+    public static void register(IStagingCodec codec) {
+        if (codec.getName().length() > MAX_NAME_LENGTH || codec.getName().equalsIgnoreCase(NONE)) {
+            throw new IllegalArgumentException("Invalid staging codec name: " + codec.getName());
+        }
+        codecs.put(codec.getName().toLowerCase(), codec);
+    }
+
+    /**
+     * Look up a codec by its name, or by the name of a class that implements {@link IStagingCodec}, which is then registered. Returns null for a blank
+     * name or "none".
+     */
+    public static IStagingCodec get(String name) {
+        if (StringUtils.isBlank(name) || name.trim().equalsIgnoreCase(NONE)) {
+            return null;
+        }
+        name = name.trim();
+        IStagingCodec codec = codecs.get(name.toLowerCase());
+        if (codec == null && name.contains(".")) {
+            try {
+                codec = (IStagingCodec) Class.forName(name).getDeclaredConstructor().newInstance();
+                register(codec);
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not create staging codec " + name, e);
+            }
+        }
+        if (codec == null) {
+            throw new IllegalStateException("Unknown staging codec: " + name);
+        }
+        return codec;
+    }
+
+    public static boolean isSameCodec(IStagingCodec codec1, IStagingCodec codec2) {
+        String name1 = codec1 == null ? NONE : codec1.getName();
+        String name2 = codec2 == null ? NONE : codec2.getName();
+        return name1.equalsIgnoreCase(name2);
+    }
+
+    /**
+     * Write the header for the codec and return a stream that compresses with it, or return the stream as is when there is no codec
+     */
+    public static OutputStream compress(IStagingCodec codec, OutputStream out) throws IOException {
+        if (codec == null) {
+            return out;
+        }
+        byte[] name = codec.getName().getBytes(StandardCharsets.US_ASCII);
+        out.write(MAGIC);
+        out.write(name.length);
+        out.write(name);
+        return codec.compress(out);
+    }
+
+    /**
+     * Return a stream that decompresses the content when it starts with a codec header, otherwise the stream positioned at its start
+     */
+    public static InputStream decompress(InputStream in) throws IOException {
+        if (!in.markSupported()) {
+            in = new BufferedInputStream(in);
+        }
+        in.mark(MAGIC.length + 1 + MAX_NAME_LENGTH);
+        IStagingCodec codec = readHeader(in);
+        if (codec == null) {
+            in.reset();
+            return in;
+        }
+        return codec.decompress(in);
+    }
+
+    /**
+     * The codec that a staging file was written with, or null if it is not compressed
+     */
+    public static IStagingCodec getCodec(File file) {
+        if (file == null || !file.exists()) {
+            return null;
+        }
+        try (InputStream in = new FileInputStream(file)) {
+            return readHeader(in);
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+    }
+
+    /**
+     * The length of a staging file's content before it was compressed, which is the length of the file when it is not compressed
+     */
+    public static long getUncompressedLength(File file) {
+        if (file == null || !file.exists()) {
+            return 0;
+        }
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            IStagingCodec codec = readHeader(in);
+            return codec == null ? file.length() : codec.getUncompressedLength(in);
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+    }
+
+    protected static IStagingCodec readHeader(InputStream in) throws IOException {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (in.read() != MAGIC[i]) {
+                return null;
+            }
+        }
+        int length = in.read();
+        if (length <= 0 || length > MAX_NAME_LENGTH) {
+            return null;
+        }
+        byte[] name = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int count = in.read(name, offset, length - offset);
+            if (count < 0) {
+                return null;
+            }
+            offset += count;
+        }
+        return get(new String(name, StandardCharsets.US_ASCII));
+    }
+}
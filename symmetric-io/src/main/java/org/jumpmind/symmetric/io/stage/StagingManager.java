@@ -48,6 +48,8 @@ public class StagingManager implements IStagingManager {
     protected Map<String, IStagedResource> inUse = new ConcurrentHashMap<String, IStagedResource>();
     protected boolean clusterEnabled;
     protected long lowFreeSpaceThresholdMegabytes;
+    protected String defaultCodecName;
+    protected Map<String, String> codecNamesByChannelId = new ConcurrentHashMap<String, String>();
 
     public StagingManager(String directory, boolean clusterEnabled, long lowFreeSpaceThresholdMegabytes) {
         log.info("The staging directory was initialized at the following location: " + directory);
@@ -134,7 +136,7 @@ public class StagingManager implements IStagingManager {
                                 context.addPurgedMemoryBytes(resource.getSize());
                             } else {
                                 context.incrementPurgedFileCount();
-                                context.addPurgedFileBytes(resource.getSize());
+                                context.addPurgedFileBytes(resource.getDiskSize());
                             }
                             cleanPath(resource, ttlInMs, context);
                         } else {
@@ -303,6 +305,31 @@ public class StagingManager implements IStagingManager {
         return directory;
     }
 
+    @Override
+    public IStagingCodec getCodec(String channelId) {
+        String codecName = channelId == null ? null : codecNamesByChannelId.get(channelId);
+        return StagingCodecs.get(codecName != null ? codecName : defaultCodecName);
+    }
+
+    /**
+     * @param codecName
+     *            The name of a codec registered with {@link StagingCodecs}, or "none" or null to stage plain text
+     */
+    public void setDefaultCodecName(String codecName) {
+        this.defaultCodecName = codecName;
+    }
+
+    /**
+     * Use a codec for the channel instead of the default codec. Set "none" to stage the channel as plain text, or null to use the default codec again.
+     */
+    public void setCodecName(String channelId, String codecName) {
+        if (codecName == null) {
+            codecNamesByChannelId.remove(channelId);
+        } else {
+            codecNamesByChannelId.put(channelId, codecName);
+        }
+    }
+
     protected static final DirectoryStream.Filter<Path> STAGING_FILE_FILTER = new DirectoryStream.Filter<Path>() {
         @Override
         public boolean accept(Path entry) {
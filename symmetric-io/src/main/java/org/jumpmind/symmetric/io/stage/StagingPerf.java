@@ -22,13 +22,17 @@ package org.jumpmind.symmetric.io.stage;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.jumpmind.db.util.BinaryEncoding;
 import org.jumpmind.symmetric.io.data.Batch;
@@ -46,14 +50,29 @@ public class StagingPerf {
     protected final static String STAT_BATCH_RENAME = "Rename Batch File";
     protected final static String STAT_BATCH_FIND = "Find Batch File";
     protected final static String STAT_BATCH_READ = "Read Batch File";
+    protected final static String[] WORDS = { "order", "shipped", "pending", "customer", "warehouse", "invoice", "2021-06-01", "12:00:00.000",
+            "north", "south", "retail", "wholesale", "null", "true", "false", "0.00", "USD", "item", "store", "account" };
     protected Logger log = LoggerFactory.getLogger(getClass());
     protected IStagingManager stagingMgr;
     protected StagingPerfListener listener;
     protected String serverInfo;
+    protected IStagingCodec codec;
+    protected SecureRandom random = new SecureRandom();
+    protected long stagedBytes;
+    protected long writtenBytes;
 
     public StagingPerf(IStagingManager stagingMgr, StagingPerfListener listener) {
+        this(stagingMgr, listener, null);
+    }
+
+    /**
+     * @param codec
+     *            The codec to compress the batch files with, or null to stage plain text
+     */
+    public StagingPerf(IStagingManager stagingMgr, StagingPerfListener listener, IStagingCodec codec) {
         this.stagingMgr = stagingMgr;
         this.listener = listener;
+        this.codec = codec;
         serverInfo = String.format("Server: '%s' Host: '%s' IP: '%s'", getClass().getName(), AppUtils.getHostName(), AppUtils.getIpAddress());
     }
 
@@ -64,7 +83,6 @@ public class StagingPerf {
         long totalSeconds = 0;
         log.info("Starting staging test, duration of {} seconds", seconds);
         try {
-            SecureRandom random = new SecureRandom();
             long startBatchId = random.nextInt(999999) + 1;
             long endBatchId = startBatchId + (seconds * 500);
             for (long batchId = startBatchId; batchId < endBatchId; batchId++) {
@@ -96,10 +114,13 @@ public class StagingPerf {
     }
 
     protected void logResults(long totalSeconds, List<StagingPerfResult> resultsAsList) {
-        log.info("Running for {} seconds", totalSeconds);
+        log.info("Running for {} seconds with staging codec {}", totalSeconds, codec == null ? StagingCodecs.NONE : codec.getName());
         for (StagingPerfResult result : resultsAsList) {
             log.info(result.toString());
         }
+        if (writtenBytes > 0) {
+            log.info("Staged {} bytes to {} bytes on disk, {}% of the original size", writtenBytes, stagedBytes, stagedBytes * 100 / writtenBytes);
+        }
     }
 
     protected void testBatch(Batch batch, Map<String, StagingPerfResult> results) {
@@ -113,22 +134,32 @@ public class StagingPerf {
         }
         ts = System.currentTimeMillis();
         IStagedResource resource = stagingMgr.create(STAGE_PATH, batch.getStagedLocation(), batch.getBatchId());
+        long batchBytes = 0;
         if (resource != null) {
             increment(results, STAT_BATCH_CREATE, System.currentTimeMillis() - ts);
+            List<String> rows = new ArrayList<String>(100);
+            for (int i = 0; i < 100; i++) {
+                String row = buildRow(i);
+                rows.add(row);
+                batchBytes += row.getBytes(StandardCharsets.UTF_8).length;
+            }
+            resource.setCodec(codec);
             ts = System.currentTimeMillis();
             try (BufferedWriter writer = resource.getWriter(0l)) {
-                for (int i = 0; i < 100; i++) {
-                    writer.write(RandomStringUtils.random(1000));
+                for (String row : rows) {
+                    writer.write(row);
                 }
             } catch (IOException e) {
                 throw new RuntimeException(e);
             } finally {
                 resource.close();
-                increment(results, STAT_BATCH_WRITE, System.currentTimeMillis() - ts);
+                increment(results, STAT_BATCH_WRITE, System.currentTimeMillis() - ts, batchBytes);
             }
             ts = System.currentTimeMillis();
             resource.setState(State.DONE);
             increment(results, STAT_BATCH_RENAME, System.currentTimeMillis() - ts);
+            writtenBytes += batchBytes;
+            stagedBytes += resource.getDiskSize();
         } else {
             throw new RuntimeException("Failed to create staging file");
         }
@@ -144,7 +175,7 @@ public class StagingPerf {
                 throw new RuntimeException(e);
             } finally {
                 resource.close();
-                increment(results, STAT_BATCH_READ, System.currentTimeMillis() - ts);
+                increment(results, STAT_BATCH_READ, System.currentTimeMillis() - ts, batchBytes);
             }
             resource.delete();
         } else {
@@ -152,7 +183,32 @@ public class StagingPerf {
         }
     }
 
+    /**
+     * A row of about 1000 characters that looks like captured data, with random keys and values drawn from a small vocabulary, so that it compresses
+     * about as well as real staging does
+     */
+    protected String buildRow(int rowNumber) {
+        StringBuilder row = new StringBuilder(1100);
+        row.append("insert,\"").append(rowNumber).append("\",\"").append(RandomStringUtils.randomAlphanumeric(36)).append("\"");
+        while (row.length() < 1000) {
+            row.append(",\"");
+            if (random.nextInt(4) == 0) {
+                row.append(RandomStringUtils.randomAlphanumeric(8 + random.nextInt(24)));
+            } else {
+                for (int i = random.nextInt(4); i >= 0; i--) {
+                    row.append(WORDS[random.nextInt(WORDS.length)]).append(i > 0 ? " " : "");
+                }
+            }
+            row.append("\"");
+        }
+        return row.append("\n").toString();
+    }
+
     protected void increment(Map<String, StagingPerfResult> results, String statName, long millis) {
+        increment(results, statName, millis, 0);
+    }
+
+    protected void increment(Map<String, StagingPerfResult> results, String statName, long millis, long bytes) {
         StagingPerfResult result = results.get(statName);
         if (result == null) {
             result = new StagingPerfResult(statName);
@@ -160,6 +216,7 @@ public class StagingPerf {
         }
         result.incrementCount(1);
         result.incrementMillis(millis);
+        result.incrementBytes(bytes);
     }
 
     public static List<StagingPerfResult> getEmptyResults() {
@@ -184,6 +241,34 @@ public class StagingPerf {
         return list;
     }
 
+    /**
+     * Run the test against a temporary staging directory without compression and then with each codec given as an argument. Defaults to 10 seconds
+     * and the deflate codec.
+     */
+    public static void main(String[] args) throws IOException {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        List<String> codecNames = new ArrayList<String>();
+        codecNames.add(StagingCodecs.NONE);
+        for (int i = 1; i < args.length; i++) {
+            codecNames.add(args[i]);
+        }
+        if (codecNames.size() == 1) {
+            codecNames.add(DeflateStagingCodec.NAME);
+        }
+        File directory = Files.createTempDirectory("stagingperf").toFile();
+        try {
+            for (String codecName : codecNames) {
+                StagingPerf perf = new StagingPerf(new StagingManager(directory.getAbsolutePath(), false), new StagingPerfListener() {
+                    public void update(List<StagingPerfResult> results, float percentComplete) {
+                    }
+                }, StagingCodecs.get(codecName));
+                perf.run(seconds);
+            }
+        } finally {
+            FileUtils.deleteQuietly(directory);
+        }
+    }
+
     protected void updateRating(String statName, Map<String, StagingPerfResult> results, List<StagingPerfResult> list,
             long lowCount, long highCount) {
         StagingPerfResult result = results.get(statName);
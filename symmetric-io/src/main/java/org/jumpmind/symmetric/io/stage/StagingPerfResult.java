@@ -24,6 +24,7 @@ public class StagingPerfResult {
     private String name;
     private long count;
     private long millis;
+    private long bytes;
     private float rating;
 
     public StagingPerfResult(String name, long count, long millis, float rating) {
@@ -64,7 +65,8 @@ public class StagingPerfResult {
 
     @Override
     public String toString() {
-        return getClass().getSimpleName() + " { name=" + name + ", count=" + count + ", millis=" + millis + ", ops=" + getOperationsPerSecond() + " }";
+        return getClass().getSimpleName() + " { name=" + name + ", count=" + count + ", millis=" + millis + ", ops=" + getOperationsPerSecond()
+                + (bytes > 0 ? ", bytes=" + bytes + ", MB/s=" + String.format("%.1f", getBytesPerSecond() / 1048576f) : "") + " }";
     }
 
     public String getName() {
@@ -106,6 +108,25 @@ public class StagingPerfResult {
         return count;
     }
 
+    public long getBytes() {
+        return bytes;
+    }
+
+    public void incrementBytes(long inc) {
+        bytes += inc;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public long getBytesPerSecond() {
+        if (millis > 0) {
+            return (long) (bytes / (millis / 1000f));
+        }
+        return bytes;
+    }
+
     public float getRating() {
         return rating;
     }
@@ -41,6 +41,7 @@ public class ThresholdFileWriter extends Writer {
     protected BufferedWriter fileWriter;
     protected StringBuilder buffer;
     protected long threshhold;
+    protected IStagingCodec codec;
 
     /**
      * @param threshold
@@ -49,9 +50,18 @@ public class ThresholdFileWriter extends Writer {
      *            The file to write to after the threshold has been reached
      */
     public ThresholdFileWriter(long threshold, StringBuilder buffer, File file) {
+        this(threshold, buffer, file, null);
+    }
+
+    /**
+     * @param codec
+     *            The codec to compress the file with, or null to write plain text
+     */
+    public ThresholdFileWriter(long threshold, StringBuilder buffer, File file, IStagingCodec codec) {
         this.file = file;
         this.buffer = buffer;
         this.threshhold = threshold;
+        this.codec = codec;
     }
 
     public File getFile() {
@@ -97,12 +107,12 @@ public class ThresholdFileWriter extends Writer {
     }
 
     protected BufferedWriter getWriter() throws IOException {
-        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8.name()));
+        return new BufferedWriter(new OutputStreamWriter(StagingCodecs.compress(codec, new FileOutputStream(file)), StandardCharsets.UTF_8.name()));
     }
 
     public BufferedReader getReader() throws IOException {
         if (file != null && file.exists()) {
-            return new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8.name()));
+            return new BufferedReader(new InputStreamReader(StagingCodecs.decompress(new FileInputStream(file)), StandardCharsets.UTF_8.name()));
         } else {
             return new BufferedReader(new StringReader(buffer.toString()));
         }
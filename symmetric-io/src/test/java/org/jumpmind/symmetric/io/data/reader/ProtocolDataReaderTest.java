@@ -148,6 +148,59 @@ public class ProtocolDataReaderTest {
         assertEquals(2, dataCount);
     }
 
+    @Test
+    public void testSharedAttributes() {
+        StringBuilder builder = beginCsv("1");
+        beginBatch(builder, 1, "test");
+        putTableN(builder, 1, true);
+        putInsert(builder, 2);
+        putTableN(builder, 2, true);
+        putInsert(builder, 1);
+        endCsv(builder);
+        ProtocolDataReader reader = new ProtocolDataReader(BatchType.LOAD, "test", builder);
+        reader.open(new DataContext(reader));
+        reader.nextBatch();
+        reader.nextTable();
+        CsvData first = reader.nextData();
+        CsvData second = reader.nextData();
+        assertNotSame(first, second);
+        assertEquals("test", first.getAttribute(CsvData.ATTRIBUTE_CHANNEL_ID));
+        assertEquals("1", first.getAttribute(CsvData.ATTRIBUTE_SOURCE_NODE_ID));
+        assertEquals("test1", second.getAttribute(CsvData.ATTRIBUTE_TABLE_NAME));
+        first.getAttributes().put(CsvData.ATTRIBUTE_TABLE_NAME, "changed");
+        assertEquals("changed", first.getAttribute(CsvData.ATTRIBUTE_TABLE_NAME));
+        assertEquals("test1", second.getAttribute(CsvData.ATTRIBUTE_TABLE_NAME));
+        assertNull(reader.nextData());
+        reader.nextTable();
+        CsvData third = reader.nextData();
+        assertEquals("test2", third.getAttribute(CsvData.ATTRIBUTE_TABLE_NAME));
+        assertEquals("0", third.getParsedData(CsvData.ROW_DATA)[0]);
+    }
+
+    @Test
+    public void testReuseCsvData() {
+        StringBuilder builder = beginCsv("1");
+        beginBatch(builder, 1, "test");
+        putTableN(builder, 1, true);
+        putInsert(builder, 3);
+        endCsv(builder);
+        ProtocolDataReader reader = new ProtocolDataReader(BatchType.LOAD, "test", builder);
+        reader.setReuseCsvData(true);
+        reader.open(new DataContext(reader));
+        reader.nextBatch();
+        reader.nextTable();
+        CsvData data = reader.nextData();
+        assertEquals("\"0\",\"test\"", data.getCsvData(CsvData.ROW_DATA));
+        for (int i = 1; i < 3; i++) {
+            CsvData next = reader.nextData();
+            assertSame(data, next);
+            assertEquals(DataEventType.INSERT, next.getDataEventType());
+            assertEquals(Integer.toString(i), next.getParsedData(CsvData.ROW_DATA)[0]);
+            assertEquals("test1", next.getAttribute(CsvData.ATTRIBUTE_TABLE_NAME));
+        }
+        assertNull(reader.nextData());
+    }
+
     protected StringBuilder beginCsv(String nodeId) {
         StringBuilder builder = new StringBuilder();
         builder.append(String.format("%s,%s\n", CsvConstants.NODEID, nodeId));
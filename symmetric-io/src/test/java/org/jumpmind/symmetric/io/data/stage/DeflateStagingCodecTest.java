@@ -0,0 +1,124 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.stage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.jumpmind.symmetric.io.stage.DeflateStagingCodec;
+import org.jumpmind.symmetric.io.stage.IStagedResource;
+import org.jumpmind.symmetric.io.stage.IStagedResource.State;
+import org.jumpmind.symmetric.io.stage.StagingCodecs;
+import org.jumpmind.symmetric.io.stage.StagingManager;
+import org.junit.jupiter.api.Test;
+
+public class DeflateStagingCodecTest {
+    @Test
+    public void testRoundTripAcrossBlocks() throws Exception {
+        DeflateStagingCodec codec = new DeflateStagingCodec(6, 1000);
+        for (int size : new int[] { 0, 1, 999, 1000, 1001, 25000 }) {
+            byte[] data = buildCsv(size);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            OutputStream out = StagingCodecs.compress(codec, compressed);
+            for (int i = 0; i < data.length; i += 333) {
+                out.write(data, i, Math.min(333, data.length - i));
+            }
+            out.close();
+            if (size > 1000) {
+                assertTrue("Size " + size, compressed.size() < data.length);
+            }
+            InputStream in = StagingCodecs.decompress(new ByteArrayInputStream(compressed.toByteArray()));
+            assertArrayEquals("Size " + size, data, IOUtils.toByteArray(in));
+        }
+    }
+
+    @Test
+    public void testIncompressibleBlocksAreStored() throws Exception {
+        byte[] data = new byte[5000];
+        new Random(1).nextBytes(data);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        OutputStream out = new DeflateStagingCodec(6, 1000).compress(compressed);
+        out.write(data);
+        out.close();
+        assertEquals(data.length + 5 * 8, compressed.size());
+        assertArrayEquals(data, IOUtils.toByteArray(new DeflateStagingCodec().decompress(new ByteArrayInputStream(compressed.toByteArray()))));
+    }
+
+    @Test
+    public void testPlainContentIsReadAsIs() throws Exception {
+        byte[] data = buildCsv(100);
+        assertArrayEquals(data, IOUtils.toByteArray(StagingCodecs.decompress(new ByteArrayInputStream(data))));
+        assertArrayEquals(new byte[0], IOUtils.toByteArray(StagingCodecs.decompress(new ByteArrayInputStream(new byte[0]))));
+        assertNull(StagingCodecs.get(StagingCodecs.NONE));
+        assertNull(StagingCodecs.get(""));
+    }
+
+    @Test
+    public void testStagedResource() throws Exception {
+        File dir = new File("target/test/staging-codec");
+        FileUtils.deleteQuietly(dir);
+        StagingManager stagingManager = new StagingManager(dir.getAbsolutePath(), false);
+        stagingManager.setDefaultCodecName(DeflateStagingCodec.NAME);
+        stagingManager.setCodecName("heartbeat", StagingCodecs.NONE);
+        assertNull(stagingManager.getCodec("heartbeat"));
+        String csv = new String(buildCsv(100000), StandardCharsets.UTF_8);
+        IStagedResource resource = stagingManager.create("outgoing", "001", 1);
+        resource.setCodec(stagingManager.getCodec("default"));
+        Writer writer = resource.getWriter(1000);
+        writer.write(csv);
+        resource.close();
+        resource.setState(State.DONE);
+        assertTrue(resource.getDiskSize() < csv.length());
+        assertEquals(csv.length(), resource.getSize());
+        resource = new StagingManager(dir.getAbsolutePath(), false).find("outgoing", "001", 1);
+        assertEquals(DeflateStagingCodec.NAME, resource.getCodec().getName());
+        assertEquals(csv.length(), resource.getSize());
+        assertEquals(csv, IOUtils.toString(resource.getReader()));
+        resource.close();
+        assertEquals(csv, IOUtils.toString(resource.getInputStream(), StandardCharsets.UTF_8));
+        resource.close();
+        resource.delete();
+        FileUtils.deleteQuietly(dir);
+    }
+
+    protected byte[] buildCsv(int size) {
+        Random random = new Random(size);
+        StringBuilder csv = new StringBuilder(size + 100);
+        while (csv.length() < size) {
+            csv.append("insert,\"").append(random.nextInt(1000)).append("\",\"name ").append(random.nextInt(50)).append("\",\"2021-06-01\"\n");
+        }
+        csv.setLength(size);
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+
+public class KafkaSendWindowTest {
+
+    @Test
+    public void testSendAndAwait() {
+        MockProducer<String, Object> producer = new MockProducer<String, Object>(true, new StringSerializer(), null);
+        KafkaSendWindow window = new KafkaSendWindow(producer, 10);
+        for (int i = 0; i < 25; i++) {
+            window.send(new ProducerRecord<String, Object>("topic", "key" + i, "value" + i));
+        }
+        window.await();
+        assertEquals(25, producer.history().size());
+        assertEquals(25, window.getSentCount());
+        assertEquals(25, window.getAcknowledgedCount());
+        assertEquals(0, window.getInFlightCount());
+    }
+
+    @Test
+    public void testAwaitWaitsForAcknowledgements() {
+        MockProducer<String, Object> producer = new MockProducer<String, Object>(false, new StringSerializer(), null);
+        KafkaSendWindow window = new KafkaSendWindow(producer, 10);
+        window.send(new ProducerRecord<String, Object>("topic", "key1", "value1"));
+        window.send(new ProducerRecord<String, Object>("topic", "key2", "value2"));
+        assertEquals(2, window.getInFlightCount());
+        assertEquals(0, window.getAcknowledgedCount());
+        window.await();
+        assertEquals(0, window.getInFlightCount());
+        assertEquals(2, window.getAcknowledgedCount());
+    }
+
+    @Test
+    public void testFailedSendFailsAwait() {
+        MockProducer<String, Object> producer = new MockProducer<String, Object>(false, new StringSerializer(), null);
+        KafkaSendWindow window = new KafkaSendWindow(producer, 10);
+        window.send(new ProducerRecord<String, Object>("topic", "key1", "value1"));
+        window.send(new ProducerRecord<String, Object>("topic", "key2", "value2"));
+        RuntimeException error = new RuntimeException("broker unavailable");
+        assertTrue(producer.completeNext());
+        assertTrue(producer.errorNext(error));
+        try {
+            window.await();
+            fail("Expected the failed send to fail the batch");
+        } catch (RuntimeException ex) {
+            assertSame(error, ex.getCause());
+        }
+        assertEquals(1, window.getAcknowledgedCount());
+        try {
+            window.send(new ProducerRecord<String, Object>("topic", "key3", "value3"));
+            fail("Expected no more sends after a failure");
+        } catch (RuntimeException ex) {
+            assertSame(error, ex.getCause());
+        }
+        assertEquals(2, producer.history().size());
+    }
+
+    @Test
+    public void testSendBlocksWhenWindowIsFull() throws Exception {
+        final MockProducer<String, Object> producer = new MockProducer<String, Object>(false, new StringSerializer(), null);
+        final KafkaSendWindow window = new KafkaSendWindow(producer, 2);
+        window.send(new ProducerRecord<String, Object>("topic", "key1", "value1"));
+        window.send(new ProducerRecord<String, Object>("topic", "key2", "value2"));
+        Thread sender = new Thread() {
+            public void run() {
+                window.send(new ProducerRecord<String, Object>("topic", "key3", "value3"));
+            }
+        };
+        sender.start();
+        sender.join(200);
+        assertTrue(sender.isAlive());
+        assertEquals(2, producer.history().size());
+        assertTrue(producer.completeNext());
+        sender.join(5000);
+        assertFalse(sender.isAlive());
+        assertEquals(3, producer.history().size());
+        window.await();
+        assertEquals(3, window.getAcknowledgedCount());
+    }
+}
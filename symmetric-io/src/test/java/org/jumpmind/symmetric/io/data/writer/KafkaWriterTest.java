@@ -0,0 +1,134 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.DatabaseInfo;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.properties.TypedProperties;
+import org.jumpmind.symmetric.io.data.Batch;
+import org.jumpmind.symmetric.io.data.Batch.BatchType;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class KafkaWriterTest {
+
+    static final String CLIENT_ID = "test-producer-00001";
+
+    MockProducer<String, Object> producer;
+
+    KafkaWriter writer;
+
+    Table table = new Table("item", new Column("id", true), new Column("name"));
+
+    @BeforeEach
+    public void setUp() {
+        // Records are only acknowledged when the test completes them, even when the writer flushes the producer
+        producer = new MockProducer<String, Object>(false, new StringSerializer(), null) {
+            @Override
+            public synchronized void flush() {
+            }
+        };
+        KafkaWriter.producerMap.put(CLIENT_ID, producer);
+        TypedProperties props = new TypedProperties();
+        props.put(KafkaWriter.KAFKA_STREAMING, "true");
+        props.put(KafkaWriter.KAFKA_MAX_IN_FLIGHT, "10");
+        IDatabasePlatform platform = mock(IDatabasePlatform.class);
+        when(platform.getDatabaseInfo()).thenReturn(new DatabaseInfo());
+        writer = new KafkaWriter(platform, platform, "sym", null, new DatabaseWriterSettings(), "test-producer",
+                KafkaWriter.KAFKA_FORMAT_JSON, KafkaWriter.KAFKA_TOPIC_BY_TABLE, KafkaWriter.KAFKA_MESSAGE_BY_ROW, null, null, "00001",
+                "localhost:9092", "", props, "sym_runtime", "reload");
+        Batch batch = new Batch(BatchType.LOAD, 1, "default", BinaryEncoding.BASE64, "00000", "00001", false);
+        writer.open(new DataContext(batch));
+        writer.batch = batch;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        KafkaWriter.producerMap.remove(CLIENT_ID);
+    }
+
+    @Test
+    public void testBatchCompleteWaitsForEveryAcknowledgement() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            writer.writeKafka(new CsvData(DataEventType.INSERT, new String[] { Integer.toString(i), "name" + i }), table);
+        }
+        assertEquals(3, producer.history().size());
+        assertEquals("item", producer.history().get(0).topic());
+
+        final Exception[] error = new Exception[1];
+        Thread completer = new Thread() {
+            public void run() {
+                try {
+                    writer.batchComplete(writer.context);
+                } catch (Exception ex) {
+                    error[0] = ex;
+                }
+            }
+        };
+        completer.start();
+        assertTrue(producer.completeNext());
+        assertTrue(producer.completeNext());
+        completer.join(200);
+        assertTrue(completer.isAlive());
+        assertTrue(producer.completeNext());
+        completer.join(5000);
+        assertFalse(completer.isAlive());
+        assertNull(error[0]);
+        assertNull(writer.sendWindow);
+    }
+
+    @Test
+    public void testBatchCompleteFailsWhenSendFails() {
+        for (int i = 1; i <= 3; i++) {
+            writer.writeKafka(new CsvData(DataEventType.INSERT, new String[] { Integer.toString(i), "name" + i }), table);
+        }
+        assertEquals(3, producer.history().size());
+        RuntimeException error = new RuntimeException("broker unavailable");
+        assertTrue(producer.completeNext());
+        assertTrue(producer.errorNext(error));
+        assertTrue(producer.completeNext());
+        try {
+            writer.batchComplete(writer.context);
+            fail("Expected the failed send to fail the batch");
+        } catch (RuntimeException ex) {
+            assertSame(error, ex.getCause().getCause());
+        }
+        assertNull(writer.sendWindow);
+    }
+}
@@ -57,6 +57,7 @@ import org.jumpmind.db.model.Transaction;
 import org.jumpmind.db.model.Table;
 import org.jumpmind.db.platform.AbstractJdbcDatabasePlatform;
 import org.jumpmind.db.platform.DatabaseNamesConstants;
+import org.jumpmind.db.platform.IValueConverter;
 import org.jumpmind.db.platform.PermissionResult;
 import org.jumpmind.db.platform.PermissionResult.Status;
 import org.jumpmind.db.platform.PermissionType;
@@ -204,20 +205,17 @@ public class PostgreSqlDatabasePlatform extends AbstractJdbcDatabasePlatform {
     }
 
     @Override
-    public Object[] getObjectValues(BinaryEncoding encoding, String[] values,
-            Column[] orderedMetaData, boolean useVariableDates, boolean fitToColumn) {
-        Object[] objectValues = super.getObjectValues(encoding, values, orderedMetaData, useVariableDates, fitToColumn);
-        for (int i = 0; i < orderedMetaData.length; i++) {
-            if (orderedMetaData[i] != null && orderedMetaData[i].getMappedTypeCode() == Types.BLOB
-                    && objectValues[i] != null) {
-                try {
-                    objectValues[i] = new SerialBlob((byte[]) objectValues[i]);
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
+    protected IValueConverter getValueConverter(Column column, BinaryEncoding encoding, boolean useVariableDates, boolean fitToColumn) {
+        final IValueConverter converter = super.getValueConverter(column, encoding, useVariableDates, fitToColumn);
+        if (column.getMappedTypeCode() == Types.BLOB) {
+            return new IValueConverter() {
+                public Object convert(String value) throws Exception {
+                    Object objectValue = converter.convert(value);
+                    return objectValue == null ? null : new SerialBlob((byte[]) objectValue);
                 }
-            }
+            };
         }
-        return objectValues;
+        return converter;
     }
 
     @Override
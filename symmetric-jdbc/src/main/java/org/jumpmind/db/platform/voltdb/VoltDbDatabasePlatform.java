@@ -25,13 +25,13 @@ import java.sql.Types;
 
 import javax.sql.DataSource;
 
-import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Hex;
 import org.jumpmind.db.model.Column;
 import org.jumpmind.db.model.Database;
 import org.jumpmind.db.model.Table;
 import org.jumpmind.db.platform.AbstractJdbcDatabasePlatform;
 import org.jumpmind.db.platform.DatabaseNamesConstants;
+import org.jumpmind.db.platform.IValueConverter;
 import org.jumpmind.db.platform.PermissionResult;
 import org.jumpmind.db.platform.PermissionType;
 import org.jumpmind.db.platform.PermissionResult.Status;
@@ -71,15 +71,20 @@ public class VoltDbDatabasePlatform extends AbstractJdbcDatabasePlatform {
     }
 
     @Override
-    protected Object getObjectValue(String value, Column column, BinaryEncoding encoding,
-            boolean useVariableDates, boolean fitToColumn) throws DecoderException {
-        Object objectValue = super.getObjectValue(value, column, encoding, useVariableDates, fitToColumn);
-        if (objectValue instanceof byte[]
-                && (column.getJdbcTypeCode() == Types.VARBINARY
-                        || column.getJdbcTypeCode() == Types.CLOB)) {
-            objectValue = new String(Hex.encodeHex((byte[]) objectValue));
+    protected IValueConverter getValueConverter(Column column, BinaryEncoding encoding, boolean useVariableDates, boolean fitToColumn) {
+        final IValueConverter converter = super.getValueConverter(column, encoding, useVariableDates, fitToColumn);
+        if (column.getJdbcTypeCode() == Types.VARBINARY || column.getJdbcTypeCode() == Types.CLOB) {
+            return new IValueConverter() {
+                public Object convert(String value) throws Exception {
+                    Object objectValue = converter.convert(value);
+                    if (objectValue instanceof byte[]) {
+                        objectValue = new String(Hex.encodeHex((byte[]) objectValue));
+                    }
+                    return objectValue;
+                }
+            };
         }
-        return objectValue;
+        return converter;
     }
 
     @Override
@@ -26,6 +26,9 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 public class JdbcSqlReadCursor<T> implements ISqlReadCursor<T> {
     protected Connection c;
@@ -40,6 +43,9 @@ public class JdbcSqlReadCursor<T> implements ISqlReadCursor<T> {
     protected int rsColumnCount;
     protected IConnectionHandler connectionHandler;
     protected boolean returnLobObjects;
+    protected int[] columnPositions;
+    protected int[] readOrder;
+    protected IndexedRow indexedRow;
 
     public JdbcSqlReadCursor() {
     }
@@ -105,6 +111,7 @@ public class JdbcSqlReadCursor<T> implements ISqlReadCursor<T> {
         }
     }
 
+    @SuppressWarnings("unchecked")
     public T next() {
         try {
             while (rs != null && rs.next()) {
@@ -112,8 +119,20 @@ public class JdbcSqlReadCursor<T> implements ISqlReadCursor<T> {
                     rsMetaData = rs.getMetaData();
                     rsColumnCount = rsMetaData.getColumnCount();
                 }
-                Row row = getMapForRow(rs, rsMetaData, rsColumnCount, sqlTemplate.getSettings().isReadStringsAsBytes(), returnLobObjects);
-                T value = mapper.mapRow(row);
+                T value = null;
+                if (mapper instanceof AbstractIndexedRowMapper) {
+                    AbstractIndexedRowMapper<T> indexedMapper = (AbstractIndexedRowMapper<T>) mapper;
+                    if (indexedRow == null) {
+                        columnPositions = lookupColumnPositions(rsMetaData, rsColumnCount, indexedMapper.getColumnNames());
+                        readOrder = lookupReadOrder(columnPositions);
+                        indexedRow = newIndexedRow(indexedMapper.getColumnNames(), columnPositions);
+                    }
+                    readIndexedRow(rs, rsMetaData, columnPositions, readOrder, indexedRow, sqlTemplate.getSettings().isReadStringsAsBytes(), returnLobObjects);
+                    value = indexedMapper.mapRow(indexedRow);
+                } else {
+                    Row row = getMapForRow(rs, rsMetaData, rsColumnCount, sqlTemplate.getSettings().isReadStringsAsBytes(), returnLobObjects);
+                    value = mapper.mapRow(row);
+                }
                 if (value != null) {
                     return value;
                 }
@@ -137,6 +156,56 @@ public class JdbcSqlReadCursor<T> implements ISqlReadCursor<T> {
         return mapOfColValues;
     }
 
+    /**
+     * Find the result set position of each column name, or 0 if the column is not in the result set
+     */
+    protected static int[] lookupColumnPositions(ResultSetMetaData rsMetaData, int columnCount, String[] columnNames) throws SQLException {
+        Map<String, Integer> positionsByName = new HashMap<String, Integer>(columnCount * 2);
+        for (int i = 1; i <= columnCount; i++) {
+            positionsByName.put(JdbcSqlTemplate.lookupColumnName(rsMetaData, i).toLowerCase(), i);
+        }
+        int[] positions = new int[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++) {
+            Integer position = positionsByName.get(columnNames[i].toLowerCase());
+            positions[i] = position != null ? position : 0;
+        }
+        return positions;
+    }
+
+    protected static IndexedRow newIndexedRow(String[] columnNames, int[] columnPositions) {
+        boolean[] present = new boolean[columnPositions.length];
+        for (int i = 0; i < columnPositions.length; i++) {
+            present[i] = columnPositions[i] > 0;
+        }
+        return new IndexedRow(columnNames, present);
+    }
+
+    /**
+     * The indexes of the columns that are in the result set, sorted by result set position, because some drivers can only read forward through a row
+     */
+    protected static int[] lookupReadOrder(int[] columnPositions) {
+        long[] order = new long[columnPositions.length];
+        int count = 0;
+        for (int i = 0; i < columnPositions.length; i++) {
+            if (columnPositions[i] > 0) {
+                order[count++] = ((long) columnPositions[i] << 32) | i;
+            }
+        }
+        Arrays.sort(order, 0, count);
+        int[] readOrder = new int[count];
+        for (int i = 0; i < count; i++) {
+            readOrder[i] = (int) order[i];
+        }
+        return readOrder;
+    }
+
+    protected static void readIndexedRow(ResultSet rs, ResultSetMetaData rsMetaData, int[] columnPositions, int[] readOrder, IndexedRow row,
+            boolean readStringsAsBytes, boolean returnLobObjects) throws SQLException {
+        for (int index : readOrder) {
+            row.setValue(index, JdbcSqlTemplate.getResultSetValue(rs, rsMetaData, columnPositions[index], readStringsAsBytes, returnLobObjects));
+        }
+    }
+
     public final void close() {
         if (this.connectionHandler != null) {
             this.connectionHandler.after(c);
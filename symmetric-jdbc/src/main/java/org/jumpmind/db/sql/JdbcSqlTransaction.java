@@ -246,6 +246,7 @@ public class JdbcSqlTransaction implements ISqlTransaction {
     public <T> List<T> query(final String sql, final ISqlRowMapper<T> mapper, final Object[] args,
             final int[] types) {
         return executeCallback(new IConnectionCallback<List<T>>() {
+            @SuppressWarnings("unchecked")
             public List<T> execute(Connection c) throws SQLException {
                 PreparedStatement st = null;
                 ResultSet rs = null;
@@ -263,11 +264,23 @@ public class JdbcSqlTransaction implements ISqlTransaction {
                     List<T> list = new ArrayList<T>();
                     ResultSetMetaData rsMetaData = rs.getMetaData();
                     int columnCount = rsMetaData.getColumnCount();
-                    while (rs.next()) {
-                        Row row = JdbcSqlReadCursor.getMapForRow(rs, rsMetaData, columnCount,
-                                jdbcSqlTemplate.getSettings().isReadStringsAsBytes(), false);
-                        T value = mapper.mapRow(row);
-                        list.add(value);
+                    if (mapper instanceof AbstractIndexedRowMapper) {
+                        AbstractIndexedRowMapper<T> indexedMapper = (AbstractIndexedRowMapper<T>) mapper;
+                        int[] columnPositions = JdbcSqlReadCursor.lookupColumnPositions(rsMetaData, columnCount, indexedMapper.getColumnNames());
+                        int[] readOrder = JdbcSqlReadCursor.lookupReadOrder(columnPositions);
+                        IndexedRow row = JdbcSqlReadCursor.newIndexedRow(indexedMapper.getColumnNames(), columnPositions);
+                        while (rs.next()) {
+                            JdbcSqlReadCursor.readIndexedRow(rs, rsMetaData, columnPositions, readOrder, row,
+                                    jdbcSqlTemplate.getSettings().isReadStringsAsBytes(), false);
+                            list.add(indexedMapper.mapRow(row));
+                        }
+                    } else {
+                        while (rs.next()) {
+                            Row row = JdbcSqlReadCursor.getMapForRow(rs, rsMetaData, columnCount,
+                                    jdbcSqlTemplate.getSettings().isReadStringsAsBytes(), false);
+                            T value = mapper.mapRow(row);
+                            list.add(value);
+                        }
                     }
                     return list;
                 } catch (SQLException e) {
@@ -0,0 +1,106 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.db.sql;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.platform.JdbcDatabasePlatformFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+public class JdbcIndexedRowMapperTest {
+
+    static final String SELECT_SQL = "select channel_id, status, node_id, batch_id from test_indexed where batch_id >= ? order by batch_id";
+
+    static final String SELECT_NAMED_SQL = "select channel_id, status, node_id, batch_id from test_indexed where batch_id >= :batch_id order by batch_id";
+
+    /**
+     * Lists the columns in a different order than they are selected and includes one that is not selected
+     */
+    static final AbstractIndexedRowMapper<String> MAPPER = new AbstractIndexedRowMapper<String>("batch_id", "node_id", "missing",
+            "status", "channel_id") {
+        public String mapRow(IndexedRow row) {
+            assertFalse(row.hasColumn(2));
+            return row.getLong(0) + ":" + row.getString(1) + ":" + row.getString(3) + ":" + row.getString(4);
+        }
+    };
+
+    @Test
+    public void testReadCursorMapsByPosition() throws Exception {
+        SingleConnectionDataSource ds = getDataSource("indexedcursor");
+        ISqlTemplate template = createTable(ds);
+        List<String> rows = template.query(SELECT_SQL, MAPPER, 2);
+        assertEquals(Arrays.asList("2:00002:ER:reload", "3:00003:OK:default"), rows);
+        ds.destroy();
+    }
+
+    @Test
+    public void testTransactionMapsByPositionWithPositionalParameters() throws Exception {
+        SingleConnectionDataSource ds = getDataSource("indexedpositional");
+        ISqlTransaction transaction = createTable(ds).startSqlTransaction();
+        try {
+            List<String> rows = transaction.query(SELECT_SQL, MAPPER, new Object[] { 2 }, null);
+            assertEquals(Arrays.asList("2:00002:ER:reload", "3:00003:OK:default"), rows);
+        } finally {
+            transaction.close();
+        }
+        ds.destroy();
+    }
+
+    @Test
+    public void testTransactionMapsByPositionWithNamedParameters() throws Exception {
+        SingleConnectionDataSource ds = getDataSource("indexednamed");
+        ISqlTransaction transaction = createTable(ds).startSqlTransaction();
+        try {
+            Map<String, Object> params = new HashMap<String, Object>();
+            params.put("batch_id", 2);
+            List<String> rows = transaction.query(SELECT_NAMED_SQL, MAPPER, params);
+            assertEquals(Arrays.asList("2:00002:ER:reload", "3:00003:OK:default"), rows);
+        } finally {
+            transaction.close();
+        }
+        ds.destroy();
+    }
+
+    private ISqlTemplate createTable(SingleConnectionDataSource ds) {
+        IDatabasePlatform platform = JdbcDatabasePlatformFactory.getInstance().create(ds, new SqlTemplateSettings(), true, false);
+        ISqlTemplate template = platform.getSqlTemplate();
+        template.update("create table test_indexed (batch_id bigint, node_id varchar(50), channel_id varchar(128), status char(2))");
+        template.update("insert into test_indexed values (1, '00001', 'default', 'OK')");
+        template.update("insert into test_indexed values (2, '00002', 'reload', 'ER')");
+        template.update("insert into test_indexed values (3, '00003', 'default', 'OK')");
+        return template;
+    }
+
+    private SingleConnectionDataSource getDataSource(String name) throws Exception {
+        Class.forName("org.h2.Driver");
+        Connection c = DriverManager.getConnection("jdbc:h2:mem:" + name);
+        return new SingleConnectionDataSource(c, true);
+    }
+}
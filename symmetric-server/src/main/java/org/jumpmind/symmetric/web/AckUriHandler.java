@@ -45,6 +45,10 @@ public class AckUriHandler extends AbstractUriHandler {
             return batchId1.compareTo(batchId2);
         }
     };
+    /**
+     * Acks are saved in chunks of this size, so the client connection can be kept alive between chunks
+     */
+    private static final int ACK_CHUNK_SIZE = 100;
     private IAcknowledgeService acknowledgeService;
     private boolean isStandalone = false;
 
@@ -70,8 +74,8 @@ public class AckUriHandler extends AbstractUriHandler {
         long keepAliveMillis = parameterService.getLong(ParameterConstants.DATA_LOADER_SEND_ACK_KEEPALIVE);
         long ts = System.currentTimeMillis();
         PrintWriter writer = res.getWriter();
-        for (BatchAck batchInfo : batches) {
-            acknowledgeService.ack(batchInfo);
+        for (int i = 0; i < batches.size(); i += ACK_CHUNK_SIZE) {
+            acknowledgeService.ack(batches.subList(i, Math.min(batches.size(), i + ACK_CHUNK_SIZE)));
             if (keepAliveMillis > 0 && System.currentTimeMillis() - ts >= keepAliveMillis) {
                 try {
                     writer.write("1=1&");
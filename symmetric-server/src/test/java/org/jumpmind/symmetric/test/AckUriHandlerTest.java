@@ -30,6 +30,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
@@ -112,7 +113,9 @@ public class AckUriHandlerTest {
         paramMap.put(WebConstants.ACK_BATCH_NAME + BATCH_ID, new String[] { WebConstants.ACK_BATCH_RESEND });
         paramMap.put(WebConstants.ACK_NODE_ID + BATCH_ID, new String[] { NODE_ID });
         IAcknowledgeService ackService = new AcknowledgeService(engine) {
-            public BatchAckResult ack(BatchAck batch) {
+            public List<BatchAckResult> ack(List<BatchAck> batches) {
+                assertEquals(1, batches.size());
+                BatchAck batch = batches.get(0);
                 assertEquals(BATCH_ID, batch.getBatchId());
                 assertEquals(NODE_ID, batch.getNodeId());
                 assertTrue(batch.isResend());
@@ -136,7 +139,9 @@ public class AckUriHandlerTest {
         paramMap.put(WebConstants.ACK_SQL_CODE + BATCH_ID, new String[] { "-911" });
         paramMap.put(WebConstants.ACK_SQL_MESSAGE + BATCH_ID, new String[] { "Lock timeout" });
         IAcknowledgeService ackService = new AcknowledgeService(engine) {
-            public BatchAckResult ack(BatchAck batch) {
+            public List<BatchAckResult> ack(List<BatchAck> batches) {
+                assertEquals(1, batches.size());
+                BatchAck batch = batches.get(0);
                 assertEquals(BATCH_ID, batch.getBatchId());
                 assertEquals(NODE_ID, batch.getNodeId());
                 assertFalse(batch.isResend());
@@ -28,6 +28,7 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -54,6 +55,19 @@ public final class FormatUtils {
     public static final FastDateFormat TIMESTAMP_FORMATTER = FastDateFormat
             .getInstance("yyyy-MM-dd HH:mm:ss.SSS");
     public static final FastDateFormat TIME_FORMATTER = FastDateFormat.getInstance("HH:mm:ss.SSS");
+    /* date parsing state reused by each thread instead of being created for every value */
+    private static final ThreadLocal<SimpleDateFormat> DATE_PARSER = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            return new SimpleDateFormat();
+        }
+    };
+    private static final ThreadLocal<Calendar> DATE_CALENDAR = new ThreadLocal<Calendar>() {
+        @Override
+        protected Calendar initialValue() {
+            return Calendar.getInstance();
+        }
+    };
     /* special characters for wildcard triggers */
     public final static String WILDCARD = "*";
     public final static String WILDCARD_SEPARATOR = ",";
@@ -359,18 +373,27 @@ public final class FormatUtils {
         if (str == null || parsePatterns == null) {
             throw new IllegalArgumentException("Date and Patterns must not be null");
         }
+        if (timeZone == null && (parsePatterns == TIMESTAMP_PATTERNS || parsePatterns == TIME_PATTERNS)) {
+            Date date = parseIsoDate(str, parsePatterns == TIMESTAMP_PATTERNS);
+            if (date != null) {
+                return date;
+            }
+        }
         SimpleDateFormat parser = null;
+        if (timeZone == null) {
+            parser = DATE_PARSER.get();
+            parser.setTimeZone(TimeZone.getDefault());
+        }
         ParsePosition pos = new ParsePosition(0);
         for (int i = 0; i < parsePatterns.length; i++) {
-            if (i == 0) {
+            if (parser == null) {
                 parser = new SimpleDateFormat(parsePatterns[0]);
-                if (timeZone != null) {
-                    parser.setTimeZone(timeZone);
-                }
+                parser.setTimeZone(timeZone);
             } else {
                 parser.applyPattern(parsePatterns[i]);
             }
             pos.setIndex(0);
+            pos.setErrorIndex(-1);
             Date date = parser.parse(str, pos);
             if (date != null && pos.getIndex() == str.length()) {
                 return date;
@@ -384,6 +407,76 @@ public final class FormatUtils {
         throw new ParseException("Unable to parse the date: " + str);
     }
 
+    /**
+     * Parses the common yyyy-MM-dd HH:mm:ss.S, yyyy-MM-dd HH:mm:ss, yyyy-MM-dd, HH:mm:ss.S and HH:mm:ss forms directly into a calendar that is reused by
+     * the thread, giving the same date as the first of the {@link #TIMESTAMP_PATTERNS} or {@link #TIME_PATTERNS} that matches. As with those patterns, the
+     * fraction is read as a number of milliseconds.
+     *
+     * @return the date, or null if the value has some other form
+     */
+    protected static Date parseIsoDate(String str, boolean dateOnlyAllowed) {
+        int length = str.length();
+        int year = 1970, month = 1, day = 1, time = 0;
+        if (length >= 10 && str.charAt(4) == '-' && str.charAt(7) == '-') {
+            year = parseDigits(str, 0, 4);
+            month = parseDigits(str, 5, 7);
+            day = parseDigits(str, 8, 10);
+            if (year < 0 || month < 0 || day < 0) {
+                return null;
+            }
+            if (length == 10) {
+                if (!dateOnlyAllowed) {
+                    return null;
+                }
+            } else if (str.charAt(10) == ' ') {
+                time = 11;
+            } else {
+                return null;
+            }
+        }
+        int hour = 0, minute = 0, second = 0, millis = 0;
+        if (time > 0 || length < 10 || str.charAt(2) == ':') {
+            if (length < time + 8 || str.charAt(time + 2) != ':' || str.charAt(time + 5) != ':') {
+                return null;
+            }
+            hour = parseDigits(str, time, time + 2);
+            minute = parseDigits(str, time + 3, time + 5);
+            second = parseDigits(str, time + 6, time + 8);
+            if (hour < 0 || minute < 0 || second < 0) {
+                return null;
+            }
+            if (length > time + 8) {
+                if (str.charAt(time + 8) != '.' || length == time + 9 || length > time + 18) {
+                    return null;
+                }
+                millis = parseDigits(str, time + 9, length);
+                if (millis < 0) {
+                    return null;
+                }
+            }
+        } else if (length != 10) {
+            return null;
+        }
+        Calendar calendar = DATE_CALENDAR.get();
+        calendar.setTimeZone(TimeZone.getDefault());
+        calendar.clear();
+        calendar.set(year, month - 1, day, hour, minute, second);
+        calendar.set(Calendar.MILLISECOND, millis);
+        return calendar.getTime();
+    }
+
+    private static int parseDigits(String str, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = str.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
     public static Timestamp parseTimestampWithTimezone(String str) {
         return parseTimestampWithTimezone(str, TIMESTAMP_WITH_TIMEZONE_PATTERNS);
     }
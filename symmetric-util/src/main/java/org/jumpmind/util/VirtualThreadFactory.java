@@ -0,0 +1,64 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates virtual threads when the runtime is Java 21 or later. The virtual thread API is called by reflection so the code still compiles and runs on
+ * older runtimes, where {@link #isSupported()} is false.
+ */
+public class VirtualThreadFactory implements ThreadFactory {
+    private static final ThreadFactory UNNAMED_FACTORY = lookupFactory();
+    AtomicInteger threadNumber = new AtomicInteger(1);
+    String namePrefix;
+
+    public VirtualThreadFactory(String namePrefix) {
+        if (UNNAMED_FACTORY == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        }
+        this.namePrefix = namePrefix;
+    }
+
+    public static boolean isSupported() {
+        return UNNAMED_FACTORY != null;
+    }
+
+    public Thread newThread(Runnable runnable) {
+        Thread thread = UNNAMED_FACTORY.newThread(runnable);
+        if (thread != null) {
+            thread.setName(namePrefix + threadNumber.getAndIncrement());
+        }
+        return thread;
+    }
+
+    private static ThreadFactory lookupFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -20,10 +20,15 @@
  */
 package org.jumpmind.util;
 
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.Assert.*;
+
+import org.jumpmind.exception.ParseException;
 import org.junit.jupiter.api.Test;
 
 public class FormatUtilsTest {
@@ -70,4 +75,33 @@ public class FormatUtilsTest {
         assertFalse(FormatUtils.isWildCardMatch("TEST_NO_MATCH", "TEST_*,!TEST_NO_MATCH"));
         assertTrue(FormatUtils.isWildCardMatch("A_B", "A*B"));
     }
+
+    @Test
+    public void testParseDateMatchesPatterns() throws Exception {
+        String[] values = { "2024-02-29 13:45:07.5", "2024-02-29 13:45:07.123", "2024-02-29 13:45:07.123456", "2024-02-29 13:45:07",
+                "2024-02-29", "2023-13-45 25:61:61", "0001-01-01 00:00:00.0", "13:45:07", "13:45:07.250", "2024-02-29 13:45" };
+        String[][] patternSets = { FormatUtils.TIMESTAMP_PATTERNS, FormatUtils.TIME_PATTERNS };
+        for (String[] patterns : patternSets) {
+            for (String value : values) {
+                Date expected = null;
+                for (String pattern : patterns) {
+                    ParsePosition pos = new ParsePosition(0);
+                    Date date = new SimpleDateFormat(pattern).parse(value, pos);
+                    if (date != null && pos.getIndex() == value.length()) {
+                        expected = date;
+                        break;
+                    }
+                }
+                if (expected == null) {
+                    try {
+                        FormatUtils.parseDate(value, patterns);
+                        fail("Expected " + value + " to fail");
+                    } catch (ParseException ex) {
+                    }
+                } else {
+                    assertEquals(value, expected, FormatUtils.parseDate(value, patterns));
+                }
+            }
+        }
+    }
 }